@@ -1,5 +1,8 @@
 package com.anthonylldev.streaming.config;
 
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,7 +13,711 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Storage storage = new Storage();
+
+    private final Cover cover = new Cover();
+
+    private final Media media = new Media();
+
+    private final Views views = new Views();
+
+    private final PlaybackEvents playbackEvents = new PlaybackEvents();
+
+    private final WatchProgress watchProgress = new WatchProgress();
+
+    private final Trending trending = new Trending();
+
+    private final Audience audience = new Audience();
+
+    private final Rollups rollups = new Rollups();
+
+    private final Search search = new Search();
+
+    private final Suggest suggest = new Suggest();
+
+    private final Count count = new Count();
+
+    private final Facets facets = new Facets();
+
+    private final Catalog catalog = new Catalog();
+
     // jhipster-needle-application-properties-property
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public Cover getCover() {
+        return cover;
+    }
+
+    public Media getMedia() {
+        return media;
+    }
+
+    public Views getViews() {
+        return views;
+    }
+
+    public PlaybackEvents getPlaybackEvents() {
+        return playbackEvents;
+    }
+
+    public WatchProgress getWatchProgress() {
+        return watchProgress;
+    }
+
+    public Trending getTrending() {
+        return trending;
+    }
+
+    public Audience getAudience() {
+        return audience;
+    }
+
+    public Rollups getRollups() {
+        return rollups;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Suggest getSuggest() {
+        return suggest;
+    }
+
+    public Count getCount() {
+        return count;
+    }
+
+    public Facets getFacets() {
+        return facets;
+    }
+
+    public Catalog getCatalog() {
+        return catalog;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class Storage {
+
+        private String blobDirectory = Paths.get("data", "blobs").toString();
+
+        public String getBlobDirectory() {
+            return blobDirectory;
+        }
+
+        public void setBlobDirectory(String blobDirectory) {
+            this.blobDirectory = blobDirectory;
+        }
+    }
+
+    public static class Cover {
+
+        private final Rendition rendition = new Rendition();
+
+        public Rendition getRendition() {
+            return rendition;
+        }
+
+        public static class Rendition {
+
+            private List<Integer> widths = new ArrayList<>(List.of(160, 320, 640));
+
+            private long memoryCacheSize = 32L * 1024 * 1024;
+
+            private long diskCacheSize = 512L * 1024 * 1024;
+
+            private String cacheDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "streaming", "renditions").toString();
+
+            public List<Integer> getWidths() {
+                return widths;
+            }
+
+            public void setWidths(List<Integer> widths) {
+                this.widths = widths;
+            }
+
+            public long getMemoryCacheSize() {
+                return memoryCacheSize;
+            }
+
+            public void setMemoryCacheSize(long memoryCacheSize) {
+                this.memoryCacheSize = memoryCacheSize;
+            }
+
+            public long getDiskCacheSize() {
+                return diskCacheSize;
+            }
+
+            public void setDiskCacheSize(long diskCacheSize) {
+                this.diskCacheSize = diskCacheSize;
+            }
+
+            public String getCacheDirectory() {
+                return cacheDirectory;
+            }
+
+            public void setCacheDirectory(String cacheDirectory) {
+                this.cacheDirectory = cacheDirectory;
+            }
+        }
+    }
+
+    public static class Media {
+
+        private String directory = Paths.get("data", "media").toString();
+
+        private final Hls hls = new Hls();
+
+        private final ReadAhead readAhead = new ReadAhead();
+
+        private final SignedUrl signedUrl = new SignedUrl();
+
+        private final Bandwidth bandwidth = new Bandwidth();
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public Hls getHls() {
+            return hls;
+        }
+
+        public ReadAhead getReadAhead() {
+            return readAhead;
+        }
+
+        public SignedUrl getSignedUrl() {
+            return signedUrl;
+        }
+
+        public Bandwidth getBandwidth() {
+            return bandwidth;
+        }
+
+        public static class Hls {
+
+            private int targetDuration = 6;
+
+            private long indexCacheSize = 16L * 1024 * 1024;
+
+            public int getTargetDuration() {
+                return targetDuration;
+            }
+
+            public void setTargetDuration(int targetDuration) {
+                this.targetDuration = targetDuration;
+            }
+
+            public long getIndexCacheSize() {
+                return indexCacheSize;
+            }
+
+            public void setIndexCacheSize(long indexCacheSize) {
+                this.indexCacheSize = indexCacheSize;
+            }
+        }
+
+        public static class ReadAhead {
+
+            private boolean enabled = true;
+
+            private int blockSize = 1024 * 1024;
+
+            private long poolSize = 64L * 1024 * 1024;
+
+            private int segments = 3;
+
+            private long maximumReadAhead = 32L * 1024 * 1024;
+
+            private int maximumSessions = 10_000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getBlockSize() {
+                return blockSize;
+            }
+
+            public void setBlockSize(int blockSize) {
+                this.blockSize = blockSize;
+            }
+
+            public long getPoolSize() {
+                return poolSize;
+            }
+
+            public void setPoolSize(long poolSize) {
+                this.poolSize = poolSize;
+            }
+
+            public int getSegments() {
+                return segments;
+            }
+
+            public void setSegments(int segments) {
+                this.segments = segments;
+            }
+
+            public long getMaximumReadAhead() {
+                return maximumReadAhead;
+            }
+
+            public void setMaximumReadAhead(long maximumReadAhead) {
+                this.maximumReadAhead = maximumReadAhead;
+            }
+
+            public int getMaximumSessions() {
+                return maximumSessions;
+            }
+
+            public void setMaximumSessions(int maximumSessions) {
+                this.maximumSessions = maximumSessions;
+            }
+        }
+
+        public static class SignedUrl {
+
+            private long validityInSeconds = 4 * 60 * 60;
+
+            public long getValidityInSeconds() {
+                return validityInSeconds;
+            }
+
+            public void setValidityInSeconds(long validityInSeconds) {
+                this.validityInSeconds = validityInSeconds;
+            }
+        }
+
+        public static class Bandwidth {
+
+            private long userBytesPerSecond = 3L * 1024 * 1024;
+
+            private long userBurst = 8L * 1024 * 1024;
+
+            private long globalBytesPerSecond = 125_000_000;
+
+            private long globalBurst = 16L * 1024 * 1024;
+
+            private int maximumStreams = 4;
+
+            private long leaseDuration = 30;
+
+            public long getUserBytesPerSecond() {
+                return userBytesPerSecond;
+            }
+
+            public void setUserBytesPerSecond(long userBytesPerSecond) {
+                this.userBytesPerSecond = userBytesPerSecond;
+            }
+
+            public long getUserBurst() {
+                return userBurst;
+            }
+
+            public void setUserBurst(long userBurst) {
+                this.userBurst = userBurst;
+            }
+
+            public long getGlobalBytesPerSecond() {
+                return globalBytesPerSecond;
+            }
+
+            public void setGlobalBytesPerSecond(long globalBytesPerSecond) {
+                this.globalBytesPerSecond = globalBytesPerSecond;
+            }
+
+            public long getGlobalBurst() {
+                return globalBurst;
+            }
+
+            public void setGlobalBurst(long globalBurst) {
+                this.globalBurst = globalBurst;
+            }
+
+            public int getMaximumStreams() {
+                return maximumStreams;
+            }
+
+            public void setMaximumStreams(int maximumStreams) {
+                this.maximumStreams = maximumStreams;
+            }
+
+            public long getLeaseDuration() {
+                return leaseDuration;
+            }
+
+            public void setLeaseDuration(long leaseDuration) {
+                this.leaseDuration = leaseDuration;
+            }
+        }
+    }
+
+    public static class Views {
+
+        private long flushInterval = 5000;
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+    }
+
+    public static class PlaybackEvents {
+
+        private int bufferSize = 65536;
+
+        private int batchSize = 1000;
+
+        private Overflow overflow = Overflow.REJECT;
+
+        private int retries = 3;
+
+        private long retryBackoff = 500;
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Overflow getOverflow() {
+            return overflow;
+        }
+
+        public void setOverflow(Overflow overflow) {
+            this.overflow = overflow;
+        }
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public void setRetries(int retries) {
+            this.retries = retries;
+        }
+
+        public long getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(long retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public enum Overflow {
+            /**
+             * Reject the events with a {@code 503 (Service Unavailable)}, so that players retry them later.
+             */
+            REJECT,
+            /**
+             * Accept and drop the events.
+             */
+            DROP,
+        }
+    }
+
+    public static class WatchProgress {
+
+        private long flushInterval = 5000;
+
+        private int maximumUsers = 10000;
+
+        private int continueWatchingSize = 20;
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getMaximumUsers() {
+            return maximumUsers;
+        }
+
+        public void setMaximumUsers(int maximumUsers) {
+            this.maximumUsers = maximumUsers;
+        }
+
+        public int getContinueWatchingSize() {
+            return continueWatchingSize;
+        }
+
+        public void setContinueWatchingSize(int continueWatchingSize) {
+            this.continueWatchingSize = continueWatchingSize;
+        }
+    }
+
+    public static class Trending {
+
+        private int size = 20;
+
+        private int candidates = 100;
+
+        private int sketchWidth = 1024;
+
+        private int sketchDepth = 4;
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+
+        public int getCandidates() {
+            return candidates;
+        }
+
+        public void setCandidates(int candidates) {
+            this.candidates = candidates;
+        }
+
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        public int getSketchDepth() {
+            return sketchDepth;
+        }
+
+        public void setSketchDepth(int sketchDepth) {
+            this.sketchDepth = sketchDepth;
+        }
+    }
+
+    public static class Audience {
+
+        private long flushInterval = 10000;
+
+        private int precision = 12;
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getPrecision() {
+            return precision;
+        }
+
+        public void setPrecision(int precision) {
+            this.precision = precision;
+        }
+    }
+
+    public static class Rollups {
+
+        private long interval = 10000;
+
+        private int batchSize = 10000;
+
+        private long gapTimeout = 60000;
+
+        private int maximumPoints = 1000;
+
+        public long getInterval() {
+            return interval;
+        }
+
+        public void setInterval(long interval) {
+            this.interval = interval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getGapTimeout() {
+            return gapTimeout;
+        }
+
+        public void setGapTimeout(long gapTimeout) {
+            this.gapTimeout = gapTimeout;
+        }
+
+        public int getMaximumPoints() {
+            return maximumPoints;
+        }
+
+        public void setMaximumPoints(int maximumPoints) {
+            this.maximumPoints = maximumPoints;
+        }
+    }
+
+    public static class Search {
+
+        private int batchSize = 1000;
+
+        private long refreshInterval = 600000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(long refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    public static class Suggest {
+
+        private int maximumSuggestions = 10;
+
+        private long refreshInterval = 300000;
+
+        public int getMaximumSuggestions() {
+            return maximumSuggestions;
+        }
+
+        public void setMaximumSuggestions(int maximumSuggestions) {
+            this.maximumSuggestions = maximumSuggestions;
+        }
+
+        public long getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(long refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    public static class Count {
+
+        private int maximumEntries = 10000;
+
+        private int maximumPages = 10000;
+
+        private long timeToLive = 60000;
+
+        public int getMaximumEntries() {
+            return maximumEntries;
+        }
+
+        public void setMaximumEntries(int maximumEntries) {
+            this.maximumEntries = maximumEntries;
+        }
+
+        public int getMaximumPages() {
+            return maximumPages;
+        }
+
+        public void setMaximumPages(int maximumPages) {
+            this.maximumPages = maximumPages;
+        }
+
+        public long getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(long timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class Facets {
+
+        private int batchSize = 1000;
+
+        private long refreshInterval = 600000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(long refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    public static class Catalog {
+
+        private boolean enabled = true;
+
+        private int batchSize = 1000;
+
+        private long refreshInterval = 60000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(long refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
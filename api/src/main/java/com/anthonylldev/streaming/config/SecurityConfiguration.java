@@ -2,12 +2,17 @@ package com.anthonylldev.streaming.config;
 
 import com.anthonylldev.streaming.security.*;
 import com.anthonylldev.streaming.security.jwt.*;
+import com.anthonylldev.streaming.security.stream.StreamUrlFilter;
+import com.anthonylldev.streaming.security.stream.StreamUrlSigner;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -46,6 +51,21 @@ public class SecurityConfiguration {
         return new BCryptPasswordEncoder();
     }
 
+    @Bean
+    public FilterRegistrationBean<StreamUrlFilter> streamUrlFilter(StreamUrlSigner streamUrlSigner) {
+        FilterRegistrationBean<StreamUrlFilter> registration = new FilterRegistrationBean<>(new StreamUrlFilter(streamUrlSigner));
+        registration.addUrlPatterns(StreamUrlFilter.SIGNED_URL_PREFIX + "*");
+        // Ahead of the Spring Security filter chain
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    public WebSecurityCustomizer webSecurityCustomizer() {
+        // Signed stream URLs are verified by the StreamUrlFilter, media requests through them skip the filter chain
+        return web -> web.ignoring().requestMatchers(StreamUrlFilter::isVerified);
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         // @formatter:off
@@ -69,6 +89,9 @@ public class SecurityConfiguration {
             .antMatchers("/api/activate").permitAll()
             .antMatchers("/api/account/reset-password/init").permitAll()
             .antMatchers("/api/account/reset-password/finish").permitAll()
+            // Covers are public artwork fetched by <img> tags, which cannot send a bearer token
+            .antMatchers(HttpMethod.GET, "/api/films/*/cover").permitAll()
+            .antMatchers(HttpMethod.GET, "/api/people/*/cover").permitAll()
             .antMatchers("/api/admin/**").hasAuthority(AuthoritiesConstants.ADMIN)
             .antMatchers("/api/**").authenticated()
             .antMatchers("/management/health").permitAll()
@@ -0,0 +1,70 @@
+package com.anthonylldev.streaming.config;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Register the PostgreSQL functions of the text search filters with Hibernate, so that criteria queries can call them.
+ * <p>
+ * Their expressions are those of the full-text and trigram indexes of the searchable texts, so that the planner matches
+ * them with the indexes.
+ */
+@Configuration
+public class TextSearchConfiguration {
+
+    /**
+     * Whether a text contains all the words of a query.
+     */
+    public static final String TEXT_SEARCH_MATCH = "text_search_match";
+
+    /**
+     * How often a text contains the words of a query.
+     */
+    public static final String TEXT_SEARCH_RANK = "text_search_rank";
+
+    /**
+     * Whether a text is similar to a query, sharing enough of its trigrams.
+     */
+    public static final String TRIGRAM_MATCH = "trigram_match";
+
+    /**
+     * How similar a text is to a query, from 0 to 1.
+     */
+    public static final String TRIGRAM_SIMILARITY = "trigram_similarity";
+
+    private static final String TEXT_SEARCH_VECTOR = "to_tsvector('simple', coalesce(?1, ''))";
+
+    private static final String TEXT_SEARCH_QUERY = "plainto_tsquery('simple', ?2)";
+
+    @Bean
+    public HibernatePropertiesCustomizer textSearchFunctionsCustomizer() {
+        return properties ->
+            properties.put(
+                EntityManagerFactoryBuilderImpl.METADATA_BUILDER_CONTRIBUTOR,
+                (MetadataBuilderContributor) TextSearchConfiguration::registerFunctions
+            );
+    }
+
+    private static void registerFunctions(MetadataBuilder metadataBuilder) {
+        metadataBuilder.applySqlFunction(
+            TEXT_SEARCH_MATCH,
+            new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN, "(" + TEXT_SEARCH_VECTOR + " @@ " + TEXT_SEARCH_QUERY + ")")
+        );
+        metadataBuilder.applySqlFunction(
+            TEXT_SEARCH_RANK,
+            new SQLFunctionTemplate(StandardBasicTypes.DOUBLE, "ts_rank(" + TEXT_SEARCH_VECTOR + ", " + TEXT_SEARCH_QUERY + ")")
+        );
+        // Upper-cased like the texts compared by the contains filters, sharing their indexes; trigrams ignore the case anyway
+        metadataBuilder.applySqlFunction(TRIGRAM_MATCH, new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN, "(upper(?1) % upper(?2))"));
+        metadataBuilder.applySqlFunction(
+            TRIGRAM_SIMILARITY,
+            new SQLFunctionTemplate(StandardBasicTypes.DOUBLE, "similarity(upper(?1), upper(?2))")
+        );
+    }
+}
@@ -0,0 +1,30 @@
+package com.anthonylldev.streaming.config;
+
+import com.anthonylldev.streaming.web.rest.util.ZeroCopyResourceHttpMessageConverter;
+import com.anthonylldev.streaming.web.rest.util.ZeroCopyResourceRegionHttpMessageConverter;
+import java.util.List;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configure the converters of {@link org.springframework.core.io.Resource} responses to send files zero-copy.
+ */
+@Configuration
+public class ZeroCopyConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> {
+            if (converter instanceof ResourceRegionHttpMessageConverter) {
+                return new ZeroCopyResourceRegionHttpMessageConverter();
+            }
+            if (converter instanceof ResourceHttpMessageConverter) {
+                return new ZeroCopyResourceHttpMessageConverter();
+            }
+            return converter;
+        });
+    }
+}
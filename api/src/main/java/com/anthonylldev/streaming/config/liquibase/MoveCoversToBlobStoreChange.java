@@ -0,0 +1,85 @@
+package com.anthonylldev.streaming.config.liquibase;
+
+import com.anthonylldev.streaming.service.BlobStore;
+import com.anthonylldev.streaming.service.impl.FileSystemBlobStore;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+/**
+ * Liquibase change copying the covers stored in the {@code cover} column of a table into the {@link BlobStore},
+ * and setting their {@code cover_hash}.
+ * <p>
+ * The blob store directory is given by the {@code blobDirectory} changelog parameter, set by
+ * {@link com.anthonylldev.streaming.config.LiquibaseConfiguration}.
+ */
+public class MoveCoversToBlobStoreChange implements CustomTaskChange {
+
+    private String tableName;
+
+    private String directory;
+
+    private int moved;
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        BlobStore blobStore = new FileSystemBlobStore(Paths.get(directory));
+        JdbcConnection connection = (JdbcConnection) database.getConnection();
+        try (
+            Statement select = connection.createStatement();
+            ResultSet covers = select.executeQuery("select id, cover from " + tableName + " where cover is not null");
+            PreparedStatement update = connection.prepareStatement("update " + tableName + " set cover_hash = ? where id = ?")
+        ) {
+            while (covers.next()) {
+                try (InputStream cover = covers.getBinaryStream("cover")) {
+                    update.setString(1, blobStore.save(cover));
+                }
+                update.setLong(2, covers.getLong("id"));
+                update.addBatch();
+                moved++;
+            }
+            update.executeBatch();
+        } catch (DatabaseException | SQLException | IOException e) {
+            throw new CustomChangeException("Covers of " + tableName + " could not be moved to " + directory, e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return moved + " covers of " + tableName + " moved to " + directory;
+    }
+
+    @Override
+    public void setUp() throws SetupException {}
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {}
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        errors.checkRequiredField("tableName", tableName);
+        errors.checkRequiredField("directory", directory);
+        return errors;
+    }
+}
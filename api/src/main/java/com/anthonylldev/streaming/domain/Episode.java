@@ -35,6 +35,9 @@ public class Episode implements Serializable {
     @Column(name = "jhi_order")
     private Integer order;
 
+    @Column(name = "url")
+    private String url;
+
     @ManyToOne
     @JsonIgnoreProperties(value = { "people", "episodes" }, allowSetters = true)
     private Film film;
@@ -93,6 +96,19 @@ public class Episode implements Serializable {
         this.order = order;
     }
 
+    public String getUrl() {
+        return this.url;
+    }
+
+    public Episode url(String url) {
+        this.setUrl(url);
+        return this;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
     public Film getFilm() {
         return this.film;
     }
@@ -133,6 +149,7 @@ public class Episode implements Serializable {
             ", title='" + getTitle() + "'" +
             ", synopsis='" + getSynopsis() + "'" +
             ", order=" + getOrder() +
+            ", url='" + getUrl() + "'" +
             "}";
     }
 }
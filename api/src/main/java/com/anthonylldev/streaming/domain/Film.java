@@ -11,6 +11,8 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Generated;
+import org.hibernate.annotations.GenerationTime;
 
 /**
  * A Film.
@@ -37,20 +39,40 @@ public class Film implements Serializable {
     @Column(name = "synopsis")
     private String synopsis;
 
+    /**
+     * The views and the reviews are only incremented by {@link com.anthonylldev.streaming.service.FilmViewService} and
+     * {@link com.anthonylldev.streaming.service.FilmReviewService}, so that updating the film never overwrites them.
+     */
     @Min(value = 0)
-    @Column(name = "views")
+    @Column(name = "views", updatable = false)
     private Integer views;
 
-    @Lob
-    @Column(name = "cover")
-    private byte[] cover;
-
     @Column(name = "cover_content_type")
     private String coverContentType;
 
-    @Column(name = "reviews")
+    @Size(max = 64)
+    @Column(name = "cover_hash", length = 64)
+    private String coverHash;
+
+    @Column(name = "reviews", updatable = false)
     private Long reviews;
 
+    /**
+     * The rating aggregates are only written by {@link com.anthonylldev.streaming.service.FilmReviewService}, along with
+     * the reviews, and read back after each write of the film.
+     */
+    @Generated(GenerationTime.ALWAYS)
+    @Column(name = "rating_count", insertable = false, updatable = false)
+    private Long ratingCount;
+
+    @Generated(GenerationTime.ALWAYS)
+    @Column(name = "rating_sum", insertable = false, updatable = false)
+    private Long ratingSum;
+
+    @Generated(GenerationTime.ALWAYS)
+    @Column(name = "rating_score", insertable = false, updatable = false)
+    private Double ratingScore;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "gender")
     private Gender gender;
@@ -140,30 +162,30 @@ public class Film implements Serializable {
         this.views = views;
     }
 
-    public byte[] getCover() {
-        return this.cover;
+    public String getCoverContentType() {
+        return this.coverContentType;
     }
 
-    public Film cover(byte[] cover) {
-        this.setCover(cover);
+    public Film coverContentType(String coverContentType) {
+        this.coverContentType = coverContentType;
         return this;
     }
 
-    public void setCover(byte[] cover) {
-        this.cover = cover;
+    public void setCoverContentType(String coverContentType) {
+        this.coverContentType = coverContentType;
     }
 
-    public String getCoverContentType() {
-        return this.coverContentType;
+    public String getCoverHash() {
+        return this.coverHash;
     }
 
-    public Film coverContentType(String coverContentType) {
-        this.coverContentType = coverContentType;
+    public Film coverHash(String coverHash) {
+        this.setCoverHash(coverHash);
         return this;
     }
 
-    public void setCoverContentType(String coverContentType) {
-        this.coverContentType = coverContentType;
+    public void setCoverHash(String coverHash) {
+        this.coverHash = coverHash;
     }
 
     public Long getReviews() {
@@ -179,6 +201,18 @@ public class Film implements Serializable {
         this.reviews = reviews;
     }
 
+    public Long getRatingCount() {
+        return this.ratingCount;
+    }
+
+    public Long getRatingSum() {
+        return this.ratingSum;
+    }
+
+    public Double getRatingScore() {
+        return this.ratingScore;
+    }
+
     public Gender getGender() {
         return this.gender;
     }
@@ -340,9 +374,11 @@ public class Film implements Serializable {
             ", title='" + getTitle() + "'" +
             ", synopsis='" + getSynopsis() + "'" +
             ", views=" + getViews() +
-            ", cover='" + getCover() + "'" +
             ", coverContentType='" + getCoverContentType() + "'" +
+            ", coverHash='" + getCoverHash() + "'" +
             ", reviews=" + getReviews() +
+            ", ratingCount=" + getRatingCount() +
+            ", ratingScore=" + getRatingScore() +
             ", gender='" + getGender() + "'" +
             ", filmType='" + getFilmType() + "'" +
             ", order=" + getOrder() +
@@ -31,13 +31,13 @@ public class Person implements Serializable {
     @Column(name = "name", nullable = false)
     private String name;
 
-    @Lob
-    @Column(name = "cover")
-    private byte[] cover;
-
     @Column(name = "cover_content_type")
     private String coverContentType;
 
+    @Size(max = 64)
+    @Column(name = "cover_hash", length = 64)
+    private String coverHash;
+
     @ManyToMany(mappedBy = "people")
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "people", "episodes" }, allowSetters = true)
@@ -71,30 +71,30 @@ public class Person implements Serializable {
         this.name = name;
     }
 
-    public byte[] getCover() {
-        return this.cover;
+    public String getCoverContentType() {
+        return this.coverContentType;
     }
 
-    public Person cover(byte[] cover) {
-        this.setCover(cover);
+    public Person coverContentType(String coverContentType) {
+        this.coverContentType = coverContentType;
         return this;
     }
 
-    public void setCover(byte[] cover) {
-        this.cover = cover;
+    public void setCoverContentType(String coverContentType) {
+        this.coverContentType = coverContentType;
     }
 
-    public String getCoverContentType() {
-        return this.coverContentType;
+    public String getCoverHash() {
+        return this.coverHash;
     }
 
-    public Person coverContentType(String coverContentType) {
-        this.coverContentType = coverContentType;
+    public Person coverHash(String coverHash) {
+        this.setCoverHash(coverHash);
         return this;
     }
 
-    public void setCoverContentType(String coverContentType) {
-        this.coverContentType = coverContentType;
+    public void setCoverHash(String coverHash) {
+        this.coverHash = coverHash;
     }
 
     public Set<Film> getFilms() {
@@ -153,8 +153,8 @@ public class Person implements Serializable {
         return "Person{" +
             "id=" + getId() +
             ", name='" + getName() + "'" +
-            ", cover='" + getCover() + "'" +
             ", coverContentType='" + getCoverContentType() + "'" +
+            ", coverHash='" + getCoverHash() + "'" +
             "}";
     }
 }
@@ -0,0 +1,12 @@
+package com.anthonylldev.streaming.domain.enumeration;
+
+/**
+ * The PlaybackEventType enumeration.
+ */
+public enum PlaybackEventType {
+    START,
+    HEARTBEAT,
+    PROGRESS,
+    STOP,
+    BUFFERING,
+}
@@ -0,0 +1,97 @@
+package com.anthonylldev.streaming.management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Service;
+
+@Service
+public class MediaReadAheadMetersService {
+
+    public static final String REQUESTS_METER_NAME = "media.read-ahead.requests";
+    public static final String REQUESTS_METER_DESCRIPTION =
+        "Indicates the number of media blocks served, from memory (hit) or from disk (miss).";
+    public static final String REQUESTS_METER_BASE_UNIT = "blocks";
+    public static final String REQUESTS_METER_RESULT_DIMENSION = "result";
+
+    public static final String HIT_RATIO_METER_NAME = "media.read-ahead.hit-ratio";
+    public static final String HIT_RATIO_METER_DESCRIPTION = "Indicates the ratio of media blocks served from memory.";
+
+    public static final String BYTES_SAVED_METER_NAME = "media.read-ahead.saved";
+    public static final String BYTES_SAVED_METER_DESCRIPTION =
+        "Indicates the number of media bytes served from memory instead of disk.";
+
+    public static final String BYTES_PREFETCHED_METER_NAME = "media.read-ahead.prefetched";
+    public static final String BYTES_PREFETCHED_METER_DESCRIPTION = "Indicates the number of media bytes read ahead from disk.";
+
+    public static final String POOL_USED_METER_NAME = "media.read-ahead.pool.used";
+    public static final String POOL_USED_METER_DESCRIPTION = "Indicates the number of off-heap bytes holding media blocks.";
+
+    public static final String BYTES_BASE_UNIT = "bytes";
+
+    private final MeterRegistry registry;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter bytesSavedCounter;
+    private final Counter bytesPrefetchedCounter;
+
+    public MediaReadAheadMetersService(MeterRegistry registry) {
+        this.registry = registry;
+        this.hitCounter = requestsCounterForResultBuilder("hit").register(registry);
+        this.missCounter = requestsCounterForResultBuilder("miss").register(registry);
+        this.bytesSavedCounter =
+            Counter.builder(BYTES_SAVED_METER_NAME).baseUnit(BYTES_BASE_UNIT).description(BYTES_SAVED_METER_DESCRIPTION).register(registry);
+        this.bytesPrefetchedCounter =
+            Counter
+                .builder(BYTES_PREFETCHED_METER_NAME)
+                .baseUnit(BYTES_BASE_UNIT)
+                .description(BYTES_PREFETCHED_METER_DESCRIPTION)
+                .register(registry);
+        Gauge
+            .builder(HIT_RATIO_METER_NAME, this, MediaReadAheadMetersService::hitRatio)
+            .description(HIT_RATIO_METER_DESCRIPTION)
+            .register(registry);
+    }
+
+    private Counter.Builder requestsCounterForResultBuilder(String result) {
+        return Counter
+            .builder(REQUESTS_METER_NAME)
+            .baseUnit(REQUESTS_METER_BASE_UNIT)
+            .description(REQUESTS_METER_DESCRIPTION)
+            .tag(REQUESTS_METER_RESULT_DIMENSION, result);
+    }
+
+    /**
+     * Register the gauge of the off-heap bytes in use.
+     *
+     * @param usedBytes the supplier of the number of bytes in use.
+     */
+    public void registerPoolUsed(Supplier<Number> usedBytes) {
+        Gauge
+            .builder(POOL_USED_METER_NAME, usedBytes)
+            .baseUnit(BYTES_BASE_UNIT)
+            .description(POOL_USED_METER_DESCRIPTION)
+            .register(registry);
+    }
+
+    public void trackHit(long bytes) {
+        this.hitCounter.increment();
+        this.bytesSavedCounter.increment(bytes);
+    }
+
+    public void trackMiss() {
+        this.missCounter.increment();
+    }
+
+    public void trackPrefetch(long bytes) {
+        this.bytesPrefetchedCounter.increment(bytes);
+    }
+
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0 : hits / total;
+    }
+}
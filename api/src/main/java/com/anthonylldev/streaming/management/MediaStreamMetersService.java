@@ -0,0 +1,61 @@
+package com.anthonylldev.streaming.management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Service;
+
+@Service
+public class MediaStreamMetersService {
+
+    public static final String ACTIVE_STREAMS_METER_NAME = "media.streams.active";
+    public static final String ACTIVE_STREAMS_METER_DESCRIPTION = "Indicates the number of media streams holding a lease.";
+
+    public static final String THROTTLED_STREAMS_METER_NAME = "media.streams.throttled";
+    public static final String THROTTLED_STREAMS_METER_DESCRIPTION =
+        "Indicates the number of media streams waiting for their user or the global bandwidth budget.";
+
+    public static final String REJECTED_STREAMS_METER_NAME = "media.streams.rejected";
+    public static final String REJECTED_STREAMS_METER_DESCRIPTION =
+        "Indicates the number of media requests rejected as their user reached the maximum number of concurrent streams.";
+
+    public static final String STREAMS_BASE_UNIT = "streams";
+
+    private final MeterRegistry registry;
+
+    private final Counter rejectedCounter;
+
+    public MediaStreamMetersService(MeterRegistry registry) {
+        this.registry = registry;
+        this.rejectedCounter =
+            Counter
+                .builder(REJECTED_STREAMS_METER_NAME)
+                .baseUnit(STREAMS_BASE_UNIT)
+                .description(REJECTED_STREAMS_METER_DESCRIPTION)
+                .register(registry);
+    }
+
+    /**
+     * Register the gauges of the active and throttled streams.
+     *
+     * @param active    the supplier of the number of active streams.
+     * @param throttled the supplier of the number of throttled streams.
+     */
+    public void registerStreams(Supplier<Number> active, Supplier<Number> throttled) {
+        Gauge
+            .builder(ACTIVE_STREAMS_METER_NAME, active)
+            .baseUnit(STREAMS_BASE_UNIT)
+            .description(ACTIVE_STREAMS_METER_DESCRIPTION)
+            .register(registry);
+        Gauge
+            .builder(THROTTLED_STREAMS_METER_NAME, throttled)
+            .baseUnit(STREAMS_BASE_UNIT)
+            .description(THROTTLED_STREAMS_METER_DESCRIPTION)
+            .register(registry);
+    }
+
+    public void trackRejected() {
+        this.rejectedCounter.increment();
+    }
+}
@@ -0,0 +1,101 @@
+package com.anthonylldev.streaming.management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Service;
+
+@Service
+public class PlaybackEventMetersService {
+
+    public static final String EVENTS_METER_NAME = "playback.events";
+    public static final String EVENTS_METER_DESCRIPTION = "Indicates the number of playback events received, by result.";
+
+    public static final String BUFFERED_EVENTS_METER_NAME = "playback.events.buffered";
+    public static final String BUFFERED_EVENTS_METER_DESCRIPTION = "Indicates the number of playback events waiting to be written.";
+
+    public static final String BATCH_METER_NAME = "playback.events.batch";
+    public static final String BATCH_METER_DESCRIPTION = "Indicates the number of playback events written by each transaction.";
+
+    public static final String EVENTS_BASE_UNIT = "events";
+
+    public static final String ACCEPTED_RESULT = "accepted";
+    public static final String REJECTED_RESULT = "rejected";
+    public static final String DROPPED_RESULT = "dropped";
+    public static final String WRITTEN_RESULT = "written";
+    public static final String FAILED_RESULT = "failed";
+
+    private final MeterRegistry registry;
+
+    private final Counter acceptedCounter;
+
+    private final Counter rejectedCounter;
+
+    private final Counter droppedCounter;
+
+    private final Counter writtenCounter;
+
+    private final Counter failedCounter;
+
+    private final DistributionSummary batchSummary;
+
+    public PlaybackEventMetersService(MeterRegistry registry) {
+        this.registry = registry;
+        this.acceptedCounter = eventsCounter(ACCEPTED_RESULT);
+        this.rejectedCounter = eventsCounter(REJECTED_RESULT);
+        this.droppedCounter = eventsCounter(DROPPED_RESULT);
+        this.writtenCounter = eventsCounter(WRITTEN_RESULT);
+        this.failedCounter = eventsCounter(FAILED_RESULT);
+        this.batchSummary =
+            DistributionSummary
+                .builder(BATCH_METER_NAME)
+                .baseUnit(EVENTS_BASE_UNIT)
+                .description(BATCH_METER_DESCRIPTION)
+                .register(registry);
+    }
+
+    private Counter eventsCounter(String result) {
+        return Counter
+            .builder(EVENTS_METER_NAME)
+            .baseUnit(EVENTS_BASE_UNIT)
+            .description(EVENTS_METER_DESCRIPTION)
+            .tag("result", result)
+            .register(registry);
+    }
+
+    /**
+     * Register the gauge of the buffered events.
+     *
+     * @param buffered the supplier of the number of events waiting to be written.
+     */
+    public void registerBuffered(Supplier<Number> buffered) {
+        Gauge
+            .builder(BUFFERED_EVENTS_METER_NAME, buffered)
+            .baseUnit(EVENTS_BASE_UNIT)
+            .description(BUFFERED_EVENTS_METER_DESCRIPTION)
+            .register(registry);
+    }
+
+    public void trackAccepted(int events) {
+        this.acceptedCounter.increment(events);
+    }
+
+    public void trackRejected(int events) {
+        this.rejectedCounter.increment(events);
+    }
+
+    public void trackDropped(int events) {
+        this.droppedCounter.increment(events);
+    }
+
+    public void trackWritten(int events) {
+        this.writtenCounter.increment(events);
+        this.batchSummary.record(events);
+    }
+
+    public void trackFailed(int events) {
+        this.failedCounter.increment(events);
+    }
+}
@@ -0,0 +1,123 @@
+package com.anthonylldev.streaming.security.stream;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.GenericFilterBean;
+
+/**
+ * Filters requests for signed stream URLs, of the form {@code /api/signed/{token}/films/{id}/stream}, ahead of the
+ * Spring Security filter chain.
+ * <p>
+ * When the token is valid for the requested media, the request is passed on as a request for the unsigned media URL,
+ * such as {@code /api/films/{id}/stream}, from the user the token was issued to, and flagged so that the Spring Security
+ * filter chain is skipped. Otherwise, it is rejected with {@code 403 (Forbidden)}. Only the media endpoints can be
+ * reached through signed URLs.
+ */
+public class StreamUrlFilter extends GenericFilterBean {
+
+    public static final String SIGNED_URL_PREFIX = "/api/signed/";
+
+    private static final String VERIFIED_LOGIN_ATTRIBUTE = StreamUrlFilter.class.getName() + ".LOGIN";
+
+    private static final Pattern SIGNED_PATH = Pattern.compile(
+        "^" +
+        Pattern.quote(SIGNED_URL_PREFIX) +
+        "([A-Za-z0-9_.-]+)/(films|episodes)/([0-9]{1,18})/" +
+        "(stream|hls/master\\.m3u8|hls/[0-9a-f-]+/media\\.m3u8|hls/[0-9a-f-]+/[0-9]+\\.ts)$"
+    );
+
+    private final StreamUrlSigner streamUrlSigner;
+
+    public StreamUrlFilter(StreamUrlSigner streamUrlSigner) {
+        this.streamUrlSigner = streamUrlSigner;
+    }
+
+    /**
+     * Whether a request was verified by this filter, and must skip the Spring Security filter chain.
+     *
+     * @param request the request.
+     * @return {@code true} if the request is for a valid signed stream URL.
+     */
+    public static boolean isVerified(HttpServletRequest request) {
+        return request.getAttribute(VERIFIED_LOGIN_ATTRIBUTE) != null;
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain)
+        throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+        Matcher matcher = SIGNED_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+        if (!matcher.matches()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+        String kind = matcher.group(2);
+        long id = Long.parseLong(matcher.group(3));
+        Optional<String> login = streamUrlSigner.verify(matcher.group(1), kind, id, Instant.now());
+        if (login.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        request.setAttribute(VERIFIED_LOGIN_ATTRIBUTE, login.get());
+        filterChain.doFilter(new VerifiedRequest(request, "/api/" + kind + "/" + id + "/" + matcher.group(4), login.get()), response);
+    }
+
+    /**
+     * A request for a signed stream URL, seen as a request for the unsigned media URL from the user the token was issued to.
+     */
+    private static final class VerifiedRequest extends HttpServletRequestWrapper {
+
+        private final String path;
+
+        private final String login;
+
+        private VerifiedRequest(HttpServletRequest request, String path, String login) {
+            super(request);
+            this.path = path;
+            this.login = login;
+        }
+
+        @Override
+        public String getRequestURI() {
+            return getContextPath() + path;
+        }
+
+        @Override
+        public StringBuffer getRequestURL() {
+            StringBuffer url = super.getRequestURL();
+            url.setLength(url.length() - super.getRequestURI().length());
+            return url.append(getRequestURI());
+        }
+
+        @Override
+        public String getServletPath() {
+            return path;
+        }
+
+        @Override
+        public String getPathInfo() {
+            return null;
+        }
+
+        @Override
+        public String getRemoteUser() {
+            return login;
+        }
+    }
+}
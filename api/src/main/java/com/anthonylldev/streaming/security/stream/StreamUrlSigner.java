@@ -0,0 +1,110 @@
+package com.anthonylldev.streaming.security.stream;
+
+import io.jsonwebtoken.io.Decoders;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ObjectUtils;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Signs and verifies the tokens of stream URLs.
+ * <p>
+ * A token binds the media it gives access to, the login of the user it was issued to and its expiry with an
+ * HMAC-SHA256 signature, so that it is verified with a single HMAC computation, without parsing a JWT or querying the
+ * database. The signing key is derived from the JWT secret.
+ */
+@Component
+public class StreamUrlSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final String KEY_DERIVATION_LABEL = "stream-url";
+
+    private static final char SEPARATOR = '.';
+
+    private final SecretKeySpec key;
+
+    private final ThreadLocal<Mac> mac;
+
+    public StreamUrlSigner(JHipsterProperties jHipsterProperties) {
+        JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication().getJwt();
+        byte[] secret = !ObjectUtils.isEmpty(jwt.getBase64Secret())
+            ? Decoders.BASE64.decode(jwt.getBase64Secret())
+            : jwt.getSecret().getBytes(StandardCharsets.UTF_8);
+        this.key = new SecretKeySpec(hmac(new SecretKeySpec(secret, ALGORITHM), KEY_DERIVATION_LABEL), ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> newMac(key));
+    }
+
+    /**
+     * Sign a token giving access to the media of an entity.
+     *
+     * @param kind      the kind of entity, such as {@code films}.
+     * @param id        the id of the entity.
+     * @param login     the login of the user the token is issued to.
+     * @param expiresAt the instant the token expires.
+     * @return the token, safe to use as a URL path segment.
+     */
+    public String sign(String kind, long id, String login, Instant expiresAt) {
+        String encodedLogin = Base64.getUrlEncoder().withoutPadding().encodeToString(login.getBytes(StandardCharsets.UTF_8));
+        long expiry = expiresAt.getEpochSecond();
+        byte[] signature = mac.get().doFinal(message(kind, id, login, expiry));
+        return encodedLogin + SEPARATOR + expiry + SEPARATOR + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    /**
+     * Verify a token giving access to the media of an entity.
+     *
+     * @param token the token.
+     * @param kind  the kind of entity the media is requested of.
+     * @param id    the id of the entity.
+     * @param now   the current instant.
+     * @return the login of the user the token was issued to, or empty if the token is invalid, expired, or gives access
+     * to another media.
+     */
+    public Optional<String> verify(String token, String kind, long id, Instant now) {
+        int loginEnd = token.indexOf(SEPARATOR);
+        int expiryEnd = token.indexOf(SEPARATOR, loginEnd + 1);
+        if (loginEnd < 0 || expiryEnd < 0) {
+            return Optional.empty();
+        }
+        try {
+            long expiry = Long.parseLong(token.substring(loginEnd + 1, expiryEnd));
+            if (expiry <= now.getEpochSecond()) {
+                return Optional.empty();
+            }
+            String login = new String(Base64.getUrlDecoder().decode(token.substring(0, loginEnd)), StandardCharsets.UTF_8);
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(expiryEnd + 1));
+            if (!MessageDigest.isEqual(signature, mac.get().doFinal(message(kind, id, login, expiry)))) {
+                return Optional.empty();
+            }
+            return Optional.of(login);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static byte[] message(String kind, long id, String login, long expiry) {
+        return (kind + '/' + id + '/' + expiry + '/' + login).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] hmac(SecretKeySpec key, String message) {
+        return newMac(key).doFinal(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
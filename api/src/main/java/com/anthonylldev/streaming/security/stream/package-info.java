@@ -0,0 +1,4 @@
+/**
+ * Signed stream URLs, authorizing media requests without a JWT.
+ */
+package com.anthonylldev.streaming.security.stream;
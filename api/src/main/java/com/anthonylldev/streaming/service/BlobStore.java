@@ -0,0 +1,46 @@
+package com.anthonylldev.streaming.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import org.springframework.core.io.Resource;
+
+/**
+ * Content-addressed store for binary content such as covers.
+ * <p>
+ * Blobs are identified by the lowercase hexadecimal SHA-256 of their content, so storing the same bytes twice keeps
+ * a single copy and entities only need to hold the hash.
+ */
+public interface BlobStore {
+    /**
+     * Store content.
+     *
+     * @param content the bytes to store.
+     * @return the hash of the content.
+     */
+    String save(byte[] content);
+
+    /**
+     * Store streamed content, without holding it in memory.
+     *
+     * @param content the stream to store, read until its end but not closed.
+     * @return the hash of the content.
+     * @throws IOException if the stream cannot be read or the content cannot be written.
+     */
+    String save(InputStream content) throws IOException;
+
+    /**
+     * Get a blob.
+     *
+     * @param hash the hash of the content.
+     * @return the blob, or empty if no content with this hash is stored.
+     */
+    Optional<Resource> find(String hash);
+
+    /**
+     * Delete a blob, if stored.
+     *
+     * @param hash the hash of the content.
+     */
+    void delete(String hash);
+}
@@ -0,0 +1,239 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.service.event.CatalogChangedEvent;
+import com.anthonylldev.streaming.service.util.WeightedLruCache;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.Table;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service for counting and paging the entities of the catalog matching criteria, caching the counts and the pages.
+ * <p>
+ * Counting runs the query of the page again, with the same joins, so the counts are cached by criteria, instead of being
+ * counted on each page. The pages are cached as the ids of their entities, by criteria and page, the entities themselves
+ * being read from the second-level cache, so that the same few popular pages are queried once. A cached count or page is
+ * served until this node writes the catalog, which bumps its version, or for a time-to-live at most, bounding the
+ * staleness of the counts and pages changed by views, reviews and the other nodes. Counts may also be estimated, from
+ * the number of rows the PostgreSQL planner estimates, when the criteria filter nothing.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CountQueryService {
+
+    private final Logger log = LoggerFactory.getLogger(CountQueryService.class);
+
+    private static final String ESTIMATE_SQL = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+
+    /**
+     * How entities are counted.
+     */
+    public enum Mode {
+        /**
+         * Counted, or cached since counted.
+         */
+        EXACT,
+        /**
+         * Estimated by the planner if the criteria filter nothing, counted otherwise.
+         */
+        ESTIMATE;
+
+        /**
+         * @param value the mode, like {@code estimate}.
+         * @return the mode, or empty if unknown.
+         */
+        public static Optional<Mode> of(String value) {
+            return Arrays.stream(values()).filter(mode -> mode.name().equalsIgnoreCase(value)).findFirst();
+        }
+    }
+
+    /**
+     * A cached value, with the version of the catalog it was read at.
+     */
+    private static final class Cached<V> {
+
+        private final V value;
+
+        private final long version;
+
+        private final long expiresAt;
+
+        private Cached(V value, long version, long expiresAt) {
+            this.value = value;
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * The ids of the entities of a page, with the total number of entities.
+     */
+    private static final class PageIds {
+
+        private final List<Object> ids;
+
+        private final long total;
+
+        private PageIds(List<Object> ids, long total) {
+            this.ids = ids;
+            this.total = total;
+        }
+    }
+
+    private final EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final long timeToLive;
+
+    private final LongSupplier currentTimeMillis;
+
+    private final WeightedLruCache<List<Object>, Cached<Long>> counts;
+
+    private final WeightedLruCache<List<Object>, Cached<PageIds>> pages;
+
+    /**
+     * The version of the catalog, bumped once this node commits a write of a film, an episode or a person; the criteria
+     * joining the entities, any write may change any count.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    @Autowired
+    public CountQueryService(ApplicationProperties applicationProperties, EntityManager entityManager, JdbcTemplate jdbcTemplate) {
+        this(applicationProperties, entityManager, jdbcTemplate, System::currentTimeMillis);
+    }
+
+    CountQueryService(
+        ApplicationProperties applicationProperties,
+        EntityManager entityManager,
+        JdbcTemplate jdbcTemplate,
+        LongSupplier currentTimeMillis
+    ) {
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.timeToLive = applicationProperties.getCount().getTimeToLive();
+        this.currentTimeMillis = currentTimeMillis;
+        this.counts = new WeightedLruCache<>(applicationProperties.getCount().getMaximumEntries(), count -> 1);
+        this.pages = new WeightedLruCache<>(applicationProperties.getCount().getMaximumPages(), page -> 1);
+    }
+
+    /**
+     * Return a page of the entities matching criteria, cached since queried, counting them, if needed, with a count that
+     * may be cached.
+     *
+     * @param type          the type of the entities.
+     * @param criteria      the criteria, whose {@code equals} tells whether they match the same entities.
+     * @param specification the specification of the criteria.
+     * @param page          the page, sorted unless the specification sorts the entities itself.
+     * @param count         the count of the entities, called if the page is neither the first nor the last.
+     * @param <T>           the type of the entities.
+     * @return the page.
+     */
+    public <T> Page<T> findAll(Class<T> type, Object criteria, Specification<T> specification, Pageable page, LongSupplier count) {
+        List<Object> key = Arrays.asList(type, criteria, page);
+        long now = currentTimeMillis.getAsLong();
+        Cached<PageIds> cached = pages.get(key);
+        if (isFresh(cached, now)) {
+            // Served from the second-level cache
+            List<T> content = cached.value.ids.stream().map(id -> entityManager.find(type, id)).collect(Collectors.toList());
+            // Unless an entity was deleted by another node meanwhile
+            if (!content.contains(null)) {
+                return new PageImpl<>(content, page, cached.value.total);
+            }
+        }
+        long queriedVersion = version.get();
+        Page<T> result = findAll(type, specification, page, count);
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        List<Object> ids = result.getContent().stream().map(persistenceUnitUtil::getIdentifier).collect(Collectors.toList());
+        pages.put(key, new Cached<>(new PageIds(ids, result.getTotalElements()), queriedVersion, now + timeToLive));
+        return result;
+    }
+
+    private <T> Page<T> findAll(Class<T> type, Specification<T> specification, Pageable page, LongSupplier count) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(type);
+        Root<T> root = query.from(type);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root);
+        if (page.getSort().isSorted() && query.getOrderList().isEmpty()) {
+            query.orderBy(QueryUtils.toOrders(page.getSort(), root, builder));
+        }
+        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        if (page.isPaged()) {
+            typedQuery.setFirstResult((int) page.getOffset());
+            typedQuery.setMaxResults(page.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), page, count);
+    }
+
+    /**
+     * Count the entities matching criteria.
+     *
+     * @param type       the type of the entities.
+     * @param criteria   the criteria, whose {@code equals} tells whether they match the same entities.
+     * @param unfiltered whether the criteria filter nothing.
+     * @param count      the exact count of the entities.
+     * @param mode       how to count them.
+     * @return the count.
+     */
+    public long count(Class<?> type, Object criteria, boolean unfiltered, LongSupplier count, Mode mode) {
+        if (mode == Mode.ESTIMATE && unfiltered) {
+            Long estimate = jdbcTemplate.queryForObject(ESTIMATE_SQL, Long.class, type.getAnnotation(Table.class).name());
+            // A table never analyzed is estimated to have no rows, or -1 of them
+            if (estimate != null && estimate > 0) {
+                return estimate;
+            }
+        }
+        List<Object> key = Arrays.asList(type, criteria);
+        long now = currentTimeMillis.getAsLong();
+        Cached<Long> cached = counts.get(key);
+        if (isFresh(cached, now)) {
+            return cached.value;
+        }
+        // The version is read before counting, so that a count racing a write is not cached as being after it
+        long countedVersion = version.get();
+        long value = count.getAsLong();
+        counts.put(key, new Cached<>(value, countedVersion, now + timeToLive));
+        log.debug("Counted {} {} by criteria : {}", value, type.getSimpleName(), criteria);
+        return value;
+    }
+
+    private boolean isFresh(Cached<?> cached, long now) {
+        return cached != null && cached.version == version.get() && cached.expiresAt > now;
+    }
+
+    /**
+     * Stop serving the cached counts and pages, once an entity of the catalog written or deleted is committed.
+     */
+    @TransactionalEventListener(classes = CatalogChangedEvent.class, fallbackExecution = true)
+    public void catalogChanged() {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,348 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.service.dto.CoverDTO;
+import com.anthonylldev.streaming.service.util.WeightedLruCache;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for serving film and person covers, either the original from the {@link BlobStore} or a resized rendition.
+ * <p>
+ * Renditions are generated in the background with the {@link Async} annotation when a cover is uploaded, and are
+ * kept in a byte-capped in-memory LRU cache backed by files named after the cover hash, so they survive restarts
+ * and evictions. The files are byte-capped too, the least recently read being periodically deleted. A rendition
+ * missing from both caches is generated on the request that needs it.
+ */
+@Service
+public class CoverRenditionService {
+
+    private final Logger log = LoggerFactory.getLogger(CoverRenditionService.class);
+
+    /**
+     * Extension of the empty marker file recording that the original is served for a width: the cover is already
+     * narrower than it, or it cannot be decoded.
+     */
+    private static final String ORIGINAL_EXTENSION = "orig";
+
+    /**
+     * The least number of bytes a file of the disk cache is counted for, so that the empty markers are bounded too.
+     */
+    private static final long MINIMUM_FILE_SIZE = 4096;
+
+    private static final Rendition ORIGINAL = new Rendition(new byte[0], null);
+
+    private final List<Integer> widths;
+
+    private final Path cacheDirectory;
+
+    private final long diskCacheSize;
+
+    private final WeightedLruCache<String, Rendition> memoryCache;
+
+    private final BlobStore blobStore;
+
+    public CoverRenditionService(ApplicationProperties applicationProperties, BlobStore blobStore) {
+        this.blobStore = blobStore;
+        ApplicationProperties.Cover.Rendition properties = applicationProperties.getCover().getRendition();
+        this.widths = properties.getWidths().stream().sorted().distinct().collect(Collectors.toUnmodifiableList());
+        this.cacheDirectory = Paths.get(properties.getCacheDirectory());
+        this.diskCacheSize = properties.getDiskCacheSize();
+        this.memoryCache = new WeightedLruCache<>(properties.getMemoryCacheSize(), rendition -> rendition.content.length);
+    }
+
+    /**
+     * Generate all the configured renditions of an uploaded cover.
+     *
+     * @param hash    the hash of the original cover.
+     * @param content the original cover bytes.
+     */
+    @Async
+    public void createRenditions(String hash, byte[] content) {
+        log.debug("Create cover renditions of '{}' with widths {}", hash, widths);
+        for (Integer width : widths) {
+            if (getCachedRendition(hash, width) == null) {
+                createRendition(hash, content, width);
+            }
+        }
+    }
+
+    /**
+     * Get the cover to serve for a requested width: the smallest rendition at least as wide as requested, or the
+     * original when no width or a width above the largest rendition is requested.
+     *
+     * @param hash           the hash of the original cover.
+     * @param contentType    the content type of the original cover.
+     * @param requestedWidth the requested width, may be {@code null}.
+     * @return the cover, or empty if the original cover is not in the blob store.
+     */
+    public Optional<CoverDTO> findCover(String hash, String contentType, Integer requestedWidth) {
+        Integer width = resolveWidth(requestedWidth);
+        Rendition cached = width != null ? getCachedRendition(hash, width) : ORIGINAL;
+        if (cached != null && cached != ORIGINAL) {
+            return Optional.of(toCoverDTO(hash, width, new ByteArrayResource(cached.content), cached.contentType));
+        }
+        return blobStore
+            .find(hash)
+            .map(original -> {
+                Rendition rendition = cached == null ? createRendition(hash, original, width) : ORIGINAL;
+                if (rendition == ORIGINAL) {
+                    return toCoverDTO(hash, null, original, contentType);
+                }
+                return toCoverDTO(hash, width, new ByteArrayResource(rendition.content), rendition.contentType);
+            });
+    }
+
+    /**
+     * Delete the least recently read renditions from the disk cache until it fits in its byte budget.
+     * <p>
+     * Renditions are ordered by the last modification time of their file, which is touched whenever they are read.
+     */
+    @Scheduled(
+        fixedDelayString = "${application.cover.rendition.sweep-interval:600000}",
+        initialDelayString = "${application.cover.rendition.sweep-interval:600000}"
+    )
+    public void sweepDiskCache() {
+        if (!Files.isDirectory(cacheDirectory)) {
+            return;
+        }
+        List<CachedFile> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(cacheDirectory)) {
+            paths.forEach(path -> {
+                try {
+                    files.add(new CachedFile(path, Files.readAttributes(path, BasicFileAttributes.class)));
+                } catch (IOException e) {
+                    // Replaced or deleted meanwhile
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Cover rendition disk cache could not be listed", e);
+            return;
+        }
+        long size = files.stream().mapToLong(CachedFile::getSize).sum();
+        files.sort(Comparator.comparing(CachedFile::getLastModifiedTime));
+        int deleted = 0;
+        for (CachedFile file : files) {
+            if (size <= diskCacheSize) {
+                break;
+            }
+            deleteQuietly(file.path);
+            size -= file.getSize();
+            deleted++;
+        }
+        log.debug("Swept {} files from the cover rendition disk cache, now of {} bytes", deleted, size);
+    }
+
+    private Integer resolveWidth(Integer requestedWidth) {
+        if (requestedWidth == null) {
+            return null;
+        }
+        return widths.stream().filter(width -> width >= requestedWidth).findFirst().orElse(null);
+    }
+
+    private Rendition getCachedRendition(String hash, int width) {
+        String key = key(hash, width);
+        Rendition rendition = memoryCache.get(key);
+        if (rendition != null) {
+            return rendition;
+        }
+        rendition = readRendition(key);
+        if (rendition != null) {
+            memoryCache.put(key, rendition);
+        }
+        return rendition;
+    }
+
+    private Rendition createRendition(String hash, Resource original, int width) {
+        try (InputStream in = original.getInputStream()) {
+            return createRendition(hash, in.readAllBytes(), width);
+        } catch (IOException e) {
+            log.warn("Cover '{}' could not be read, the original will be served", hash, e);
+            return ORIGINAL;
+        }
+    }
+
+    private Rendition createRendition(String hash, byte[] content, int width) {
+        String key = key(hash, width);
+        Rendition rendition;
+        try {
+            rendition = resize(content, width);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cover '{}' could not be resized to {}w, the original will be served", hash, width, e);
+            rendition = ORIGINAL;
+        }
+        writeRendition(key, rendition);
+        memoryCache.put(key, rendition);
+        return rendition;
+    }
+
+    private Rendition resize(byte[] content, int width) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(content));
+        if (image == null || image.getWidth() <= width) {
+            return ORIGINAL;
+        }
+        boolean alpha = image.getColorModel().hasAlpha();
+        int height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+        // Halve the image until it is close to the target size, a single bilinear pass aliases on large reductions
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = currentWidth == width ? height : Math.max(height, currentHeight / 2);
+            image = scale(image, currentWidth, currentHeight, alpha);
+        } while (currentWidth > width);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String format = alpha ? "png" : "jpg";
+        if (!ImageIO.write(image, format, out)) {
+            throw new IOException("No image writer for " + format);
+        }
+        return new Rendition(out.toByteArray(), alpha ? MediaType.IMAGE_PNG_VALUE : MediaType.IMAGE_JPEG_VALUE);
+    }
+
+    private BufferedImage scale(BufferedImage image, int width, int height, boolean alpha) {
+        BufferedImage scaled = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private Rendition readRendition(String key) {
+        try {
+            Path original = cacheDirectory.resolve(key + "." + ORIGINAL_EXTENSION);
+            if (Files.exists(original)) {
+                touch(original);
+                return ORIGINAL;
+            }
+            Path jpeg = cacheDirectory.resolve(key + ".jpg");
+            if (Files.exists(jpeg)) {
+                touch(jpeg);
+                return new Rendition(Files.readAllBytes(jpeg), MediaType.IMAGE_JPEG_VALUE);
+            }
+            Path png = cacheDirectory.resolve(key + ".png");
+            if (Files.exists(png)) {
+                touch(png);
+                return new Rendition(Files.readAllBytes(png), MediaType.IMAGE_PNG_VALUE);
+            }
+        } catch (NoSuchFileException e) {
+            // Swept meanwhile
+        } catch (IOException e) {
+            log.warn("Cover rendition '{}' could not be read from the disk cache", key, e);
+        }
+        return null;
+    }
+
+    /**
+     * Mark a rendition of the disk cache as recently read, so that it is swept last.
+     */
+    private static void touch(Path path) throws IOException {
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    private void writeRendition(String key, Rendition rendition) {
+        String extension = rendition == ORIGINAL
+            ? ORIGINAL_EXTENSION
+            : MediaType.IMAGE_PNG_VALUE.equals(rendition.contentType) ? "png" : "jpg";
+        Path temporary = null;
+        try {
+            Files.createDirectories(cacheDirectory);
+            // Write to a temporary file first, so concurrent readers never see a partial rendition
+            temporary = Files.createTempFile(cacheDirectory, key, ".tmp");
+            Files.write(temporary, rendition.content);
+            Files.move(temporary, cacheDirectory.resolve(key + "." + extension), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Cover rendition '{}' could not be written to the disk cache", key, e);
+            deleteQuietly(temporary);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Temporary file '{}' could not be deleted", path, e);
+        }
+    }
+
+    private static String key(String hash, int width) {
+        return hash + "-" + width;
+    }
+
+    private static CoverDTO toCoverDTO(String hash, Integer width, Resource content, String contentType) {
+        CoverDTO coverDTO = new CoverDTO();
+        coverDTO.setContent(content);
+        coverDTO.setContentType(contentType);
+        coverDTO.setHash(hash);
+        coverDTO.setWidth(width);
+        return coverDTO;
+    }
+
+    private static final class CachedFile {
+
+        private final Path path;
+
+        private final BasicFileAttributes attributes;
+
+        private CachedFile(Path path, BasicFileAttributes attributes) {
+            this.path = path;
+            this.attributes = attributes;
+        }
+
+        private long getSize() {
+            return Math.max(MINIMUM_FILE_SIZE, attributes.size());
+        }
+
+        private FileTime getLastModifiedTime() {
+            return attributes.lastModifiedTime();
+        }
+    }
+
+    private static final class Rendition {
+
+        private final byte[] content;
+
+        private final String contentType;
+
+        private Rendition(byte[] content, String contentType) {
+            this.content = content;
+            this.contentType = contentType;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.service.util.CursorSlice;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for executing queries one slice at a time, with keyset pagination.
+ * <p>
+ * Instead of skipping the entities of the previous pages and counting them all, as offset pagination does, a slice seeks
+ * past the sort values and the id of the last entity of the previous one, held by an opaque cursor: each slice costs the
+ * same however deep it is, and the entities inserted or deleted meanwhile shift none to another slice. The entities are
+ * sorted by their basic properties then by id, keeping the order total; nulls come last ascending and first descending,
+ * as PostgreSQL sorts them.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CursorQueryService {
+
+    private final Logger log = LoggerFactory.getLogger(CursorQueryService.class);
+
+    private static final String ID = "id";
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    public CursorQueryService(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * A property sorting the entities, in a direction.
+     */
+    private static final class Key {
+
+        private final SingularAttribute<?, ?> attribute;
+
+        private final boolean ascending;
+
+        private Key(SingularAttribute<?, ?> attribute, boolean ascending) {
+            this.attribute = attribute;
+            this.ascending = ascending;
+        }
+    }
+
+    /**
+     * Return a slice of the entities matching a specification.
+     *
+     * @param type          the type of the entities.
+     * @param specification the specification of the entities, or {@code null} for all of them.
+     * @param cursor        the cursor of the slice, returned with the previous one, or empty for the first one.
+     * @param page          the size and the sort of the slice, by basic properties of the entities only.
+     * @param <T>           the type of the entities.
+     * @return the slice.
+     * @throws InvalidCursorException if the cursor is not one of a slice sorted the same way, or the sort is not by basic
+     *                                properties.
+     */
+    public <T> CursorSlice<T> findAll(Class<T> type, Specification<T> specification, String cursor, Pageable page) {
+        log.debug("find all {} after cursor : {}, page: {}", type.getSimpleName(), cursor, page);
+        List<Key> keys = keys(type, page.getSort());
+        List<Object> after = cursor.isEmpty() ? null : decode(cursor, keys);
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(type);
+        Root<T> root = query.from(type);
+        List<Predicate> predicates = new ArrayList<>();
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (after != null) {
+            predicates.add(after(root, builder, keys, after, 0));
+        }
+        query
+            .select(root)
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(
+                keys
+                    .stream()
+                    .map(key -> key.ascending ? builder.asc(path(root, key)) : builder.desc(path(root, key)))
+                    .collect(Collectors.toList())
+            );
+
+        // One more entity than the slice holds tells whether another slice follows, without counting them
+        List<T> entities = entityManager.createQuery(query).setMaxResults(page.getPageSize() + 1).getResultList();
+        if (entities.size() <= page.getPageSize()) {
+            return new CursorSlice<>(entities, null);
+        }
+        List<T> content = new ArrayList<>(entities.subList(0, page.getPageSize()));
+        return new CursorSlice<>(content, encode(content.get(content.size() - 1), keys));
+    }
+
+    private <T> List<Key> keys(Class<T> type, Sort sort) {
+        EntityType<T> entity = entityManager.getMetamodel().entity(type);
+        List<Key> keys = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            SingularAttribute<? super T, ?> attribute = entity
+                .getSingularAttributes()
+                .stream()
+                .filter(candidate -> candidate.getName().equals(order.getProperty()))
+                .findFirst()
+                .filter(candidate -> candidate.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC)
+                .filter(candidate -> Comparable.class.isAssignableFrom(candidate.getJavaType()))
+                .orElseThrow(() -> new InvalidCursorException("Cannot seek on " + order.getProperty()));
+            keys.add(new Key(attribute, order.isAscending()));
+            if (ID.equals(attribute.getName())) {
+                // The id being unique, the following properties never sort anything
+                return keys;
+            }
+        }
+        keys.add(new Key(entity.getSingularAttribute(ID), true));
+        return keys;
+    }
+
+    /**
+     * Build the predicate of the entities after some values of the keys from the n-th on: those sorting after by the n-th
+     * key, or the same by it but after by the next ones.
+     */
+    private static Predicate after(Root<?> root, CriteriaBuilder builder, List<Key> keys, List<Object> values, int n) {
+        Key key = keys.get(n);
+        Path<Comparable<Object>> path = path(root, key);
+        @SuppressWarnings("unchecked")
+        Comparable<Object> value = (Comparable<Object>) values.get(n);
+        // Nothing sorts after nulls ascending, as they come last
+        Predicate after = null;
+        if (key.ascending) {
+            if (value != null && key.attribute.isOptional()) {
+                after = builder.or(builder.greaterThan(path, value), builder.isNull(path));
+            } else if (value != null) {
+                after = builder.greaterThan(path, value);
+            }
+        } else {
+            after = value == null ? builder.isNotNull(path) : builder.lessThan(path, value);
+        }
+        if (n == keys.size() - 1) {
+            return after;
+        }
+        Predicate same = builder.and(
+            value == null ? builder.isNull(path) : builder.equal(path, value),
+            after(root, builder, keys, values, n + 1)
+        );
+        return after == null ? same : builder.or(after, same);
+    }
+
+    private static Path<Comparable<Object>> path(Root<?> root, Key key) {
+        return root.get(key.attribute.getName());
+    }
+
+    private String encode(Object entity, List<Key> keys) {
+        // Written as JSON values, the dates in ISO-8601 to the nanosecond, so the seek starts exactly past the last entity
+        List<Object> values = new ArrayList<>(keys.size());
+        for (Key key : keys) {
+            values.add(PropertyAccessorFactory.forDirectFieldAccess(entity).getPropertyValue(key.attribute.getName()));
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(values));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cursor could not be encoded", e);
+        }
+    }
+
+    private List<Object> decode(String cursor, List<Key> keys) {
+        try {
+            JsonNode values = objectMapper.readTree(Base64.getUrlDecoder().decode(cursor));
+            if (values == null || !values.isArray() || values.size() != keys.size() || values.get(values.size() - 1).isNull()) {
+                throw new InvalidCursorException("Invalid cursor, sorted another way");
+            }
+            List<Object> after = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                after.add(objectMapper.treeToValue(values.get(i), keys.get(i).attribute.getJavaType()));
+            }
+            return after;
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
@@ -4,10 +4,15 @@ import com.anthonylldev.streaming.domain.*; // for static metamodels
 import com.anthonylldev.streaming.domain.Episode;
 import com.anthonylldev.streaming.repository.EpisodeRepository;
 import com.anthonylldev.streaming.service.criteria.EpisodeCriteria;
+import com.anthonylldev.streaming.service.criteria.TextFilter;
 import com.anthonylldev.streaming.service.dto.EpisodeDTO;
 import com.anthonylldev.streaming.service.mapper.EpisodeMapper;
+import com.anthonylldev.streaming.service.util.CursorSlice;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.persistence.criteria.JoinType;
+import javax.persistence.metamodel.SingularAttribute;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -15,7 +20,6 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import tech.jhipster.service.QueryService;
 
 /**
  * Service for executing complex queries for {@link Episode} entities in the database.
@@ -25,7 +29,7 @@ import tech.jhipster.service.QueryService;
  */
 @Service
 @Transactional(readOnly = true)
-public class EpisodeQueryService extends QueryService<Episode> {
+public class EpisodeQueryService extends TextQueryService<Episode> {
 
     private final Logger log = LoggerFactory.getLogger(EpisodeQueryService.class);
 
@@ -33,9 +37,20 @@ public class EpisodeQueryService extends QueryService<Episode> {
 
     private final EpisodeMapper episodeMapper;
 
-    public EpisodeQueryService(EpisodeRepository episodeRepository, EpisodeMapper episodeMapper) {
+    private final CursorQueryService cursorQueryService;
+
+    private final CountQueryService countQueryService;
+
+    public EpisodeQueryService(
+        EpisodeRepository episodeRepository,
+        EpisodeMapper episodeMapper,
+        CursorQueryService cursorQueryService,
+        CountQueryService countQueryService
+    ) {
         this.episodeRepository = episodeRepository;
         this.episodeMapper = episodeMapper;
+        this.cursorQueryService = cursorQueryService;
+        this.countQueryService = countQueryService;
     }
 
     /**
@@ -53,14 +68,51 @@ public class EpisodeQueryService extends QueryService<Episode> {
     /**
      * Return a {@link Page} of {@link EpisodeDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
-     * @param page The page, which should be returned.
+     * @param page The page, which should be returned, possibly sorted by {@value #RELEVANCE}.
      * @return the matching entities.
      */
     @Transactional(readOnly = true)
     public Page<EpisodeDTO> findByCriteria(EpisodeCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+        return findByCriteria(criteria, page, CountQueryService.Mode.EXACT);
+    }
+
+    /**
+     * Return a {@link Page} of {@link EpisodeDTO} which matches the criteria from the database, or from the cached ids of
+     * the page, counting the entities only if the page is neither the first nor the last, and with a cached count if any.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned, possibly sorted by {@value #RELEVANCE}.
+     * @param countMode How to count the entities.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<EpisodeDTO> findByCriteria(EpisodeCriteria criteria, Pageable page, CountQueryService.Mode countMode) {
+        log.debug("find by criteria : {}, page: {}, count mode: {}", criteria, page, countMode);
+        final EpisodeCriteria filters = criteria == null ? new EpisodeCriteria() : criteria.copy();
+        Specification<Episode> specification = createSpecification(filters);
+        if (isSortedByRelevance(page)) {
+            Map<SingularAttribute<? super Episode, String>, TextFilter> textFilters = new HashMap<>();
+            textFilters.put(Episode_.title, filters.getTitle());
+            textFilters.put(Episode_.synopsis, filters.getSynopsis());
+            specification = sortByRelevance(specification, page.getSort(), textFilters);
+        }
+        return countQueryService
+            .findAll(Episode.class, filters, specification, page, () -> countByCriteria(filters, countMode))
+            .map(episodeMapper::toDto);
+    }
+
+    /**
+     * Return a {@link CursorSlice} of {@link EpisodeDTO} which matches the criteria from the database, seeking past the
+     * previous slice instead of skipping and counting the entities before it.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the slice, returned with the previous one, or empty for the first one.
+     * @param page The size and the sort of the slice.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorSlice<EpisodeDTO> findByCriteria(EpisodeCriteria criteria, String cursor, Pageable page) {
+        log.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
         final Specification<Episode> specification = createSpecification(criteria);
-        return episodeRepository.findAll(specification, page).map(episodeMapper::toDto);
+        return cursorQueryService.findAll(Episode.class, specification, cursor, page).map(episodeMapper::toDto);
     }
 
     /**
@@ -70,9 +122,27 @@ public class EpisodeQueryService extends QueryService<Episode> {
      */
     @Transactional(readOnly = true)
     public long countByCriteria(EpisodeCriteria criteria) {
-        log.debug("count by criteria : {}", criteria);
-        final Specification<Episode> specification = createSpecification(criteria);
-        return episodeRepository.count(specification);
+        return countByCriteria(criteria, CountQueryService.Mode.EXACT);
+    }
+
+    /**
+     * Return the number of matching entities in the database, cached since counted until the entities are written.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param mode How to count the entities.
+     * @return the number of matching entities, estimated if so requested and the criteria filter nothing.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(EpisodeCriteria criteria, CountQueryService.Mode mode) {
+        log.debug("count by criteria : {}, mode: {}", criteria, mode);
+        final EpisodeCriteria filters = criteria == null ? new EpisodeCriteria() : criteria.copy();
+        final Specification<Episode> specification = createSpecification(filters);
+        return countQueryService.count(Episode.class, filters, isUnfiltered(filters), () -> episodeRepository.count(specification), mode);
+    }
+
+    private static boolean isUnfiltered(EpisodeCriteria criteria) {
+        EpisodeCriteria filters = criteria.copy();
+        filters.setDistinct(null);
+        return filters.equals(new EpisodeCriteria());
     }
 
     /**
@@ -91,10 +161,10 @@ public class EpisodeQueryService extends QueryService<Episode> {
                 specification = specification.and(buildRangeSpecification(criteria.getId(), Episode_.id));
             }
             if (criteria.getTitle() != null) {
-                specification = specification.and(buildStringSpecification(criteria.getTitle(), Episode_.title));
+                specification = specification.and(buildTextSpecification(criteria.getTitle(), Episode_.title));
             }
             if (criteria.getSynopsis() != null) {
-                specification = specification.and(buildStringSpecification(criteria.getSynopsis(), Episode_.synopsis));
+                specification = specification.and(buildTextSpecification(criteria.getSynopsis(), Episode_.synopsis));
             }
             if (criteria.getOrder() != null) {
                 specification = specification.and(buildRangeSpecification(criteria.getOrder(), Episode_.order));
@@ -0,0 +1,291 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.repository.FilmRepository;
+import com.anthonylldev.streaming.service.dto.AudienceDTO;
+import com.anthonylldev.streaming.service.util.HyperLogLog;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service estimating the distinct viewers of {@link com.anthonylldev.streaming.domain.Film}s.
+ * <p>
+ * The viewers of each film and day are counted in a HyperLogLog sketch, a few kilobytes at most whatever the audience,
+ * instead of counting distinct users over the events. The viewers counted in memory are periodically merged into the
+ * sketches stored; sketches are merged by keeping the highest registers, so merging twice is harmless, and the sketches
+ * of days are merged for longer periods. Each flush swaps the viewers counted out, and they are still read until
+ * written.
+ */
+@Service
+public class FilmAudienceService {
+
+    private final Logger log = LoggerFactory.getLogger(FilmAudienceService.class);
+
+    private static final String SELECT_DAYS_SQL = "SELECT day, sketch FROM film_audience WHERE film_id = :filmId AND day >= :from";
+
+    private static final String SELECT_FOR_UPDATE_SQL =
+        "SELECT film_id, sketch FROM film_audience WHERE day = :day AND film_id IN (:filmIds) FOR UPDATE";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO film_audience (film_id, day, sketch) VALUES (:filmId, :day, :sketch) ON CONFLICT (film_id, day) DO NOTHING";
+
+    private static final String UPDATE_SQL = "UPDATE film_audience SET sketch = :sketch WHERE film_id = :filmId AND day = :day";
+
+    /**
+     * The periods of days the viewers are counted over, today included.
+     */
+    public enum Period {
+        DAY(1),
+        WEEK(7),
+        MONTH(30);
+
+        private final int days;
+
+        Period(int days) {
+            this.days = days;
+        }
+
+        /**
+         * @param value the period, like {@code week}.
+         * @return the period, or empty if unknown.
+         */
+        public static Optional<Period> of(String value) {
+            return Arrays.stream(values()).filter(period -> period.name().equalsIgnoreCase(value)).findFirst();
+        }
+    }
+
+    private final FilmRepository filmRepository;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int precision;
+
+    /**
+     * Viewers counted since the last flush. Swapped out by each flush, and sketches are only read and updated atomically,
+     * by the methods of the map.
+     */
+    private volatile ConcurrentMap<FilmDay, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Viewers swapped out by the flush being written, still read until they are.
+     */
+    private volatile ConcurrentMap<FilmDay, HyperLogLog> flushing = new ConcurrentHashMap<>();
+
+    public FilmAudienceService(
+        ApplicationProperties applicationProperties,
+        FilmRepository filmRepository,
+        NamedParameterJdbcTemplate jdbcTemplate,
+        TransactionTemplate transactionTemplate
+    ) {
+        this.filmRepository = filmRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.precision = applicationProperties.getAudience().getPrecision();
+    }
+
+    /**
+     * Count a viewer of a film, today.
+     *
+     * @param filmId the id of the film.
+     * @param login  the login of the viewer.
+     */
+    public void trackViewer(Long filmId, String login) {
+        FilmDay key = new FilmDay(filmId, LocalDate.now(ZoneOffset.UTC));
+        ConcurrentMap<FilmDay, HyperLogLog> sketches;
+        do {
+            sketches = pending;
+            sketches.compute(
+                key,
+                (filmDay, sketch) -> {
+                    HyperLogLog viewers = sketch != null ? sketch : new HyperLogLog(precision);
+                    viewers.add(login);
+                    return viewers;
+                }
+            );
+            // Count again if swapped out meanwhile, as the flush may not have seen it
+        } while (sketches != pending);
+    }
+
+    /**
+     * Get the estimated number of distinct viewers of a film over a period.
+     *
+     * @param filmId the id of the film.
+     * @param period the period.
+     * @return the audience, or empty if there is no such film.
+     */
+    @Transactional(readOnly = true)
+    public Optional<AudienceDTO> findAudience(Long filmId, Period period) {
+        log.debug("Request to get the audience of Film {} : {}", filmId, period);
+        // Served from the second-level cache
+        if (filmRepository.findById(filmId).isEmpty()) {
+            return Optional.empty();
+        }
+        LocalDate to = LocalDate.now(ZoneOffset.UTC);
+        LocalDate from = to.minusDays(period.days - 1L);
+        HyperLogLog viewers = new HyperLogLog(precision);
+        // Read in memory first, as the viewers swapped out meanwhile are still flushing, and only stop being so once written
+        mergeCounted(viewers, pending, filmId, from, to);
+        mergeCounted(viewers, flushing, filmId, from, to);
+        jdbcTemplate.query(
+            SELECT_DAYS_SQL,
+            new MapSqlParameterSource("filmId", filmId).addValue("from", from),
+            rs -> {
+                viewers.merge(HyperLogLog.fromByteArray(rs.getBytes("sketch")));
+            }
+        );
+        AudienceDTO audienceDTO = new AudienceDTO();
+        audienceDTO.setFilmId(filmId);
+        audienceDTO.setFrom(from);
+        audienceDTO.setTo(to);
+        audienceDTO.setViewers(viewers.estimate());
+        return Optional.of(audienceDTO);
+    }
+
+    /**
+     * Merge the viewers counted since the last flush into the sketches stored.
+     */
+    @Scheduled(fixedDelayString = "${application.audience.flush-interval:10000}")
+    public synchronized void flush() {
+        ConcurrentMap<FilmDay, HyperLogLog> swapped = pending;
+        if (swapped.isEmpty()) {
+            return;
+        }
+        // Still read until written, as swapped out
+        flushing = swapped;
+        pending = new ConcurrentHashMap<>();
+        Map<LocalDate, Map<Long, HyperLogLog>> flushed = new HashMap<>();
+        for (FilmDay filmDay : swapped.keySet()) {
+            // Copied, as viewers may still be counted in the sketch swapped out
+            HyperLogLog copy = new HyperLogLog(precision);
+            swapped.computeIfPresent(
+                filmDay,
+                (key, sketch) -> {
+                    copy.merge(sketch);
+                    return sketch;
+                }
+            );
+            flushed.computeIfAbsent(filmDay.day, day -> new HashMap<>()).put(filmDay.filmId, copy);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> flushed.forEach(this::merge));
+        } catch (RuntimeException e) {
+            log.warn("Audience of {} days could not be written, retrying on next flush: {}", flushed.size(), e.getMessage());
+            flushed.forEach((day, sketches) ->
+                sketches.forEach((filmId, sketch) ->
+                    pending.merge(
+                        new FilmDay(filmId, day),
+                        sketch,
+                        (current, failed) -> {
+                            current.merge(failed);
+                            return current;
+                        }
+                    )
+                )
+            );
+        }
+        flushing = new ConcurrentHashMap<>();
+    }
+
+    private static void mergeCounted(
+        HyperLogLog viewers,
+        ConcurrentMap<FilmDay, HyperLogLog> sketches,
+        Long filmId,
+        LocalDate from,
+        LocalDate to
+    ) {
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            sketches.computeIfPresent(
+                new FilmDay(filmId, day),
+                (filmDay, sketch) -> {
+                    viewers.merge(sketch);
+                    return sketch;
+                }
+            );
+        }
+    }
+
+    private void merge(LocalDate day, Map<Long, HyperLogLog> sketches) {
+        byte[] empty = new HyperLogLog(precision).toByteArray();
+        jdbcTemplate.batchUpdate(INSERT_SQL, parameters(day, sketches, sketch -> empty));
+        // Locked, so that the viewers merged concurrently by other nodes are not overwritten
+        jdbcTemplate.query(
+            SELECT_FOR_UPDATE_SQL,
+            new MapSqlParameterSource("day", day).addValue("filmIds", sketches.keySet()),
+            rs -> {
+                HyperLogLog stored = HyperLogLog.fromByteArray(rs.getBytes("sketch"));
+                stored.merge(sketches.get(rs.getLong("film_id")));
+                sketches.put(rs.getLong("film_id"), stored);
+            }
+        );
+        jdbcTemplate.batchUpdate(UPDATE_SQL, parameters(day, sketches, HyperLogLog::toByteArray));
+    }
+
+    private static MapSqlParameterSource[] parameters(
+        LocalDate day,
+        Map<Long, HyperLogLog> sketches,
+        Function<HyperLogLog, byte[]> serializer
+    ) {
+        return sketches
+            .entrySet()
+            .stream()
+            .map(entry ->
+                new MapSqlParameterSource("filmId", entry.getKey())
+                    .addValue("day", day)
+                    .addValue("sketch", serializer.apply(entry.getValue()))
+            )
+            .toArray(MapSqlParameterSource[]::new);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    private static final class FilmDay {
+
+        private final Long filmId;
+
+        private final LocalDate day;
+
+        private FilmDay(Long filmId, LocalDate day) {
+            this.filmId = filmId;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FilmDay)) {
+                return false;
+            }
+            FilmDay filmDay = (FilmDay) o;
+            return filmId.equals(filmDay.filmId) && day.equals(filmDay.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filmId, day);
+        }
+    }
+}
@@ -0,0 +1,562 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.domain.Film;
+import com.anthonylldev.streaming.domain.enumeration.FilmType;
+import com.anthonylldev.streaming.domain.enumeration.Gender;
+import com.anthonylldev.streaming.service.criteria.FilmCriteria;
+import com.anthonylldev.streaming.service.criteria.TextFilter;
+import com.anthonylldev.streaming.service.event.FilmChangedEvent;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Service for listing {@link Film}s from an in-memory snapshot of the catalog, without querying the database.
+ * <p>
+ * The snapshot holds the columns the films are filtered and sorted by as primitive arrays, one element per film, sorted
+ * by id: the films matching criteria are found by scanning the columns filtered, and those of a page selected with a
+ * bounded heap, the entities of the page only being then read from the second-level cache. The criteria are matched as
+ * the database would, nulls included, and sorted as PostgreSQL does, nulls last ascending and first descending; the
+ * criteria filtering on other properties, by the {@code search} and {@code fuzzy} operators or with {@code LIKE}
+ * wildcards, and the sorts by texts, collated by the database, are left to it. The snapshot is built from the database
+ * once the application is ready, rebuilt in the background once this node writes films, the films being listed by the
+ * database until then, and periodically rebuilt, to pick up the views and the films written by other nodes; each
+ * rebuilt snapshot replaces the previous one at once.
+ */
+@Service
+public class FilmCatalogService {
+
+    private final Logger log = LoggerFactory.getLogger(FilmCatalogService.class);
+
+    private static final String SELECT_FILMS_SQL =
+        "SELECT id, title, views, reviews, gender, film_type, jhi_order, publication_date, inclusion_date " +
+        "FROM film WHERE id > ? ORDER BY id LIMIT ?";
+
+    /**
+     * A column of nullable numbers, dates being held as microseconds since the epoch.
+     */
+    private static final class Column {
+
+        private final long[] values;
+
+        private final BitSet nulls;
+
+        private Column(int size) {
+            this.values = new long[size];
+            this.nulls = new BitSet(size);
+        }
+
+        private void set(int row, Long value) {
+            if (value == null) {
+                nulls.set(row);
+            } else {
+                values[row] = value;
+            }
+        }
+
+        private boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        private boolean matches(int row, LongPredicate predicate) {
+            return !nulls.get(row) && predicate.test(values[row]);
+        }
+
+        private int compare(int a, int b) {
+            if (nulls.get(a) || nulls.get(b)) {
+                return Boolean.compare(nulls.get(a), nulls.get(b));
+            }
+            return Long.compare(values[a], values[b]);
+        }
+    }
+
+    /**
+     * A column of nullable enums, as their ordinals.
+     */
+    private static final class EnumColumn {
+
+        private final byte[] ordinals;
+
+        /**
+         * The rank of each ordinal among the names of the enum, which the database sorts.
+         */
+        private final int[] ranks;
+
+        private EnumColumn(int size, Enum<?>[] constants) {
+            this.ordinals = new byte[size];
+            this.ranks = new int[constants.length];
+            List<Enum<?>> sorted = Arrays.stream(constants).sorted(Comparator.comparing(Enum::name)).collect(Collectors.toList());
+            for (int rank = 0; rank < sorted.size(); rank++) {
+                ranks[sorted.get(rank).ordinal()] = rank;
+            }
+        }
+
+        private void set(int row, Enum<?> value) {
+            ordinals[row] = (byte) (value == null ? -1 : value.ordinal());
+        }
+
+        private boolean isNull(int row) {
+            return ordinals[row] < 0;
+        }
+
+        private boolean matches(int row, IntPredicate predicate) {
+            return ordinals[row] >= 0 && predicate.test(ordinals[row]);
+        }
+
+        private int compare(int a, int b) {
+            if (isNull(a) || isNull(b)) {
+                return Boolean.compare(isNull(a), isNull(b));
+            }
+            return Integer.compare(ranks[ordinals[a]], ranks[ordinals[b]]);
+        }
+    }
+
+    /**
+     * The columns of the films, the titles being interned.
+     */
+    private static final class Snapshot {
+
+        /**
+         * The version of the catalog when the snapshot started being built.
+         */
+        private final long version;
+
+        private final int size;
+
+        private final Column ids;
+
+        private final String[] titles;
+
+        /**
+         * The upper-cased titles, matched by the {@code contains} operators as the database does.
+         */
+        private final String[] upperTitles;
+
+        private final Column views;
+
+        private final Column reviews;
+
+        private final Column orders;
+
+        private final Column publicationDates;
+
+        private final Column inclusionDates;
+
+        private final EnumColumn genders;
+
+        private final EnumColumn filmTypes;
+
+        private Snapshot(long version, List<Film> films) {
+            this.version = version;
+            size = films.size();
+            ids = new Column(size);
+            titles = new String[size];
+            upperTitles = new String[size];
+            views = new Column(size);
+            reviews = new Column(size);
+            orders = new Column(size);
+            publicationDates = new Column(size);
+            inclusionDates = new Column(size);
+            genders = new EnumColumn(size, Gender.values());
+            filmTypes = new EnumColumn(size, FilmType.values());
+            for (int row = 0; row < size; row++) {
+                Film film = films.get(row);
+                ids.set(row, film.getId());
+                titles[row] = film.getTitle() == null ? null : film.getTitle().intern();
+                upperTitles[row] = film.getTitle() == null ? null : film.getTitle().toUpperCase(Locale.ROOT);
+                views.set(row, film.getViews() == null ? null : film.getViews().longValue());
+                reviews.set(row, film.getReviews());
+                orders.set(row, film.getOrder() == null ? null : film.getOrder().longValue());
+                publicationDates.set(row, micros(film.getPublicationDate()));
+                inclusionDates.set(row, micros(film.getInclusionDate()));
+                genders.set(row, film.getGender());
+                filmTypes.set(row, film.getFilmType());
+            }
+        }
+
+        private static Long micros(LocalDateTime date) {
+            return date == null ? null : date.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + date.getNano() / 1_000;
+        }
+
+        /**
+         * @return the comparator of the rows by a property, ascending, or {@code null} if not sorted in memory.
+         */
+        private Comparator<Integer> comparator(String property) {
+            switch (property) {
+                case "id":
+                    return ids::compare;
+                case "views":
+                    return views::compare;
+                case "reviews":
+                    return reviews::compare;
+                case "order":
+                    return orders::compare;
+                case "publicationDate":
+                    return publicationDates::compare;
+                case "inclusionDate":
+                    return inclusionDates::compare;
+                case "gender":
+                    return genders::compare;
+                case "filmType":
+                    return filmTypes::compare;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Executor executor;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private volatile Snapshot snapshot;
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    /**
+     * The version of the catalog, incremented once the films written by this node are committed.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    public FilmCatalogService(
+        ApplicationProperties applicationProperties,
+        JdbcTemplate jdbcTemplate,
+        @Qualifier("taskExecutor") Executor executor
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+        this.enabled = applicationProperties.getCatalog().isEnabled();
+        this.batchSize = applicationProperties.getCatalog().getBatchSize();
+    }
+
+    /**
+     * Rebuild the snapshot from the database, reading the films in batches with keyset pagination.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+        fixedDelayString = "${application.catalog.refresh-interval:60000}",
+        initialDelayString = "${application.catalog.refresh-interval:60000}"
+    )
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        // Read before the films, so that the changes committed meanwhile are picked up by the next rebuild
+        long builtVersion = version.get();
+        List<Film> films = new ArrayList<>();
+        try {
+            long lastId = Long.MIN_VALUE;
+            List<Film> batch;
+            do {
+                batch = jdbcTemplate.query(SELECT_FILMS_SQL, (rs, rowNum) -> film(rs), lastId, batchSize);
+                films.addAll(batch);
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Catalog snapshot could not be rebuilt, retrying on next refresh: {}", e.getMessage());
+            return;
+        }
+        snapshot = new Snapshot(builtVersion, films);
+        log.debug("Rebuilt the catalog snapshot of {} films in {} ms", films.size(), System.currentTimeMillis() - start);
+    }
+
+    private static Film film(ResultSet rs) throws SQLException {
+        String gender = rs.getString("gender");
+        String filmType = rs.getString("film_type");
+        Timestamp publicationDate = rs.getTimestamp("publication_date");
+        Timestamp inclusionDate = rs.getTimestamp("inclusion_date");
+        return new Film()
+            .id(rs.getLong("id"))
+            .title(rs.getString("title"))
+            .views(rs.getObject("views", Integer.class))
+            .reviews(rs.getObject("reviews", Long.class))
+            .gender(gender == null ? null : Gender.valueOf(gender))
+            .filmType(filmType == null ? null : FilmType.valueOf(filmType))
+            .order(rs.getObject("jhi_order", Integer.class))
+            .publicationDate(publicationDate == null ? null : publicationDate.toLocalDateTime())
+            .inclusionDate(inclusionDate == null ? null : inclusionDate.toLocalDateTime());
+    }
+
+    /**
+     * Rebuild the snapshot in the background, once a film written or deleted is committed; the changes committed while a
+     * rebuild is pending are picked up by it. Until then, the films are listed by the database, so that this node reads
+     * its own writes.
+     */
+    @TransactionalEventListener(classes = FilmChangedEvent.class, fallbackExecution = true)
+    public void catalogChanged() {
+        if (!enabled) {
+            return;
+        }
+        version.incrementAndGet();
+        if (rebuildPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                rebuildPending.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    /**
+     * Find the ids of a page of the films matching criteria.
+     *
+     * @param criteria the criteria.
+     * @param page     the page.
+     * @return the ids of the films of the page, with the total number of films matching the criteria; or empty if the
+     * snapshot is not built yet, misses films written by this node, or cannot match the criteria or sort the films as
+     * requested.
+     */
+    public Optional<Page<Long>> findIds(FilmCriteria criteria, Pageable page) {
+        Snapshot current = snapshot;
+        if (current == null || current.version < version.get()) {
+            return Optional.empty();
+        }
+        Comparator<Integer> comparator = comparator(current, page.getSort());
+        BitSet rows = comparator == null ? null : filter(current, criteria);
+        if (rows == null) {
+            return Optional.empty();
+        }
+        int total = rows.cardinality();
+        long end = page.isPaged() ? Math.min(page.getOffset() + page.getPageSize(), total) : total;
+        long offset = page.isPaged() ? Math.min(page.getOffset(), end) : 0;
+        // The first rows of the page, the heap keeping the last of them on top
+        PriorityQueue<Integer> heap = new PriorityQueue<>((int) end + 1, comparator.reversed());
+        for (int row = rows.nextSetBit(0); row >= 0 && end > 0; row = rows.nextSetBit(row + 1)) {
+            heap.add(row);
+            if (heap.size() > end) {
+                heap.poll();
+            }
+        }
+        List<Integer> first = new ArrayList<>(heap);
+        first.sort(comparator);
+        List<Long> ids = first.stream().skip(offset).map(row -> current.ids.values[row]).collect(Collectors.toList());
+        return Optional.of(new PageImpl<>(ids, page, total));
+    }
+
+    /**
+     * @return the comparator of the rows by the sort then by id, or {@code null} if not sorted in memory.
+     */
+    private static Comparator<Integer> comparator(Snapshot snapshot, Sort sort) {
+        Comparator<Integer> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Integer> property = snapshot.comparator(order.getProperty());
+            if (property == null || order.getNullHandling() != Sort.NullHandling.NATIVE) {
+                return null;
+            }
+            comparator = comparator.thenComparing(order.isAscending() ? property : property.reversed());
+        }
+        return comparator.thenComparing(snapshot.ids::compare);
+    }
+
+    /**
+     * @return the rows matching the criteria, or {@code null} if not matched in memory.
+     */
+    private static BitSet filter(Snapshot snapshot, FilmCriteria criteria) {
+        BitSet rows = new BitSet(snapshot.size);
+        rows.set(0, snapshot.size);
+        if (criteria == null) {
+            return rows;
+        }
+        if (
+            criteria.getSynopsis() != null ||
+            criteria.getUrl() != null ||
+            criteria.getPersonId() != null ||
+            criteria.getEpisodesId() != null ||
+            !isMatchedInMemory(criteria.getTitle())
+        ) {
+            return null;
+        }
+        retain(rows, criteria.getId(), snapshot.ids);
+        retain(rows, criteria.getViews(), snapshot.views);
+        retain(rows, criteria.getReviews(), snapshot.reviews);
+        retain(rows, criteria.getOrder(), snapshot.orders);
+        retain(rows, criteria.getGender(), snapshot.genders);
+        retain(rows, criteria.getFilmType(), snapshot.filmTypes);
+        retain(rows, criteria.getTitle(), snapshot);
+        return rows;
+    }
+
+    private static boolean isMatchedInMemory(TextFilter filter) {
+        return (
+            filter == null ||
+            (
+                filter.getSearch() == null &&
+                filter.getFuzzy() == null &&
+                !isWildcard(filter.getContains()) &&
+                !isWildcard(filter.getDoesNotContain())
+            )
+        );
+    }
+
+    private static boolean isWildcard(String value) {
+        return value != null && (value.contains("%") || value.contains("_"));
+    }
+
+    private static void retain(BitSet rows, IntPredicate predicate) {
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if (!predicate.test(row)) {
+                rows.clear(row);
+            }
+        }
+    }
+
+    private static void retain(BitSet rows, RangeFilter<? extends Number> filter, Column column) {
+        if (filter == null) {
+            return;
+        }
+        // As the specifications, equals wins over in, which wins over the other operators
+        if (filter.getEquals() != null) {
+            long value = filter.getEquals().longValue();
+            retain(rows, row -> column.matches(row, v -> v == value));
+            return;
+        }
+        if (filter.getIn() != null) {
+            Set<Long> values = longs(filter.getIn());
+            retain(rows, row -> column.matches(row, values::contains));
+            return;
+        }
+        if (filter.getSpecified() != null) {
+            boolean specified = filter.getSpecified();
+            retain(rows, row -> column.isNull(row) != specified);
+        }
+        if (filter.getNotEquals() != null) {
+            long value = filter.getNotEquals().longValue();
+            retain(rows, row -> column.matches(row, v -> v != value));
+        }
+        if (filter.getNotIn() != null) {
+            Set<Long> values = longs(filter.getNotIn());
+            retain(rows, row -> column.matches(row, v -> !values.contains(v)));
+        }
+        if (filter.getGreaterThan() != null) {
+            long value = filter.getGreaterThan().longValue();
+            retain(rows, row -> column.matches(row, v -> v > value));
+        }
+        if (filter.getGreaterThanOrEqual() != null) {
+            long value = filter.getGreaterThanOrEqual().longValue();
+            retain(rows, row -> column.matches(row, v -> v >= value));
+        }
+        if (filter.getLessThan() != null) {
+            long value = filter.getLessThan().longValue();
+            retain(rows, row -> column.matches(row, v -> v < value));
+        }
+        if (filter.getLessThanOrEqual() != null) {
+            long value = filter.getLessThanOrEqual().longValue();
+            retain(rows, row -> column.matches(row, v -> v <= value));
+        }
+    }
+
+    private static Set<Long> longs(Collection<? extends Number> values) {
+        return values.stream().map(Number::longValue).collect(Collectors.toSet());
+    }
+
+    private static void retain(BitSet rows, Filter<? extends Enum<?>> filter, EnumColumn column) {
+        if (filter == null) {
+            return;
+        }
+        if (filter.getEquals() != null) {
+            int ordinal = filter.getEquals().ordinal();
+            retain(rows, row -> column.matches(row, o -> o == ordinal));
+            return;
+        }
+        if (filter.getIn() != null) {
+            BitSet ordinals = ordinals(filter.getIn());
+            retain(rows, row -> column.matches(row, ordinals::get));
+            return;
+        }
+        if (filter.getSpecified() != null) {
+            boolean specified = filter.getSpecified();
+            retain(rows, row -> column.isNull(row) != specified);
+        }
+        if (filter.getNotEquals() != null) {
+            int ordinal = filter.getNotEquals().ordinal();
+            retain(rows, row -> column.matches(row, o -> o != ordinal));
+        }
+        if (filter.getNotIn() != null) {
+            BitSet ordinals = ordinals(filter.getNotIn());
+            retain(rows, row -> column.matches(row, o -> !ordinals.get(o)));
+        }
+    }
+
+    private static BitSet ordinals(Collection<? extends Enum<?>> values) {
+        BitSet ordinals = new BitSet();
+        values.forEach(value -> ordinals.set(value.ordinal()));
+        return ordinals;
+    }
+
+    private static void retain(BitSet rows, StringFilter filter, Snapshot snapshot) {
+        if (filter == null) {
+            return;
+        }
+        String[] titles = snapshot.titles;
+        if (filter.getEquals() != null) {
+            retain(rows, row -> filter.getEquals().equals(titles[row]));
+            return;
+        }
+        if (filter.getIn() != null) {
+            Set<String> values = new HashSet<>(filter.getIn());
+            retain(rows, row -> titles[row] != null && values.contains(titles[row]));
+            return;
+        }
+        if (filter.getNotIn() != null) {
+            Set<String> values = new HashSet<>(filter.getNotIn());
+            retain(rows, row -> titles[row] != null && !values.contains(titles[row]));
+        }
+        if (filter.getContains() != null) {
+            String value = filter.getContains().toUpperCase(Locale.ROOT);
+            retain(rows, row -> snapshot.upperTitles[row] != null && snapshot.upperTitles[row].contains(value));
+        }
+        if (filter.getDoesNotContain() != null) {
+            String value = filter.getDoesNotContain().toUpperCase(Locale.ROOT);
+            retain(rows, row -> snapshot.upperTitles[row] != null && !snapshot.upperTitles[row].contains(value));
+        }
+        if (filter.getNotEquals() != null) {
+            retain(rows, row -> titles[row] != null && !filter.getNotEquals().equals(titles[row]));
+        }
+        if (filter.getSpecified() != null) {
+            boolean specified = filter.getSpecified();
+            retain(rows, row -> (titles[row] != null) == specified);
+        }
+    }
+}
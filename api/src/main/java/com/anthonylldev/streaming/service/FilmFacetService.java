@@ -0,0 +1,414 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.domain.Film;
+import com.anthonylldev.streaming.domain.Film_;
+import com.anthonylldev.streaming.domain.enumeration.FilmType;
+import com.anthonylldev.streaming.domain.enumeration.Gender;
+import com.anthonylldev.streaming.service.dto.FilmFacetsDTO;
+import com.anthonylldev.streaming.service.event.FilmChangedEvent;
+import com.anthonylldev.streaming.service.util.CompressedBitmap;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service for counting the {@link Film}s matching criteria by gender, film type, publication year and views decile, all
+ * at once.
+ * <p>
+ * Films are indexed in memory by a {@link CompressedBitmap} of their ids for each gender, film type, publication year
+ * and views decile. The films matching criteria are read as a bitmap of their ids, or built from the index itself when
+ * the criteria only filter on genders and film types, then intersected with each bitmap of the index to count them. The
+ * index is built from the database once the application is ready, kept up to date as films are written by this node,
+ * and periodically rebuilt, to pick up the films written by other nodes and the views, whose deciles are then
+ * recomputed.
+ */
+@Service
+public class FilmFacetService {
+
+    private final Logger log = LoggerFactory.getLogger(FilmFacetService.class);
+
+    private static final String SELECT_FILMS_SQL =
+        "SELECT id, gender, film_type, publication_date, views FROM film WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final int DECILES = 10;
+
+    /**
+     * The facets of a film, as indexed.
+     */
+    private static final class Entry {
+
+        private final long id;
+
+        private final Gender gender;
+
+        private final FilmType filmType;
+
+        private final Integer publicationYear;
+
+        private final Integer views;
+
+        private Entry(long id, Gender gender, FilmType filmType, Integer publicationYear, Integer views) {
+            this.id = id;
+            this.gender = gender;
+            this.filmType = filmType;
+            this.publicationYear = publicationYear;
+            this.views = views;
+        }
+    }
+
+    /**
+     * The bitmaps of the ids of the films, by value of each facet. Indexes are not thread-safe.
+     */
+    private static final class Index {
+
+        private final CompressedBitmap films = new CompressedBitmap();
+
+        private final Map<Gender, CompressedBitmap> genders = new EnumMap<>(Gender.class);
+
+        private final Map<FilmType, CompressedBitmap> filmTypes = new EnumMap<>(FilmType.class);
+
+        private final Map<Integer, CompressedBitmap> publicationYears = new TreeMap<>();
+
+        /**
+         * The lowest views of each decile, ascending.
+         */
+        private final int[] viewsBounds;
+
+        private final CompressedBitmap[] viewsDeciles;
+
+        private final Map<Long, Entry> entries = new HashMap<>();
+
+        private Index(int[] viewsBounds) {
+            this.viewsBounds = viewsBounds;
+            this.viewsDeciles = new CompressedBitmap[viewsBounds.length];
+            Arrays.setAll(viewsDeciles, i -> new CompressedBitmap());
+        }
+
+        private void put(Entry entry) {
+            remove(entry.id);
+            entries.put(entry.id, entry);
+            films.add(entry.id);
+            if (entry.gender != null) {
+                genders.computeIfAbsent(entry.gender, gender -> new CompressedBitmap()).add(entry.id);
+            }
+            if (entry.filmType != null) {
+                filmTypes.computeIfAbsent(entry.filmType, filmType -> new CompressedBitmap()).add(entry.id);
+            }
+            if (entry.publicationYear != null) {
+                publicationYears.computeIfAbsent(entry.publicationYear, year -> new CompressedBitmap()).add(entry.id);
+            }
+            int decile = decile(entry.views);
+            if (decile >= 0) {
+                viewsDeciles[decile].add(entry.id);
+            }
+        }
+
+        private void remove(long id) {
+            Entry entry = entries.remove(id);
+            if (entry == null) {
+                return;
+            }
+            films.remove(id);
+            remove(genders, entry.gender, id);
+            remove(filmTypes, entry.filmType, id);
+            remove(publicationYears, entry.publicationYear, id);
+            int decile = decile(entry.views);
+            if (decile >= 0) {
+                viewsDeciles[decile].remove(id);
+            }
+        }
+
+        private static <K> void remove(Map<K, CompressedBitmap> bitmaps, K value, long id) {
+            CompressedBitmap bitmap = value == null ? null : bitmaps.get(value);
+            if (bitmap != null && bitmap.remove(id) && bitmap.cardinality() == 0) {
+                bitmaps.remove(value);
+            }
+        }
+
+        /**
+         * @return the decile of some views, those below the first one, written since it was computed, counting in it;
+         * or {@code -1} for no views.
+         */
+        private int decile(Integer views) {
+            if (views == null || viewsBounds.length == 0) {
+                return -1;
+            }
+            int i = Arrays.binarySearch(viewsBounds, views);
+            return i >= 0 ? i : Math.max(0, -i - 2);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    private final int batchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Index index = new Index(new int[0]);
+
+    /**
+     * The writes of films while the index is rebuilt, replayed on the rebuilt index, or {@code null} when it is not.
+     */
+    private List<Consumer<Index>> rebuildWrites;
+
+    public FilmFacetService(ApplicationProperties applicationProperties, JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.batchSize = applicationProperties.getFacets().getBatchSize();
+    }
+
+    /**
+     * Rebuild the index from the database, reading the films in batches with keyset pagination, and recomputing the
+     * deciles of their views.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+        fixedDelayString = "${application.facets.refresh-interval:600000}",
+        initialDelayString = "${application.facets.refresh-interval:600000}"
+    )
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        setRebuildWrites(new ArrayList<>());
+        List<Entry> entries = new ArrayList<>();
+        try {
+            long lastId = Long.MIN_VALUE;
+            List<Entry> batch;
+            do {
+                batch = jdbcTemplate.query(SELECT_FILMS_SQL, (rs, rowNum) -> entry(rs), lastId, batchSize);
+                entries.addAll(batch);
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).id;
+                }
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            setRebuildWrites(null);
+            log.warn("Facet index could not be rebuilt, retrying on next refresh: {}", e.getMessage());
+            return;
+        }
+        Index rebuilt = new Index(viewsBounds(entries));
+        entries.forEach(rebuilt::put);
+        lock.writeLock().lock();
+        try {
+            rebuildWrites.forEach(write -> write.accept(rebuilt));
+            rebuildWrites = null;
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Rebuilt the facet index of {} films in {} ms", entries.size(), System.currentTimeMillis() - start);
+    }
+
+    private void setRebuildWrites(List<Consumer<Index>> writes) {
+        lock.writeLock().lock();
+        try {
+            rebuildWrites = writes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Entry entry(ResultSet rs) throws SQLException {
+        String gender = rs.getString("gender");
+        String filmType = rs.getString("film_type");
+        Timestamp publicationDate = rs.getTimestamp("publication_date");
+        int views = rs.getInt("views");
+        return new Entry(
+            rs.getLong("id"),
+            gender == null ? null : Gender.valueOf(gender),
+            filmType == null ? null : FilmType.valueOf(filmType),
+            publicationDate == null ? null : publicationDate.toLocalDateTime().getYear(),
+            rs.wasNull() ? null : views
+        );
+    }
+
+    /**
+     * @return the lowest views of each decile of the films with views, without duplicates, the same views being in
+     * the same decile.
+     */
+    private static int[] viewsBounds(List<Entry> entries) {
+        int[] views = entries.stream().filter(entry -> entry.views != null).mapToInt(entry -> entry.views).sorted().toArray();
+        if (views.length == 0) {
+            return views;
+        }
+        int[] bounds = new int[DECILES];
+        for (int i = 0; i < DECILES; i++) {
+            bounds[i] = views[(int) ((long) i * views.length / DECILES)];
+        }
+        return Arrays.stream(bounds).distinct().toArray();
+    }
+
+    /**
+     * Index a film written, or remove a film deleted, once the transaction writing it commits.
+     *
+     * @param event the film written or deleted.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void filmChanged(FilmChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getId());
+        } else {
+            index(event.getFilm());
+        }
+    }
+
+    /**
+     * Index a film.
+     *
+     * @param film the film.
+     */
+    public void index(Film film) {
+        Entry entry = new Entry(
+            film.getId(),
+            film.getGender(),
+            film.getFilmType(),
+            film.getPublicationDate() == null ? null : film.getPublicationDate().getYear(),
+            film.getViews()
+        );
+        write(index -> index.put(entry));
+    }
+
+    /**
+     * Remove a film from the index.
+     *
+     * @param id the id of the film.
+     */
+    public void remove(Long id) {
+        write(index -> index.remove(id));
+    }
+
+    private void write(Consumer<Index> write) {
+        lock.writeLock().lock();
+        try {
+            write.accept(index);
+            if (rebuildWrites != null) {
+                rebuildWrites.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Count the films matching a specification by facet.
+     *
+     * @param specification the specification, read as the ids of the films it matches; or {@code null} for all films.
+     * @return the counts, the films not indexed yet counting in the total only.
+     */
+    @Transactional(readOnly = true)
+    public FilmFacetsDTO findFacets(Specification<Film> specification) {
+        if (specification == null) {
+            return findFacets(null, null);
+        }
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Film> root = query.from(Film.class);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get(Film_.id));
+        CompressedBitmap films = new CompressedBitmap();
+        entityManager.createQuery(query).getResultStream().forEach(films::add);
+        lock.readLock().lock();
+        try {
+            return count(index, films);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count the films of some genders and film types by facet, from the index only.
+     *
+     * @param genders   the genders of the films, or {@code null} for any.
+     * @param filmTypes the film types of the films, or {@code null} for any.
+     * @return the counts.
+     */
+    public FilmFacetsDTO findFacets(Collection<Gender> genders, Collection<FilmType> filmTypes) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap films = index.films;
+            if (genders != null) {
+                films = films.and(union(index.genders, genders));
+            }
+            if (filmTypes != null) {
+                films = films.and(union(index.filmTypes, filmTypes));
+            }
+            return count(index, films);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static <K> CompressedBitmap union(Map<K, CompressedBitmap> bitmaps, Collection<K> values) {
+        CompressedBitmap union = new CompressedBitmap();
+        for (K value : values) {
+            CompressedBitmap bitmap = bitmaps.get(value);
+            if (bitmap != null) {
+                union = union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    private static FilmFacetsDTO count(Index index, CompressedBitmap films) {
+        FilmFacetsDTO facets = new FilmFacetsDTO();
+        facets.setTotal(films.cardinality());
+        Map<Gender, Long> genders = new EnumMap<>(Gender.class);
+        for (Gender gender : Gender.values()) {
+            CompressedBitmap bitmap = index.genders.get(gender);
+            genders.put(gender, bitmap == null ? 0 : bitmap.andCardinality(films));
+        }
+        facets.setGender(genders);
+        Map<FilmType, Long> filmTypes = new EnumMap<>(FilmType.class);
+        for (FilmType filmType : FilmType.values()) {
+            CompressedBitmap bitmap = index.filmTypes.get(filmType);
+            filmTypes.put(filmType, bitmap == null ? 0 : bitmap.andCardinality(films));
+        }
+        facets.setFilmType(filmTypes);
+        Map<Integer, Long> publicationYears = new TreeMap<>();
+        index.publicationYears.forEach((year, bitmap) -> {
+            long count = bitmap.andCardinality(films);
+            if (count > 0) {
+                publicationYears.put(year, count);
+            }
+        });
+        facets.setPublicationYear(publicationYears);
+        List<FilmFacetsDTO.ViewsRangeDTO> views = new ArrayList<>(index.viewsBounds.length);
+        for (int i = 0; i < index.viewsBounds.length; i++) {
+            Integer to = i + 1 < index.viewsBounds.length ? index.viewsBounds[i + 1] : null;
+            views.add(new FilmFacetsDTO.ViewsRangeDTO(index.viewsBounds[i], to, index.viewsDeciles[i].andCardinality(films)));
+        }
+        facets.setViews(views);
+        return facets;
+    }
+}
@@ -4,18 +4,26 @@ import com.anthonylldev.streaming.domain.*; // for static metamodels
 import com.anthonylldev.streaming.domain.Film;
 import com.anthonylldev.streaming.repository.FilmRepository;
 import com.anthonylldev.streaming.service.criteria.FilmCriteria;
+import com.anthonylldev.streaming.service.criteria.TextFilter;
 import com.anthonylldev.streaming.service.dto.FilmDTO;
+import com.anthonylldev.streaming.service.dto.FilmFacetsDTO;
 import com.anthonylldev.streaming.service.mapper.FilmMapper;
+import com.anthonylldev.streaming.service.util.CursorSlice;
+import java.util.HashMap;
 import java.util.List;
-import javax.persistence.criteria.JoinType;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.persistence.metamodel.SingularAttribute;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import tech.jhipster.service.QueryService;
+import tech.jhipster.service.filter.Filter;
 
 /**
  * Service for executing complex queries for {@link Film} entities in the database.
@@ -25,7 +33,7 @@ import tech.jhipster.service.QueryService;
  */
 @Service
 @Transactional(readOnly = true)
-public class FilmQueryService extends QueryService<Film> {
+public class FilmQueryService extends TextQueryService<Film> {
 
     private final Logger log = LoggerFactory.getLogger(FilmQueryService.class);
 
@@ -33,9 +41,28 @@ public class FilmQueryService extends QueryService<Film> {
 
     private final FilmMapper filmMapper;
 
-    public FilmQueryService(FilmRepository filmRepository, FilmMapper filmMapper) {
+    private final CursorQueryService cursorQueryService;
+
+    private final CountQueryService countQueryService;
+
+    private final FilmFacetService filmFacetService;
+
+    private final FilmCatalogService filmCatalogService;
+
+    public FilmQueryService(
+        FilmRepository filmRepository,
+        FilmMapper filmMapper,
+        CursorQueryService cursorQueryService,
+        CountQueryService countQueryService,
+        FilmFacetService filmFacetService,
+        FilmCatalogService filmCatalogService
+    ) {
         this.filmRepository = filmRepository;
         this.filmMapper = filmMapper;
+        this.cursorQueryService = cursorQueryService;
+        this.countQueryService = countQueryService;
+        this.filmFacetService = filmFacetService;
+        this.filmCatalogService = filmCatalogService;
     }
 
     /**
@@ -53,14 +80,68 @@ public class FilmQueryService extends QueryService<Film> {
     /**
      * Return a {@link Page} of {@link FilmDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
-     * @param page The page, which should be returned.
+     * @param page The page, which should be returned, possibly sorted by {@value #RELEVANCE}.
      * @return the matching entities.
      */
     @Transactional(readOnly = true)
     public Page<FilmDTO> findByCriteria(FilmCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+        return findByCriteria(criteria, page, CountQueryService.Mode.EXACT);
+    }
+
+    /**
+     * Return a {@link Page} of {@link FilmDTO} which matches the criteria from the snapshot of the catalog if it can
+     * match and sort them, or from the database, or from the cached ids of the page, counting the entities only if the
+     * page is neither the first nor the last, and with a cached count if any.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned, possibly sorted by {@value #RELEVANCE}.
+     * @param countMode How to count the entities.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<FilmDTO> findByCriteria(FilmCriteria criteria, Pageable page, CountQueryService.Mode countMode) {
+        log.debug("find by criteria : {}, page: {}, count mode: {}", criteria, page, countMode);
+        final FilmCriteria filters = criteria == null ? new FilmCriteria() : criteria.copy();
+        Optional<Page<Film>> snapshotPage = filmCatalogService.findIds(filters, page).flatMap(this::findAllById);
+        if (snapshotPage.isPresent()) {
+            return snapshotPage.get().map(filmMapper::toDto);
+        }
+        Specification<Film> specification = createSpecification(filters);
+        if (isSortedByRelevance(page)) {
+            Map<SingularAttribute<? super Film, String>, TextFilter> textFilters = new HashMap<>();
+            textFilters.put(Film_.title, filters.getTitle());
+            textFilters.put(Film_.synopsis, filters.getSynopsis());
+            specification = sortByRelevance(specification, page.getSort(), textFilters);
+        }
+        return countQueryService
+            .findAll(Film.class, filters, specification, page, () -> countByCriteria(filters, countMode))
+            .map(filmMapper::toDto);
+    }
+
+    /**
+     * Read the entities of a page of ids from the second-level cache.
+     * @return the page of the entities, or empty if one of them was deleted since the ids were found.
+     */
+    private Optional<Page<Film>> findAllById(Page<Long> ids) {
+        List<Film> films = ids.getContent().stream().map(filmRepository::findById).flatMap(Optional::stream).collect(Collectors.toList());
+        if (films.size() < ids.getNumberOfElements()) {
+            return Optional.empty();
+        }
+        return Optional.of(new PageImpl<>(films, ids.getPageable(), ids.getTotalElements()));
+    }
+
+    /**
+     * Return a {@link CursorSlice} of {@link FilmDTO} which matches the criteria from the database, seeking past the
+     * previous slice instead of skipping and counting the entities before it.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the slice, returned with the previous one, or empty for the first one.
+     * @param page The size and the sort of the slice.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorSlice<FilmDTO> findByCriteria(FilmCriteria criteria, String cursor, Pageable page) {
+        log.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
         final Specification<Film> specification = createSpecification(criteria);
-        return filmRepository.findAll(specification, page).map(filmMapper::toDto);
+        return cursorQueryService.findAll(Film.class, specification, cursor, page).map(filmMapper::toDto);
     }
 
     /**
@@ -70,9 +151,61 @@ public class FilmQueryService extends QueryService<Film> {
      */
     @Transactional(readOnly = true)
     public long countByCriteria(FilmCriteria criteria) {
-        log.debug("count by criteria : {}", criteria);
-        final Specification<Film> specification = createSpecification(criteria);
-        return filmRepository.count(specification);
+        return countByCriteria(criteria, CountQueryService.Mode.EXACT);
+    }
+
+    /**
+     * Return the number of matching entities in the database, cached since counted until the entities are written.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param mode How to count the entities.
+     * @return the number of matching entities, estimated if so requested and the criteria filter nothing.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(FilmCriteria criteria, CountQueryService.Mode mode) {
+        log.debug("count by criteria : {}, mode: {}", criteria, mode);
+        final FilmCriteria filters = criteria == null ? new FilmCriteria() : criteria.copy();
+        final Specification<Film> specification = createSpecification(filters);
+        return countQueryService.count(Film.class, filters, isUnfiltered(filters), () -> filmRepository.count(specification), mode);
+    }
+
+    /**
+     * Return the number of matching entities, in total and by gender, film type, publication year and views decile.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the facets of the matching entities, counted in memory without querying the database if the criteria
+     * only filter on genders and film types.
+     */
+    @Transactional(readOnly = true)
+    public FilmFacetsDTO findFacetsByCriteria(FilmCriteria criteria) {
+        log.debug("find facets by criteria : {}", criteria);
+        final FilmCriteria filters = criteria == null ? new FilmCriteria() : criteria.copy();
+        if (isIndexed(filters.getGender()) && isIndexed(filters.getFilmType())) {
+            FilmCriteria others = filters.copy();
+            others.setDistinct(null);
+            others.setGender(null);
+            others.setFilmType(null);
+            if (others.equals(new FilmCriteria())) {
+                return filmFacetService.findFacets(values(filters.getGender()), values(filters.getFilmType()));
+            }
+        }
+        return filmFacetService.findFacets(createSpecification(filters));
+    }
+
+    private static boolean isIndexed(Filter<?> filter) {
+        return filter == null || (filter.getNotEquals() == null && filter.getNotIn() == null && filter.getSpecified() == null);
+    }
+
+    private static <X> List<X> values(Filter<X> filter) {
+        if (filter == null) {
+            return null;
+        }
+        // Equals wins over in, as with the specification
+        return filter.getEquals() != null ? List.of(filter.getEquals()) : filter.getIn();
+    }
+
+    private static boolean isUnfiltered(FilmCriteria criteria) {
+        FilmCriteria filters = criteria.copy();
+        filters.setDistinct(null);
+        return filters.equals(new FilmCriteria());
     }
 
     /**
@@ -91,10 +224,10 @@ public class FilmQueryService extends QueryService<Film> {
                 specification = specification.and(buildRangeSpecification(criteria.getId(), Film_.id));
             }
             if (criteria.getTitle() != null) {
-                specification = specification.and(buildStringSpecification(criteria.getTitle(), Film_.title));
+                specification = specification.and(buildTextSpecification(criteria.getTitle(), Film_.title));
             }
             if (criteria.getSynopsis() != null) {
-                specification = specification.and(buildStringSpecification(criteria.getSynopsis(), Film_.synopsis));
+                specification = specification.and(buildTextSpecification(criteria.getSynopsis(), Film_.synopsis));
             }
             if (criteria.getViews() != null) {
                 specification = specification.and(buildRangeSpecification(criteria.getViews(), Film_.views));
@@ -117,13 +250,13 @@ public class FilmQueryService extends QueryService<Film> {
             if (criteria.getPersonId() != null) {
                 specification =
                     specification.and(
-                        buildSpecification(criteria.getPersonId(), root -> root.join(Film_.people, JoinType.LEFT).get(Person_.id))
+                        buildExistsSpecification(criteria.getPersonId(), root -> root.join(Film_.people).get(Person_.id))
                     );
             }
             if (criteria.getEpisodesId() != null) {
                 specification =
                     specification.and(
-                        buildSpecification(criteria.getEpisodesId(), root -> root.join(Film_.episodes, JoinType.LEFT).get(Episode_.id))
+                        buildExistsSpecification(criteria.getEpisodesId(), root -> root.join(Film_.episodes).get(Episode_.id))
                     );
             }
         }
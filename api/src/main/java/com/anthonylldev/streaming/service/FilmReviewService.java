@@ -0,0 +1,285 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.domain.Film;
+import com.anthonylldev.streaming.repository.FilmRepository;
+import com.anthonylldev.streaming.service.dto.FilmReviewDTO;
+import com.anthonylldev.streaming.service.dto.RatingsDTO;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import javax.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service managing the reviews of {@link Film}s, and their ratings.
+ * <p>
+ * Each film keeps the histogram of its ratings, with their sum and the sum of their squares, in its own row: every
+ * review written or deleted adds its deltas in the same transaction, and the database derives the number of ratings and
+ * the Bayesian average from them. The means and scores of films are read with the films, and the catalog is sorted by
+ * score, without ever aggregating the reviews.
+ */
+@Service
+public class FilmReviewService {
+
+    private final Logger log = LoggerFactory.getLogger(FilmReviewService.class);
+
+    private static final int STARS = 5;
+
+    private static final String INSERT_REVIEW_SQL =
+        "INSERT INTO film_review (film_id, user_login, rating, content, created_date, last_modified_date) VALUES (?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (film_id, user_login) DO NOTHING";
+
+    private static final String SELECT_REVIEW_FOR_UPDATE_SQL =
+        "SELECT rating, created_date FROM film_review WHERE film_id = ? AND user_login = ? FOR UPDATE";
+
+    private static final String UPDATE_REVIEW_SQL =
+        "UPDATE film_review SET rating = ?, content = ?, last_modified_date = ? WHERE film_id = ? AND user_login = ?";
+
+    private static final String DELETE_REVIEW_SQL = "DELETE FROM film_review WHERE film_id = ? AND user_login = ? RETURNING rating";
+
+    private static final String SELECT_REVIEWS_SQL =
+        "SELECT film_id, user_login, rating, content, created_date, last_modified_date FROM film_review WHERE film_id = ? ";
+
+    private static final String UPDATE_RATINGS_SQL =
+        "UPDATE film SET rating_1 = rating_1 + ?, rating_2 = rating_2 + ?, rating_3 = rating_3 + ?, rating_4 = rating_4 + ?, " +
+        "rating_5 = rating_5 + ?, rating_sum = rating_sum + ?, rating_sum_squares = rating_sum_squares + ?, " +
+        "reviews = COALESCE(reviews, 0) + ? WHERE id = ?";
+
+    private static final String SELECT_RATINGS_SQL =
+        "SELECT rating_1, rating_2, rating_3, rating_4, rating_5, rating_count, rating_sum, rating_sum_squares, rating_score " +
+        "FROM film WHERE id = ?";
+
+    private final FilmRepository filmRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public FilmReviewService(
+        FilmRepository filmRepository,
+        JdbcTemplate jdbcTemplate,
+        TransactionTemplate transactionTemplate,
+        EntityManagerFactory entityManagerFactory
+    ) {
+        this.filmRepository = filmRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Save the review of a film by a user, replacing their previous one.
+     *
+     * @param login         the login of the user.
+     * @param filmId        the id of the film.
+     * @param filmReviewDTO the review.
+     * @return the review saved, or empty if there is no such film.
+     */
+    public Optional<FilmReviewDTO> save(String login, Long filmId, FilmReviewDTO filmReviewDTO) {
+        log.debug("Request to save FilmReview : {}, {}, {}", login, filmId, filmReviewDTO);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime lastModifiedDate = LocalDateTime.ofInstant(now, ZoneOffset.UTC);
+        Optional<FilmReviewDTO> result = transactionTemplate.execute(status -> {
+            // Served from the second-level cache
+            if (filmRepository.findById(filmId).isEmpty()) {
+                return Optional.empty();
+            }
+            FilmReviewDTO review = new FilmReviewDTO();
+            review.setFilmId(filmId);
+            review.setLogin(login);
+            review.setRating(filmReviewDTO.getRating());
+            review.setContent(filmReviewDTO.getContent());
+            review.setCreatedDate(now);
+            review.setLastModifiedDate(now);
+            int inserted = jdbcTemplate.update(
+                INSERT_REVIEW_SQL,
+                filmId,
+                login,
+                review.getRating(),
+                review.getContent(),
+                lastModifiedDate,
+                lastModifiedDate
+            );
+            Integer previous = null;
+            if (inserted == 0) {
+                // Locked, so that the previous rating is only replaced once by concurrent saves
+                List<Integer> previousRatings = new ArrayList<>();
+                jdbcTemplate.query(
+                    SELECT_REVIEW_FOR_UPDATE_SQL,
+                    rs -> {
+                        previousRatings.add(rs.getInt("rating"));
+                        review.setCreatedDate(rs.getObject("created_date", LocalDateTime.class).toInstant(ZoneOffset.UTC));
+                    },
+                    filmId,
+                    login
+                );
+                previous = previousRatings.get(0);
+                jdbcTemplate.update(UPDATE_REVIEW_SQL, review.getRating(), review.getContent(), lastModifiedDate, filmId, login);
+            }
+            updateRatings(filmId, previous, review.getRating());
+            return Optional.of(review);
+        });
+        result.ifPresent(review -> evict(filmId));
+        return result;
+    }
+
+    /**
+     * Delete the review of a film by a user.
+     *
+     * @param login  the login of the user.
+     * @param filmId the id of the film.
+     * @return {@code false} if the user did not review the film.
+     */
+    public boolean delete(String login, Long filmId) {
+        log.debug("Request to delete FilmReview : {}, {}", login, filmId);
+        List<Integer> ratings = transactionTemplate.execute(status -> {
+            List<Integer> deleted = jdbcTemplate.queryForList(DELETE_REVIEW_SQL, Integer.class, filmId, login);
+            deleted.forEach(rating -> updateRatings(filmId, rating, null));
+            return deleted;
+        });
+        boolean deleted = ratings != null && !ratings.isEmpty();
+        if (deleted) {
+            evict(filmId);
+        }
+        return deleted;
+    }
+
+    /**
+     * Get the review of a film by a user.
+     *
+     * @param login  the login of the user.
+     * @param filmId the id of the film.
+     * @return the review, or empty if the user did not review the film.
+     */
+    @Transactional(readOnly = true)
+    public Optional<FilmReviewDTO> findOne(String login, Long filmId) {
+        log.debug("Request to get FilmReview : {}, {}", login, filmId);
+        return jdbcTemplate
+            .query(SELECT_REVIEWS_SQL + "AND user_login = ?", FilmReviewService::toReview, filmId, login)
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * Get the reviews of a film, the most recent first.
+     *
+     * @param filmId   the id of the film.
+     * @param pageable the pagination information, its sort being ignored.
+     * @return the reviews, or empty if there is no such film.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Page<FilmReviewDTO>> findAll(Long filmId, Pageable pageable) {
+        log.debug("Request to get all FilmReviews : {}", filmId);
+        // Served from the second-level cache, like the total number of reviews, each having a rating
+        return filmRepository
+            .findById(filmId)
+            .map(film -> {
+                List<FilmReviewDTO> reviews = jdbcTemplate.query(
+                    SELECT_REVIEWS_SQL + "ORDER BY last_modified_date DESC, user_login LIMIT ? OFFSET ?",
+                    FilmReviewService::toReview,
+                    filmId,
+                    pageable.getPageSize(),
+                    pageable.getOffset()
+                );
+                return new PageImpl<>(reviews, pageable, film.getRatingCount());
+            });
+    }
+
+    /**
+     * Get the distribution of the ratings of a film.
+     *
+     * @param filmId the id of the film.
+     * @return the ratings, or empty if there is no such film.
+     */
+    @Transactional(readOnly = true)
+    public Optional<RatingsDTO> findRatings(Long filmId) {
+        log.debug("Request to get the ratings of Film : {}", filmId);
+        return jdbcTemplate
+            .query(SELECT_RATINGS_SQL, (rs, rowNum) -> toRatings(filmId, rs), filmId)
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * Replace a rating in the histogram of a film.
+     *
+     * @param filmId  the id of the film.
+     * @param removed the rating removed, if any.
+     * @param added   the rating added, if any.
+     */
+    private void updateRatings(Long filmId, Integer removed, Integer added) {
+        if (Objects.equals(removed, added)) {
+            return;
+        }
+        Object[] deltas = new Object[STARS + 4];
+        for (int stars = 1; stars <= STARS; stars++) {
+            deltas[stars - 1] = delta(removed, added, stars);
+        }
+        int removedValue = removed != null ? removed : 0;
+        int addedValue = added != null ? added : 0;
+        deltas[STARS] = addedValue - removedValue;
+        deltas[STARS + 1] = addedValue * addedValue - removedValue * removedValue;
+        deltas[STARS + 2] = (added != null ? 1 : 0) - (removed != null ? 1 : 0);
+        deltas[STARS + 3] = filmId;
+        jdbcTemplate.update(UPDATE_RATINGS_SQL, deltas);
+    }
+
+    private static int delta(Integer removed, Integer added, int stars) {
+        return (Integer.valueOf(stars).equals(added) ? 1 : 0) - (Integer.valueOf(stars).equals(removed) ? 1 : 0);
+    }
+
+    private void evict(Long filmId) {
+        // After the commit, as a film loaded meanwhile would be cached with the ratings replaced
+        entityManagerFactory.getCache().evict(Film.class, filmId);
+    }
+
+    private static FilmReviewDTO toReview(ResultSet rs, int rowNum) throws SQLException {
+        FilmReviewDTO review = new FilmReviewDTO();
+        review.setFilmId(rs.getLong("film_id"));
+        review.setLogin(rs.getString("user_login"));
+        review.setRating(rs.getInt("rating"));
+        review.setContent(rs.getString("content"));
+        // The columns have no time zone and hold UTC, like the columns written by Hibernate
+        review.setCreatedDate(rs.getObject("created_date", LocalDateTime.class).toInstant(ZoneOffset.UTC));
+        review.setLastModifiedDate(rs.getObject("last_modified_date", LocalDateTime.class).toInstant(ZoneOffset.UTC));
+        return review;
+    }
+
+    private static RatingsDTO toRatings(Long filmId, ResultSet rs) throws SQLException {
+        List<Long> histogram = new ArrayList<>();
+        for (int stars = 1; stars <= STARS; stars++) {
+            histogram.add(rs.getLong("rating_" + stars));
+        }
+        long count = rs.getLong("rating_count");
+        RatingsDTO ratings = new RatingsDTO();
+        ratings.setFilmId(filmId);
+        ratings.setCount(count);
+        ratings.setHistogram(histogram);
+        ratings.setScore(rs.getDouble("rating_score"));
+        if (count > 0) {
+            double mean = (double) rs.getLong("rating_sum") / count;
+            double variance = (double) rs.getLong("rating_sum_squares") / count - mean * mean;
+            ratings.setMean(mean);
+            // Rounding may make the variance of equal ratings slightly negative
+            ratings.setStandardDeviation(Math.sqrt(Math.max(variance, 0)));
+        }
+        return ratings;
+    }
+}
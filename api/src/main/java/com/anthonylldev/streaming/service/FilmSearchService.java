@@ -0,0 +1,206 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.domain.Film;
+import com.anthonylldev.streaming.repository.FilmRepository;
+import com.anthonylldev.streaming.service.dto.FilmDTO;
+import com.anthonylldev.streaming.service.event.FilmChangedEvent;
+import com.anthonylldev.streaming.service.mapper.FilmMapper;
+import com.anthonylldev.streaming.service.util.InvertedIndex;
+import com.anthonylldev.streaming.service.util.TextAnalyzer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service for the full-text search of {@link Film}s by title and synopsis.
+ * <p>
+ * Films are searched in an in-memory {@link InvertedIndex}, ranked with BM25, instead of scanning their titles and
+ * synopses with {@code LIKE '%term%'}. The index is built from the database once the application is ready, reading the
+ * films in batches indexed in parallel, and kept up to date as films are written by this node; it is periodically
+ * rebuilt, to pick up the films written by other nodes.
+ */
+@Service
+public class FilmSearchService {
+
+    private final Logger log = LoggerFactory.getLogger(FilmSearchService.class);
+
+    private static final String SELECT_FILMS_SQL = "SELECT id, title, synopsis FROM film WHERE id > ? ORDER BY id LIMIT ?";
+
+    /**
+     * The number of times the terms of titles are indexed, so that they weigh more than those of synopses.
+     */
+    private static final int TITLE_BOOST = 2;
+
+    private final FilmRepository filmRepository;
+
+    private final FilmMapper filmMapper;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Executor executor;
+
+    private final int batchSize;
+
+    private final Lock lock = new ReentrantLock();
+
+    private volatile InvertedIndex index = new InvertedIndex();
+
+    /**
+     * The writes of films while the index is rebuilt, replayed on the rebuilt index, or {@code null} when it is not.
+     */
+    private List<Consumer<InvertedIndex>> rebuildWrites;
+
+    public FilmSearchService(
+        ApplicationProperties applicationProperties,
+        FilmRepository filmRepository,
+        FilmMapper filmMapper,
+        JdbcTemplate jdbcTemplate,
+        @Qualifier("taskExecutor") Executor executor
+    ) {
+        this.filmRepository = filmRepository;
+        this.filmMapper = filmMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+        this.batchSize = applicationProperties.getSearch().getBatchSize();
+    }
+
+    /**
+     * Rebuild the index from the database.
+     * <p>
+     * Batches are read one after the other, with keyset pagination, and each is indexed by the executor while the next
+     * one is read. The films written meanwhile are written again to the rebuilt index before it replaces the current one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+        fixedDelayString = "${application.search.refresh-interval:600000}",
+        initialDelayString = "${application.search.refresh-interval:600000}"
+    )
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        setRebuildWrites(new ArrayList<>());
+        InvertedIndex rebuilt = new InvertedIndex();
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        try {
+            long lastId = Long.MIN_VALUE;
+            List<Film> films;
+            do {
+                films = jdbcTemplate.query(
+                    SELECT_FILMS_SQL,
+                    (rs, rowNum) -> new Film().id(rs.getLong("id")).title(rs.getString("title")).synopsis(rs.getString("synopsis")),
+                    lastId,
+                    batchSize
+                );
+                List<Film> batch = films;
+                batches.add(CompletableFuture.runAsync(() -> batch.forEach(film -> put(rebuilt, film)), executor));
+                if (!films.isEmpty()) {
+                    lastId = films.get(films.size() - 1).getId();
+                }
+            } while (films.size() == batchSize);
+            CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0])).join();
+        } catch (RuntimeException e) {
+            setRebuildWrites(null);
+            log.warn("Search index could not be rebuilt, retrying on next refresh: {}", e.getMessage());
+            return;
+        }
+        lock.lock();
+        try {
+            rebuildWrites.forEach(write -> write.accept(rebuilt));
+            rebuildWrites = null;
+            index = rebuilt;
+        } finally {
+            lock.unlock();
+        }
+        log.debug("Rebuilt the search index of {} films in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+    }
+
+    private void setRebuildWrites(List<Consumer<InvertedIndex>> writes) {
+        lock.lock();
+        try {
+            rebuildWrites = writes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Index a film written, or remove a film deleted, once the transaction writing it commits.
+     *
+     * @param event the film written or deleted.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void filmChanged(FilmChangedEvent event) {
+        if (event.isDeleted()) {
+            Long id = event.getId();
+            write(index -> index.remove(id));
+        } else {
+            Film film = event.getFilm();
+            Film indexed = new Film().id(film.getId()).title(film.getTitle()).synopsis(film.getSynopsis());
+            write(index -> put(index, indexed));
+        }
+    }
+
+    private void write(Consumer<InvertedIndex> write) {
+        lock.lock();
+        try {
+            write.accept(index);
+            if (rebuildWrites != null) {
+                rebuildWrites.add(write);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Search films by title and synopsis.
+     *
+     * @param query    the terms searched, in any case and with or without accents.
+     * @param pageable the pagination information, its sort being ignored.
+     * @return the films containing any of the terms, the most relevant first.
+     */
+    @Transactional(readOnly = true)
+    public Page<FilmDTO> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Films for query {}", query);
+        List<Long> ids = index.search(TextAnalyzer.tokenize(query));
+        // Served from the second-level cache
+        List<FilmDTO> films = ids
+            .stream()
+            .skip(pageable.getOffset())
+            .limit(pageable.getPageSize())
+            .map(filmRepository::findById)
+            .flatMap(Optional::stream)
+            .map(filmMapper::toDto)
+            .collect(Collectors.toList());
+        return new PageImpl<>(films, pageable, ids.size());
+    }
+
+    private static void put(InvertedIndex index, Film film) {
+        List<String> terms = new ArrayList<>();
+        List<String> titleTerms = TextAnalyzer.tokenize(film.getTitle());
+        for (int i = 0; i < TITLE_BOOST; i++) {
+            terms.addAll(titleTerms);
+        }
+        terms.addAll(TextAnalyzer.tokenize(film.getSynopsis()));
+        index.put(film.getId(), terms);
+    }
+}
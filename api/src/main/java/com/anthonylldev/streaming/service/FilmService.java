@@ -1,6 +1,9 @@
 package com.anthonylldev.streaming.service;
 
+import com.anthonylldev.streaming.service.dto.CoverDTO;
 import com.anthonylldev.streaming.service.dto.FilmDTO;
+import com.anthonylldev.streaming.service.dto.HlsSegmentDTO;
+import com.anthonylldev.streaming.service.dto.MediaDTO;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -57,6 +60,58 @@ public interface FilmService {
      */
     Optional<FilmDTO> findOne(Long id);
 
+    /**
+     * Get the cover of the "id" film, resized to the smallest rendition at least {@code width} pixels wide.
+     *
+     * @param id the id of the entity.
+     * @param width the requested width, or {@code null} for the original cover.
+     * @return the cover, or empty if the film does not exist or has no cover.
+     */
+    Optional<CoverDTO> findCover(Long id, Integer width);
+
+    /**
+     * Remove the cover of the "id" film.
+     *
+     * @param id the id of the entity.
+     * @return the entity, or empty if it does not exist.
+     */
+    Optional<FilmDTO> deleteCover(Long id);
+
+    /**
+     * Get the media file of the "id" film.
+     *
+     * @param id the id of the entity.
+     * @return the media, or empty if the film does not exist or its url is not a local media file.
+     */
+    Optional<MediaDTO> findMedia(Long id);
+
+    /**
+     * Get the HLS master playlist of the media of the "id" film.
+     *
+     * @param id the id of the entity.
+     * @return the playlist, or empty if the film does not exist or its url is not a local MPEG-TS media file.
+     */
+    Optional<String> findHlsMasterPlaylist(Long id);
+
+    /**
+     * Get the HLS media playlist of a version of the media of the "id" film.
+     *
+     * @param id the id of the entity.
+     * @param version the version of the media, as found in the master playlist.
+     * @return the playlist, or empty if the film does not exist or its media is not at this version.
+     */
+    Optional<String> findHlsMediaPlaylist(Long id, String version);
+
+    /**
+     * Get an HLS segment of a version of the media of the "id" film.
+     *
+     * @param id the id of the entity.
+     * @param version the version of the media, as found in the master playlist.
+     * @param segment the index of the segment, as found in the media playlist.
+     * @return the segment, or empty if the film does not exist or its media has no such segment at this version.
+     */
+    Optional<HlsSegmentDTO> findHlsSegment(Long id, String version, int segment);
+
     /**
      * Delete the "id" film.
      *
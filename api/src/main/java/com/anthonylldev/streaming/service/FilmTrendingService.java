@@ -0,0 +1,235 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.repository.FilmRepository;
+import com.anthonylldev.streaming.service.dto.FilmDTO;
+import com.anthonylldev.streaming.service.mapper.FilmMapper;
+import com.anthonylldev.streaming.service.util.CountMinSketch;
+import com.anthonylldev.streaming.service.util.TopK;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service ranking the {@link com.anthonylldev.streaming.domain.Film}s viewed the most over sliding windows.
+ * <p>
+ * Each window is split into time buckets. The views of a bucket are counted by a Count-Min sketch, and its most viewed
+ * films are tracked as candidates; the sketch of the whole window is kept up to date incrementally, counting each view
+ * and subtracting the buckets leaving the window. Rankings are computed from memory, by estimating the views of the
+ * candidates of the buckets of the window.
+ */
+@Service
+public class FilmTrendingService {
+
+    private final Logger log = LoggerFactory.getLogger(FilmTrendingService.class);
+
+    /**
+     * The sliding windows, with their time buckets.
+     */
+    public enum Window {
+        ONE_HOUR("1h", Duration.ofMinutes(5), 12),
+        ONE_DAY("24h", Duration.ofHours(1), 24),
+        ONE_WEEK("7d", Duration.ofHours(6), 28);
+
+        private final String value;
+
+        private final long bucketMillis;
+
+        private final int buckets;
+
+        Window(String value, Duration bucket, int buckets) {
+            this.value = value;
+            this.bucketMillis = bucket.toMillis();
+            this.buckets = buckets;
+        }
+
+        /**
+         * @param value the window, like {@code 24h}.
+         * @return the window, or empty if unknown.
+         */
+        public static Optional<Window> of(String value) {
+            return Arrays.stream(values()).filter(window -> window.value.equals(value)).findFirst();
+        }
+    }
+
+    private final FilmRepository filmRepository;
+
+    private final FilmMapper filmMapper;
+
+    private final int size;
+
+    private final int candidates;
+
+    private final int sketchWidth;
+
+    private final int sketchDepth;
+
+    private final LongSupplier currentTimeMillis;
+
+    private final Map<Window, WindowCounter> counters = new EnumMap<>(Window.class);
+
+    @Autowired
+    public FilmTrendingService(ApplicationProperties applicationProperties, FilmRepository filmRepository, FilmMapper filmMapper) {
+        this(applicationProperties, filmRepository, filmMapper, System::currentTimeMillis);
+    }
+
+    FilmTrendingService(
+        ApplicationProperties applicationProperties,
+        FilmRepository filmRepository,
+        FilmMapper filmMapper,
+        LongSupplier currentTimeMillis
+    ) {
+        ApplicationProperties.Trending properties = applicationProperties.getTrending();
+        this.filmRepository = filmRepository;
+        this.filmMapper = filmMapper;
+        this.size = properties.getSize();
+        this.candidates = properties.getCandidates();
+        this.sketchWidth = properties.getSketchWidth();
+        this.sketchDepth = properties.getSketchDepth();
+        this.currentTimeMillis = currentTimeMillis;
+        long now = currentTimeMillis.getAsLong();
+        for (Window window : Window.values()) {
+            counters.put(window, new WindowCounter(window, now));
+        }
+    }
+
+    /**
+     * Count a view of a film.
+     *
+     * @param id the id of the film.
+     */
+    public void trackView(Long id) {
+        long now = currentTimeMillis.getAsLong();
+        counters.values().forEach(counter -> counter.track(id, now));
+    }
+
+    /**
+     * Get the films viewed the most over a window.
+     *
+     * @param window the window.
+     * @return the films, the most viewed first.
+     */
+    @Transactional(readOnly = true)
+    public List<FilmDTO> findTrending(Window window) {
+        log.debug("Request to get trending Films : {}", window);
+        // Served from the second-level cache
+        return findTrendingIds(window)
+            .stream()
+            .map(filmRepository::findById)
+            .flatMap(Optional::stream)
+            .map(filmMapper::toDto)
+            .collect(Collectors.toList());
+    }
+
+    List<Long> findTrendingIds(Window window) {
+        return counters.get(window).rank(currentTimeMillis.getAsLong());
+    }
+
+    private CountMinSketch newSketch() {
+        return new CountMinSketch(sketchWidth, sketchDepth);
+    }
+
+    private final class Bucket {
+
+        private final long end;
+
+        private final CountMinSketch sketch = newSketch();
+
+        private final TopK topK = new TopK(candidates);
+
+        private Bucket(long end) {
+            this.end = end;
+        }
+    }
+
+    private final class WindowCounter {
+
+        private final Window window;
+
+        /**
+         * The views of the window, that is of its closed buckets and of the current one.
+         */
+        private final CountMinSketch total = newSketch();
+
+        private final ArrayDeque<Bucket> closed = new ArrayDeque<>();
+
+        private volatile Bucket current;
+
+        private WindowCounter(Window window, long now) {
+            this.window = window;
+            this.current = new Bucket(bucketEnd(now));
+        }
+
+        private long bucketEnd(long now) {
+            return now - Math.floorMod(now, window.bucketMillis) + window.bucketMillis;
+        }
+
+        private void track(long id, long now) {
+            Bucket bucket = current;
+            if (now >= bucket.end) {
+                synchronized (this) {
+                    roll(now);
+                    bucket = current;
+                }
+            }
+            long estimate = bucket.sketch.add(id, 1);
+            total.add(id, 1);
+            bucket.topK.offer(id, estimate);
+        }
+
+        /**
+         * Close the current bucket if it ended, and remove the buckets leaving the window.
+         */
+        private synchronized void roll(long now) {
+            if (now < current.end) {
+                return;
+            }
+            if (now - current.end >= window.bucketMillis * window.buckets) {
+                // Idle for the whole window
+                closed.forEach(bucket -> total.subtract(bucket.sketch));
+                closed.clear();
+                total.subtract(current.sketch);
+                current = new Bucket(bucketEnd(now));
+                return;
+            }
+            while (now >= current.end) {
+                closed.addLast(current);
+                current = new Bucket(current.end + window.bucketMillis);
+                while (closed.size() >= window.buckets) {
+                    total.subtract(closed.removeFirst().sketch);
+                }
+            }
+        }
+
+        private List<Long> rank(long now) {
+            Set<Long> ids = new HashSet<>();
+            synchronized (this) {
+                roll(now);
+                closed.forEach(bucket -> ids.addAll(bucket.topK.items()));
+                ids.addAll(current.topK.items());
+            }
+            return ids
+                .stream()
+                .map(id -> Map.entry(id, total.estimate(id)))
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                .limit(size)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        }
+    }
+}
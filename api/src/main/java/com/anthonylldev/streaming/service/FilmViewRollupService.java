@@ -0,0 +1,241 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.domain.enumeration.PlaybackEventType;
+import com.anthonylldev.streaming.repository.FilmRepository;
+import com.anthonylldev.streaming.service.dto.FilmViewsDTO;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service rolling up the views of {@link com.anthonylldev.streaming.domain.Film}s by hour and by day.
+ * <p>
+ * A view of a series is a playback started, as reported by the {@code START} playback events: the views counted by
+ * {@link FilmViewService}, which players report separately, are only added to the {@code views} of the films, so that
+ * a playback both started and counted is not rolled up twice.
+ * <p>
+ * The playback events starting a playback are aggregated incrementally: each run aggregates the events written since
+ * the last one, in id order, and adds their counts to the hourly and daily rollups in the transaction moving the
+ * checkpoint past them, so that every event is counted once, even by several nodes. Series are read from the rollups,
+ * never from the events.
+ * <p>
+ * The ids of the events are allocated before their transactions commit, so a missing id may still be written: the
+ * events after it are only aggregated once it is written, or once it has been missing for long enough to have been
+ * rolled back.
+ */
+@Service
+public class FilmViewRollupService {
+
+    private final Logger log = LoggerFactory.getLogger(FilmViewRollupService.class);
+
+    private static final String CHECKPOINT = "film_views";
+
+    private static final String SELECT_CHECKPOINT_SQL = "SELECT last_event_id FROM rollup_checkpoint WHERE name = ? FOR UPDATE";
+
+    private static final String SELECT_EVENT_IDS_SQL = "SELECT id FROM playback_event WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String ROLL_UP_HOURLY_SQL =
+        "INSERT INTO film_views_hourly (film_id, bucket, views) " +
+        "SELECT film_id, date_trunc('hour', created_date), count(*) FROM playback_event " +
+        "WHERE id > ? AND id <= ? AND event_type = ? AND film_id IS NOT NULL GROUP BY 1, 2 " +
+        "ON CONFLICT (film_id, bucket) DO UPDATE SET views = film_views_hourly.views + EXCLUDED.views";
+
+    private static final String ROLL_UP_DAILY_SQL =
+        "INSERT INTO film_views_daily (film_id, day, views) " +
+        "SELECT film_id, CAST(created_date AS date), count(*) FROM playback_event " +
+        "WHERE id > ? AND id <= ? AND event_type = ? AND film_id IS NOT NULL GROUP BY 1, 2 " +
+        "ON CONFLICT (film_id, day) DO UPDATE SET views = film_views_daily.views + EXCLUDED.views";
+
+    private static final String UPDATE_CHECKPOINT_SQL = "UPDATE rollup_checkpoint SET last_event_id = ? WHERE name = ?";
+
+    private static final String SELECT_HOURLY_SQL =
+        "SELECT bucket, views FROM film_views_hourly WHERE film_id = ? AND bucket >= ? AND bucket < ?";
+
+    private static final String SELECT_DAILY_SQL = "SELECT day, views FROM film_views_daily WHERE film_id = ? AND day >= ? AND day < ?";
+
+    /**
+     * The steps of the series, that is their rollups.
+     */
+    public enum Step {
+        HOUR(ChronoUnit.HOURS, Duration.ofDays(1)),
+        DAY(ChronoUnit.DAYS, Duration.ofDays(30));
+
+        private final ChronoUnit unit;
+
+        private final Duration defaultRange;
+
+        Step(ChronoUnit unit, Duration defaultRange) {
+            this.unit = unit;
+            this.defaultRange = defaultRange;
+        }
+
+        /**
+         * @param value the step, like {@code hour}.
+         * @return the step, or empty if unknown.
+         */
+        public static Optional<Step> of(String value) {
+            return Arrays.stream(values()).filter(step -> step.name().equalsIgnoreCase(value)).findFirst();
+        }
+    }
+
+    private final FilmRepository filmRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final long gapTimeout;
+
+    private final int maximumPoints;
+
+    /**
+     * The first missing event id, and since when it is, in milliseconds. Guarded by this service.
+     */
+    private long gapId;
+
+    private long gapSince;
+
+    public FilmViewRollupService(
+        ApplicationProperties applicationProperties,
+        FilmRepository filmRepository,
+        JdbcTemplate jdbcTemplate,
+        TransactionTemplate transactionTemplate
+    ) {
+        ApplicationProperties.Rollups properties = applicationProperties.getRollups();
+        this.filmRepository = filmRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = properties.getBatchSize();
+        this.gapTimeout = properties.getGapTimeout();
+        this.maximumPoints = properties.getMaximumPoints();
+    }
+
+    /**
+     * Aggregate the playback events written since the last run.
+     */
+    @Scheduled(fixedDelayString = "${application.rollups.interval:10000}")
+    public synchronized void rollUp() {
+        try {
+            int events;
+            do {
+                events = transactionTemplate.execute(status -> rollUpBatch());
+            } while (events == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Film views could not be rolled up, retrying on next run: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return the number of events aggregated.
+     */
+    private int rollUpBatch() {
+        // Locked, so that other nodes wait for the checkpoint moved past the events aggregated
+        long checkpoint = jdbcTemplate.queryForObject(SELECT_CHECKPOINT_SQL, Long.class, CHECKPOINT);
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_EVENT_IDS_SQL, Long.class, checkpoint, batchSize);
+        long last = checkpoint;
+        int events = 0;
+        for (long id : ids) {
+            if (id != last + 1 && !gapTimedOut(last + 1)) {
+                break;
+            }
+            last = id;
+            events++;
+        }
+        if (events == 0) {
+            return 0;
+        }
+        String start = PlaybackEventType.START.name();
+        jdbcTemplate.update(ROLL_UP_HOURLY_SQL, checkpoint, last, start);
+        jdbcTemplate.update(ROLL_UP_DAILY_SQL, checkpoint, last, start);
+        jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, last, CHECKPOINT);
+        log.debug("Rolled up the film views of playback events {} to {}", checkpoint + 1, last);
+        return events;
+    }
+
+    private boolean gapTimedOut(long missingId) {
+        long now = System.currentTimeMillis();
+        if (gapId != missingId) {
+            gapId = missingId;
+            gapSince = now;
+        }
+        return now - gapSince >= gapTimeout;
+    }
+
+    /**
+     * Get the views of a film by hour or by day.
+     *
+     * @param filmId the id of the film.
+     * @param from   the start of the series, rounded down to the hour or to the day, or {@code null} for a day of hours
+     *               or for a month of days.
+     * @param to     the end of the series, exclusive, or {@code null} for now.
+     * @param step   the step.
+     * @return the views of each hour or day of the series, including those without views, or empty if there is no such
+     * film.
+     * @throws IllegalArgumentException if the series is empty or has too many points.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<FilmViewsDTO>> findSeries(Long filmId, Instant from, Instant to, Step step) {
+        log.debug("Request to get the views series of Film : {}, {}, {}, {}", filmId, from, to, step);
+        Instant end = to != null ? to : Instant.now();
+        Instant start = (from != null ? from : end.minus(step.defaultRange)).truncatedTo(step.unit);
+        long stepMillis = step.unit.getDuration().toMillis();
+        long points = Math.floorDiv(Duration.between(start, end).toMillis() + stepMillis - 1, stepMillis);
+        if (points <= 0 || points > maximumPoints) {
+            throw new IllegalArgumentException("A series has 1 to " + maximumPoints + " points");
+        }
+        // The end of the last hour or day
+        end = start.plus(points, step.unit);
+        // Served from the second-level cache
+        if (filmRepository.findById(filmId).isEmpty()) {
+            return Optional.empty();
+        }
+        Map<Instant, Long> views = new LinkedHashMap<>();
+        for (Instant time = start; time.isBefore(end); time = time.plus(1, step.unit)) {
+            views.put(time, 0L);
+        }
+        // The columns have no time zone and hold UTC, like the columns written by Hibernate
+        if (step == Step.HOUR) {
+            jdbcTemplate.query(
+                SELECT_HOURLY_SQL,
+                rs -> {
+                    views.put(rs.getObject("bucket", LocalDateTime.class).toInstant(ZoneOffset.UTC), rs.getLong("views"));
+                },
+                filmId,
+                LocalDateTime.ofInstant(start, ZoneOffset.UTC),
+                LocalDateTime.ofInstant(end, ZoneOffset.UTC)
+            );
+        } else {
+            jdbcTemplate.query(
+                SELECT_DAILY_SQL,
+                rs -> {
+                    views.put(rs.getObject("day", LocalDate.class).atStartOfDay().toInstant(ZoneOffset.UTC), rs.getLong("views"));
+                },
+                filmId,
+                LocalDate.ofInstant(start, ZoneOffset.UTC),
+                LocalDate.ofInstant(end, ZoneOffset.UTC)
+            );
+        }
+        return Optional.of(
+            views.entrySet().stream().map(entry -> new FilmViewsDTO(entry.getKey(), entry.getValue())).collect(Collectors.toList())
+        );
+    }
+}
@@ -0,0 +1,123 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.domain.Film;
+import com.anthonylldev.streaming.repository.FilmRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service counting the views of {@link Film}s.
+ * <p>
+ * Views are counted in memory, with a striped {@link LongAdder} per film so that concurrent plays of a popular film do
+ * not contend, and written behind: the deltas are periodically added to the {@code views} column in a single JDBC batch,
+ * instead of loading, merging and locking the row of the film for every play. Only the second-level cache entries of
+ * the films viewed are evicted.
+ */
+@Service
+public class FilmViewService {
+
+    private final Logger log = LoggerFactory.getLogger(FilmViewService.class);
+
+    private static final String INCREMENT_VIEWS_SQL = "UPDATE film SET views = COALESCE(views, 0) + ? WHERE id = ?";
+
+    private final FilmRepository filmRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final FilmTrendingService filmTrendingService;
+
+    private final FilmAudienceService filmAudienceService;
+
+    /**
+     * Views not yet written, by film id. Counters are never removed, so that no increment is lost to a concurrent flush:
+     * there is at most one per film.
+     */
+    private final ConcurrentMap<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    public FilmViewService(
+        FilmRepository filmRepository,
+        JdbcTemplate jdbcTemplate,
+        TransactionTemplate transactionTemplate,
+        EntityManagerFactory entityManagerFactory,
+        FilmTrendingService filmTrendingService,
+        FilmAudienceService filmAudienceService
+    ) {
+        this.filmRepository = filmRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.filmTrendingService = filmTrendingService;
+        this.filmAudienceService = filmAudienceService;
+    }
+
+    /**
+     * Count a view of a film.
+     *
+     * @param id    the id of the film.
+     * @param login the login of the viewer.
+     * @return {@code false} if there is no such film.
+     */
+    @Transactional(readOnly = true)
+    public boolean recordView(Long id, String login) {
+        log.debug("Request to record a view of Film : {}", id);
+        // Served from the second-level cache
+        if (filmRepository.findById(id).isEmpty()) {
+            return false;
+        }
+        pendingViews.computeIfAbsent(id, filmId -> new LongAdder()).increment();
+        filmTrendingService.trackView(id);
+        filmAudienceService.trackViewer(id, login);
+        return true;
+    }
+
+    /**
+     * Write the views counted since the last flush.
+     */
+    @Scheduled(fixedDelayString = "${application.views.flush-interval:5000}")
+    public void flush() {
+        List<Long> ids = new ArrayList<>();
+        List<Object[]> increments = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : pendingViews.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                ids.add(entry.getKey());
+                increments.add(new Object[] { delta, entry.getKey() });
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INCREMENT_VIEWS_SQL, increments));
+        } catch (RuntimeException e) {
+            log.warn("Views of {} films could not be written, retrying on next flush: {}", ids.size(), e.getMessage());
+            increments.forEach(increment -> pendingViews.get((Long) increment[1]).add((Long) increment[0]));
+            return;
+        }
+        // Once committed, so that the evicted entries are not reloaded with stale views
+        ids.forEach(id -> entityManagerFactory.getCache().evict(Film.class, id));
+        log.debug("Wrote the views of {} films", ids.size());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+}
@@ -0,0 +1,176 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.service.dto.HlsSegmentDTO;
+import com.anthonylldev.streaming.service.dto.MediaDTO;
+import com.anthonylldev.streaming.service.util.HlsSegmentIndex;
+import com.anthonylldev.streaming.service.util.WeightedLruCache;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for the HLS delivery of MPEG-TS media files.
+ * <p>
+ * The segment boundaries of a media file are parsed once, on the first request for it, and kept in a byte-capped
+ * in-memory LRU cache, so that playlists are generated without reading the file. Segment and media playlist URLs
+ * carry the version of the media file, so that they never change content and can be cached by browsers and CDNs.
+ */
+@Service
+public class HlsService {
+
+    private final Logger log = LoggerFactory.getLogger(HlsService.class);
+
+    private static final String TRANSPORT_STREAM_EXTENSION = ".ts";
+
+    private final MediaService mediaService;
+
+    private final int targetDuration;
+
+    private final WeightedLruCache<Path, HlsSegmentIndex> indexCache;
+
+    /**
+     * Indexes being parsed, so that concurrent first requests for a media file parse it once.
+     */
+    private final ConcurrentMap<Path, CompletableFuture<Optional<HlsSegmentIndex>>> parsing = new ConcurrentHashMap<>();
+
+    public HlsService(ApplicationProperties applicationProperties, MediaService mediaService) {
+        this.mediaService = mediaService;
+        ApplicationProperties.Media.Hls properties = applicationProperties.getMedia().getHls();
+        this.targetDuration = properties.getTargetDuration();
+        this.indexCache = new WeightedLruCache<>(properties.getIndexCacheSize(), HlsSegmentIndex::weight);
+    }
+
+    /**
+     * Generate the master playlist of a media file, listing its media playlist.
+     *
+     * @param url the url of the media, relative to the media directory.
+     * @return the playlist, or empty if the url is not an MPEG-TS media file.
+     */
+    public Optional<String> findMasterPlaylist(String url) {
+        return findIndex(url)
+            .map(index ->
+                "#EXTM3U\n" +
+                "#EXT-X-VERSION:3\n" +
+                "#EXT-X-INDEPENDENT-SEGMENTS\n" +
+                "#EXT-X-STREAM-INF:BANDWIDTH=" +
+                index.getPeakBandwidth() +
+                ",AVERAGE-BANDWIDTH=" +
+                index.getAverageBandwidth() +
+                "\n" +
+                index.getVersion() +
+                "/media.m3u8\n"
+            );
+    }
+
+    /**
+     * Generate the media playlist of a version of a media file, listing its segments.
+     *
+     * @param url     the url of the media, relative to the media directory.
+     * @param version the version of the media file, as found in the master playlist.
+     * @return the playlist, or empty if the url is not an MPEG-TS media file or the version is not the current one.
+     */
+    public Optional<String> findMediaPlaylist(String url, String version) {
+        return findIndex(url)
+            .filter(index -> index.getVersion().equals(version))
+            .map(index -> {
+                StringBuilder playlist = new StringBuilder(64 + index.getSegmentCount() * 24);
+                playlist.append("#EXTM3U\n");
+                playlist.append("#EXT-X-VERSION:3\n");
+                playlist.append("#EXT-X-TARGETDURATION:").append(index.getTargetDuration()).append('\n');
+                playlist.append("#EXT-X-MEDIA-SEQUENCE:0\n");
+                playlist.append("#EXT-X-PLAYLIST-TYPE:VOD\n");
+                playlist.append("#EXT-X-INDEPENDENT-SEGMENTS\n");
+                for (int segment = 0; segment < index.getSegmentCount(); segment++) {
+                    playlist.append("#EXTINF:").append(String.format(Locale.ROOT, "%.3f", index.getDuration(segment))).append(",\n");
+                    playlist.append(segment).append(TRANSPORT_STREAM_EXTENSION).append('\n');
+                }
+                playlist.append("#EXT-X-ENDLIST\n");
+                return playlist.toString();
+            });
+    }
+
+    /**
+     * Get a segment of a version of a media file.
+     *
+     * @param url     the url of the media, relative to the media directory.
+     * @param version the version of the media file, as found in the master playlist.
+     * @param segment the index of the segment, as found in the media playlist.
+     * @return the segment, or empty if there is no such segment in the current version of the media file.
+     */
+    public Optional<HlsSegmentDTO> findSegment(String url, String version, int segment) {
+        Optional<HlsSegmentIndex> maybeIndex = findIndex(url)
+            .filter(index -> index.getVersion().equals(version) && segment >= 0 && segment < index.getSegmentCount());
+        if (maybeIndex.isEmpty()) {
+            return Optional.empty();
+        }
+        HlsSegmentIndex index = maybeIndex.get();
+        // The segment is read anyway, make sure the file was not replaced since it was indexed
+        Optional<MediaDTO> media = mediaService.findMedia(url);
+        if (media.isEmpty() || !MediaService.version(media.get()).equals(version)) {
+            log.debug("Media '{}' changed since it was indexed", url);
+            mediaService.resolve(url).ifPresent(indexCache::remove);
+            return Optional.empty();
+        }
+        HlsSegmentDTO segmentDTO = new HlsSegmentDTO();
+        segmentDTO.setContent(media.get().getContent());
+        segmentDTO.setTables(index.getTables(segment));
+        segmentDTO.setPosition(index.getPosition(segment));
+        segmentDTO.setLength(index.getLength(segment));
+        segmentDTO.setVersion(version);
+        segmentDTO.setIndex(segment);
+        return Optional.of(segmentDTO);
+    }
+
+    private Optional<HlsSegmentIndex> findIndex(String url) {
+        Optional<Path> maybePath = mediaService.resolve(url).filter(path -> path.toString().endsWith(TRANSPORT_STREAM_EXTENSION));
+        if (maybePath.isEmpty()) {
+            return Optional.empty();
+        }
+        Path path = maybePath.get();
+        HlsSegmentIndex cached = indexCache.get(path);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        CompletableFuture<Optional<HlsSegmentIndex>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<HlsSegmentIndex>> running = parsing.putIfAbsent(path, future);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            Optional<HlsSegmentIndex> index = mediaService.findMedia(url).flatMap(media -> parse(path, media));
+            index.ifPresent(parsed -> indexCache.put(path, parsed));
+            future.complete(index);
+            return index;
+        } finally {
+            parsing.remove(path);
+            future.complete(Optional.empty());
+        }
+    }
+
+    private Optional<HlsSegmentIndex> parse(Path path, MediaDTO media) {
+        long start = System.currentTimeMillis();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            HlsSegmentIndex index = HlsSegmentIndex.parse(MediaService.version(media), channel, targetDuration);
+            log.debug(
+                "Indexed {} HLS segments of '{}' in {} ms",
+                index.getSegmentCount(),
+                path.getFileName(),
+                System.currentTimeMillis() - start
+            );
+            return Optional.of(index);
+        } catch (IOException e) {
+            log.warn("Media file '{}' cannot be indexed for HLS: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
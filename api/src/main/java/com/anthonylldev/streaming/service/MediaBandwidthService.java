@@ -0,0 +1,240 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.management.MediaStreamMetersService;
+import com.anthonylldev.streaming.service.util.TokenBucket;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service shaping the bandwidth of media streams and capping the number of concurrent streams of each user.
+ * <p>
+ * Each stream, that is the requests of a user for a media file from a client, holds a lease, renewed as long as its
+ * bytes are written. A user may hold a limited number of leases at once; the leases of abandoned streams expire, freeing
+ * their slot. Bytes are written as they are granted by the token bucket of the user, then by the global token bucket of
+ * the node, so that a single client cannot saturate the network interface.
+ * <p>
+ * Leases, slots and buckets are lock-free atomic counters: nothing blocks on the media serving path.
+ */
+@Service
+public class MediaBandwidthService {
+
+    /**
+     * Throttled streams wait until they may write at least this many bytes, rather than writing many small chunks.
+     */
+    private static final long MINIMUM_GRANT = 64 * 1024;
+
+    private final TokenBucket globalBucket;
+
+    private final long userBytesPerSecond;
+
+    private final long userBurst;
+
+    private final int maximumStreams;
+
+    private final long leaseNanos;
+
+    private final LongSupplier nanoTime;
+
+    private final MediaStreamMetersService metersService;
+
+    private final ConcurrentMap<String, Account> accounts = new ConcurrentHashMap<>();
+
+    private final AtomicInteger throttled = new AtomicInteger();
+
+    @Autowired
+    public MediaBandwidthService(ApplicationProperties applicationProperties, MediaStreamMetersService metersService) {
+        this(applicationProperties, metersService, System::nanoTime);
+    }
+
+    MediaBandwidthService(ApplicationProperties applicationProperties, MediaStreamMetersService metersService, LongSupplier nanoTime) {
+        ApplicationProperties.Media.Bandwidth properties = applicationProperties.getMedia().getBandwidth();
+        this.globalBucket = new TokenBucket(properties.getGlobalBytesPerSecond(), properties.getGlobalBurst(), nanoTime);
+        this.userBytesPerSecond = properties.getUserBytesPerSecond();
+        this.userBurst = properties.getUserBurst();
+        this.maximumStreams = properties.getMaximumStreams();
+        this.leaseNanos = TimeUnit.SECONDS.toNanos(properties.getLeaseDuration());
+        this.nanoTime = nanoTime;
+        this.metersService = metersService;
+        metersService.registerStreams(this::activeStreams, throttled::get);
+    }
+
+    /**
+     * @return the number of seconds a lease lasts without being renewed.
+     */
+    public long getLeaseDuration() {
+        return TimeUnit.NANOSECONDS.toSeconds(leaseNanos);
+    }
+
+    /**
+     * Acquire the lease of a stream, or renew it if the stream already holds one.
+     *
+     * @param user   the login of the user.
+     * @param stream the identifier of the stream, unique for the user.
+     * @return the lease, or empty if the user already holds the maximum number of leases.
+     */
+    public Optional<StreamLease> acquire(String user, String stream) {
+        while (true) {
+            long now = nanoTime.getAsLong();
+            Account account = accounts.computeIfAbsent(user, login -> new Account());
+            StreamLease lease = account.leases.get(stream);
+            if (lease != null && lease.renew(now)) {
+                return Optional.of(lease);
+            }
+            account.expire(now);
+            int active = account.active.get();
+            if (active < 0) {
+                // Retired while idle, use a new account
+                accounts.remove(user, account);
+                continue;
+            }
+            if (active >= maximumStreams) {
+                metersService.trackRejected();
+                return Optional.empty();
+            }
+            if (!account.active.compareAndSet(active, active + 1)) {
+                continue;
+            }
+            StreamLease acquired = new StreamLease(account, now + leaseNanos);
+            if (account.leases.putIfAbsent(stream, acquired) == null) {
+                return Optional.of(acquired);
+            }
+            // Acquired concurrently for the same stream
+            account.active.decrementAndGet();
+        }
+    }
+
+    /**
+     * Release the slots of expired leases, and forget the users without leases.
+     */
+    @Scheduled(fixedDelay = 10_000)
+    public void removeExpiredLeases() {
+        long now = nanoTime.getAsLong();
+        accounts.forEach((user, account) -> {
+            account.expire(now);
+            if (account.active.compareAndSet(0, -1)) {
+                accounts.remove(user, account);
+            }
+        });
+    }
+
+    private int activeStreams() {
+        return accounts.values().stream().mapToInt(account -> Math.max(0, account.active.get())).sum();
+    }
+
+    private final class Account {
+
+        /**
+         * The number of leases, or {@code -1} once retired.
+         */
+        private final AtomicInteger active = new AtomicInteger();
+
+        private final ConcurrentMap<String, StreamLease> leases = new ConcurrentHashMap<>();
+
+        private final TokenBucket bucket = new TokenBucket(userBytesPerSecond, userBurst, nanoTime);
+
+        private void expire(long now) {
+            leases.forEach((stream, lease) -> {
+                if (lease.isExpired(now) && leases.remove(stream, lease)) {
+                    active.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * The lease of a media stream, granting the bytes it may write.
+     */
+    public final class StreamLease {
+
+        private final Account account;
+
+        private final AtomicLong expiresAt;
+
+        private StreamLease(Account account, long expiresAt) {
+            this.account = account;
+            this.expiresAt = new AtomicLong(expiresAt);
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt.get() - now < 0;
+        }
+
+        private boolean renew(long now) {
+            while (true) {
+                long current = expiresAt.get();
+                if (current - now < 0) {
+                    // Expired leases are never renewed, their slot may have been taken
+                    return false;
+                }
+                if (expiresAt.compareAndSet(current, now + leaseNanos)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Take up to a number of bytes from the budgets of the user and of the node, renewing the lease.
+         *
+         * @param bytes the number of bytes to write.
+         * @return the number of bytes that may be written, {@code 0} if the stream must wait.
+         */
+        public long acquire(long bytes) {
+            renew(nanoTime.getAsLong());
+            long granted = account.bucket.tryAcquire(bytes);
+            if (granted == 0) {
+                return 0;
+            }
+            long globallyGranted = globalBucket.tryAcquire(granted);
+            account.bucket.release(granted - globallyGranted);
+            return globallyGranted;
+        }
+
+        /**
+         * Renew the lease of a stream writing bytes without acquiring them.
+         *
+         * @return {@code false} if the lease has expired.
+         */
+        public boolean renew() {
+            return renew(nanoTime.getAsLong());
+        }
+
+        /**
+         * Give back bytes acquired but not written.
+         *
+         * @param bytes the number of bytes.
+         */
+        public void release(long bytes) {
+            account.bucket.release(bytes);
+            globalBucket.release(bytes);
+        }
+
+        /**
+         * @param bytes the number of bytes to write.
+         * @return the number of nanoseconds to wait before that many bytes may be acquired.
+         */
+        public long nanosUntilAvailable(long bytes) {
+            long minimum = Math.min(bytes, MINIMUM_GRANT);
+            return Math.max(account.bucket.nanosUntilAvailable(minimum), globalBucket.nanosUntilAvailable(minimum));
+        }
+
+        /**
+         * Count the stream as throttled, until {@link #resumed()} is called.
+         */
+        public void throttled() {
+            throttled.incrementAndGet();
+        }
+
+        public void resumed() {
+            throttled.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.management.MediaReadAheadMetersService;
+import com.anthonylldev.streaming.service.util.DirectBufferPool;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service keeping the blocks of media files that are about to be read in off-heap memory.
+ * <p>
+ * Media files are split in fixed-size blocks. When a session reads a media file sequentially, such as a player
+ * requesting one HLS segment after the other, the blocks of the next regions are read ahead in the background into
+ * buffers of a byte-bounded {@link DirectBufferPool}. Blocks are shared: all the readers of a block, typically the
+ * viewers of a new release, are served from the same buffer. When the pool is exhausted, the least recently used
+ * blocks no reader holds are evicted.
+ */
+@Service
+public class MediaReadAheadService {
+
+    private final Logger log = LoggerFactory.getLogger(MediaReadAheadService.class);
+
+    private final boolean enabled;
+
+    private final int segments;
+
+    private final long maximumReadAhead;
+
+    private final int maximumSessions;
+
+    private final DirectBufferPool pool;
+
+    private final Executor executor;
+
+    private final MediaReadAheadMetersService metersService;
+
+    /**
+     * Blocks, least recently used first. Guards the state of the blocks.
+     */
+    private final LinkedHashMap<BlockKey, Block> blocks = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * End position of the last read of each session and media file, least recently used first.
+     */
+    private final LinkedHashMap<String, Long> sessions;
+
+    public MediaReadAheadService(
+        ApplicationProperties applicationProperties,
+        @Qualifier("taskExecutor") Executor executor,
+        MediaReadAheadMetersService metersService
+    ) {
+        ApplicationProperties.Media.ReadAhead properties = applicationProperties.getMedia().getReadAhead();
+        this.enabled = properties.isEnabled();
+        this.segments = properties.getSegments();
+        this.maximumReadAhead = properties.getMaximumReadAhead();
+        this.maximumSessions = properties.getMaximumSessions();
+        this.pool = new DirectBufferPool(properties.getBlockSize(), properties.getPoolSize());
+        this.executor = executor;
+        this.metersService = metersService;
+        this.sessions =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > maximumSessions;
+                }
+            };
+        metersService.registerPoolUsed(pool::usedBytes);
+    }
+
+    /**
+     * Get the cached blocks of a region of a media file about to be read, and read ahead the regions following it when
+     * the session reads the file sequentially.
+     *
+     * @param session  the identifier of the reader, such as its login.
+     * @param path     the media file.
+     * @param version  the version of the media file.
+     * @param position the position of the first byte of the region.
+     * @param length   the number of bytes of the region.
+     * @return the parts of the region held in memory, which must be closed once written.
+     */
+    public CachedRegion read(String session, Path path, String version, long position, long length) {
+        if (!enabled || length <= 0) {
+            return CachedRegion.EMPTY;
+        }
+        int blockSize = pool.getBufferSize();
+        long end = position + length;
+        List<Block> held = new ArrayList<>();
+        List<CachedBlock> cached = new ArrayList<>();
+        synchronized (blocks) {
+            for (long block = position / blockSize; block <= (end - 1) / blockSize; block++) {
+                Block entry = blocks.get(new BlockKey(path, version, block));
+                long from = Math.max(position, block * blockSize);
+                if (entry == null || !entry.loaded || from >= block * blockSize + entry.buffer.limit()) {
+                    metersService.trackMiss();
+                    continue;
+                }
+                long to = Math.min(end, block * blockSize + entry.buffer.limit());
+                ByteBuffer content = entry.buffer.asReadOnlyBuffer();
+                content.limit((int) (to - block * blockSize)).position((int) (from - block * blockSize));
+                entry.references++;
+                held.add(entry);
+                cached.add(new CachedBlock(from, content));
+                metersService.trackHit(to - from);
+            }
+        }
+        if (isSequential(session + '|' + path + '|' + version, position, end, blockSize)) {
+            readAhead(path, version, end, Math.min(maximumReadAhead, segments * length));
+        }
+        return new CachedRegion(cached, () -> release(held));
+    }
+
+    private boolean isSequential(String sessionKey, long position, long end, int blockSize) {
+        Long previousEnd;
+        synchronized (sessions) {
+            previousEnd = sessions.put(sessionKey, end);
+        }
+        return previousEnd != null && Math.abs(position - previousEnd) <= blockSize;
+    }
+
+    private void readAhead(Path path, String version, long position, long length) {
+        try {
+            executor.execute(() -> load(path, version, position, length));
+        } catch (RejectedExecutionException e) {
+            log.debug("Media read ahead of '{}' rejected", path);
+        }
+    }
+
+    private void load(Path path, String version, long position, long length) {
+        int blockSize = pool.getBufferSize();
+        BlockKey key = null;
+        Block entry = null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long end = Math.min(position + length, channel.size());
+            for (long block = position / blockSize; block <= (end - 1) / blockSize; block++) {
+                key = new BlockKey(path, version, block);
+                synchronized (blocks) {
+                    if (blocks.containsKey(key)) {
+                        continue;
+                    }
+                    ByteBuffer buffer = acquireBuffer();
+                    if (buffer == null) {
+                        return;
+                    }
+                    entry = new Block(buffer);
+                    blocks.put(key, entry);
+                }
+                ByteBuffer buffer = entry.buffer;
+                while (buffer.hasRemaining() && channel.read(buffer, block * blockSize + buffer.position()) > 0) {
+                    // Read until the block is full or the end of the file
+                }
+                buffer.flip();
+                synchronized (blocks) {
+                    if (!buffer.hasRemaining()) {
+                        discard(key, entry);
+                        return;
+                    }
+                    entry.loaded = true;
+                }
+                metersService.trackPrefetch(buffer.limit());
+            }
+        } catch (IOException e) {
+            log.debug("Media read ahead of '{}' failed: {}", path, e.getMessage());
+            if (entry != null) {
+                synchronized (blocks) {
+                    if (!entry.loaded) {
+                        discard(key, entry);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Take a buffer from the pool, evicting the least recently used block no reader holds when the pool is exhausted.
+     * Must be called while holding the lock on the blocks.
+     */
+    private ByteBuffer acquireBuffer() {
+        ByteBuffer buffer = pool.acquire();
+        if (buffer != null) {
+            return buffer;
+        }
+        Iterator<Block> iterator = blocks.values().iterator();
+        while (iterator.hasNext()) {
+            Block eldest = iterator.next();
+            if (eldest.loaded && eldest.references == 0) {
+                iterator.remove();
+                return eldest.buffer.clear();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Must be called while holding the lock on the blocks.
+     */
+    private void discard(BlockKey key, Block entry) {
+        blocks.remove(key, entry);
+        pool.release(entry.buffer);
+    }
+
+    private void release(List<Block> held) {
+        synchronized (blocks) {
+            for (Block entry : held) {
+                entry.references--;
+            }
+        }
+    }
+
+    /**
+     * The parts of a region of a media file held in memory.
+     */
+    public static final class CachedRegion implements AutoCloseable {
+
+        static final CachedRegion EMPTY = new CachedRegion(List.of(), () -> {});
+
+        private final List<CachedBlock> blocks;
+
+        private Runnable release;
+
+        private CachedRegion(List<CachedBlock> blocks, Runnable release) {
+            this.blocks = blocks;
+            this.release = release;
+        }
+
+        /**
+         * @return the cached parts of the region, ordered by position.
+         */
+        public List<CachedBlock> getBlocks() {
+            return blocks;
+        }
+
+        /**
+         * Let the cached parts be evicted, once written.
+         */
+        @Override
+        public synchronized void close() {
+            if (release != null) {
+                release.run();
+                release = null;
+            }
+        }
+    }
+
+    /**
+     * A part of a region of a media file held in memory.
+     */
+    public static final class CachedBlock {
+
+        private final long position;
+
+        private final ByteBuffer content;
+
+        private CachedBlock(long position, ByteBuffer content) {
+            this.position = position;
+            this.content = content;
+        }
+
+        public long getPosition() {
+            return position;
+        }
+
+        public long getLength() {
+            return content.remaining();
+        }
+
+        /**
+         * @return a read-only view of the bytes, valid until the region is closed.
+         */
+        public ByteBuffer getContent() {
+            return content.duplicate();
+        }
+    }
+
+    private static final class Block {
+
+        private final ByteBuffer buffer;
+
+        private boolean loaded;
+
+        private int references;
+
+        private Block(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class BlockKey {
+
+        private final Path path;
+
+        private final String version;
+
+        private final long block;
+
+        private BlockKey(Path path, String version, long block) {
+            this.path = path;
+            this.version = version;
+            this.block = block;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BlockKey)) {
+                return false;
+            }
+            BlockKey other = (BlockKey) o;
+            return block == other.block && path.equals(other.path) && version.equals(other.version);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, version, block);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.service.dto.MediaDTO;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for the media files of films and episodes.
+ * <p>
+ * Media urls are paths relative to the media directory. Urls with a scheme, such as external {@code https} links, and
+ * paths leading out of the media directory are not served.
+ */
+@Service
+public class MediaService {
+
+    private final Logger log = LoggerFactory.getLogger(MediaService.class);
+
+    private final Path directory;
+
+    public MediaService(ApplicationProperties applicationProperties) {
+        this.directory = Paths.get(applicationProperties.getMedia().getDirectory()).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Get the media file at a url.
+     *
+     * @param url the url of the media, relative to the media directory.
+     * @return the media, or empty if the url is not a readable file of the media directory.
+     */
+    public Optional<MediaDTO> findMedia(String url) {
+        return resolve(url).flatMap(this::toMediaDTO);
+    }
+
+    /**
+     * Resolve a url against the media directory.
+     *
+     * @param url the url of the media, relative to the media directory.
+     * @return the path, or empty if the url is not a path inside the media directory.
+     */
+    public Optional<Path> resolve(String url) {
+        if (url == null || url.isBlank() || url.contains(":")) {
+            return Optional.empty();
+        }
+        try {
+            Path path = directory.resolve(url).normalize();
+            return path.startsWith(directory) ? Optional.of(path) : Optional.empty();
+        } catch (InvalidPathException e) {
+            log.debug("Invalid media url '{}'", url, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Get the version of a media file, which changes whenever the file is replaced.
+     *
+     * @param media the media.
+     * @return the version, made of the last modification time and the length of the file.
+     */
+    public static String version(MediaDTO media) {
+        return Long.toHexString(media.getLastModified().toEpochMilli()) + "-" + Long.toHexString(media.getContentLength());
+    }
+
+    private Optional<MediaDTO> toMediaDTO(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return Optional.empty();
+            }
+            MediaDTO mediaDTO = new MediaDTO();
+            mediaDTO.setContent(new FileSystemResource(path));
+            mediaDTO.setContentType(
+                MediaTypeFactory.getMediaType(path.getFileName().toString()).orElse(MediaType.APPLICATION_OCTET_STREAM).toString()
+            );
+            mediaDTO.setContentLength(attributes.size());
+            mediaDTO.setLastModified(attributes.lastModifiedTime().toInstant());
+            return Optional.of(mediaDTO);
+        } catch (IOException e) {
+            log.debug("Media file '{}' is not readable", path, e);
+            return Optional.empty();
+        }
+    }
+}
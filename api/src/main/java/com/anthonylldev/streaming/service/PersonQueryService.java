@@ -4,10 +4,14 @@ import com.anthonylldev.streaming.domain.*; // for static metamodels
 import com.anthonylldev.streaming.domain.Person;
 import com.anthonylldev.streaming.repository.PersonRepository;
 import com.anthonylldev.streaming.service.criteria.PersonCriteria;
+import com.anthonylldev.streaming.service.criteria.TextFilter;
 import com.anthonylldev.streaming.service.dto.PersonDTO;
 import com.anthonylldev.streaming.service.mapper.PersonMapper;
+import com.anthonylldev.streaming.service.util.CursorSlice;
+import java.util.HashMap;
 import java.util.List;
-import javax.persistence.criteria.JoinType;
+import java.util.Map;
+import javax.persistence.metamodel.SingularAttribute;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -15,7 +19,6 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import tech.jhipster.service.QueryService;
 
 /**
  * Service for executing complex queries for {@link Person} entities in the database.
@@ -25,7 +28,7 @@ import tech.jhipster.service.QueryService;
  */
 @Service
 @Transactional(readOnly = true)
-public class PersonQueryService extends QueryService<Person> {
+public class PersonQueryService extends TextQueryService<Person> {
 
     private final Logger log = LoggerFactory.getLogger(PersonQueryService.class);
 
@@ -33,9 +36,20 @@ public class PersonQueryService extends QueryService<Person> {
 
     private final PersonMapper personMapper;
 
-    public PersonQueryService(PersonRepository personRepository, PersonMapper personMapper) {
+    private final CursorQueryService cursorQueryService;
+
+    private final CountQueryService countQueryService;
+
+    public PersonQueryService(
+        PersonRepository personRepository,
+        PersonMapper personMapper,
+        CursorQueryService cursorQueryService,
+        CountQueryService countQueryService
+    ) {
         this.personRepository = personRepository;
         this.personMapper = personMapper;
+        this.cursorQueryService = cursorQueryService;
+        this.countQueryService = countQueryService;
     }
 
     /**
@@ -53,14 +67,50 @@ public class PersonQueryService extends QueryService<Person> {
     /**
      * Return a {@link Page} of {@link PersonDTO} which matches the criteria from the database.
      * @param criteria The object which holds all the filters, which the entities should match.
-     * @param page The page, which should be returned.
+     * @param page The page, which should be returned, possibly sorted by {@value #RELEVANCE}.
      * @return the matching entities.
      */
     @Transactional(readOnly = true)
     public Page<PersonDTO> findByCriteria(PersonCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+        return findByCriteria(criteria, page, CountQueryService.Mode.EXACT);
+    }
+
+    /**
+     * Return a {@link Page} of {@link PersonDTO} which matches the criteria from the database, or from the cached ids of
+     * the page, counting the entities only if the page is neither the first nor the last, and with a cached count if any.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned, possibly sorted by {@value #RELEVANCE}.
+     * @param countMode How to count the entities.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<PersonDTO> findByCriteria(PersonCriteria criteria, Pageable page, CountQueryService.Mode countMode) {
+        log.debug("find by criteria : {}, page: {}, count mode: {}", criteria, page, countMode);
+        final PersonCriteria filters = criteria == null ? new PersonCriteria() : criteria.copy();
+        Specification<Person> specification = createSpecification(filters);
+        if (isSortedByRelevance(page)) {
+            Map<SingularAttribute<? super Person, String>, TextFilter> textFilters = new HashMap<>();
+            textFilters.put(Person_.name, filters.getName());
+            specification = sortByRelevance(specification, page.getSort(), textFilters);
+        }
+        return countQueryService
+            .findAll(Person.class, filters, specification, page, () -> countByCriteria(filters, countMode))
+            .map(personMapper::toDto);
+    }
+
+    /**
+     * Return a {@link CursorSlice} of {@link PersonDTO} which matches the criteria from the database, seeking past the
+     * previous slice instead of skipping and counting the entities before it.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the slice, returned with the previous one, or empty for the first one.
+     * @param page The size and the sort of the slice.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public CursorSlice<PersonDTO> findByCriteria(PersonCriteria criteria, String cursor, Pageable page) {
+        log.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
         final Specification<Person> specification = createSpecification(criteria);
-        return personRepository.findAll(specification, page).map(personMapper::toDto);
+        return cursorQueryService.findAll(Person.class, specification, cursor, page).map(personMapper::toDto);
     }
 
     /**
@@ -70,9 +120,27 @@ public class PersonQueryService extends QueryService<Person> {
      */
     @Transactional(readOnly = true)
     public long countByCriteria(PersonCriteria criteria) {
-        log.debug("count by criteria : {}", criteria);
-        final Specification<Person> specification = createSpecification(criteria);
-        return personRepository.count(specification);
+        return countByCriteria(criteria, CountQueryService.Mode.EXACT);
+    }
+
+    /**
+     * Return the number of matching entities in the database, cached since counted until the entities are written.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param mode How to count the entities.
+     * @return the number of matching entities, estimated if so requested and the criteria filter nothing.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(PersonCriteria criteria, CountQueryService.Mode mode) {
+        log.debug("count by criteria : {}, mode: {}", criteria, mode);
+        final PersonCriteria filters = criteria == null ? new PersonCriteria() : criteria.copy();
+        final Specification<Person> specification = createSpecification(filters);
+        return countQueryService.count(Person.class, filters, isUnfiltered(filters), () -> personRepository.count(specification), mode);
+    }
+
+    private static boolean isUnfiltered(PersonCriteria criteria) {
+        PersonCriteria filters = criteria.copy();
+        filters.setDistinct(null);
+        return filters.equals(new PersonCriteria());
     }
 
     /**
@@ -91,12 +159,12 @@ public class PersonQueryService extends QueryService<Person> {
                 specification = specification.and(buildRangeSpecification(criteria.getId(), Person_.id));
             }
             if (criteria.getName() != null) {
-                specification = specification.and(buildStringSpecification(criteria.getName(), Person_.name));
+                specification = specification.and(buildTextSpecification(criteria.getName(), Person_.name));
             }
             if (criteria.getFilmId() != null) {
                 specification =
                     specification.and(
-                        buildSpecification(criteria.getFilmId(), root -> root.join(Person_.films, JoinType.LEFT).get(Film_.id))
+                        buildExistsSpecification(criteria.getFilmId(), root -> root.join(Person_.films).get(Film_.id))
                     );
             }
         }
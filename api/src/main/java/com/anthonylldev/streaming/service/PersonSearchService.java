@@ -0,0 +1,191 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.domain.Person;
+import com.anthonylldev.streaming.repository.PersonRepository;
+import com.anthonylldev.streaming.service.dto.PersonDTO;
+import com.anthonylldev.streaming.service.event.PersonChangedEvent;
+import com.anthonylldev.streaming.service.mapper.PersonMapper;
+import com.anthonylldev.streaming.service.util.FuzzyIndex;
+import com.anthonylldev.streaming.service.util.TextAnalyzer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service for the typo-tolerant search of {@link Person}s by name.
+ * <p>
+ * People are searched in an in-memory {@link FuzzyIndex} of their names, and of each word of their names, finding those
+ * within 1 or 2 edits of the query. The index is built from the database once the application is ready, kept up to date
+ * as people are written by this node, and periodically rebuilt, to pick up the people written by other nodes.
+ */
+@Service
+public class PersonSearchService {
+
+    private final Logger log = LoggerFactory.getLogger(PersonSearchService.class);
+
+    private static final String SELECT_PEOPLE_SQL = "SELECT id, name FROM person WHERE id > ? ORDER BY id LIMIT ?";
+
+    private final PersonRepository personRepository;
+
+    private final PersonMapper personMapper;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int batchSize;
+
+    private final Lock lock = new ReentrantLock();
+
+    private volatile FuzzyIndex index = new FuzzyIndex();
+
+    /**
+     * The writes of people while the index is rebuilt, replayed on the rebuilt index, or {@code null} when it is not.
+     */
+    private List<Consumer<FuzzyIndex>> rebuildWrites;
+
+    public PersonSearchService(
+        ApplicationProperties applicationProperties,
+        PersonRepository personRepository,
+        PersonMapper personMapper,
+        JdbcTemplate jdbcTemplate
+    ) {
+        this.personRepository = personRepository;
+        this.personMapper = personMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = applicationProperties.getSearch().getBatchSize();
+    }
+
+    /**
+     * Rebuild the index from the database, reading the people in batches with keyset pagination. The people written
+     * meanwhile are written again to the rebuilt index before it replaces the current one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+        fixedDelayString = "${application.search.refresh-interval:600000}",
+        initialDelayString = "${application.search.refresh-interval:600000}"
+    )
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        setRebuildWrites(new ArrayList<>());
+        FuzzyIndex rebuilt = new FuzzyIndex();
+        try {
+            long lastId = Long.MIN_VALUE;
+            List<Person> people;
+            do {
+                people =
+                    jdbcTemplate.query(
+                        SELECT_PEOPLE_SQL,
+                        (rs, rowNum) -> new Person().id(rs.getLong("id")).name(rs.getString("name")),
+                        lastId,
+                        batchSize
+                    );
+                for (Person person : people) {
+                    put(rebuilt, person);
+                    lastId = person.getId();
+                }
+            } while (people.size() == batchSize);
+        } catch (RuntimeException e) {
+            setRebuildWrites(null);
+            log.warn("Person search index could not be rebuilt, retrying on next refresh: {}", e.getMessage());
+            return;
+        }
+        lock.lock();
+        try {
+            rebuildWrites.forEach(write -> write.accept(rebuilt));
+            rebuildWrites = null;
+            index = rebuilt;
+        } finally {
+            lock.unlock();
+        }
+        log.debug("Rebuilt the search index of {} people in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+    }
+
+    private void setRebuildWrites(List<Consumer<FuzzyIndex>> writes) {
+        lock.lock();
+        try {
+            rebuildWrites = writes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Index a person written, or remove a person deleted, once the transaction writing it commits.
+     *
+     * @param event the person written or deleted.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void personChanged(PersonChangedEvent event) {
+        if (event.isDeleted()) {
+            Long id = event.getId();
+            write(index -> index.remove(id));
+        } else {
+            Person person = event.getPerson();
+            Person indexed = new Person().id(person.getId()).name(person.getName());
+            write(index -> put(index, indexed));
+        }
+    }
+
+    private void write(Consumer<FuzzyIndex> write) {
+        lock.lock();
+        try {
+            write.accept(index);
+            if (rebuildWrites != null) {
+                rebuildWrites.add(write);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Search people by name, despite typos.
+     *
+     * @param query    the name searched, or one of its words, in any case and with or without accents.
+     * @param pageable the pagination information, its sort being ignored.
+     * @return the people whose name or one of its words is within 1 edit of the query, or 2 edits from 6 characters on,
+     * the closest first.
+     */
+    @Transactional(readOnly = true)
+    public Page<PersonDTO> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of People for query {}", query);
+        String key = String.join(" ", TextAnalyzer.tokenize(query));
+        List<Long> ids = key.isEmpty() ? List.of() : index.search(key);
+        // Served from the second-level cache
+        List<PersonDTO> people = ids
+            .stream()
+            .skip(pageable.getOffset())
+            .limit(pageable.getPageSize())
+            .map(personRepository::findById)
+            .flatMap(Optional::stream)
+            .map(personMapper::toDto)
+            .collect(Collectors.toList());
+        return new PageImpl<>(people, pageable, ids.size());
+    }
+
+    private static void put(FuzzyIndex index, Person person) {
+        List<String> terms = TextAnalyzer.tokenize(person.getName());
+        Set<String> keys = new LinkedHashSet<>(terms);
+        keys.add(String.join(" ", terms));
+        keys.remove("");
+        index.put(person.getId(), keys);
+    }
+}
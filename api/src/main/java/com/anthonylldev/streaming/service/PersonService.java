@@ -1,5 +1,6 @@
 package com.anthonylldev.streaming.service;
 
+import com.anthonylldev.streaming.service.dto.CoverDTO;
 import com.anthonylldev.streaming.service.dto.PersonDTO;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -49,6 +50,23 @@ public interface PersonService {
      */
     Optional<PersonDTO> findOne(Long id);
 
+    /**
+     * Get the cover of the "id" person, resized to the smallest rendition at least {@code width} pixels wide.
+     *
+     * @param id the id of the entity.
+     * @param width the requested width, or {@code null} for the original cover.
+     * @return the cover, or empty if the person does not exist or has no cover.
+     */
+    Optional<CoverDTO> findCover(Long id, Integer width);
+
+    /**
+     * Remove the cover of the "id" person.
+     *
+     * @param id the id of the entity.
+     * @return the entity, or empty if it does not exist.
+     */
+    Optional<PersonDTO> deleteCover(Long id);
+
     /**
      * Delete the "id" person.
      *
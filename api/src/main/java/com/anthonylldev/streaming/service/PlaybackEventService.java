@@ -0,0 +1,274 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.domain.enumeration.PlaybackEventType;
+import com.anthonylldev.streaming.management.PlaybackEventMetersService;
+import com.anthonylldev.streaming.service.dto.PlaybackEventDTO;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service ingesting the playback events reported by players.
+ * <p>
+ * Every active viewer reports a heartbeat every few seconds, so events are not written in a transaction each: they are
+ * buffered in a bounded ring buffer, and a single writer thread group-commits them, inserting all the events received
+ * while the previous transaction was committing in one JDBC batch. When the buffer is full, events are rejected or
+ * dropped as configured, and counted either way. A batch that cannot be written is retried a few times, backing off,
+ * before being dropped.
+ */
+@Service
+public class PlaybackEventService {
+
+    private final Logger log = LoggerFactory.getLogger(PlaybackEventService.class);
+
+    private static final String INSERT_EVENT_SQL =
+        "INSERT INTO playback_event (user_login, event_type, film_id, episode_id, position, created_date) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final PlaybackEventMetersService metersService;
+
+    private final int bufferSize;
+
+    private final int batchSize;
+
+    private final ApplicationProperties.PlaybackEvents.Overflow overflow;
+
+    private final int retries;
+
+    private final long retryBackoff;
+
+    private final BlockingQueue<PlaybackEvent> buffer;
+
+    /**
+     * The number of events buffered, being added to the buffer or being written. Batches reserve their room first, so
+     * they are either wholly buffered or not at all.
+     */
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public PlaybackEventService(
+        ApplicationProperties applicationProperties,
+        JdbcTemplate jdbcTemplate,
+        TransactionTemplate transactionTemplate,
+        PlaybackEventMetersService metersService
+    ) {
+        ApplicationProperties.PlaybackEvents properties = applicationProperties.getPlaybackEvents();
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.metersService = metersService;
+        this.bufferSize = properties.getBufferSize();
+        this.batchSize = properties.getBatchSize();
+        this.overflow = properties.getOverflow();
+        this.retries = properties.getRetries();
+        this.retryBackoff = properties.getRetryBackoff();
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        metersService.registerBuffered(reserved::get);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::write, "playback-event-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Buffer playback events to be written.
+     *
+     * @param login  the login of the user reporting the events.
+     * @param events the events.
+     * @return {@code false} if the buffer is full and the events are rejected, {@code true} if they are buffered or
+     * dropped.
+     */
+    public boolean record(String login, List<PlaybackEventDTO> events) {
+        log.debug("Request to record {} playback events of user : {}", events.size(), login);
+        if (events.isEmpty()) {
+            return true;
+        }
+        if (!reserve(events.size())) {
+            if (overflow == ApplicationProperties.PlaybackEvents.Overflow.DROP) {
+                metersService.trackDropped(events.size());
+                return true;
+            }
+            metersService.trackRejected(events.size());
+            return false;
+        }
+        Instant now = Instant.now();
+        // The room is reserved, so the buffer cannot be full
+        events.forEach(event -> buffer.add(new PlaybackEvent(login, event, now)));
+        metersService.trackAccepted(events.size());
+        return true;
+    }
+
+    private boolean reserve(int events) {
+        while (true) {
+            int current = reserved.get();
+            if (current + events > bufferSize) {
+                return false;
+            }
+            if (reserved.compareAndSet(current, current + events)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Write all the buffered events, waiting for those being written.
+     */
+    public synchronized void flush() {
+        List<PlaybackEvent> batch = new ArrayList<>(batchSize);
+        try {
+            while (reserved.get() > 0) {
+                if (buffer.drainTo(batch, batchSize) > 0) {
+                    write(batch);
+                    batch.clear();
+                } else {
+                    // Being added, or polled by the writer thread, which notifies once they are written
+                    wait(100);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write() {
+        while (running) {
+            try {
+                writeBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error writing playback events", e);
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Wait for events, then write them with all the events buffered meanwhile.
+     */
+    private void writeBatch() throws InterruptedException {
+        PlaybackEvent first = buffer.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+            return;
+        }
+        List<PlaybackEvent> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        buffer.drainTo(batch, batchSize - 1);
+        write(batch);
+    }
+
+    /**
+     * Write a batch, retrying it with an exponential backoff. Synchronized with {@link #flush()}, so that a flush also
+     * waits for the batch being written.
+     */
+    private synchronized void write(List<PlaybackEvent> batch) throws InterruptedException {
+        try {
+            for (int attempt = 0;; attempt++) {
+                try {
+                    insert(batch);
+                    metersService.trackWritten(batch.size());
+                    return;
+                } catch (RuntimeException e) {
+                    if (attempt == retries) {
+                        log.warn("{} playback events could not be written, dropped: {}", batch.size(), e.getMessage());
+                        metersService.trackFailed(batch.size());
+                        return;
+                    }
+                    log.debug("{} playback events could not be written, retrying: {}", batch.size(), e.getMessage());
+                }
+                Thread.sleep(retryBackoff << attempt);
+            }
+        } catch (InterruptedException e) {
+            metersService.trackFailed(batch.size());
+            throw e;
+        } finally {
+            reserved.addAndGet(-batch.size());
+            notifyAll();
+        }
+    }
+
+    private void insert(List<PlaybackEvent> batch) {
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.batchUpdate(
+                INSERT_EVENT_SQL,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PlaybackEvent event = batch.get(i);
+                        ps.setString(1, event.login);
+                        ps.setString(2, event.type.name());
+                        ps.setObject(3, event.filmId, Types.BIGINT);
+                        ps.setObject(4, event.episodeId, Types.BIGINT);
+                        ps.setObject(5, event.position, Types.INTEGER);
+                        ps.setTimestamp(6, Timestamp.from(event.createdDate), utc);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                }
+            )
+        );
+    }
+
+    private static final class PlaybackEvent {
+
+        private final String login;
+
+        private final PlaybackEventType type;
+
+        private final Long filmId;
+
+        private final Long episodeId;
+
+        private final Integer position;
+
+        private final Instant createdDate;
+
+        private PlaybackEvent(String login, PlaybackEventDTO event, Instant createdDate) {
+            this.login = login;
+            this.type = event.getType();
+            this.filmId = event.getFilmId();
+            this.episodeId = event.getEpisodeId();
+            this.position = event.getPosition();
+            this.createdDate = createdDate;
+        }
+    }
+}
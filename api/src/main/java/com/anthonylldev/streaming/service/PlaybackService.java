@@ -0,0 +1,85 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.security.SecurityUtils;
+import com.anthonylldev.streaming.security.stream.StreamUrlFilter;
+import com.anthonylldev.streaming.security.stream.StreamUrlSigner;
+import com.anthonylldev.streaming.service.dto.PlaybackDTO;
+import java.time.Instant;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service issuing the signed stream URLs of films and episodes to the current user.
+ * <p>
+ * Media requests through signed URLs are verified by {@link StreamUrlFilter} with a single HMAC computation, instead of
+ * a JWT parsed by the Spring Security filter chain for every range and segment request.
+ */
+@Service
+public class PlaybackService {
+
+    private final Logger log = LoggerFactory.getLogger(PlaybackService.class);
+
+    private static final String FILMS = "films";
+
+    private static final String EPISODES = "episodes";
+
+    private final FilmService filmService;
+
+    private final EpisodeService episodeService;
+
+    private final StreamUrlSigner streamUrlSigner;
+
+    private final long validityInSeconds;
+
+    public PlaybackService(
+        FilmService filmService,
+        EpisodeService episodeService,
+        StreamUrlSigner streamUrlSigner,
+        ApplicationProperties applicationProperties
+    ) {
+        this.filmService = filmService;
+        this.episodeService = episodeService;
+        this.streamUrlSigner = streamUrlSigner;
+        this.validityInSeconds = applicationProperties.getMedia().getSignedUrl().getValidityInSeconds();
+    }
+
+    /**
+     * Issue the signed stream URLs of the media of a film.
+     *
+     * @param id the id of the film.
+     * @return the signed URLs, or empty if the film has no local media.
+     */
+    public Optional<PlaybackDTO> findFilmPlayback(Long id) {
+        log.debug("Request to get Film playback : {}", id);
+        return filmService.findMedia(id).flatMap(media -> playback(FILMS, id));
+    }
+
+    /**
+     * Issue the signed stream URLs of the media of an episode.
+     *
+     * @param id the id of the episode.
+     * @return the signed URLs, or empty if the episode has no local media.
+     */
+    public Optional<PlaybackDTO> findEpisodePlayback(Long id) {
+        log.debug("Request to get Episode playback : {}", id);
+        return episodeService.findMedia(id).flatMap(media -> playback(EPISODES, id));
+    }
+
+    private Optional<PlaybackDTO> playback(String kind, Long id) {
+        return SecurityUtils
+            .getCurrentUserLogin()
+            .map(login -> {
+                Instant expiresAt = Instant.now().plusSeconds(validityInSeconds);
+                String token = streamUrlSigner.sign(kind, id, login, expiresAt);
+                String prefix = StreamUrlFilter.SIGNED_URL_PREFIX + token + "/" + kind + "/" + id;
+                PlaybackDTO playbackDTO = new PlaybackDTO();
+                playbackDTO.setStreamUrl(prefix + "/stream");
+                playbackDTO.setHlsUrl(prefix + "/hls/master.m3u8");
+                playbackDTO.setExpiresAt(expiresAt);
+                return playbackDTO;
+            });
+    }
+}
@@ -0,0 +1,158 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.service.dto.SuggestionDTO;
+import com.anthonylldev.streaming.service.event.FilmChangedEvent;
+import com.anthonylldev.streaming.service.event.PersonChangedEvent;
+import com.anthonylldev.streaming.service.util.CompletionTrie;
+import com.anthonylldev.streaming.service.util.TextAnalyzer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service completing the prefixes typed in search boxes with the titles of films and the names of people.
+ * <p>
+ * Prefixes are completed from an immutable {@link CompletionTrie} of each type, held in memory, instead of querying the
+ * database on each keystroke. The tries are keyed by each word of the titles and names onwards, so that {@code hunt}
+ * completes to {@code The Night of the Hunter}, and weighted by popularity: the views of the film, or the sum of the
+ * views of the films of the person. They are rebuilt in the background once the catalog changes, and periodically, to
+ * pick up the views and the changes of other nodes, then swapped atomically.
+ */
+@Service
+public class SuggestService {
+
+    private final Logger log = LoggerFactory.getLogger(SuggestService.class);
+
+    private static final String SELECT_FILMS_SQL = "SELECT id, title, coalesce(views, 0) AS views FROM film WHERE title IS NOT NULL";
+
+    private static final String SELECT_PEOPLE_SQL =
+        "SELECT p.id, p.name, coalesce(sum(f.views), 0) AS views FROM person p " +
+        "LEFT JOIN rel_film__person r ON r.person_id = p.id LEFT JOIN film f ON f.id = r.film_id " +
+        "WHERE p.name IS NOT NULL GROUP BY p.id, p.name";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Executor executor;
+
+    private final int maximumSuggestions;
+
+    private volatile Map<SuggestionDTO.Type, CompletionTrie<SuggestionDTO>> tries = Map.of();
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    public SuggestService(
+        ApplicationProperties applicationProperties,
+        JdbcTemplate jdbcTemplate,
+        @Qualifier("taskExecutor") Executor executor
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+        this.maximumSuggestions = applicationProperties.getSuggest().getMaximumSuggestions();
+    }
+
+    /**
+     * Rebuild the tries from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+        fixedDelayString = "${application.suggest.refresh-interval:300000}",
+        initialDelayString = "${application.suggest.refresh-interval:300000}"
+    )
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<SuggestionDTO.Type, CompletionTrie<SuggestionDTO>> rebuilt = new EnumMap<>(SuggestionDTO.Type.class);
+        try {
+            rebuilt.put(SuggestionDTO.Type.FILM, build(SuggestionDTO.Type.FILM, SELECT_FILMS_SQL, "title"));
+            rebuilt.put(SuggestionDTO.Type.PERSON, build(SuggestionDTO.Type.PERSON, SELECT_PEOPLE_SQL, "name"));
+        } catch (RuntimeException e) {
+            log.warn("Suggestions could not be rebuilt, retrying on next refresh: {}", e.getMessage());
+            return;
+        }
+        tries = rebuilt;
+        log.debug("Rebuilt the suggestions in {} ms", System.currentTimeMillis() - start);
+    }
+
+    private CompletionTrie<SuggestionDTO> build(SuggestionDTO.Type type, String sql, String textColumn) {
+        CompletionTrie.Builder<SuggestionDTO> builder = CompletionTrie.builder();
+        jdbcTemplate.query(
+            sql,
+            rs -> {
+                String text = rs.getString(textColumn);
+                builder.add(new SuggestionDTO(type, rs.getLong("id"), text), rs.getLong("views"), keys(text));
+            }
+        );
+        return builder.build(maximumSuggestions);
+    }
+
+    /**
+     * Rebuild the tries in the background, once a film or a person written or deleted is committed; the changes committed
+     * while a rebuild is pending are picked up by it.
+     */
+    @TransactionalEventListener(classes = { FilmChangedEvent.class, PersonChangedEvent.class }, fallbackExecution = true)
+    public void catalogChanged() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                rebuildPending.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    /**
+     * Complete a prefix.
+     *
+     * @param prefix the prefix, in any case and with or without accents.
+     * @param types  the types of the suggestions.
+     * @param limit  the maximum number of suggestions, capped.
+     * @return the most popular films and people with a word of their title or name onwards starting with the prefix.
+     */
+    public List<SuggestionDTO> suggest(String prefix, Collection<SuggestionDTO.Type> types, int limit) {
+        String key = String.join(" ", TextAnalyzer.tokenize(prefix));
+        int cappedLimit = Math.min(limit, maximumSuggestions);
+        if (key.isEmpty() || cappedLimit <= 0) {
+            return List.of();
+        }
+        Map<SuggestionDTO.Type, CompletionTrie<SuggestionDTO>> current = tries;
+        List<CompletionTrie.Completion<SuggestionDTO>> completions = new ArrayList<>();
+        for (SuggestionDTO.Type type : types) {
+            CompletionTrie<SuggestionDTO> trie = current.get(type);
+            if (trie != null) {
+                completions.addAll(trie.complete(key, cappedLimit));
+            }
+        }
+        return completions
+            .stream()
+            .sorted(Comparator.comparingLong(CompletionTrie.Completion<SuggestionDTO>::getWeight).reversed())
+            .limit(cappedLimit)
+            .map(CompletionTrie.Completion::getValue)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the text from each of its words onwards, normalized.
+     */
+    private static List<String> keys(String text) {
+        List<String> terms = TextAnalyzer.tokenize(text);
+        List<String> keys = new ArrayList<>(terms.size());
+        for (int i = 0; i < terms.size(); i++) {
+            keys.add(String.join(" ", terms.subList(i, terms.size())));
+        }
+        return keys;
+    }
+}
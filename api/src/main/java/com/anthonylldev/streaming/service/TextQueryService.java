@@ -0,0 +1,166 @@
+package com.anthonylldev.streaming.service;
+
+import static com.anthonylldev.streaming.config.TextSearchConfiguration.*;
+
+import com.anthonylldev.streaming.service.criteria.TextFilter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import javax.persistence.metamodel.SingularAttribute;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import tech.jhipster.service.QueryService;
+import tech.jhipster.service.filter.LongFilter;
+
+/**
+ * Base service for executing complex queries for entities with searchable texts, filtered by {@link TextFilter}s.
+ * <p>
+ * The {@code search} and {@code fuzzy} operators are compiled to the PostgreSQL full-text and trigram operators, served
+ * by the indexes of the texts, and the entities can be sorted by their relevance to them with the {@link #RELEVANCE}
+ * sort property. The filters on the ids of to-many relations are compiled to correlated {@code EXISTS} subqueries, which
+ * neither multiply the rows of the entities by their related ones nor need them to be made distinct.
+ *
+ * @param <ENTITY> the type of the entity which is queried.
+ */
+public abstract class TextQueryService<ENTITY> extends QueryService<ENTITY> {
+
+    /**
+     * The sort property of the relevance to the {@code search} and {@code fuzzy} operators.
+     */
+    public static final String RELEVANCE = "relevance";
+
+    /**
+     * Helper function to return a specification for filtering on a searchable {@link String} field.
+     *
+     * @param filter the individual attribute filter coming from the frontend.
+     * @param field  the JPA static metamodel representing the field.
+     * @return a Specification
+     */
+    protected Specification<ENTITY> buildTextSpecification(TextFilter filter, SingularAttribute<? super ENTITY, String> field) {
+        Specification<ENTITY> specification = buildStringSpecification(filter, field);
+        if (filter.getSearch() != null) {
+            specification =
+                specification.and(
+                    (root, query, builder) ->
+                        builder.isTrue(call(TEXT_SEARCH_MATCH, Boolean.class, root, builder, field, filter.getSearch()))
+                );
+        }
+        if (filter.getFuzzy() != null) {
+            specification =
+                specification.and(
+                    (root, query, builder) -> builder.isTrue(call(TRIGRAM_MATCH, Boolean.class, root, builder, field, filter.getFuzzy()))
+                );
+        }
+        return specification;
+    }
+
+    /**
+     * Helper function to return a specification for filtering on the ids of the entities of a to-many relation, matching
+     * the entities related to at least one entity the filter matches, with a correlated {@code EXISTS} subquery; a
+     * {@code specified} filter matches the entities related to any entity, or to none.
+     * <p>
+     * Unlike a join, the subquery stops at the first matching related entity, so that the entities match once however
+     * many they are related to, and the count of those related to an entity scales with its relations.
+     *
+     * @param filter            the individual attribute filter coming from the frontend.
+     * @param metaclassFunction lambda, which based on a Root&lt;ENTITY&gt; joins the relation and returns the id of the
+     *                          related entities.
+     * @return a Specification
+     */
+    protected Specification<ENTITY> buildExistsSpecification(
+        LongFilter filter,
+        Function<Root<ENTITY>, Expression<Long>> metaclassFunction
+    ) {
+        LongFilter values = filter.copy();
+        values.setSpecified(null);
+        Specification<ENTITY> specification = Specification.where(null);
+        if (!values.equals(new LongFilter())) {
+            specification = specification.and(exists(buildSpecification(values, metaclassFunction)));
+        }
+        if (filter.getSpecified() != null) {
+            Specification<ENTITY> related = exists((root, query, builder) -> builder.isNotNull(metaclassFunction.apply(root)));
+            specification = specification.and(filter.getSpecified() ? related : Specification.not(related));
+        }
+        return specification;
+    }
+
+    private Specification<ENTITY> exists(Specification<ENTITY> related) {
+        return (root, query, builder) -> {
+            Subquery<Integer> subquery = query.subquery(Integer.class);
+            Root<ENTITY> correlated = subquery.correlate(root);
+            return builder.exists(subquery.select(builder.literal(1)).where(related.toPredicate(correlated, query, builder)));
+        };
+    }
+
+    /**
+     * @param page the page requested.
+     * @return whether it is sorted by relevance.
+     */
+    protected boolean isSortedByRelevance(Pageable page) {
+        return page.getSort().getOrderFor(RELEVANCE) != null;
+    }
+
+    /**
+     * Sort by relevance, which the repositories cannot do as it is no property of the entities.
+     *
+     * @param specification the specification of the entities.
+     * @param sort          the sort, by relevance and by properties of the entities.
+     * @param filters       the text filters, by field, the relevance being the sum of that to their
+     *                      {@code search} and {@code fuzzy} operators.
+     * @return the specification, sorting the entities; the page must no longer be sorted by the repositories, which
+     * {@link CountQueryService#findAll} does not do for a specification sorting the entities itself.
+     */
+    protected Specification<ENTITY> sortByRelevance(
+        Specification<ENTITY> specification,
+        Sort sort,
+        Map<SingularAttribute<? super ENTITY, String>, TextFilter> filters
+    ) {
+        return specification.and((root, query, builder) -> {
+            Expression<Double> relevance = null;
+            for (Map.Entry<SingularAttribute<? super ENTITY, String>, TextFilter> entry : filters.entrySet()) {
+                TextFilter filter = entry.getValue();
+                if (filter != null && filter.getSearch() != null) {
+                    relevance =
+                        sum(builder, relevance, call(TEXT_SEARCH_RANK, Double.class, root, builder, entry.getKey(), filter.getSearch()));
+                }
+                if (filter != null && filter.getFuzzy() != null) {
+                    relevance =
+                        sum(builder, relevance, call(TRIGRAM_SIMILARITY, Double.class, root, builder, entry.getKey(), filter.getFuzzy()));
+                }
+            }
+            List<Order> orders = new ArrayList<>();
+            for (Sort.Order order : sort) {
+                if (!RELEVANCE.equals(order.getProperty())) {
+                    orders.addAll(QueryUtils.toOrders(Sort.by(order), root, builder));
+                } else if (relevance != null) {
+                    orders.add(order.isAscending() ? builder.asc(relevance) : builder.desc(relevance));
+                }
+            }
+            query.orderBy(orders);
+            return null;
+        });
+    }
+
+    private static Expression<Double> sum(CriteriaBuilder builder, Expression<Double> sum, Expression<Double> term) {
+        return sum == null ? term : builder.sum(sum, term);
+    }
+
+    private <T> Expression<T> call(
+        String name,
+        Class<T> type,
+        Root<ENTITY> root,
+        CriteriaBuilder builder,
+        SingularAttribute<? super ENTITY, String> field,
+        String value
+    ) {
+        return builder.function(name, type, root.get(field), builder.literal(value));
+    }
+}
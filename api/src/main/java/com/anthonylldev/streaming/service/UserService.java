@@ -9,6 +9,7 @@ import com.anthonylldev.streaming.security.AuthoritiesConstants;
 import com.anthonylldev.streaming.security.SecurityUtils;
 import com.anthonylldev.streaming.service.dto.AdminUserDTO;
 import com.anthonylldev.streaming.service.dto.UserDTO;
+import com.anthonylldev.streaming.service.util.CursorSlice;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -41,16 +42,20 @@ public class UserService {
 
     private final CacheManager cacheManager;
 
+    private final CursorQueryService cursorQueryService;
+
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        CacheManager cacheManager,
+        CursorQueryService cursorQueryService
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
+        this.cursorQueryService = cursorQueryService;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -276,6 +281,11 @@ public class UserService {
         return userRepository.findAll(pageable).map(AdminUserDTO::new);
     }
 
+    @Transactional(readOnly = true)
+    public CursorSlice<AdminUserDTO> getAllManagedUsers(String cursor, Pageable pageable) {
+        return cursorQueryService.findAll(User.class, null, cursor, pageable).map(AdminUserDTO::new);
+    }
+
     @Transactional(readOnly = true)
     public Page<UserDTO> getAllPublicUsers(Pageable pageable) {
         return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
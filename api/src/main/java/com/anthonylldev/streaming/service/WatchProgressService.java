@@ -0,0 +1,337 @@
+package com.anthonylldev.streaming.service;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.repository.EpisodeRepository;
+import com.anthonylldev.streaming.repository.FilmRepository;
+import com.anthonylldev.streaming.service.dto.WatchProgressDTO;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service managing the resume positions of users, and their continue watching lists.
+ * <p>
+ * Players report their position every few seconds, so positions are coalesced in memory, the last one winning, and
+ * periodically upserted in a single JDBC batch. The most recent positions of each user are cached, so that continue
+ * watching lists are served from memory and the positions reported meanwhile are applied to them as they come. Nothing
+ * is locked but the positions of one user at a time: each flush swaps the pending positions out, and a generation
+ * tells the reads that raced with a write to read again.
+ */
+@Service
+public class WatchProgressService {
+
+    private final Logger log = LoggerFactory.getLogger(WatchProgressService.class);
+
+    private static final String UPSERT_PROGRESS_SQL =
+        "INSERT INTO watch_progress (user_login, film_id, episode_id, position, last_modified_date) SELECT ?, ?, ?, ?, ? " +
+        "WHERE EXISTS (SELECT 1 FROM film WHERE id = ?) " +
+        "ON CONFLICT (user_login, film_id) DO UPDATE " +
+        "SET episode_id = EXCLUDED.episode_id, position = EXCLUDED.position, last_modified_date = EXCLUDED.last_modified_date " +
+        "WHERE watch_progress.last_modified_date <= EXCLUDED.last_modified_date";
+
+    private static final String SELECT_PROGRESS_SQL =
+        "SELECT film_id, episode_id, position, last_modified_date FROM watch_progress WHERE user_login = ? ";
+
+    private final FilmRepository filmRepository;
+
+    private final EpisodeRepository episodeRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int continueWatchingSize;
+
+    /**
+     * Positions not yet written, by user and film. Swapped out by each flush, and written to by compute, per user.
+     */
+    private volatile ConcurrentMap<String, Map<Long, WatchProgressDTO>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Positions swapped out by the flush being written, still read until they are.
+     */
+    private volatile Map<String, Map<Long, WatchProgressDTO>> flushing = Map.of();
+
+    /**
+     * The most recent positions of the users whose continue watching list was requested, by film. The users cached
+     * first are evicted first, once there are too many.
+     */
+    private final ConcurrentMap<String, Map<Long, WatchProgressDTO>> users = new ConcurrentHashMap<>();
+
+    private final Queue<String> cachedUsers = new ConcurrentLinkedQueue<>();
+
+    private final int maximumUsers;
+
+    /**
+     * The generation of the positions written, incremented by each flush, so that positions read while a flush is
+     * written are read again.
+     */
+    private final AtomicLong flushes = new AtomicLong();
+
+    public WatchProgressService(
+        ApplicationProperties applicationProperties,
+        FilmRepository filmRepository,
+        EpisodeRepository episodeRepository,
+        JdbcTemplate jdbcTemplate,
+        TransactionTemplate transactionTemplate
+    ) {
+        ApplicationProperties.WatchProgress properties = applicationProperties.getWatchProgress();
+        this.filmRepository = filmRepository;
+        this.episodeRepository = episodeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.continueWatchingSize = properties.getContinueWatchingSize();
+        this.maximumUsers = properties.getMaximumUsers();
+    }
+
+    /**
+     * Save the resume position of a user in a film.
+     *
+     * @param login            the login of the user.
+     * @param filmId           the id of the film.
+     * @param watchProgressDTO the position, and the episode for series.
+     * @return the position saved, or empty if there is no such film or episode of the film.
+     */
+    @Transactional(readOnly = true)
+    public Optional<WatchProgressDTO> save(String login, Long filmId, WatchProgressDTO watchProgressDTO) {
+        log.debug("Request to save WatchProgress of user {} : {}", login, watchProgressDTO);
+        // Served from the second-level cache
+        if (filmRepository.findById(filmId).isEmpty()) {
+            return Optional.empty();
+        }
+        Long episodeId = watchProgressDTO.getEpisodeId();
+        if (
+            episodeId != null &&
+            episodeRepository
+                .findById(episodeId)
+                .filter(episode -> episode.getFilm() != null && filmId.equals(episode.getFilm().getId()))
+                .isEmpty()
+        ) {
+            return Optional.empty();
+        }
+        WatchProgressDTO progress = new WatchProgressDTO();
+        progress.setFilmId(filmId);
+        progress.setEpisodeId(episodeId);
+        progress.setPosition(watchProgressDTO.getPosition());
+        progress.setLastModifiedDate(Instant.now());
+        ConcurrentMap<String, Map<Long, WatchProgressDTO>> positions;
+        do {
+            positions = pending;
+            positions.compute(login, (user, films) -> put(films, progress));
+            // Put again if swapped out meanwhile, as the flush may not have seen it
+        } while (positions != pending);
+        users.computeIfPresent(login, (user, films) -> put(films, progress));
+        return Optional.of(progress);
+    }
+
+    /**
+     * Get the resume position of a user in a film.
+     *
+     * @param login  the login of the user.
+     * @param filmId the id of the film.
+     * @return the position, or empty if the user never played the film.
+     */
+    public Optional<WatchProgressDTO> findOne(String login, Long filmId) {
+        log.debug("Request to get WatchProgress of user {} : {}", login, filmId);
+        while (true) {
+            long generation = flushes.get();
+            WatchProgressDTO progress = findPending(login, filmId);
+            if (progress == null) {
+                progress = users.getOrDefault(login, Map.of()).get(filmId);
+            }
+            if (progress != null) {
+                return Optional.of(progress);
+            }
+            List<WatchProgressDTO> loaded = jdbcTemplate.query(SELECT_PROGRESS_SQL + "AND film_id = ?", this::toProgress, login, filmId);
+            // Reported meanwhile
+            progress = findPending(login, filmId);
+            if (progress != null) {
+                return Optional.of(progress);
+            }
+            if (generation == flushes.get()) {
+                return loaded.stream().findFirst();
+            }
+        }
+    }
+
+    /**
+     * Get the continue watching list of a user.
+     *
+     * @param login the login of the user.
+     * @return the positions of the user, most recent first.
+     */
+    public List<WatchProgressDTO> findContinueWatching(String login) {
+        log.debug("Request to get the continue watching list of user : {}", login);
+        while (true) {
+            long generation = flushes.get();
+            Map<Long, WatchProgressDTO> cached = users.get(login);
+            if (cached != null) {
+                return mostRecent(cached);
+            }
+            List<WatchProgressDTO> loaded = jdbcTemplate.query(
+                SELECT_PROGRESS_SQL + "ORDER BY last_modified_date DESC LIMIT ?",
+                this::toProgress,
+                login,
+                continueWatchingSize
+            );
+            Map<Long, WatchProgressDTO> positions = new ConcurrentHashMap<>();
+            loaded.forEach(progress -> put(positions, progress));
+            cached =
+                users.computeIfAbsent(login, user -> {
+                    flushing.getOrDefault(login, Map.of()).values().forEach(progress -> put(positions, progress));
+                    pending.getOrDefault(login, Map.of()).values().forEach(progress -> put(positions, progress));
+                    // Unless read while positions were written, and no longer pending
+                    return generation == flushes.get() ? positions : null;
+                });
+            if (cached == positions) {
+                cache(login);
+            }
+            if (cached != null) {
+                return mostRecent(cached);
+            }
+        }
+    }
+
+    /**
+     * @return the position not yet written of a user in a film, or {@code null} if there is none.
+     */
+    private WatchProgressDTO findPending(String login, Long filmId) {
+        WatchProgressDTO progress = pending.getOrDefault(login, Map.of()).get(filmId);
+        return progress != null ? progress : flushing.getOrDefault(login, Map.of()).get(filmId);
+    }
+
+    /**
+     * Evict the users cached first, once there are too many.
+     */
+    private void cache(String login) {
+        cachedUsers.add(login);
+        while (users.size() > maximumUsers) {
+            String eldest = cachedUsers.poll();
+            if (eldest == null) {
+                return;
+            }
+            users.remove(eldest);
+        }
+    }
+
+    /**
+     * Put a position in the positions of a user by film, unless a more recent one is already there.
+     *
+     * @return the positions, created if {@code null}.
+     */
+    private static Map<Long, WatchProgressDTO> put(Map<Long, WatchProgressDTO> positions, WatchProgressDTO progress) {
+        Map<Long, WatchProgressDTO> updated = positions != null ? positions : new ConcurrentHashMap<>();
+        updated.merge(
+            progress.getFilmId(),
+            progress,
+            (current, reported) -> reported.getLastModifiedDate().isBefore(current.getLastModifiedDate()) ? current : reported
+        );
+        return updated;
+    }
+
+    /**
+     * @return the most recent positions, forgetting the others unless reported meanwhile.
+     */
+    private List<WatchProgressDTO> mostRecent(Map<Long, WatchProgressDTO> positions) {
+        List<WatchProgressDTO> sorted = positions
+            .values()
+            .stream()
+            .sorted(Comparator.comparing(WatchProgressDTO::getLastModifiedDate).reversed())
+            .collect(Collectors.toList());
+        if (sorted.size() <= continueWatchingSize) {
+            return sorted;
+        }
+        sorted.subList(continueWatchingSize, sorted.size()).forEach(progress -> positions.remove(progress.getFilmId(), progress));
+        return new ArrayList<>(sorted.subList(0, continueWatchingSize));
+    }
+
+    private WatchProgressDTO toProgress(ResultSet rs, int rowNum) throws SQLException {
+        WatchProgressDTO progress = new WatchProgressDTO();
+        progress.setFilmId(rs.getLong("film_id"));
+        progress.setEpisodeId(rs.getObject("episode_id", Long.class));
+        progress.setPosition(rs.getInt("position"));
+        // The column has no time zone and holds UTC, like the columns written by Hibernate
+        progress.setLastModifiedDate(rs.getObject("last_modified_date", LocalDateTime.class).toInstant(ZoneOffset.UTC));
+        return progress;
+    }
+
+    /**
+     * Write the positions reported since the last flush. Flushes only wait for each other.
+     */
+    @Scheduled(fixedDelayString = "${application.watch-progress.flush-interval:5000}")
+    public synchronized void flush() {
+        Map<String, Map<Long, WatchProgressDTO>> flushed = pending;
+        if (flushed.isEmpty()) {
+            return;
+        }
+        // Still read until written, as swapped out
+        flushing = flushed;
+        pending = new ConcurrentHashMap<>();
+        List<Object[]> upserts = new ArrayList<>();
+        flushed.forEach((login, positions) ->
+            positions
+                .values()
+                .forEach(progress ->
+                    upserts.add(
+                        new Object[] {
+                            login,
+                            progress.getFilmId(),
+                            progress.getEpisodeId(),
+                            progress.getPosition(),
+                            LocalDateTime.ofInstant(progress.getLastModifiedDate(), ZoneOffset.UTC),
+                            // Skipped if the film was deleted meanwhile, rather than failing the batch again on each flush
+                            progress.getFilmId(),
+                        }
+                    )
+                )
+        );
+        try {
+            int[] types = { Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.INTEGER, Types.TIMESTAMP, Types.BIGINT };
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_PROGRESS_SQL, upserts, types));
+        } catch (RuntimeException e) {
+            log.warn("Positions of {} users could not be written, retrying on next flush: {}", flushed.size(), e.getMessage());
+            // Unless reported again meanwhile
+            flushed.forEach((login, positions) ->
+                pending.compute(login, (user, films) -> {
+                    Map<Long, WatchProgressDTO> merged = films;
+                    for (WatchProgressDTO progress : positions.values()) {
+                        merged = put(merged, progress);
+                    }
+                    return merged;
+                })
+            );
+            flushing = Map.of();
+            return;
+        }
+        flushes.incrementAndGet();
+        flushing = Map.of();
+        log.debug("Wrote the positions of {} users", flushed.size());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+}
@@ -23,9 +23,9 @@ public class EpisodeCriteria implements Serializable, Criteria {
 
     private LongFilter id;
 
-    private StringFilter title;
+    private TextFilter title;
 
-    private StringFilter synopsis;
+    private TextFilter synopsis;
 
     private IntegerFilter order;
 
@@ -64,33 +64,33 @@ public class EpisodeCriteria implements Serializable, Criteria {
         this.id = id;
     }
 
-    public StringFilter getTitle() {
+    public TextFilter getTitle() {
         return title;
     }
 
-    public StringFilter title() {
+    public TextFilter title() {
         if (title == null) {
-            title = new StringFilter();
+            title = new TextFilter();
         }
         return title;
     }
 
-    public void setTitle(StringFilter title) {
+    public void setTitle(TextFilter title) {
         this.title = title;
     }
 
-    public StringFilter getSynopsis() {
+    public TextFilter getSynopsis() {
         return synopsis;
     }
 
-    public StringFilter synopsis() {
+    public TextFilter synopsis() {
         if (synopsis == null) {
-            synopsis = new StringFilter();
+            synopsis = new TextFilter();
         }
         return synopsis;
     }
 
-    public void setSynopsis(StringFilter synopsis) {
+    public void setSynopsis(TextFilter synopsis) {
         this.synopsis = synopsis;
     }
 
@@ -23,7 +23,7 @@ public class PersonCriteria implements Serializable, Criteria {
 
     private LongFilter id;
 
-    private StringFilter name;
+    private TextFilter name;
 
     private LongFilter filmId;
 
@@ -58,18 +58,18 @@ public class PersonCriteria implements Serializable, Criteria {
         this.id = id;
     }
 
-    public StringFilter getName() {
+    public TextFilter getName() {
         return name;
     }
 
-    public StringFilter name() {
+    public TextFilter name() {
         if (name == null) {
-            name = new StringFilter();
+            name = new TextFilter();
         }
         return name;
     }
 
-    public void setName(StringFilter name) {
+    public void setName(TextFilter name) {
         this.name = name;
     }
 
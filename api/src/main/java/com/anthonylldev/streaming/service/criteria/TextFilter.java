@@ -0,0 +1,84 @@
+package com.anthonylldev.streaming.service.criteria;
+
+import java.util.Objects;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Filter class for the searchable texts, adding to the {@link StringFilter} operators two served by indexes, as the
+ * {@code contains} operator matches anywhere in the text:
+ * <ul>
+ *     <li>{@code search}, matching the texts containing all the words of a query, like {@code title.search=night hunter};</li>
+ *     <li>{@code fuzzy}, matching the texts similar to a query despite typos, like {@code title.fuzzy=nosferatou}.</li>
+ * </ul>
+ * The entities matched can be sorted by relevance to these operators, with {@code sort=relevance,desc}.
+ */
+public class TextFilter extends StringFilter {
+
+    private static final long serialVersionUID = 1L;
+
+    private String search;
+
+    private String fuzzy;
+
+    public TextFilter() {}
+
+    public TextFilter(TextFilter filter) {
+        super(filter);
+        this.search = filter.search;
+        this.fuzzy = filter.fuzzy;
+    }
+
+    @Override
+    public TextFilter copy() {
+        return new TextFilter(this);
+    }
+
+    public String getSearch() {
+        return search;
+    }
+
+    public TextFilter setSearch(String search) {
+        this.search = search;
+        return this;
+    }
+
+    public String getFuzzy() {
+        return fuzzy;
+    }
+
+    public TextFilter setFuzzy(String fuzzy) {
+        this.fuzzy = fuzzy;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        final TextFilter that = (TextFilter) o;
+        return Objects.equals(search, that.search) && Objects.equals(fuzzy, that.fuzzy);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), search, fuzzy);
+    }
+
+    @Override
+    public String toString() {
+        String filter = super.toString();
+        return (
+            filter.substring(0, filter.length() - 1) +
+            (getSearch() != null ? "search=" + getSearch() + ", " : "") +
+            (getFuzzy() != null ? "fuzzy=" + getFuzzy() : "") +
+            "]"
+        );
+    }
+}
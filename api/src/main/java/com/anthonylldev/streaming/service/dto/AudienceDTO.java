@@ -0,0 +1,62 @@
+package com.anthonylldev.streaming.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * A DTO for the estimated number of distinct viewers of a {@link com.anthonylldev.streaming.domain.Film} over a range of
+ * days.
+ */
+public class AudienceDTO implements Serializable {
+
+    private Long filmId;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private Long viewers;
+
+    public Long getFilmId() {
+        return filmId;
+    }
+
+    public void setFilmId(Long filmId) {
+        this.filmId = filmId;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public Long getViewers() {
+        return viewers;
+    }
+
+    public void setViewers(Long viewers) {
+        this.viewers = viewers;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AudienceDTO{" +
+            "filmId=" + getFilmId() +
+            ", from='" + getFrom() + "'" +
+            ", to='" + getTo() + "'" +
+            ", viewers=" + getViewers() +
+            "}";
+    }
+}
@@ -0,0 +1,63 @@
+package com.anthonylldev.streaming.service.dto;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * A DTO carrying the binary cover of a {@link com.anthonylldev.streaming.domain.Film} or a
+ * {@link com.anthonylldev.streaming.domain.Person}, served apart from the entity payload.
+ */
+public class CoverDTO {
+
+    private Resource content;
+
+    private String contentType;
+
+    private String hash;
+
+    private Integer width;
+
+    public Resource getContent() {
+        return content;
+    }
+
+    public void setContent(Resource content) {
+        this.content = content;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    /**
+     * The width of the rendition, or {@code null} for the original cover.
+     */
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CoverDTO{" +
+            "contentType='" + getContentType() + "'" +
+            ", hash='" + getHash() + "'" +
+            ", width=" + getWidth() +
+            "}";
+    }
+}
@@ -20,6 +20,8 @@ public class EpisodeDTO implements Serializable {
 
     private Integer order;
 
+    private String url;
+
     private FilmDTO film;
 
     public Long getId() {
@@ -54,6 +56,14 @@ public class EpisodeDTO implements Serializable {
         this.order = order;
     }
 
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
     public FilmDTO getFilm() {
         return film;
     }
@@ -91,6 +101,7 @@ public class EpisodeDTO implements Serializable {
             ", title='" + getTitle() + "'" +
             ", synopsis='" + getSynopsis() + "'" +
             ", order=" + getOrder() +
+            ", url='" + getUrl() + "'" +
             ", film=" + getFilm() +
             "}";
     }
@@ -2,12 +2,12 @@ package com.anthonylldev.streaming.service.dto;
 
 import com.anthonylldev.streaming.domain.enumeration.FilmType;
 import com.anthonylldev.streaming.domain.enumeration.Gender;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
-import javax.persistence.Lob;
 import javax.validation.constraints.*;
 
 /**
@@ -27,12 +27,33 @@ public class FilmDTO implements Serializable {
     @Min(value = 0)
     private Integer views;
 
-    @Lob
+    /**
+     * Raw cover bytes, only accepted on writes. Reads expose {@link #coverUrl} instead.
+     */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private byte[] cover;
 
     private String coverContentType;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String coverHash;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String coverUrl;
     private Long reviews;
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long ratingCount;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Double ratingMean;
+
+    /**
+     * The Bayesian average of the ratings, the catalog being sorted by it.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Double ratingScore;
+
     private Gender gender;
 
     private FilmType filmType;
@@ -99,6 +120,22 @@ public class FilmDTO implements Serializable {
         this.coverContentType = coverContentType;
     }
 
+    public String getCoverHash() {
+        return coverHash;
+    }
+
+    public void setCoverHash(String coverHash) {
+        this.coverHash = coverHash;
+    }
+
+    public String getCoverUrl() {
+        return coverUrl;
+    }
+
+    public void setCoverUrl(String coverUrl) {
+        this.coverUrl = coverUrl;
+    }
+
     public Long getReviews() {
         return reviews;
     }
@@ -107,6 +144,30 @@ public class FilmDTO implements Serializable {
         this.reviews = reviews;
     }
 
+    public Long getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(Long ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public Double getRatingMean() {
+        return ratingMean;
+    }
+
+    public void setRatingMean(Double ratingMean) {
+        this.ratingMean = ratingMean;
+    }
+
+    public Double getRatingScore() {
+        return ratingScore;
+    }
+
+    public void setRatingScore(Double ratingScore) {
+        this.ratingScore = ratingScore;
+    }
+
     public Gender getGender() {
         return gender;
     }
@@ -192,8 +253,11 @@ public class FilmDTO implements Serializable {
             ", title='" + getTitle() + "'" +
             ", synopsis='" + getSynopsis() + "'" +
             ", views=" + getViews() +
-            ", cover='" + getCover() + "'" +
+            ", coverHash='" + getCoverHash() + "'" +
             ", reviews=" + getReviews() +
+            ", ratingCount=" + getRatingCount() +
+            ", ratingMean=" + getRatingMean() +
+            ", ratingScore=" + getRatingScore() +
             ", gender='" + getGender() + "'" +
             ", filmType='" + getFilmType() + "'" +
             ", order=" + getOrder() +
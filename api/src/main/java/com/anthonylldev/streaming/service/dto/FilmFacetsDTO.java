@@ -0,0 +1,141 @@
+package com.anthonylldev.streaming.service.dto;
+
+import com.anthonylldev.streaming.domain.enumeration.FilmType;
+import com.anthonylldev.streaming.domain.enumeration.Gender;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DTO for the number of {@link com.anthonylldev.streaming.domain.Film}s matching criteria, in total and by value of
+ * their gender, film type, publication year and views.
+ */
+public class FilmFacetsDTO implements Serializable {
+
+    private Long total;
+
+    private Map<Gender, Long> gender;
+
+    private Map<FilmType, Long> filmType;
+
+    /**
+     * The years in which some of the films were published only.
+     */
+    private Map<Integer, Long> publicationYear;
+
+    /**
+     * The deciles of the views of all the films, fewer if many films have the same views.
+     */
+    private List<ViewsRangeDTO> views;
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public Map<Gender, Long> getGender() {
+        return gender;
+    }
+
+    public void setGender(Map<Gender, Long> gender) {
+        this.gender = gender;
+    }
+
+    public Map<FilmType, Long> getFilmType() {
+        return filmType;
+    }
+
+    public void setFilmType(Map<FilmType, Long> filmType) {
+        this.filmType = filmType;
+    }
+
+    public Map<Integer, Long> getPublicationYear() {
+        return publicationYear;
+    }
+
+    public void setPublicationYear(Map<Integer, Long> publicationYear) {
+        this.publicationYear = publicationYear;
+    }
+
+    public List<ViewsRangeDTO> getViews() {
+        return views;
+    }
+
+    public void setViews(List<ViewsRangeDTO> views) {
+        this.views = views;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FilmFacetsDTO{" +
+            "total=" + getTotal() +
+            ", gender=" + getGender() +
+            ", filmType=" + getFilmType() +
+            ", publicationYear=" + getPublicationYear() +
+            ", views=" + getViews() +
+            "}";
+    }
+
+    /**
+     * The number of films with views in a range.
+     */
+    public static class ViewsRangeDTO implements Serializable {
+
+        private Integer from;
+
+        /**
+         * The exclusive end of the range, or {@code null} for the last one.
+         */
+        private Integer to;
+
+        private Long count;
+
+        public ViewsRangeDTO() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public ViewsRangeDTO(Integer from, Integer to, Long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public Integer getFrom() {
+            return from;
+        }
+
+        public void setFrom(Integer from) {
+            this.from = from;
+        }
+
+        public Integer getTo() {
+            return to;
+        }
+
+        public void setTo(Integer to) {
+            this.to = to;
+        }
+
+        public Long getCount() {
+            return count;
+        }
+
+        public void setCount(Long count) {
+            this.count = count;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "ViewsRangeDTO{" +
+                "from=" + getFrom() +
+                ", to=" + getTo() +
+                ", count=" + getCount() +
+                "}";
+        }
+    }
+}
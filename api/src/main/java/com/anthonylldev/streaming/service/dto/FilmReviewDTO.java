@@ -0,0 +1,96 @@
+package com.anthonylldev.streaming.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+import java.time.Instant;
+import javax.validation.constraints.*;
+
+/**
+ * A DTO for the review of a {@link com.anthonylldev.streaming.domain.Film} by a user.
+ */
+public class FilmReviewDTO implements Serializable {
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long filmId;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String login;
+
+    /**
+     * The rating, from 1 to 5 stars.
+     */
+    @NotNull
+    @Min(value = 1)
+    @Max(value = 5)
+    private Integer rating;
+
+    @Size(max = 4000)
+    private String content;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant createdDate;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant lastModifiedDate;
+
+    public Long getFilmId() {
+        return filmId;
+    }
+
+    public void setFilmId(Long filmId) {
+        this.filmId = filmId;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FilmReviewDTO{" +
+            "filmId=" + getFilmId() +
+            ", login='" + getLogin() + "'" +
+            ", rating=" + getRating() +
+            ", content='" + getContent() + "'" +
+            ", createdDate='" + getCreatedDate() + "'" +
+            ", lastModifiedDate='" + getLastModifiedDate() + "'" +
+            "}";
+    }
+}
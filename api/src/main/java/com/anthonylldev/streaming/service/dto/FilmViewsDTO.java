@@ -0,0 +1,51 @@
+package com.anthonylldev.streaming.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO for the views of a {@link com.anthonylldev.streaming.domain.Film} over an hour or a day.
+ */
+public class FilmViewsDTO implements Serializable {
+
+    /**
+     * The start of the hour or of the day.
+     */
+    private Instant time;
+
+    private Long views;
+
+    public FilmViewsDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public FilmViewsDTO(Instant time, Long views) {
+        this.time = time;
+        this.views = views;
+    }
+
+    public Instant getTime() {
+        return time;
+    }
+
+    public void setTime(Instant time) {
+        this.time = time;
+    }
+
+    public Long getViews() {
+        return views;
+    }
+
+    public void setViews(Long views) {
+        this.views = views;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FilmViewsDTO{" +
+            "time='" + getTime() + "'" +
+            ", views=" + getViews() +
+            "}";
+    }
+}
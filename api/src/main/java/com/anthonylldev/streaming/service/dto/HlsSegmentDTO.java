@@ -0,0 +1,81 @@
+package com.anthonylldev.streaming.service.dto;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * A DTO describing an HLS segment: the PAT and PMT tables of the stream followed by a region of its MPEG-TS media file.
+ */
+public class HlsSegmentDTO {
+
+    private Resource content;
+
+    private byte[] tables;
+
+    private long position;
+
+    private long length;
+
+    private String version;
+
+    private int index;
+
+    public Resource getContent() {
+        return content;
+    }
+
+    public void setContent(Resource content) {
+        this.content = content;
+    }
+
+    public byte[] getTables() {
+        return tables;
+    }
+
+    public void setTables(byte[] tables) {
+        this.tables = tables;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public void setPosition(long position) {
+        this.position = position;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public void setLength(long length) {
+        this.length = length;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "HlsSegmentDTO{" +
+            "content=" + getContent() +
+            ", position=" + getPosition() +
+            ", length=" + getLength() +
+            ", version='" + getVersion() + "'" +
+            ", index=" + getIndex() +
+            "}";
+    }
+}
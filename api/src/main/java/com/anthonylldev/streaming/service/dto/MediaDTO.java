@@ -0,0 +1,62 @@
+package com.anthonylldev.streaming.service.dto;
+
+import java.time.Instant;
+import org.springframework.core.io.Resource;
+
+/**
+ * A DTO describing the local media file of a {@link com.anthonylldev.streaming.domain.Film} or an
+ * {@link com.anthonylldev.streaming.domain.Episode}.
+ */
+public class MediaDTO {
+
+    private Resource content;
+
+    private String contentType;
+
+    private long contentLength;
+
+    private Instant lastModified;
+
+    public Resource getContent() {
+        return content;
+    }
+
+    public void setContent(Resource content) {
+        this.content = content;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MediaDTO{" +
+            "content=" + getContent() +
+            ", contentType='" + getContentType() + "'" +
+            ", contentLength=" + getContentLength() +
+            ", lastModified='" + getLastModified() + "'" +
+            "}";
+    }
+}
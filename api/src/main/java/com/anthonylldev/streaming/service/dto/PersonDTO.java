@@ -1,8 +1,8 @@
 package com.anthonylldev.streaming.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.io.Serializable;
 import java.util.Objects;
-import javax.persistence.Lob;
 import javax.validation.constraints.*;
 
 /**
@@ -17,11 +17,20 @@ public class PersonDTO implements Serializable {
     @Size(min = 3)
     private String name;
 
-    @Lob
+    /**
+     * Raw cover bytes, only accepted on writes. Reads expose {@link #coverUrl} instead.
+     */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private byte[] cover;
 
     private String coverContentType;
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String coverHash;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String coverUrl;
+
     public Long getId() {
         return id;
     }
@@ -54,6 +63,22 @@ public class PersonDTO implements Serializable {
         this.coverContentType = coverContentType;
     }
 
+    public String getCoverHash() {
+        return coverHash;
+    }
+
+    public void setCoverHash(String coverHash) {
+        this.coverHash = coverHash;
+    }
+
+    public String getCoverUrl() {
+        return coverUrl;
+    }
+
+    public void setCoverUrl(String coverUrl) {
+        this.coverUrl = coverUrl;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -81,7 +106,7 @@ public class PersonDTO implements Serializable {
         return "PersonDTO{" +
             "id=" + getId() +
             ", name='" + getName() + "'" +
-            ", cover='" + getCover() + "'" +
+            ", coverHash='" + getCoverHash() + "'" +
             "}";
     }
 }
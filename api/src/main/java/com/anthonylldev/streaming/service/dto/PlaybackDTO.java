@@ -0,0 +1,51 @@
+package com.anthonylldev.streaming.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO holding the signed stream URLs of the media of a {@link com.anthonylldev.streaming.domain.Film} or an
+ * {@link com.anthonylldev.streaming.domain.Episode}.
+ */
+public class PlaybackDTO implements Serializable {
+
+    private String streamUrl;
+
+    private String hlsUrl;
+
+    private Instant expiresAt;
+
+    public String getStreamUrl() {
+        return streamUrl;
+    }
+
+    public void setStreamUrl(String streamUrl) {
+        this.streamUrl = streamUrl;
+    }
+
+    public String getHlsUrl() {
+        return hlsUrl;
+    }
+
+    public void setHlsUrl(String hlsUrl) {
+        this.hlsUrl = hlsUrl;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PlaybackDTO{" +
+            "streamUrl='" + getStreamUrl() + "'" +
+            ", hlsUrl='" + getHlsUrl() + "'" +
+            ", expiresAt='" + getExpiresAt() + "'" +
+            "}";
+    }
+}
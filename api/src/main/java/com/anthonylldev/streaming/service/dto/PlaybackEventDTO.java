@@ -0,0 +1,68 @@
+package com.anthonylldev.streaming.service.dto;
+
+import com.anthonylldev.streaming.domain.enumeration.PlaybackEventType;
+import java.io.Serializable;
+import javax.validation.constraints.*;
+
+/**
+ * A DTO for the playback events of a {@link com.anthonylldev.streaming.domain.Film} or an
+ * {@link com.anthonylldev.streaming.domain.Episode}, reported by players.
+ */
+public class PlaybackEventDTO implements Serializable {
+
+    @NotNull
+    private PlaybackEventType type;
+
+    private Long filmId;
+
+    private Long episodeId;
+
+    /**
+     * The playback position, in seconds.
+     */
+    @Min(value = 0)
+    private Integer position;
+
+    public PlaybackEventType getType() {
+        return type;
+    }
+
+    public void setType(PlaybackEventType type) {
+        this.type = type;
+    }
+
+    public Long getFilmId() {
+        return filmId;
+    }
+
+    public void setFilmId(Long filmId) {
+        this.filmId = filmId;
+    }
+
+    public Long getEpisodeId() {
+        return episodeId;
+    }
+
+    public void setEpisodeId(Long episodeId) {
+        this.episodeId = episodeId;
+    }
+
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PlaybackEventDTO{" +
+            "type='" + getType() + "'" +
+            ", filmId=" + getFilmId() +
+            ", episodeId=" + getEpisodeId() +
+            ", position=" + getPosition() +
+            "}";
+    }
+}
@@ -0,0 +1,86 @@
+package com.anthonylldev.streaming.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A DTO for the distribution of the ratings of a {@link com.anthonylldev.streaming.domain.Film}.
+ */
+public class RatingsDTO implements Serializable {
+
+    private Long filmId;
+
+    private Long count;
+
+    private Double mean;
+
+    private Double standardDeviation;
+
+    private Double score;
+
+    /**
+     * The number of ratings of each number of stars, from 1 to 5.
+     */
+    private List<Long> histogram;
+
+    public Long getFilmId() {
+        return filmId;
+    }
+
+    public void setFilmId(Long filmId) {
+        this.filmId = filmId;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public Double getMean() {
+        return mean;
+    }
+
+    public void setMean(Double mean) {
+        this.mean = mean;
+    }
+
+    public Double getStandardDeviation() {
+        return standardDeviation;
+    }
+
+    public void setStandardDeviation(Double standardDeviation) {
+        this.standardDeviation = standardDeviation;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    public List<Long> getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(List<Long> histogram) {
+        this.histogram = histogram;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RatingsDTO{" +
+            "filmId=" + getFilmId() +
+            ", count=" + getCount() +
+            ", mean=" + getMean() +
+            ", standardDeviation=" + getStandardDeviation() +
+            ", score=" + getScore() +
+            ", histogram=" + getHistogram() +
+            "}";
+    }
+}
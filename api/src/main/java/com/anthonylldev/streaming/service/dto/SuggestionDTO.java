@@ -0,0 +1,81 @@
+package com.anthonylldev.streaming.service.dto;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * A DTO for the completion of a prefix typed in a search box, a {@link com.anthonylldev.streaming.domain.Film} or a
+ * {@link com.anthonylldev.streaming.domain.Person}.
+ */
+public class SuggestionDTO implements Serializable {
+
+    /**
+     * The types of the suggestions.
+     */
+    public enum Type {
+        FILM,
+        PERSON;
+
+        /**
+         * @param value the type, like {@code film}.
+         * @return the type, or empty if unknown.
+         */
+        public static Optional<Type> of(String value) {
+            return Arrays.stream(values()).filter(type -> type.name().equalsIgnoreCase(value)).findFirst();
+        }
+    }
+
+    private Type type;
+
+    private Long id;
+
+    /**
+     * The title of the film, or the name of the person.
+     */
+    private String text;
+
+    public SuggestionDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public SuggestionDTO(Type type, Long id, String text) {
+        this.type = type;
+        this.id = id;
+        this.text = text;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SuggestionDTO{" +
+            "type='" + getType() + "'" +
+            ", id=" + getId() +
+            ", text='" + getText() + "'" +
+            "}";
+    }
+}
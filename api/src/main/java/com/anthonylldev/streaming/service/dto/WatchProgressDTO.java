@@ -0,0 +1,68 @@
+package com.anthonylldev.streaming.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.validation.constraints.*;
+
+/**
+ * A DTO for the resume position of a user in a {@link com.anthonylldev.streaming.domain.Film}, and in one of its
+ * {@link com.anthonylldev.streaming.domain.Episode}s for series.
+ */
+public class WatchProgressDTO implements Serializable {
+
+    private Long filmId;
+
+    private Long episodeId;
+
+    /**
+     * The playback position, in seconds.
+     */
+    @NotNull
+    @Min(value = 0)
+    private Integer position;
+
+    private Instant lastModifiedDate;
+
+    public Long getFilmId() {
+        return filmId;
+    }
+
+    public void setFilmId(Long filmId) {
+        this.filmId = filmId;
+    }
+
+    public Long getEpisodeId() {
+        return episodeId;
+    }
+
+    public void setEpisodeId(Long episodeId) {
+        this.episodeId = episodeId;
+    }
+
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "WatchProgressDTO{" +
+            "filmId=" + getFilmId() +
+            ", episodeId=" + getEpisodeId() +
+            ", position=" + getPosition() +
+            ", lastModifiedDate='" + getLastModifiedDate() + "'" +
+            "}";
+    }
+}
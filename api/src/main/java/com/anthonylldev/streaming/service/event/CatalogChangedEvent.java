@@ -0,0 +1,28 @@
+package com.anthonylldev.streaming.service.event;
+
+/**
+ * An entity of the catalog was written or deleted.
+ * <p>
+ * Published by the services writing the catalog, and listened to with
+ * {@link org.springframework.transaction.event.TransactionalEventListener}s, so that the indexes and the caches only see
+ * the committed writes.
+ */
+public abstract class CatalogChangedEvent {
+
+    private final Long id;
+
+    private final boolean deleted;
+
+    protected CatalogChangedEvent(Long id, boolean deleted) {
+        this.id = id;
+        this.deleted = deleted;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
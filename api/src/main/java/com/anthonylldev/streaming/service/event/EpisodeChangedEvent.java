@@ -0,0 +1,21 @@
+package com.anthonylldev.streaming.service.event;
+
+import com.anthonylldev.streaming.domain.Episode;
+
+/**
+ * An {@link Episode} was written or deleted.
+ */
+public class EpisodeChangedEvent extends CatalogChangedEvent {
+
+    private EpisodeChangedEvent(Long id, boolean deleted) {
+        super(id, deleted);
+    }
+
+    public static EpisodeChangedEvent saved(Episode episode) {
+        return new EpisodeChangedEvent(episode.getId(), false);
+    }
+
+    public static EpisodeChangedEvent deleted(Long id) {
+        return new EpisodeChangedEvent(id, true);
+    }
+}
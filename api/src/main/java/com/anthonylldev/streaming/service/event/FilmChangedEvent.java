@@ -0,0 +1,31 @@
+package com.anthonylldev.streaming.service.event;
+
+import com.anthonylldev.streaming.domain.Film;
+
+/**
+ * A {@link Film} was written or deleted.
+ */
+public class FilmChangedEvent extends CatalogChangedEvent {
+
+    private final Film film;
+
+    private FilmChangedEvent(Long id, Film film) {
+        super(id, film == null);
+        this.film = film;
+    }
+
+    public static FilmChangedEvent saved(Film film) {
+        return new FilmChangedEvent(film.getId(), film);
+    }
+
+    public static FilmChangedEvent deleted(Long id) {
+        return new FilmChangedEvent(id, null);
+    }
+
+    /**
+     * @return the film written, or {@code null} if deleted.
+     */
+    public Film getFilm() {
+        return film;
+    }
+}
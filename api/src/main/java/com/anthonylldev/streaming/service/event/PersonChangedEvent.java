@@ -0,0 +1,31 @@
+package com.anthonylldev.streaming.service.event;
+
+import com.anthonylldev.streaming.domain.Person;
+
+/**
+ * A {@link Person} was written or deleted.
+ */
+public class PersonChangedEvent extends CatalogChangedEvent {
+
+    private final Person person;
+
+    private PersonChangedEvent(Long id, Person person) {
+        super(id, person == null);
+        this.person = person;
+    }
+
+    public static PersonChangedEvent saved(Person person) {
+        return new PersonChangedEvent(person.getId(), person);
+    }
+
+    public static PersonChangedEvent deleted(Long id) {
+        return new PersonChangedEvent(id, null);
+    }
+
+    /**
+     * @return the person written, or {@code null} if deleted.
+     */
+    public Person getPerson() {
+        return person;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Domain events, published by the services writing the catalog and listened to once their transaction commits.
+ */
+package com.anthonylldev.streaming.service.event;
@@ -3,11 +3,17 @@ package com.anthonylldev.streaming.service.impl;
 import com.anthonylldev.streaming.domain.Episode;
 import com.anthonylldev.streaming.repository.EpisodeRepository;
 import com.anthonylldev.streaming.service.EpisodeService;
+import com.anthonylldev.streaming.service.HlsService;
+import com.anthonylldev.streaming.service.MediaService;
 import com.anthonylldev.streaming.service.dto.EpisodeDTO;
+import com.anthonylldev.streaming.service.dto.HlsSegmentDTO;
+import com.anthonylldev.streaming.service.dto.MediaDTO;
+import com.anthonylldev.streaming.service.event.EpisodeChangedEvent;
 import com.anthonylldev.streaming.service.mapper.EpisodeMapper;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -26,9 +32,24 @@ public class EpisodeServiceImpl implements EpisodeService {
 
     private final EpisodeMapper episodeMapper;
 
-    public EpisodeServiceImpl(EpisodeRepository episodeRepository, EpisodeMapper episodeMapper) {
+    private final MediaService mediaService;
+
+    private final HlsService hlsService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public EpisodeServiceImpl(
+        EpisodeRepository episodeRepository,
+        EpisodeMapper episodeMapper,
+        MediaService mediaService,
+        HlsService hlsService,
+        ApplicationEventPublisher eventPublisher
+    ) {
         this.episodeRepository = episodeRepository;
         this.episodeMapper = episodeMapper;
+        this.mediaService = mediaService;
+        this.hlsService = hlsService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -36,6 +57,7 @@ public class EpisodeServiceImpl implements EpisodeService {
         log.debug("Request to save Episode : {}", episodeDTO);
         Episode episode = episodeMapper.toEntity(episodeDTO);
         episode = episodeRepository.save(episode);
+        eventPublisher.publishEvent(EpisodeChangedEvent.saved(episode));
         return episodeMapper.toDto(episode);
     }
 
@@ -44,6 +66,7 @@ public class EpisodeServiceImpl implements EpisodeService {
         log.debug("Request to update Episode : {}", episodeDTO);
         Episode episode = episodeMapper.toEntity(episodeDTO);
         episode = episodeRepository.save(episode);
+        eventPublisher.publishEvent(EpisodeChangedEvent.saved(episode));
         return episodeMapper.toDto(episode);
     }
 
@@ -59,6 +82,10 @@ public class EpisodeServiceImpl implements EpisodeService {
                 return existingEpisode;
             })
             .map(episodeRepository::save)
+            .map(episode -> {
+                eventPublisher.publishEvent(EpisodeChangedEvent.saved(episode));
+                return episode;
+            })
             .map(episodeMapper::toDto);
     }
 
@@ -80,9 +107,38 @@ public class EpisodeServiceImpl implements EpisodeService {
         return episodeRepository.findOneWithEagerRelationships(id).map(episodeMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<MediaDTO> findMedia(Long id) {
+        log.debug("Request to get Episode media : {}", id);
+        return episodeRepository.findById(id).map(Episode::getUrl).flatMap(mediaService::findMedia);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findHlsMasterPlaylist(Long id) {
+        log.debug("Request to get Episode HLS master playlist : {}", id);
+        return episodeRepository.findById(id).map(Episode::getUrl).flatMap(hlsService::findMasterPlaylist);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findHlsMediaPlaylist(Long id, String version) {
+        log.debug("Request to get Episode HLS media playlist : {}, version : {}", id, version);
+        return episodeRepository.findById(id).map(Episode::getUrl).flatMap(url -> hlsService.findMediaPlaylist(url, version));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<HlsSegmentDTO> findHlsSegment(Long id, String version, int segment) {
+        log.debug("Request to get Episode HLS segment : {}, version : {}, segment : {}", id, version, segment);
+        return episodeRepository.findById(id).map(Episode::getUrl).flatMap(url -> hlsService.findSegment(url, version, segment));
+    }
+
     @Override
     public void delete(Long id) {
         log.debug("Request to delete Episode : {}", id);
         episodeRepository.deleteById(id);
+        eventPublisher.publishEvent(EpisodeChangedEvent.deleted(id));
     }
 }
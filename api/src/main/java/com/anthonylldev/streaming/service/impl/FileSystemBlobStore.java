@@ -0,0 +1,115 @@
+package com.anthonylldev.streaming.service.impl;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.service.BlobStore;
+import com.anthonylldev.streaming.service.util.ContentHashUtil;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link BlobStore} keeping each blob in a file named after its hash, under a sub-directory named after the first two
+ * characters of the hash so no directory grows too large.
+ * <p>
+ * Blobs are served as {@link FileSystemResource}s, which lets the web layer send them with zero-copy file transfers.
+ */
+@Service
+public class FileSystemBlobStore implements BlobStore {
+
+    private final Logger log = LoggerFactory.getLogger(FileSystemBlobStore.class);
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path directory;
+
+    @Autowired
+    public FileSystemBlobStore(ApplicationProperties applicationProperties) {
+        this(Paths.get(applicationProperties.getStorage().getBlobDirectory()));
+    }
+
+    public FileSystemBlobStore(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public String save(byte[] content) {
+        try {
+            return save(new ByteArrayInputStream(content));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String save(InputStream content) throws IOException {
+        Files.createDirectories(directory);
+        // Write to a temporary file while hashing, then move it to its final name, so readers never see a partial blob
+        Path temporary = Files.createTempFile(directory, "blob", ".tmp");
+        try {
+            MessageDigest digest = ContentHashUtil.newSha256Digest();
+            try (DigestInputStream in = new DigestInputStream(content, digest)) {
+                Files.copy(in, temporary, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = ContentHashUtil.toHex(digest.digest());
+            Path path = path(hash);
+            if (Files.exists(path)) {
+                log.debug("Blob '{}' is already stored", hash);
+                return hash;
+            }
+            Files.createDirectories(path.getParent());
+            try {
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                log.debug("Blob '{}' was stored concurrently", hash);
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public Optional<Resource> find(String hash) {
+        if (!isHash(hash)) {
+            return Optional.empty();
+        }
+        Path path = path(hash);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public void delete(String hash) {
+        if (!isHash(hash)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path(hash));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path path(String hash) {
+        return directory.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static boolean isHash(String hash) {
+        return hash != null && HASH_PATTERN.matcher(hash).matches();
+    }
+}
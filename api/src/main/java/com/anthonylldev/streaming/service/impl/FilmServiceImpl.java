@@ -2,12 +2,21 @@ package com.anthonylldev.streaming.service.impl;
 
 import com.anthonylldev.streaming.domain.Film;
 import com.anthonylldev.streaming.repository.FilmRepository;
+import com.anthonylldev.streaming.service.BlobStore;
+import com.anthonylldev.streaming.service.CoverRenditionService;
 import com.anthonylldev.streaming.service.FilmService;
+import com.anthonylldev.streaming.service.HlsService;
+import com.anthonylldev.streaming.service.MediaService;
+import com.anthonylldev.streaming.service.dto.CoverDTO;
 import com.anthonylldev.streaming.service.dto.FilmDTO;
+import com.anthonylldev.streaming.service.dto.HlsSegmentDTO;
+import com.anthonylldev.streaming.service.dto.MediaDTO;
+import com.anthonylldev.streaming.service.event.FilmChangedEvent;
 import com.anthonylldev.streaming.service.mapper.FilmMapper;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -26,16 +35,42 @@ public class FilmServiceImpl implements FilmService {
 
     private final FilmMapper filmMapper;
 
-    public FilmServiceImpl(FilmRepository filmRepository, FilmMapper filmMapper) {
+    private final BlobStore blobStore;
+
+    private final CoverRenditionService coverRenditionService;
+
+    private final MediaService mediaService;
+
+    private final HlsService hlsService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public FilmServiceImpl(
+        FilmRepository filmRepository,
+        FilmMapper filmMapper,
+        BlobStore blobStore,
+        CoverRenditionService coverRenditionService,
+        MediaService mediaService,
+        HlsService hlsService,
+        ApplicationEventPublisher eventPublisher
+    ) {
         this.filmRepository = filmRepository;
         this.filmMapper = filmMapper;
+        this.blobStore = blobStore;
+        this.coverRenditionService = coverRenditionService;
+        this.mediaService = mediaService;
+        this.hlsService = hlsService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public FilmDTO save(FilmDTO filmDTO) {
         log.debug("Request to save Film : {}", filmDTO);
         Film film = filmMapper.toEntity(filmDTO);
+        applyCover(film, filmDTO);
         film = filmRepository.save(film);
+        createCoverRenditions(film, filmDTO);
+        eventPublisher.publishEvent(FilmChangedEvent.saved(film));
         return filmMapper.toDto(film);
     }
 
@@ -43,7 +78,14 @@ public class FilmServiceImpl implements FilmService {
     public FilmDTO update(FilmDTO filmDTO) {
         log.debug("Request to update Film : {}", filmDTO);
         Film film = filmMapper.toEntity(filmDTO);
+        Optional<Film> existingFilm = filmRepository.findById(film.getId());
+        if (existingFilm.isPresent()) {
+            keepStored(film, existingFilm.get());
+        }
+        applyCover(film, filmDTO);
         film = filmRepository.save(film);
+        createCoverRenditions(film, filmDTO);
+        eventPublisher.publishEvent(FilmChangedEvent.saved(film));
         return filmMapper.toDto(film);
     }
 
@@ -55,10 +97,16 @@ public class FilmServiceImpl implements FilmService {
             .findById(filmDTO.getId())
             .map(existingFilm -> {
                 filmMapper.partialUpdate(existingFilm, filmDTO);
+                applyCover(existingFilm, filmDTO);
 
                 return existingFilm;
             })
             .map(filmRepository::save)
+            .map(film -> {
+                createCoverRenditions(film, filmDTO);
+                eventPublisher.publishEvent(FilmChangedEvent.saved(film));
+                return film;
+            })
             .map(filmMapper::toDto);
     }
 
@@ -80,9 +128,95 @@ public class FilmServiceImpl implements FilmService {
         return filmRepository.findOneWithEagerRelationships(id).map(filmMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CoverDTO> findCover(Long id, Integer width) {
+        log.debug("Request to get Film cover : {}, width : {}", id, width);
+        return filmRepository
+            .findById(id)
+            .filter(film -> film.getCoverHash() != null)
+            .flatMap(film -> coverRenditionService.findCover(film.getCoverHash(), film.getCoverContentType(), width));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<MediaDTO> findMedia(Long id) {
+        log.debug("Request to get Film media : {}", id);
+        return filmRepository.findById(id).map(Film::getUrl).flatMap(mediaService::findMedia);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findHlsMasterPlaylist(Long id) {
+        log.debug("Request to get Film HLS master playlist : {}", id);
+        return filmRepository.findById(id).map(Film::getUrl).flatMap(hlsService::findMasterPlaylist);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findHlsMediaPlaylist(Long id, String version) {
+        log.debug("Request to get Film HLS media playlist : {}, version : {}", id, version);
+        return filmRepository.findById(id).map(Film::getUrl).flatMap(url -> hlsService.findMediaPlaylist(url, version));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<HlsSegmentDTO> findHlsSegment(Long id, String version, int segment) {
+        log.debug("Request to get Film HLS segment : {}, version : {}, segment : {}", id, version, segment);
+        return filmRepository.findById(id).map(Film::getUrl).flatMap(url -> hlsService.findSegment(url, version, segment));
+    }
+
+    @Override
+    public Optional<FilmDTO> deleteCover(Long id) {
+        log.debug("Request to delete Film cover : {}", id);
+        return filmRepository
+            .findById(id)
+            .map(existingFilm -> {
+                existingFilm.setCoverHash(null);
+                existingFilm.setCoverContentType(null);
+
+                return existingFilm;
+            })
+            .map(filmRepository::save)
+            .map(film -> {
+                eventPublisher.publishEvent(FilmChangedEvent.saved(film));
+                return film;
+            })
+            .map(filmMapper::toDto);
+    }
+
     @Override
     public void delete(Long id) {
         log.debug("Request to delete Film : {}", id);
         filmRepository.deleteById(id);
+        eventPublisher.publishEvent(FilmChangedEvent.deleted(id));
+    }
+
+    /**
+     * Set the cover metadata of the film from the uploaded bytes, if any: covers are removed with
+     * {@link #deleteCover(Long)} instead.
+     */
+    private void applyCover(Film film, FilmDTO filmDTO) {
+        if (filmDTO.getCover() != null) {
+            film.setCoverHash(blobStore.save(filmDTO.getCover()));
+            film.setCoverContentType(filmDTO.getCoverContentType());
+        }
+    }
+
+    /**
+     * Keep the stored cover, replaced only by uploaded bytes, and the views and the reviews counted, which are not
+     * updated from the DTO.
+     */
+    private static void keepStored(Film film, Film existingFilm) {
+        film.setCoverHash(existingFilm.getCoverHash());
+        film.setCoverContentType(existingFilm.getCoverContentType());
+        film.setViews(existingFilm.getViews());
+        film.setReviews(existingFilm.getReviews());
+    }
+
+    private void createCoverRenditions(Film film, FilmDTO filmDTO) {
+        if (filmDTO.getCover() != null) {
+            coverRenditionService.createRenditions(film.getCoverHash(), filmDTO.getCover());
+        }
     }
 }
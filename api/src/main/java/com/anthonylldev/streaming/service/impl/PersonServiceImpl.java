@@ -2,12 +2,17 @@ package com.anthonylldev.streaming.service.impl;
 
 import com.anthonylldev.streaming.domain.Person;
 import com.anthonylldev.streaming.repository.PersonRepository;
+import com.anthonylldev.streaming.service.BlobStore;
+import com.anthonylldev.streaming.service.CoverRenditionService;
 import com.anthonylldev.streaming.service.PersonService;
+import com.anthonylldev.streaming.service.dto.CoverDTO;
 import com.anthonylldev.streaming.service.dto.PersonDTO;
+import com.anthonylldev.streaming.service.event.PersonChangedEvent;
 import com.anthonylldev.streaming.service.mapper.PersonMapper;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -26,16 +31,34 @@ public class PersonServiceImpl implements PersonService {
 
     private final PersonMapper personMapper;
 
-    public PersonServiceImpl(PersonRepository personRepository, PersonMapper personMapper) {
+    private final BlobStore blobStore;
+
+    private final CoverRenditionService coverRenditionService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PersonServiceImpl(
+        PersonRepository personRepository,
+        PersonMapper personMapper,
+        BlobStore blobStore,
+        CoverRenditionService coverRenditionService,
+        ApplicationEventPublisher eventPublisher
+    ) {
         this.personRepository = personRepository;
         this.personMapper = personMapper;
+        this.blobStore = blobStore;
+        this.coverRenditionService = coverRenditionService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public PersonDTO save(PersonDTO personDTO) {
         log.debug("Request to save Person : {}", personDTO);
         Person person = personMapper.toEntity(personDTO);
+        applyCover(person, personDTO);
         person = personRepository.save(person);
+        createCoverRenditions(person, personDTO);
+        eventPublisher.publishEvent(PersonChangedEvent.saved(person));
         return personMapper.toDto(person);
     }
 
@@ -43,7 +66,10 @@ public class PersonServiceImpl implements PersonService {
     public PersonDTO update(PersonDTO personDTO) {
         log.debug("Request to update Person : {}", personDTO);
         Person person = personMapper.toEntity(personDTO);
+        applyCover(person, personDTO);
         person = personRepository.save(person);
+        createCoverRenditions(person, personDTO);
+        eventPublisher.publishEvent(PersonChangedEvent.saved(person));
         return personMapper.toDto(person);
     }
 
@@ -55,10 +81,16 @@ public class PersonServiceImpl implements PersonService {
             .findById(personDTO.getId())
             .map(existingPerson -> {
                 personMapper.partialUpdate(existingPerson, personDTO);
+                applyCover(existingPerson, personDTO);
 
                 return existingPerson;
             })
             .map(personRepository::save)
+            .map(person -> {
+                createCoverRenditions(person, personDTO);
+                eventPublisher.publishEvent(PersonChangedEvent.saved(person));
+                return person;
+            })
             .map(personMapper::toDto);
     }
 
@@ -76,9 +108,63 @@ public class PersonServiceImpl implements PersonService {
         return personRepository.findById(id).map(personMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CoverDTO> findCover(Long id, Integer width) {
+        log.debug("Request to get Person cover : {}, width : {}", id, width);
+        return personRepository
+            .findById(id)
+            .filter(person -> person.getCoverHash() != null)
+            .flatMap(person -> coverRenditionService.findCover(person.getCoverHash(), person.getCoverContentType(), width));
+    }
+
+    @Override
+    public Optional<PersonDTO> deleteCover(Long id) {
+        log.debug("Request to delete Person cover : {}", id);
+        return personRepository
+            .findById(id)
+            .map(existingPerson -> {
+                existingPerson.setCoverHash(null);
+                existingPerson.setCoverContentType(null);
+
+                return existingPerson;
+            })
+            .map(personRepository::save)
+            .map(person -> {
+                eventPublisher.publishEvent(PersonChangedEvent.saved(person));
+                return person;
+            })
+            .map(personMapper::toDto);
+    }
+
     @Override
     public void delete(Long id) {
         log.debug("Request to delete Person : {}", id);
         personRepository.deleteById(id);
+        eventPublisher.publishEvent(PersonChangedEvent.deleted(id));
+    }
+
+    /**
+     * Set the cover metadata of the person from the uploaded bytes, or keep the stored one when no new cover is sent: covers
+     * are removed with {@link #deleteCover(Long)} instead.
+     */
+    private void applyCover(Person person, PersonDTO personDTO) {
+        if (personDTO.getCover() != null) {
+            person.setCoverHash(blobStore.save(personDTO.getCover()));
+            person.setCoverContentType(personDTO.getCoverContentType());
+        } else if (person.getId() != null) {
+            personRepository
+                .findById(person.getId())
+                .ifPresent(existingPerson -> {
+                    person.setCoverHash(existingPerson.getCoverHash());
+                    person.setCoverContentType(existingPerson.getCoverContentType());
+                });
+        }
+    }
+
+    private void createCoverRenditions(Person person, PersonDTO personDTO) {
+        if (personDTO.getCover() != null) {
+            coverRenditionService.createRenditions(person.getCoverHash(), personDTO.getCover());
+        }
     }
 }
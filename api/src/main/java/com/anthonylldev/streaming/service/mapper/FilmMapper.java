@@ -17,6 +17,8 @@ public interface FilmMapper extends EntityMapper<FilmDTO, Film> {
     @Mapping(target = "removePerson", ignore = true)
     @Mapping(target = "episodes", ignore = true)
     @Mapping(target = "removeEpisodes", ignore = true)
+    @Mapping(target = "coverContentType", ignore = true)
+    @Mapping(target = "coverHash", ignore = true)
     @Mapping(target = "people", source = "people", qualifiedByName = "personEntityId")
     Film toEntity(FilmDTO filmDTO);
 
@@ -24,11 +26,18 @@ public interface FilmMapper extends EntityMapper<FilmDTO, Film> {
     @Mapping(target = "removePerson", ignore = true)
     @Mapping(target = "episodes", ignore = true)
     @Mapping(target = "removeEpisodes", ignore = true)
+    @Mapping(target = "coverContentType", ignore = true)
+    @Mapping(target = "coverHash", ignore = true)
+    @Mapping(target = "views", ignore = true)
+    @Mapping(target = "reviews", ignore = true)
     @Mapping(target = "people", source = "people", qualifiedByName = "personEntityId")
     @Named("partialUpdate")
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void partialUpdate(@MappingTarget Film entity, FilmDTO dto);
 
+    @Mapping(target = "cover", ignore = true)
+    @Mapping(target = "coverUrl", expression = "java(toCoverUrl(s))")
+    @Mapping(target = "ratingMean", expression = "java(toRatingMean(s))")
     @Mapping(target = "people", source = "people", qualifiedByName = "personIdSet")
     FilmDTO toDto(Film s);
 
@@ -46,4 +55,18 @@ public interface FilmMapper extends EntityMapper<FilmDTO, Film> {
     default Set<PersonDTO> toDtoPersonIdSet(Set<Person> person) {
         return person.stream().map(this::toDtoPersonId).collect(Collectors.toSet());
     }
+
+    default String toCoverUrl(Film film) {
+        if (film.getCoverHash() == null) {
+            return null;
+        }
+        return "/api/films/" + film.getId() + "/cover?v=" + film.getCoverHash();
+    }
+
+    default Double toRatingMean(Film film) {
+        if (film.getRatingCount() == null || film.getRatingCount() == 0) {
+            return null;
+        }
+        return (double) film.getRatingSum() / film.getRatingCount();
+    }
 }
@@ -11,14 +11,30 @@ import org.mapstruct.*;
 public interface PersonMapper extends EntityMapper<PersonDTO, Person> {
 
     @Override
+    @Mapping(target = "coverContentType", ignore = true)
+    @Mapping(target = "coverHash", ignore = true)
     @Mapping(target = "films", ignore = true)
     @Mapping(target = "removeFilm", ignore = true)
     Person toEntity(PersonDTO dto);
 
+    @Override
+    @Mapping(target = "cover", ignore = true)
+    @Mapping(target = "coverUrl", expression = "java(toCoverUrl(entity))")
+    PersonDTO toDto(Person entity);
+
     @Override
     @Named("partialUpdate")
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "coverContentType", ignore = true)
+    @Mapping(target = "coverHash", ignore = true)
     @Mapping(target = "films", ignore = true)
     @Mapping(target = "removeFilm", ignore = true)
     void partialUpdate(@MappingTarget Person entity, PersonDTO dto);
+
+    default String toCoverUrl(Person person) {
+        if (person.getCoverHash() == null) {
+            return null;
+        }
+        return "/api/people/" + person.getId() + "/cover?v=" + person.getCoverHash();
+    }
 }
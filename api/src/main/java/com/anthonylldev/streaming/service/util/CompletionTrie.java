@@ -0,0 +1,263 @@
+package com.anthonylldev.streaming.service.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable trie completing prefixes with the heaviest values having a key starting with them, for typeahead.
+ * <p>
+ * The trie is compressed: each chain of nodes with a single child is merged into one node, labelled with the characters
+ * of the chain. Each node holds the {@code k} heaviest distinct values below it, ranked when the trie is built, so that a
+ * prefix is completed by walking down its characters, whatever the number of keys, without sorting anything.
+ *
+ * @param <T> the type of the values.
+ */
+public final class CompletionTrie<T> {
+
+    /**
+     * A value completing a prefix, with its weight.
+     *
+     * @param <T> the type of the value.
+     */
+    public static final class Completion<T> {
+
+        private final T value;
+
+        private final long weight;
+
+        Completion(T value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+    }
+
+    private static final class Node {
+
+        /**
+         * The characters of the keys between the parent and this node.
+         */
+        private final String label;
+
+        /**
+         * The first character of the label of each child, in order.
+         */
+        private final char[] firsts;
+
+        private final Node[] children;
+
+        /**
+         * The ranks of the heaviest values below this node, heaviest first.
+         */
+        private final int[] top;
+
+        private Node(String label, char[] firsts, Node[] children, int[] top) {
+            this.label = label;
+            this.firsts = firsts;
+            this.children = children;
+            this.top = top;
+        }
+    }
+
+    /**
+     * The values by rank, heaviest first.
+     */
+    private final List<T> values;
+
+    private final long[] weights;
+
+    private final Node root;
+
+    private CompletionTrie(List<T> values, long[] weights, Node root) {
+        this.values = values;
+        this.weights = weights;
+        this.root = root;
+    }
+
+    /**
+     * @param <T> the type of the values.
+     * @return a builder of a trie.
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * @return the number of values.
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Complete a prefix.
+     *
+     * @param prefix the prefix.
+     * @param limit  the maximum number of completions, at most the {@code k} the trie was built for.
+     * @return the heaviest values having a key starting with the prefix, heaviest first.
+     */
+    public List<Completion<T>> complete(String prefix, int limit) {
+        Node node = root;
+        int position = 0;
+        while (node != null) {
+            String label = node.label;
+            for (int i = 0; i < label.length(); i++, position++) {
+                if (position == prefix.length()) {
+                    return completions(node, limit);
+                }
+                if (label.charAt(i) != prefix.charAt(position)) {
+                    return List.of();
+                }
+            }
+            if (position == prefix.length()) {
+                return completions(node, limit);
+            }
+            int child = Arrays.binarySearch(node.firsts, prefix.charAt(position));
+            node = child < 0 ? null : node.children[child];
+        }
+        return List.of();
+    }
+
+    private List<Completion<T>> completions(Node node, int limit) {
+        List<Completion<T>> completions = new ArrayList<>(Math.min(limit, node.top.length));
+        for (int i = 0; i < node.top.length && i < limit; i++) {
+            completions.add(new Completion<>(values.get(node.top[i]), weights[node.top[i]]));
+        }
+        return completions;
+    }
+
+    /**
+     * A builder of a {@link CompletionTrie}, not thread-safe.
+     *
+     * @param <T> the type of the values.
+     */
+    public static final class Builder<T> {
+
+        private final List<T> values = new ArrayList<>();
+
+        private final List<Long> weights = new ArrayList<>();
+
+        private final List<String> keys = new ArrayList<>();
+
+        /**
+         * The index of the value of each key.
+         */
+        private final List<Integer> keyValues = new ArrayList<>();
+
+        private Builder() {}
+
+        /**
+         * Add a value.
+         *
+         * @param value  the value.
+         * @param weight the weight of the value, the heaviest values completing prefixes first.
+         * @param keys   the keys completed by the value; a value completes a prefix once, whatever the number of its keys
+         *               starting with it.
+         * @return this builder.
+         */
+        public Builder<T> add(T value, long weight, Collection<String> keys) {
+            int index = values.size();
+            values.add(value);
+            weights.add(weight);
+            for (String key : keys) {
+                this.keys.add(key);
+                keyValues.add(index);
+            }
+            return this;
+        }
+
+        /**
+         * Build the trie.
+         *
+         * @param k the maximum number of completions of a prefix.
+         * @return the trie.
+         */
+        public CompletionTrie<T> build(int k) {
+            // Values are ranked by weight, then in the order they were added
+            int[] byRank = IntStream
+                .range(0, values.size())
+                .boxed()
+                .sorted(Comparator.comparing((Integer index) -> weights.get(index)).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+            int[] ranks = new int[byRank.length];
+            List<T> rankedValues = new ArrayList<>(byRank.length);
+            long[] rankedWeights = new long[byRank.length];
+            for (int rank = 0; rank < byRank.length; rank++) {
+                ranks[byRank[rank]] = rank;
+                rankedValues.add(values.get(byRank[rank]));
+                rankedWeights[rank] = weights.get(byRank[rank]);
+            }
+
+            Integer[] order = IntStream.range(0, keys.size()).boxed().toArray(Integer[]::new);
+            Arrays.sort(order, Comparator.comparing(keys::get));
+            String[] sortedKeys = new String[order.length];
+            int[] sortedRanks = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedKeys[i] = keys.get(order[i]);
+                sortedRanks[i] = ranks[keyValues.get(order[i])];
+            }
+
+            Node root = sortedKeys.length == 0 ? null : node(sortedKeys, sortedRanks, 0, sortedKeys.length, 0, k);
+            return new CompletionTrie<>(rankedValues, rankedWeights, root);
+        }
+
+        /**
+         * Build the node of sorted keys sharing their first characters.
+         *
+         * @param from  the index of the first key, inclusive.
+         * @param to    the index of the last key, exclusive.
+         * @param depth the number of characters shared by the keys above the node.
+         */
+        private static Node node(String[] keys, int[] ranks, int from, int to, int depth, int k) {
+            // The keys being sorted, those of the node share the characters the first and the last share
+            String first = keys[from];
+            String last = keys[to - 1];
+            int end = depth;
+            while (end < first.length() && end < last.length() && first.charAt(end) == last.charAt(end)) {
+                end++;
+            }
+
+            List<Integer> top = new ArrayList<>();
+            int i = from;
+            // The keys ending at the node sort before the others
+            for (; i < to && keys[i].length() == end; i++) {
+                top.add(ranks[i]);
+            }
+            List<Node> children = new ArrayList<>();
+            while (i < to) {
+                char c = keys[i].charAt(end);
+                int j = i;
+                while (j < to && keys[j].charAt(end) == c) {
+                    j++;
+                }
+                Node child = node(keys, ranks, i, j, end, k);
+                children.add(child);
+                Arrays.stream(child.top).forEach(top::add);
+                i = j;
+            }
+
+            char[] firsts = new char[children.size()];
+            for (int c = 0; c < firsts.length; c++) {
+                firsts[c] = children.get(c).label.charAt(0);
+            }
+            return new Node(
+                first.substring(depth, end),
+                firsts,
+                children.toArray(new Node[0]),
+                top.stream().mapToInt(Integer::intValue).sorted().distinct().limit(k).toArray()
+            );
+        }
+    }
+}
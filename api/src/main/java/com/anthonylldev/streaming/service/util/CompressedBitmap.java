@@ -0,0 +1,301 @@
+package com.anthonylldev.streaming.service.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed bitmap of {@code long}s, in the way of Roaring bitmaps.
+ * <p>
+ * The values are partitioned by their high bits into containers of {@code 2^16} values, holding their low bits either
+ * as a sorted array, while at most {@link #MAXIMUM_ARRAY} of them, or as a bitmap of {@code 2^16} bits otherwise: each
+ * value costs at most 2 bytes, and a dense container 8 KB whatever its values. Bitmaps are intersected and counted one
+ * pair of containers at a time, with word-wide instructions when both are dense. Bitmaps are not thread-safe.
+ */
+public class CompressedBitmap {
+
+    /**
+     * The maximum number of values of a container held as an array, from which the array would be larger than a bitmap.
+     */
+    private static final int MAXIMUM_ARRAY = 4096;
+
+    private static final int WORDS = (1 << 16) / Long.SIZE;
+
+    private final Map<Long, Container> containers = new HashMap<>();
+
+    /**
+     * @param values the values.
+     * @return a bitmap of the values.
+     */
+    public static CompressedBitmap of(long... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (long value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Add a value.
+     *
+     * @param value the value.
+     * @return {@code true} if the bitmap did not contain it.
+     */
+    public boolean add(long value) {
+        return containers.computeIfAbsent(value >>> 16, key -> new Container()).add((char) value);
+    }
+
+    /**
+     * Remove a value.
+     *
+     * @param value the value.
+     * @return {@code true} if the bitmap contained it.
+     */
+    public boolean remove(long value) {
+        Container container = containers.get(value >>> 16);
+        if (container == null || !container.remove((char) value)) {
+            return false;
+        }
+        if (container.cardinality == 0) {
+            containers.remove(value >>> 16);
+        }
+        return true;
+    }
+
+    /**
+     * @param value the value.
+     * @return whether the bitmap contains it.
+     */
+    public boolean contains(long value) {
+        Container container = containers.get(value >>> 16);
+        return container != null && container.contains((char) value);
+    }
+
+    /**
+     * @return the number of values.
+     */
+    public long cardinality() {
+        return containers.values().stream().mapToLong(container -> container.cardinality).sum();
+    }
+
+    /**
+     * Count the values of the intersection with another bitmap, without building it.
+     *
+     * @param other the other bitmap.
+     * @return the number of values of both bitmaps.
+     */
+    public long andCardinality(CompressedBitmap other) {
+        if (other.containers.size() < containers.size()) {
+            return other.andCardinality(this);
+        }
+        long cardinality = 0;
+        for (Map.Entry<Long, Container> entry : containers.entrySet()) {
+            Container container = other.containers.get(entry.getKey());
+            if (container != null) {
+                cardinality += entry.getValue().andCardinality(container);
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * @param other the other bitmap.
+     * @return a bitmap of the values of both bitmaps.
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        if (other.containers.size() < containers.size()) {
+            return other.and(this);
+        }
+        CompressedBitmap result = new CompressedBitmap();
+        for (Map.Entry<Long, Container> entry : containers.entrySet()) {
+            Container container = other.containers.get(entry.getKey());
+            if (container != null) {
+                Container and = entry.getValue().and(container);
+                if (and.cardinality > 0) {
+                    result.containers.put(entry.getKey(), and);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param other the other bitmap.
+     * @return a bitmap of the values of either bitmap.
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        containers.forEach((key, container) -> result.containers.put(key, new Container(container)));
+        other.containers.forEach((key, container) -> {
+            Container or = result.containers.get(key);
+            if (or == null) {
+                result.containers.put(key, new Container(container));
+            } else {
+                container.forEach(value -> or.add((char) value));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The low bits of the values sharing their high bits.
+     */
+    private static final class Container {
+
+        /**
+         * The sorted values, while the container is sparse.
+         */
+        private char[] values;
+
+        /**
+         * The bits of the values, once the container is dense.
+         */
+        private long[] words;
+
+        private int cardinality;
+
+        private Container() {
+            this.values = new char[4];
+        }
+
+        private Container(Container container) {
+            this.values = container.values == null ? null : Arrays.copyOf(container.values, container.values.length);
+            this.words = container.words == null ? null : Arrays.copyOf(container.words, WORDS);
+            this.cardinality = container.cardinality;
+        }
+
+        private boolean add(char value) {
+            if (words != null) {
+                long bit = 1L << value;
+                if ((words[value >>> 6] & bit) != 0) {
+                    return false;
+                }
+                words[value >>> 6] |= bit;
+                cardinality++;
+                return true;
+            }
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                return false;
+            }
+            if (cardinality == MAXIMUM_ARRAY) {
+                toWords();
+                return add(value);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(MAXIMUM_ARRAY, 2 * cardinality));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return true;
+        }
+
+        private boolean remove(char value) {
+            if (words != null) {
+                long bit = 1L << value;
+                if ((words[value >>> 6] & bit) == 0) {
+                    return false;
+                }
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+                if (cardinality <= MAXIMUM_ARRAY) {
+                    toValues();
+                }
+                return true;
+            }
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+            cardinality--;
+            return true;
+        }
+
+        private boolean contains(char value) {
+            if (words != null) {
+                return (words[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        private int andCardinality(Container other) {
+            if (words != null && other.words != null) {
+                int cardinality = 0;
+                for (int i = 0; i < WORDS; i++) {
+                    cardinality += Long.bitCount(words[i] & other.words[i]);
+                }
+                return cardinality;
+            }
+            Container sparse = words == null ? this : other;
+            Container container = sparse == this ? other : this;
+            int cardinality = 0;
+            for (int i = 0; i < sparse.cardinality; i++) {
+                if (container.contains(sparse.values[i])) {
+                    cardinality++;
+                }
+            }
+            return cardinality;
+        }
+
+        private Container and(Container other) {
+            Container result = new Container();
+            if (words != null && other.words != null) {
+                result.words = new long[WORDS];
+                for (int i = 0; i < WORDS; i++) {
+                    result.words[i] = words[i] & other.words[i];
+                    result.cardinality += Long.bitCount(result.words[i]);
+                }
+                if (result.cardinality <= MAXIMUM_ARRAY) {
+                    result.toValues();
+                }
+                return result;
+            }
+            Container sparse = words == null ? this : other;
+            Container container = sparse == this ? other : this;
+            // Values are appended in order, so the result stays sorted
+            result.values = new char[Math.max(4, sparse.cardinality)];
+            for (int i = 0; i < sparse.cardinality; i++) {
+                if (container.contains(sparse.values[i])) {
+                    result.values[result.cardinality++] = sparse.values[i];
+                }
+            }
+            return result;
+        }
+
+        private void forEach(IntConsumer action) {
+            if (words == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    action.accept(values[i]);
+                }
+                return;
+            }
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(i * Long.SIZE + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private void toWords() {
+            words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toValues() {
+            char[] sparse = new char[Math.max(4, cardinality)];
+            int[] n = { 0 };
+            forEach(value -> sparse[n[0]++] = (char) value);
+            values = sparse;
+            words = null;
+        }
+    }
+}
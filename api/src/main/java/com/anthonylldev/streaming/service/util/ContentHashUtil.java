@@ -0,0 +1,53 @@
+package com.anthonylldev.streaming.service.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Utility class for computing content hashes of binary payloads.
+ */
+public final class ContentHashUtil {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private ContentHashUtil() {}
+
+    /**
+     * Compute the lowercase hexadecimal SHA-256 digest of the given content.
+     *
+     * @param content the bytes to hash.
+     * @return the 64 characters long hexadecimal digest.
+     */
+    public static String sha256Hex(byte[] content) {
+        return toHex(newSha256Digest().digest(content));
+    }
+
+    /**
+     * Create a new SHA-256 {@link MessageDigest}, for callers hashing streamed content.
+     *
+     * @return a fresh digest instance.
+     */
+    public static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Encode the given bytes as lowercase hexadecimal.
+     *
+     * @param bytes the bytes to encode.
+     * @return the hexadecimal representation.
+     */
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,103 @@
+package com.anthonylldev.streaming.service.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe Count-Min sketch, estimating the counts of a stream of {@code long} items in fixed memory.
+ * <p>
+ * Each item is counted in one cell of each row, chosen by a hash function of the row; its estimate is the lowest of
+ * these cells, which overestimates the count by at most {@code e / width} of the total count with probability
+ * {@code 1 - e^-depth}. Sketches of the same dimensions are linear, so they are added to and subtracted from each other
+ * to count sliding windows.
+ */
+public class CountMinSketch {
+
+    private final int width;
+
+    private final int depth;
+
+    private final AtomicLongArray cells;
+
+    /**
+     * @param width the number of cells of each row, a power of two from {@code 2}.
+     * @param depth the number of rows.
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width < 2 || Integer.bitCount(width) != 1 || depth < 1) {
+            throw new IllegalArgumentException("Invalid sketch dimensions " + width + "x" + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.cells = new AtomicLongArray(width * depth);
+    }
+
+    /**
+     * Count an item.
+     *
+     * @param item  the item.
+     * @param count the number of occurrences.
+     * @return the estimated count of the item, this one included.
+     */
+    public long add(long item, long count) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, cells.addAndGet(cell(row, item), count));
+        }
+        return estimate;
+    }
+
+    /**
+     * @param item the item.
+     * @return the estimated count of the item.
+     */
+    public long estimate(long item) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, cells.get(cell(row, item)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Add the counts of a sketch of the same dimensions.
+     *
+     * @param other the sketch.
+     */
+    public void add(CountMinSketch other) {
+        merge(other, 1);
+    }
+
+    /**
+     * Subtract the counts of a sketch of the same dimensions, previously added.
+     *
+     * @param other the sketch.
+     */
+    public void subtract(CountMinSketch other) {
+        merge(other, -1);
+    }
+
+    private void merge(CountMinSketch other, int sign) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Sketches of different dimensions cannot be merged");
+        }
+        for (int i = 0; i < cells.length(); i++) {
+            long count = other.cells.get(i);
+            if (count != 0) {
+                cells.addAndGet(i, sign * count);
+            }
+        }
+    }
+
+    private int cell(int row, long item) {
+        // One multiply-shift hash per row, on a mixed item so that consecutive ids are spread
+        long hash = mix(item) * (0x9E3779B97F4A7C15L + 2L * row);
+        return row * width + (int) (hash >>> (64 - Integer.numberOfTrailingZeros(width)));
+    }
+
+    private static long mix(long item) {
+        long z = item + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
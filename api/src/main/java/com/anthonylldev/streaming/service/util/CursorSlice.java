@@ -0,0 +1,46 @@
+package com.anthonylldev.streaming.service.util;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A slice of a sorted list, with the cursor of the next slice, if any.
+ *
+ * @param <T> the type of the content.
+ */
+public final class CursorSlice<T> {
+
+    private final List<T> content;
+
+    private final String next;
+
+    public CursorSlice(List<T> content, String next) {
+        this.content = content;
+        this.next = next;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the opaque cursor of the next slice, or {@code null} if this slice is the last one.
+     */
+    public String getNext() {
+        return next;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * @param converter the function converting the content.
+     * @param <U>       the type of the converted content.
+     * @return a slice with the converted content and the same cursor.
+     */
+    public <U> CursorSlice<U> map(Function<? super T, ? extends U> converter) {
+        return new CursorSlice<>(content.stream().map(converter).collect(Collectors.toList()), next);
+    }
+}
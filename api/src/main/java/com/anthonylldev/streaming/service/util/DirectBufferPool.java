@@ -0,0 +1,61 @@
+package com.anthonylldev.streaming.service.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * A thread-safe pool of fixed-size direct {@link ByteBuffer}s, bounded by the total number of bytes allocated.
+ * <p>
+ * Direct buffers live outside the Java heap, so cached media bytes neither grow the heap nor add garbage collection
+ * work, and are written to sockets without an extra copy. Buffers are allocated lazily and never freed: released
+ * buffers are kept for reuse.
+ */
+public class DirectBufferPool {
+
+    private final int bufferSize;
+
+    private final int maximumBuffers;
+
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+
+    private int allocated;
+
+    public DirectBufferPool(int bufferSize, long maximumBytes) {
+        this.bufferSize = bufferSize;
+        this.maximumBuffers = (int) Math.min(Integer.MAX_VALUE, maximumBytes / bufferSize);
+    }
+
+    /**
+     * Take a buffer from the pool, cleared.
+     *
+     * @return the buffer, or {@code null} if all the buffers the pool may allocate are in use.
+     */
+    public synchronized ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null && allocated < maximumBuffers) {
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+            allocated++;
+        }
+        return buffer == null ? null : buffer.clear();
+    }
+
+    /**
+     * Give a buffer back to the pool.
+     *
+     * @param buffer a buffer taken from this pool, which must not be used anymore.
+     */
+    public synchronized void release(ByteBuffer buffer) {
+        free.push(buffer);
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return the number of bytes of the buffers in use.
+     */
+    public synchronized long usedBytes() {
+        return (long) (allocated - free.size()) * bufferSize;
+    }
+}
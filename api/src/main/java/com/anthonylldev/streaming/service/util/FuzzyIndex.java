@@ -0,0 +1,245 @@
+package com.anthonylldev.streaming.service.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * A thread-safe index of documents identified by {@code long}s, finding those with a key within a few edits of a query.
+ * <p>
+ * Each key maps to its trigrams, padded so that its first and last characters count as much as the others. An edit
+ * changes at most 3 trigrams, so a key within {@code d} edits of the query shares all but at most {@code 3d} of its
+ * distinct trigrams: it has {@code k - 3d} of any {@code k} of them. The candidates are thus the keys having enough of
+ * the rarest trigrams of the query, whose Levenshtein distance is then computed, bounded by {@code d}.
+ * Documents are added, replaced and removed one by one, under a write lock, while searches share a read lock.
+ */
+public class FuzzyIndex {
+
+    private static final String PADDING = "\u0000\u0000";
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The keys having each trigram, by length, so that the keys too long or too short to be within a few edits of the
+     * query are never scanned.
+     */
+    private final Map<String, Set<String>> postings = new HashMap<>();
+
+    /**
+     * The documents having each key, many sharing common first names.
+     */
+    private final Map<String, Set<Long>> keys = new HashMap<>();
+
+    private final Map<Long, Set<String>> documents = new HashMap<>();
+
+    /**
+     * The maximum number of edits of a query for a key to match it: none under 3 characters, 1 under 6, then 2.
+     *
+     * @param query the query.
+     * @return the maximum number of edits.
+     */
+    public static int maximumDistance(String query) {
+        return query.length() < 3 ? 0 : query.length() < 6 ? 1 : 2;
+    }
+
+    /**
+     * Add a document, or replace it.
+     *
+     * @param id       the id of the document.
+     * @param keyNames the keys of the document.
+     */
+    public void put(long id, Collection<String> keyNames) {
+        Set<String> documentKeys = new HashSet<>(keyNames);
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            for (String key : documentKeys) {
+                if (!keys.containsKey(key)) {
+                    for (String trigram : trigrams(key)) {
+                        postings.computeIfAbsent(posting(trigram, key.length()), p -> new HashSet<>()).add(key);
+                    }
+                }
+                keys.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+            }
+            documents.put(id, documentKeys);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document.
+     *
+     * @param id the id of the document.
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDocument(long id) {
+        Set<String> documentKeys = documents.remove(id);
+        if (documentKeys == null) {
+            return;
+        }
+        for (String key : documentKeys) {
+            Set<Long> ids = keys.get(key);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                keys.remove(key);
+                for (String trigram : trigrams(key)) {
+                    String posting = posting(trigram, key.length());
+                    Set<String> trigramKeys = postings.get(posting);
+                    trigramKeys.remove(key);
+                    if (trigramKeys.isEmpty()) {
+                        postings.remove(posting);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of documents.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search the documents with a key within the {@link #maximumDistance(String) maximum distance} of a query.
+     *
+     * @param query the query.
+     * @return the ids of the documents, the closest first.
+     */
+    public List<Long> search(String query) {
+        int maximumDistance = maximumDistance(query);
+        Map<Long, Integer> distances = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String key : candidates(query, maximumDistance)) {
+                int distance = distance(query, key, maximumDistance);
+                if (distance <= maximumDistance) {
+                    keys.get(key).forEach(id -> distances.merge(id, distance, Math::min));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return distances
+            .entrySet()
+            .stream()
+            .sorted(Map.Entry.<Long, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+
+    private Collection<String> candidates(String query, int maximumDistance) {
+        Set<String> trigrams = trigrams(query);
+        int lost = 3 * maximumDistance;
+        if (trigrams.size() <= lost) {
+            // Too few trigrams to rule out any key, like those of aaaa
+            return keys.keySet();
+        }
+        List<List<Set<String>>> trigramPostings = new ArrayList<>(trigrams.size());
+        for (String trigram : trigrams) {
+            List<Set<String>> lengthPostings = new ArrayList<>();
+            for (int length = query.length() - maximumDistance; length <= query.length() + maximumDistance; length++) {
+                Set<String> trigramKeys = postings.get(posting(trigram, length));
+                if (trigramKeys != null) {
+                    lengthPostings.add(trigramKeys);
+                }
+            }
+            trigramPostings.add(lengthPostings);
+        }
+        trigramPostings.sort(Comparator.comparingInt(FuzzyIndex::size));
+        // The rarest trigrams are scanned, at least one more than may be lost, then as long as each costs less than all
+        // the previous ones: the more are scanned, the more trigrams a candidate must share
+        Map<String, Integer> shared = new HashMap<>();
+        int scanned = 0;
+        int scannedKeys = 0;
+        for (List<Set<String>> lengthPostings : trigramPostings) {
+            int size = size(lengthPostings);
+            if (scanned > lost && size > scannedKeys) {
+                break;
+            }
+            lengthPostings.forEach(trigramKeys -> trigramKeys.forEach(key -> shared.merge(key, 1, Integer::sum)));
+            scanned++;
+            scannedKeys += size;
+        }
+        int minimumShared = scanned - lost;
+        return shared
+            .entrySet()
+            .stream()
+            .filter(entry -> entry.getValue() >= minimumShared)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+
+    private static int size(List<Set<String>> lengthPostings) {
+        return lengthPostings.stream().mapToInt(Set::size).sum();
+    }
+
+    private static String posting(String trigram, int length) {
+        return trigram + (char) length;
+    }
+
+    private static Set<String> trigrams(String key) {
+        String padded = PADDING + key + PADDING;
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Compute the Levenshtein distance of two strings, one row at a time, giving up once it exceeds a maximum.
+     *
+     * @return the distance, or {@code maximum + 1} if it exceeds the maximum.
+     */
+    static int distance(String a, String b, int maximum) {
+        if (Math.abs(a.length() - b.length()) > maximum) {
+            return maximum + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maximum) {
+                return maximum + 1;
+            }
+            int[] row = previous;
+            previous = current;
+            current = row;
+        }
+        return Math.min(previous[b.length()], maximum + 1);
+    }
+}
@@ -0,0 +1,324 @@
+package com.anthonylldev.streaming.service.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * The HLS segment boundaries of an MPEG transport stream, kept in primitive arrays so that the index of a long film
+ * weighs a few kilobytes.
+ * <p>
+ * Segments are cut at the first video key frame, as flagged by the random access indicator, following the target
+ * duration, so that each segment can be decoded on its own. A stream without random access indicators is indexed as a
+ * single segment. The PAT and PMT packets found at the start of the stream are kept, to be prepended to the segments
+ * that do not start with them.
+ */
+public final class HlsSegmentIndex {
+
+    public static final int PACKET_SIZE = 188;
+
+    /**
+     * Frequency of the presentation timestamps.
+     */
+    public static final int TICKS_PER_SECOND = 90_000;
+
+    private static final int SYNC_BYTE = 0x47;
+
+    private static final long PTS_WRAP = 1L << 33;
+
+    private final String version;
+
+    private final long[] offsets;
+
+    private final int[] durations;
+
+    private final byte[] tables;
+
+    private HlsSegmentIndex(String version, long[] offsets, int[] durations, byte[] tables) {
+        this.version = version;
+        this.offsets = offsets;
+        this.durations = durations;
+        this.tables = tables;
+    }
+
+    /**
+     * Index a transport stream.
+     *
+     * @param version        the version of the stream, identifying its content.
+     * @param channel        the stream, read from its start to its end.
+     * @param targetDuration the minimum duration of a segment, in seconds.
+     * @return the index.
+     * @throws IOException if the stream cannot be read or is not a transport stream.
+     */
+    public static HlsSegmentIndex parse(String version, ReadableByteChannel channel, int targetDuration) throws IOException {
+        Parser parser = new Parser((long) targetDuration * TICKS_PER_SECOND);
+        ByteBuffer buffer = ByteBuffer.allocate(PACKET_SIZE * 1024);
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            while (buffer.remaining() >= PACKET_SIZE) {
+                parser.packet(buffer);
+            }
+            buffer.compact();
+        }
+        return parser.build(version);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public int getSegmentCount() {
+        return durations.length;
+    }
+
+    /**
+     * @param segment the index of the segment.
+     * @return the offset of the first byte of the segment in the stream.
+     */
+    public long getPosition(int segment) {
+        return offsets[segment];
+    }
+
+    /**
+     * @param segment the index of the segment.
+     * @return the number of bytes of the segment in the stream, not counting the tables prepended to it.
+     */
+    public long getLength(int segment) {
+        return offsets[segment + 1] - offsets[segment];
+    }
+
+    /**
+     * @param segment the index of the segment.
+     * @return the duration of the segment, in seconds.
+     */
+    public double getDuration(int segment) {
+        return (double) durations[segment] / TICKS_PER_SECOND;
+    }
+
+    /**
+     * @param segment the index of the segment.
+     * @return the PAT and PMT packets to write before the segment bytes, empty for the first segment.
+     */
+    public byte[] getTables(int segment) {
+        return segment == 0 ? new byte[0] : tables;
+    }
+
+    /**
+     * @return the duration of the longest segment, rounded up to seconds as required by {@code EXT-X-TARGETDURATION}.
+     */
+    public int getTargetDuration() {
+        int longest = 0;
+        for (int duration : durations) {
+            longest = Math.max(longest, duration);
+        }
+        return Math.max(1, (longest + TICKS_PER_SECOND - 1) / TICKS_PER_SECOND);
+    }
+
+    /**
+     * @return the highest bit rate of a segment, in bits per second.
+     */
+    public long getPeakBandwidth() {
+        long peak = 0;
+        for (int segment = 0; segment < durations.length; segment++) {
+            peak = Math.max(peak, bandwidth(getLength(segment), durations[segment]));
+        }
+        return peak;
+    }
+
+    /**
+     * @return the bit rate of the whole stream, in bits per second.
+     */
+    public long getAverageBandwidth() {
+        long duration = 0;
+        for (int segmentDuration : durations) {
+            duration += segmentDuration;
+        }
+        return bandwidth(offsets[offsets.length - 1] - offsets[0], duration);
+    }
+
+    /**
+     * @return the approximate number of bytes held by the index.
+     */
+    public long weight() {
+        return 64L + (long) offsets.length * Long.BYTES + (long) durations.length * Integer.BYTES + tables.length;
+    }
+
+    private static long bandwidth(long bytes, long ticks) {
+        return ticks <= 0 ? 0 : bytes * 8 * TICKS_PER_SECOND / ticks;
+    }
+
+    private static final class Parser {
+
+        private final long targetTicks;
+
+        private long[] offsets = new long[64];
+
+        private long[] starts = new long[64];
+
+        private int count;
+
+        private long position;
+
+        private int pmtPid = -1;
+
+        private int videoPid = -1;
+
+        private byte[] pat;
+
+        private byte[] pmt;
+
+        private long lastPts = -1;
+
+        private long ptsOffset;
+
+        private long lastPtsDelta;
+
+        private long maxPts = -1;
+
+        private Parser(long targetTicks) {
+            this.targetTicks = targetTicks;
+        }
+
+        private void packet(ByteBuffer buffer) throws IOException {
+            int start = buffer.position();
+            if ((buffer.get(start) & 0xff) != SYNC_BYTE) {
+                throw new IOException("Lost MPEG-TS sync at offset " + position);
+            }
+            int pid = ((buffer.get(start + 1) & 0x1f) << 8) | (buffer.get(start + 2) & 0xff);
+            boolean unitStart = (buffer.get(start + 1) & 0x40) != 0;
+            int adaptationFieldControl = (buffer.get(start + 3) >> 4) & 0x3;
+            boolean randomAccess = false;
+            int payload = start + 4;
+            if ((adaptationFieldControl & 0x2) != 0) {
+                int adaptationFieldLength = buffer.get(start + 4) & 0xff;
+                randomAccess = adaptationFieldLength > 0 && (buffer.get(start + 5) & 0x40) != 0;
+                payload += 1 + adaptationFieldLength;
+            }
+            if (unitStart && (adaptationFieldControl & 0x1) != 0 && payload < start + PACKET_SIZE) {
+                if (pid == 0 && pat == null) {
+                    pat = copy(buffer, start);
+                    pmtPid = programMapPid(buffer, payload, start + PACKET_SIZE);
+                } else if (pid == pmtPid && pmt == null) {
+                    pmt = copy(buffer, start);
+                    videoPid = videoPid(buffer, payload, start + PACKET_SIZE);
+                } else if (pid == videoPid) {
+                    long pts = presentationTimestamp(buffer, payload, start + PACKET_SIZE);
+                    if (pts >= 0) {
+                        videoFrame(pts, randomAccess);
+                    }
+                }
+            }
+            buffer.position(start + PACKET_SIZE);
+            position += PACKET_SIZE;
+        }
+
+        private void videoFrame(long pts, boolean randomAccess) {
+            // Timestamps wrap around every 26.5 hours, and are not monotonic when frames are reordered
+            if (lastPts >= 0 && pts + ptsOffset < lastPts - PTS_WRAP / 2) {
+                ptsOffset += PTS_WRAP;
+            }
+            pts += ptsOffset;
+            if (lastPts >= 0 && pts > lastPts) {
+                lastPtsDelta = pts - lastPts;
+            }
+            lastPts = pts;
+            maxPts = Math.max(maxPts, pts);
+            if (count == 0) {
+                add(0, pts);
+            } else if (randomAccess && pts - starts[count - 1] >= targetTicks) {
+                add(position, pts);
+            }
+        }
+
+        private void add(long offset, long pts) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+            offsets[count] = offset;
+            starts[count] = pts;
+            count++;
+        }
+
+        private HlsSegmentIndex build(String version) throws IOException {
+            if (count == 0) {
+                throw new IOException("No video stream found");
+            }
+            long[] segmentOffsets = Arrays.copyOf(offsets, count + 1);
+            segmentOffsets[count] = position;
+            int[] durations = new int[count];
+            for (int segment = 0; segment < count; segment++) {
+                long end = segment + 1 < count ? starts[segment + 1] : maxPts + lastPtsDelta;
+                durations[segment] = (int) Math.min(Integer.MAX_VALUE, Math.max(0, end - starts[segment]));
+            }
+            byte[] tables = new byte[2 * PACKET_SIZE];
+            System.arraycopy(pat, 0, tables, 0, PACKET_SIZE);
+            System.arraycopy(pmt, 0, tables, PACKET_SIZE, PACKET_SIZE);
+            return new HlsSegmentIndex(version, segmentOffsets, durations, tables);
+        }
+
+        private static byte[] copy(ByteBuffer buffer, int start) {
+            byte[] packet = new byte[PACKET_SIZE];
+            buffer.duplicate().position(start).get(packet);
+            return packet;
+        }
+
+        private static int programMapPid(ByteBuffer buffer, int payload, int end) {
+            int table = payload + 1 + (buffer.get(payload) & 0xff);
+            if (table + 8 > end || buffer.get(table) != 0x00) {
+                return -1;
+            }
+            int sectionEnd = Math.min(end, table + 3 + (((buffer.get(table + 1) & 0x0f) << 8) | (buffer.get(table + 2) & 0xff)) - 4);
+            for (int program = table + 8; program + 4 <= sectionEnd; program += 4) {
+                int programNumber = ((buffer.get(program) & 0xff) << 8) | (buffer.get(program + 1) & 0xff);
+                if (programNumber != 0) {
+                    return ((buffer.get(program + 2) & 0x1f) << 8) | (buffer.get(program + 3) & 0xff);
+                }
+            }
+            return -1;
+        }
+
+        private static int videoPid(ByteBuffer buffer, int payload, int end) {
+            int table = payload + 1 + (buffer.get(payload) & 0xff);
+            if (table + 12 > end || buffer.get(table) != 0x02) {
+                return -1;
+            }
+            int sectionEnd = Math.min(end, table + 3 + (((buffer.get(table + 1) & 0x0f) << 8) | (buffer.get(table + 2) & 0xff)) - 4);
+            int programInfoLength = ((buffer.get(table + 10) & 0x0f) << 8) | (buffer.get(table + 11) & 0xff);
+            int stream = table + 12 + programInfoLength;
+            while (stream + 5 <= sectionEnd) {
+                if (isVideo(buffer.get(stream) & 0xff)) {
+                    return ((buffer.get(stream + 1) & 0x1f) << 8) | (buffer.get(stream + 2) & 0xff);
+                }
+                stream += 5 + (((buffer.get(stream + 3) & 0x0f) << 8) | (buffer.get(stream + 4) & 0xff));
+            }
+            return -1;
+        }
+
+        private static boolean isVideo(int streamType) {
+            // MPEG-1, MPEG-2, MPEG-4 part 2, H.264, H.265
+            return streamType == 0x01 || streamType == 0x02 || streamType == 0x10 || streamType == 0x1b || streamType == 0x24;
+        }
+
+        private static long presentationTimestamp(ByteBuffer buffer, int payload, int end) {
+            if (
+                payload + 14 > end ||
+                buffer.get(payload) != 0x00 ||
+                buffer.get(payload + 1) != 0x00 ||
+                buffer.get(payload + 2) != 0x01 ||
+                (buffer.get(payload + 7) & 0x80) == 0
+            ) {
+                return -1;
+            }
+            int pts = payload + 9;
+            return (
+                ((long) (buffer.get(pts) & 0x0e) << 29) |
+                ((long) (buffer.get(pts + 1) & 0xff) << 22) |
+                ((long) (buffer.get(pts + 2) & 0xfe) << 14) |
+                ((long) (buffer.get(pts + 3) & 0xff) << 7) |
+                ((buffer.get(pts + 4) & 0xfe) >> 1)
+            );
+        }
+    }
+}
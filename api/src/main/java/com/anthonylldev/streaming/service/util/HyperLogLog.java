@@ -0,0 +1,158 @@
+package com.anthonylldev.streaming.service.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A HyperLogLog sketch, estimating the number of distinct items of a stream in fixed memory.
+ * <p>
+ * Items are hashed to one of {@code 2^precision} registers, which keeps the longest run of leading zeros of the rest of
+ * their hashes; the estimate is derived from the harmonic mean of the registers, with a standard error of about
+ * {@code 1.04 / sqrt(2^precision)}. Sketches of the same precision are merged by keeping the highest registers, so the
+ * sketches of days are merged for weeks or months. Sketches are not thread-safe.
+ */
+public class HyperLogLog {
+
+    private static final byte DENSE = 0;
+
+    private static final byte SPARSE = 1;
+
+    private final int precision;
+
+    private final byte[] registers;
+
+    /**
+     * @param precision the number of bits of the hashes indexing the registers, from {@code 4} to {@code 16}.
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Invalid precision " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Count an item.
+     *
+     * @param item the item.
+     * @return {@code true} if the sketch changed.
+     */
+    public boolean add(String item) {
+        return addHash(hash(item));
+    }
+
+    private boolean addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // The guard bit bounds the rank when the rest of the hash is zero
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Add the items of a sketch of the same precision.
+     *
+     * @param other the sketch.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Sketches of different precisions cannot be merged");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * @return the estimated number of distinct items.
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Linear counting is more accurate for small cardinalities
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /**
+     * Serialize the sketch, listing the registers set only when few are, like for the days of little viewed films.
+     *
+     * @return the sketch, as read by {@link #fromByteArray(byte[])}.
+     */
+    public byte[] toByteArray() {
+        int set = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                set++;
+            }
+        }
+        if (set * 3 < registers.length) {
+            ByteBuffer buffer = ByteBuffer.allocate(2 + set * 3).put(SPARSE).put((byte) precision);
+            for (int i = 0; i < registers.length; i++) {
+                if (registers[i] != 0) {
+                    buffer.putShort((short) i).put(registers[i]);
+                }
+            }
+            return buffer.array();
+        }
+        return ByteBuffer.allocate(2 + registers.length).put(DENSE).put((byte) precision).put(registers).array();
+    }
+
+    /**
+     * @param bytes a sketch serialized by {@link #toByteArray()}.
+     * @return the sketch.
+     */
+    public static HyperLogLog fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte format = buffer.get();
+        HyperLogLog sketch = new HyperLogLog(buffer.get());
+        if (format == SPARSE) {
+            while (buffer.hasRemaining()) {
+                sketch.registers[Short.toUnsignedInt(buffer.getShort())] = buffer.get();
+            }
+        } else {
+            buffer.get(sketch.registers);
+        }
+        return sketch;
+    }
+
+    private static long hash(String item) {
+        // FNV-1a, then mixed so that all the bits are spread
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : item.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+}
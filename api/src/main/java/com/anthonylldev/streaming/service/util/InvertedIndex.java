@@ -0,0 +1,138 @@
+package com.anthonylldev.streaming.service.util;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * A thread-safe inverted index of documents identified by {@code long}s, ranking them with Okapi BM25.
+ * <p>
+ * Each term maps to the documents containing it, with its frequency in each; documents are ranked by the sum, over the
+ * terms searched, of the inverse document frequency of the term weighted by its frequency in the document, saturated
+ * and normalized by the length of the document against the average. Documents are added, replaced and removed one by
+ * one, under a write lock, while searches share a read lock.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    /**
+     * The frequency of each term of each document, to remove its postings.
+     */
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+
+    /**
+     * The number of terms of each document.
+     */
+    private final Map<Long, Integer> lengths = new HashMap<>();
+
+    private long totalLength;
+
+    /**
+     * Add a document, or replace it.
+     *
+     * @param id    the id of the document.
+     * @param terms the terms of the document.
+     */
+    public void put(long id, List<String> terms) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, frequency));
+            documents.put(id, frequencies);
+            lengths.put(id, terms.size());
+            totalLength += terms.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document.
+     *
+     * @param id the id of the document.
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDocument(long id) {
+        Map<String, Integer> frequencies = documents.remove(id);
+        if (frequencies == null) {
+            return;
+        }
+        frequencies.forEach((term, frequency) -> {
+            Map<Long, Integer> documentFrequencies = postings.get(term);
+            documentFrequencies.remove(id);
+            if (documentFrequencies.isEmpty()) {
+                postings.remove(term);
+            }
+        });
+        totalLength -= lengths.remove(id);
+    }
+
+    /**
+     * @return the number of documents.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search the documents containing any of some terms.
+     *
+     * @param terms the terms.
+     * @return the ids of the documents, the most relevant first.
+     */
+    public List<Long> search(List<String> terms) {
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int count = documents.size();
+            double averageLength = count == 0 ? 0 : (double) totalLength / count;
+            for (String term : new LinkedHashSet<>(terms)) {
+                Map<Long, Integer> documentFrequencies = postings.get(term);
+                if (documentFrequencies == null) {
+                    continue;
+                }
+                int matches = documentFrequencies.size();
+                double idf = Math.log(1 + (count - matches + 0.5) / (matches + 0.5));
+                documentFrequencies.forEach((id, frequency) -> {
+                    double norm = K1 * (1 - B + B * lengths.get(id) / averageLength);
+                    scores.merge(id, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores
+            .entrySet()
+            .stream()
+            .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+}
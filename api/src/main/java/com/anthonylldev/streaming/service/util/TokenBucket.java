@@ -0,0 +1,106 @@
+package com.anthonylldev.streaming.service.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A lock-free token bucket, refilled at a constant rate up to its capacity.
+ * <p>
+ * The bucket is a single {@link AtomicLong}: the instant, in {@link System#nanoTime()} nanoseconds, at which it was
+ * empty if nothing was taken since. The tokens available at any instant are derived from it, so the bucket is refilled
+ * without a timer and taken from with a compare-and-set.
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long tokensPerSecond;
+
+    private final long capacity;
+
+    private final LongSupplier nanoTime;
+
+    private final AtomicLong emptyAt;
+
+    /**
+     * @param tokensPerSecond the refill rate, or {@code 0} for an unlimited bucket.
+     * @param capacity        the maximum number of tokens, that is the largest burst.
+     */
+    public TokenBucket(long tokensPerSecond, long capacity) {
+        this(tokensPerSecond, capacity, System::nanoTime);
+    }
+
+    /**
+     * @param tokensPerSecond the refill rate, or {@code 0} for an unlimited bucket.
+     * @param capacity        the maximum number of tokens, that is the largest burst.
+     * @param nanoTime        the clock, in {@link System#nanoTime()} nanoseconds.
+     */
+    public TokenBucket(long tokensPerSecond, long capacity, LongSupplier nanoTime) {
+        this.tokensPerSecond = tokensPerSecond;
+        this.capacity = Math.max(1, capacity);
+        this.nanoTime = nanoTime;
+        // Start full
+        this.emptyAt = new AtomicLong(nanoTime.getAsLong() - toNanos(this.capacity));
+    }
+
+    public boolean isUnlimited() {
+        return tokensPerSecond <= 0;
+    }
+
+    /**
+     * Take up to a number of tokens.
+     *
+     * @param tokens the number of tokens wanted.
+     * @return the number of tokens taken, from {@code 0} if the bucket is empty to {@code tokens}.
+     */
+    public long tryAcquire(long tokens) {
+        if (isUnlimited() || tokens <= 0) {
+            return Math.max(0, tokens);
+        }
+        while (true) {
+            long now = nanoTime.getAsLong();
+            long current = emptyAt.get();
+            // Tokens beyond the capacity are not accumulated
+            long start = Math.max(current, now - toNanos(capacity));
+            long available = toTokens(now - start);
+            if (available <= 0) {
+                return 0;
+            }
+            long taken = Math.min(tokens, available);
+            if (emptyAt.compareAndSet(current, start + toNanos(taken))) {
+                return taken;
+            }
+        }
+    }
+
+    /**
+     * Give back tokens taken but not used.
+     *
+     * @param tokens the number of tokens.
+     */
+    public void release(long tokens) {
+        if (!isUnlimited() && tokens > 0) {
+            emptyAt.addAndGet(-toNanos(tokens));
+        }
+    }
+
+    /**
+     * @param tokens the number of tokens wanted.
+     * @return the number of nanoseconds until the bucket holds that many tokens, or its capacity if lower.
+     */
+    public long nanosUntilAvailable(long tokens) {
+        if (isUnlimited()) {
+            return 0;
+        }
+        return Math.max(0, emptyAt.get() + toNanos(Math.min(tokens, capacity)) - nanoTime.getAsLong());
+    }
+
+    private long toNanos(long tokens) {
+        return isUnlimited() ? 0 : (long) ((double) tokens * NANOS_PER_SECOND / tokensPerSecond);
+    }
+
+    private long toTokens(long nanos) {
+        return (long) ((double) nanos * tokensPerSecond / NANOS_PER_SECOND);
+    }
+}
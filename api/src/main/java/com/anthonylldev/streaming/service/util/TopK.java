@@ -0,0 +1,78 @@
+package com.anthonylldev.streaming.service.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A thread-safe set of the {@code k} items with the highest counts offered, the heavy hitters of a stream counted by a
+ * {@link CountMinSketch}.
+ * <p>
+ * Items are offered with their current estimate, so a candidate is only replaced by an item that has since been counted
+ * more often.
+ */
+public class TopK {
+
+    private final int k;
+
+    private final Map<Long, Long> candidates;
+
+    /**
+     * The lowest count of the candidates, once full.
+     */
+    private long minimum;
+
+    public TopK(int k) {
+        this.k = k;
+        this.candidates = new HashMap<>(k * 2);
+    }
+
+    /**
+     * Offer an item.
+     *
+     * @param item     the item.
+     * @param estimate the estimated count of the item.
+     */
+    public synchronized void offer(long item, long estimate) {
+        Long current = candidates.get(item);
+        if (current != null) {
+            if (estimate > current) {
+                candidates.put(item, estimate);
+                if (current == minimum && candidates.size() == k) {
+                    minimum = lowest().getValue();
+                }
+            }
+            return;
+        }
+        if (candidates.size() < k) {
+            candidates.put(item, estimate);
+            if (candidates.size() == k) {
+                minimum = lowest().getValue();
+            }
+            return;
+        }
+        if (estimate <= minimum) {
+            return;
+        }
+        candidates.remove(lowest().getKey());
+        candidates.put(item, estimate);
+        minimum = lowest().getValue();
+    }
+
+    private Map.Entry<Long, Long> lowest() {
+        Map.Entry<Long, Long> lowest = null;
+        for (Map.Entry<Long, Long> candidate : candidates.entrySet()) {
+            if (lowest == null || candidate.getValue() < lowest.getValue()) {
+                lowest = candidate;
+            }
+        }
+        return lowest;
+    }
+
+    /**
+     * @return the candidates.
+     */
+    public synchronized Set<Long> items() {
+        return Set.copyOf(candidates.keySet());
+    }
+}
@@ -0,0 +1,84 @@
+package com.anthonylldev.streaming.service.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * A thread-safe LRU cache bounded by the total weight of its values (typically their size in bytes)
+ * rather than by their number.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public class WeightedLruCache<K, V> {
+
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final long maximumWeight;
+
+    private final ToLongFunction<V> weigher;
+
+    private long weight;
+
+    public WeightedLruCache(long maximumWeight, ToLongFunction<V> weigher) {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Get the value mapped to the key, marking it as the most recently used.
+     *
+     * @param key the key.
+     * @return the value, or {@code null} if it is not cached.
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Cache the value, evicting the least recently used entries until the total weight fits the maximum.
+     * Values heavier than the maximum weight are not cached.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public synchronized void put(K key, V value) {
+        long valueWeight = weigher.applyAsLong(value);
+        if (valueWeight > maximumWeight) {
+            return;
+        }
+        V previous = entries.put(key, value);
+        if (previous != null) {
+            weight -= weigher.applyAsLong(previous);
+        }
+        weight += valueWeight;
+        Iterator<Map.Entry<K, V>> iterator = entries.entrySet().iterator();
+        while (weight > maximumWeight && iterator.hasNext()) {
+            Map.Entry<K, V> eldest = iterator.next();
+            weight -= weigher.applyAsLong(eldest.getValue());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Evict the value mapped to the key, if any.
+     *
+     * @param key the key.
+     */
+    public synchronized void remove(K key) {
+        V previous = entries.remove(key);
+        if (previous != null) {
+            weight -= weigher.applyAsLong(previous);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+}
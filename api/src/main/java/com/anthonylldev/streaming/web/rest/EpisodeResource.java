@@ -3,14 +3,28 @@ package com.anthonylldev.streaming.web.rest;
 import com.anthonylldev.streaming.repository.EpisodeRepository;
 import com.anthonylldev.streaming.service.EpisodeQueryService;
 import com.anthonylldev.streaming.service.EpisodeService;
+import com.anthonylldev.streaming.service.MediaBandwidthService;
+import com.anthonylldev.streaming.service.MediaReadAheadService;
+import com.anthonylldev.streaming.service.PlaybackService;
 import com.anthonylldev.streaming.service.criteria.EpisodeCriteria;
 import com.anthonylldev.streaming.service.dto.EpisodeDTO;
+import com.anthonylldev.streaming.service.dto.HlsSegmentDTO;
+import com.anthonylldev.streaming.service.dto.MediaDTO;
+import com.anthonylldev.streaming.service.dto.PlaybackDTO;
+import com.anthonylldev.streaming.service.util.CursorSlice;
 import com.anthonylldev.streaming.web.rest.errors.BadRequestAlertException;
+import com.anthonylldev.streaming.web.rest.util.CountUtil;
+import com.anthonylldev.streaming.web.rest.util.CursorUtil;
+import com.anthonylldev.streaming.web.rest.util.HlsResponseUtil;
+import com.anthonylldev.streaming.web.rest.util.MediaResponseUtil;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
@@ -19,8 +33,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -46,10 +62,26 @@ public class EpisodeResource {
 
     private final EpisodeQueryService episodeQueryService;
 
-    public EpisodeResource(EpisodeService episodeService, EpisodeRepository episodeRepository, EpisodeQueryService episodeQueryService) {
+    private final MediaReadAheadService mediaReadAheadService;
+
+    private final MediaBandwidthService mediaBandwidthService;
+
+    private final PlaybackService playbackService;
+
+    public EpisodeResource(
+        EpisodeService episodeService,
+        EpisodeRepository episodeRepository,
+        EpisodeQueryService episodeQueryService,
+        MediaReadAheadService mediaReadAheadService,
+        MediaBandwidthService mediaBandwidthService,
+        PlaybackService playbackService
+    ) {
         this.episodeService = episodeService;
         this.episodeRepository = episodeRepository;
         this.episodeQueryService = episodeQueryService;
+        this.mediaReadAheadService = mediaReadAheadService;
+        this.mediaBandwidthService = mediaBandwidthService;
+        this.playbackService = playbackService;
     }
 
     /**
@@ -147,15 +179,25 @@ public class EpisodeResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param cursor the cursor of the slice, returned in the {@code Link} header of the previous one, or empty for the
+     * first one, to seek past the previous slice instead of counting and skipping pages.
+     * @param countMode how to count the episodes for the {@code X-Total-Count} header, {@code exact} or {@code estimate}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of episodes in body.
      */
     @GetMapping("/episodes")
     public ResponseEntity<List<EpisodeDTO>> getAllEpisodes(
         EpisodeCriteria criteria,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String cursor,
+        @RequestHeader(name = CountUtil.HEADER_TOTAL_COUNT_MODE, defaultValue = "exact") String countMode
     ) {
         log.debug("REST request to get Episodes by criteria: {}", criteria);
-        Page<EpisodeDTO> page = episodeQueryService.findByCriteria(criteria, pageable);
+        if (cursor != null) {
+            CursorSlice<EpisodeDTO> slice = episodeQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Page<EpisodeDTO> page = episodeQueryService.findByCriteria(criteria, pageable, CountUtil.countMode(countMode, ENTITY_NAME));
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
@@ -164,12 +206,16 @@ public class EpisodeResource {
      * {@code GET  /episodes/count} : count all the episodes.
      *
      * @param criteria the criteria which the requested entities should match.
+     * @param countMode how to count the episodes, {@code exact} or {@code estimate}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
      */
     @GetMapping("/episodes/count")
-    public ResponseEntity<Long> countEpisodes(EpisodeCriteria criteria) {
+    public ResponseEntity<Long> countEpisodes(
+        EpisodeCriteria criteria,
+        @RequestHeader(name = CountUtil.HEADER_TOTAL_COUNT_MODE, defaultValue = "exact") String countMode
+    ) {
         log.debug("REST request to count Episodes by criteria: {}", criteria);
-        return ResponseEntity.ok().body(episodeQueryService.countByCriteria(criteria));
+        return ResponseEntity.ok().body(episodeQueryService.countByCriteria(criteria, CountUtil.countMode(countMode, ENTITY_NAME)));
     }
 
     /**
@@ -185,6 +231,94 @@ public class EpisodeResource {
         return ResponseUtil.wrapOrNotFound(episodeDTO);
     }
 
+    /**
+     * {@code GET  /episodes/:id/playback} : get signed stream URLs of the media of the "id" episode, issued to the current user.
+     * <p>
+     * Signed URLs are short-lived and verified without parsing a JWT, so players should use them for range and segment requests.
+     *
+     * @param id the id of the episode whose media to stream.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the signed URLs in body, or with status {@code 404 (Not Found)}
+     * if the episode has no local media.
+     */
+    @GetMapping("/episodes/{id}/playback")
+    public ResponseEntity<PlaybackDTO> getEpisodePlayback(@PathVariable Long id) {
+        log.debug("REST request to get Episode playback : {}", id);
+        return ResponseUtil.wrapOrNotFound(playbackService.findEpisodePlayback(id));
+    }
+
+    /**
+     * {@code GET  /episodes/:id/stream} : stream the media of the "id" episode.
+     * <p>
+     * Supports single and multiple byte ranges, so players can seek and resume.
+     *
+     * @param id the id of the episode whose media to stream.
+     * @param request the request, with its {@code Range} and conditional headers.
+     * @param response the response the media is written to, with status {@code 200 (OK)}, {@code 206 (Partial Content)},
+     * {@code 416 (Range Not Satisfiable)} or {@code 429 (Too Many Requests)} if the user reached the maximum number of streams.
+     * @throws IOException if the media cannot be read or the response cannot be written.
+     * @throws ResponseStatusException with status {@code 404 (Not Found)} if the episode has no local media.
+     */
+    @GetMapping("/episodes/{id}/stream")
+    public void streamEpisode(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to stream Episode : {}, range : {}", id, request.getHeader(HttpHeaders.RANGE));
+        MediaDTO media = episodeService.findMedia(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        MediaResponseUtil.stream(media, mediaReadAheadService, mediaBandwidthService, request, response);
+    }
+
+    /**
+     * {@code GET  /episodes/:id/hls/master.m3u8} : get the HLS master playlist of the "id" episode.
+     *
+     * @param id the id of the episode whose media to stream.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the playlist in body, or with status {@code 404 (Not Found)}
+     * if the episode has no local MPEG-TS media.
+     */
+    @GetMapping("/episodes/{id}/hls/master.m3u8")
+    public ResponseEntity<String> getEpisodeHlsMasterPlaylist(@PathVariable Long id) {
+        log.debug("REST request to get Episode HLS master playlist : {}", id);
+        return HlsResponseUtil.wrapMasterPlaylistOrNotFound(episodeService.findHlsMasterPlaylist(id));
+    }
+
+    /**
+     * {@code GET  /episodes/:id/hls/:version/media.m3u8} : get the HLS media playlist of the "id" episode.
+     *
+     * @param id the id of the episode whose media to stream.
+     * @param version the version of the media, as found in the master playlist.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the playlist in body, or with status {@code 404 (Not Found)}
+     * if the media is not at this version anymore.
+     */
+    @GetMapping("/episodes/{id}/hls/{version}/media.m3u8")
+    public ResponseEntity<String> getEpisodeHlsMediaPlaylist(@PathVariable Long id, @PathVariable String version) {
+        log.debug("REST request to get Episode HLS media playlist : {}, version : {}", id, version);
+        return HlsResponseUtil.wrapMediaPlaylistOrNotFound(episodeService.findHlsMediaPlaylist(id, version));
+    }
+
+    /**
+     * {@code GET  /episodes/:id/hls/:version/:segment.ts} : get an HLS segment of the "id" episode.
+     *
+     * @param id the id of the episode whose media to stream.
+     * @param version the version of the media, as found in the master playlist.
+     * @param segment the index of the segment, as found in the media playlist.
+     * @param request the request, with its conditional headers.
+     * @param response the response the segment is written to, with status {@code 200 (OK)}, or {@code 429 (Too Many Requests)}
+     * if the user reached the maximum number of streams.
+     * @throws IOException if the media cannot be read or the response cannot be written.
+     * @throws ResponseStatusException with status {@code 404 (Not Found)} if the media has no such segment at this version.
+     */
+    @GetMapping("/episodes/{id}/hls/{version}/{segment:[0-9]+}.ts")
+    public void getEpisodeHlsSegment(
+        @PathVariable Long id,
+        @PathVariable String version,
+        @PathVariable int segment,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to get Episode HLS segment : {}, version : {}, segment : {}", id, version, segment);
+        HlsSegmentDTO hlsSegment = episodeService
+            .findHlsSegment(id, version, segment)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        HlsResponseUtil.streamSegment(hlsSegment, mediaReadAheadService, mediaBandwidthService, request, response);
+    }
+
     /**
      * {@code DELETE  /episodes/:id} : delete the "id" episode.
      *
@@ -1,26 +1,54 @@
 package com.anthonylldev.streaming.web.rest;
 
 import com.anthonylldev.streaming.repository.FilmRepository;
+import com.anthonylldev.streaming.security.SecurityUtils;
+import com.anthonylldev.streaming.service.FilmAudienceService;
 import com.anthonylldev.streaming.service.FilmQueryService;
+import com.anthonylldev.streaming.service.FilmSearchService;
 import com.anthonylldev.streaming.service.FilmService;
+import com.anthonylldev.streaming.service.FilmTrendingService;
+import com.anthonylldev.streaming.service.FilmViewRollupService;
+import com.anthonylldev.streaming.service.FilmViewService;
+import com.anthonylldev.streaming.service.MediaBandwidthService;
+import com.anthonylldev.streaming.service.MediaReadAheadService;
+import com.anthonylldev.streaming.service.PlaybackService;
 import com.anthonylldev.streaming.service.criteria.FilmCriteria;
+import com.anthonylldev.streaming.service.dto.AudienceDTO;
 import com.anthonylldev.streaming.service.dto.FilmDTO;
+import com.anthonylldev.streaming.service.dto.FilmFacetsDTO;
+import com.anthonylldev.streaming.service.dto.FilmViewsDTO;
+import com.anthonylldev.streaming.service.dto.HlsSegmentDTO;
+import com.anthonylldev.streaming.service.dto.MediaDTO;
+import com.anthonylldev.streaming.service.dto.PlaybackDTO;
+import com.anthonylldev.streaming.service.util.CursorSlice;
 import com.anthonylldev.streaming.web.rest.errors.BadRequestAlertException;
+import com.anthonylldev.streaming.web.rest.util.CountUtil;
+import com.anthonylldev.streaming.web.rest.util.CoverResponseUtil;
+import com.anthonylldev.streaming.web.rest.util.CursorUtil;
+import com.anthonylldev.streaming.web.rest.util.HlsResponseUtil;
+import com.anthonylldev.streaming.web.rest.util.MediaResponseUtil;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -46,10 +74,46 @@ public class FilmResource {
 
     private final FilmQueryService filmQueryService;
 
-    public FilmResource(FilmService filmService, FilmRepository filmRepository, FilmQueryService filmQueryService) {
+    private final MediaReadAheadService mediaReadAheadService;
+
+    private final MediaBandwidthService mediaBandwidthService;
+
+    private final PlaybackService playbackService;
+
+    private final FilmViewService filmViewService;
+
+    private final FilmTrendingService filmTrendingService;
+
+    private final FilmAudienceService filmAudienceService;
+
+    private final FilmViewRollupService filmViewRollupService;
+
+    private final FilmSearchService filmSearchService;
+
+    public FilmResource(
+        FilmService filmService,
+        FilmRepository filmRepository,
+        FilmQueryService filmQueryService,
+        MediaReadAheadService mediaReadAheadService,
+        MediaBandwidthService mediaBandwidthService,
+        PlaybackService playbackService,
+        FilmViewService filmViewService,
+        FilmTrendingService filmTrendingService,
+        FilmAudienceService filmAudienceService,
+        FilmViewRollupService filmViewRollupService,
+        FilmSearchService filmSearchService
+    ) {
         this.filmService = filmService;
         this.filmRepository = filmRepository;
         this.filmQueryService = filmQueryService;
+        this.mediaReadAheadService = mediaReadAheadService;
+        this.mediaBandwidthService = mediaBandwidthService;
+        this.playbackService = playbackService;
+        this.filmViewService = filmViewService;
+        this.filmTrendingService = filmTrendingService;
+        this.filmAudienceService = filmAudienceService;
+        this.filmViewRollupService = filmViewRollupService;
+        this.filmSearchService = filmSearchService;
     }
 
     /**
@@ -147,15 +211,44 @@ public class FilmResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param cursor the cursor of the slice, returned in the {@code Link} header of the previous one, or empty for the
+     * first one, to seek past the previous slice instead of counting and skipping pages.
+     * @param countMode how to count the films for the {@code X-Total-Count} header, {@code exact} or {@code estimate}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of films in body.
      */
     @GetMapping("/films")
     public ResponseEntity<List<FilmDTO>> getAllFilms(
         FilmCriteria criteria,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String cursor,
+        @RequestHeader(name = CountUtil.HEADER_TOTAL_COUNT_MODE, defaultValue = "exact") String countMode
     ) {
         log.debug("REST request to get Films by criteria: {}", criteria);
-        Page<FilmDTO> page = filmQueryService.findByCriteria(criteria, pageable);
+        if (cursor != null) {
+            CursorSlice<FilmDTO> slice = filmQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Page<FilmDTO> page = filmQueryService.findByCriteria(criteria, pageable, CountUtil.countMode(countMode, ENTITY_NAME));
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /_search/films?q=:query} : search the films by title and synopsis.
+     *
+     * @param q the terms searched.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of films in body, the most relevant
+     * first.
+     */
+    @GetMapping("/_search/films")
+    public ResponseEntity<List<FilmDTO>> searchFilms(
+        @RequestParam String q,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Films for query {}", q);
+        Page<FilmDTO> page = filmSearchService.search(q, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
@@ -164,12 +257,44 @@ public class FilmResource {
      * {@code GET  /films/count} : count all the films.
      *
      * @param criteria the criteria which the requested entities should match.
+     * @param countMode how to count the films, {@code exact} or {@code estimate}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
      */
     @GetMapping("/films/count")
-    public ResponseEntity<Long> countFilms(FilmCriteria criteria) {
+    public ResponseEntity<Long> countFilms(
+        FilmCriteria criteria,
+        @RequestHeader(name = CountUtil.HEADER_TOTAL_COUNT_MODE, defaultValue = "exact") String countMode
+    ) {
         log.debug("REST request to count Films by criteria: {}", criteria);
-        return ResponseEntity.ok().body(filmQueryService.countByCriteria(criteria));
+        return ResponseEntity.ok().body(filmQueryService.countByCriteria(criteria, CountUtil.countMode(countMode, ENTITY_NAME)));
+    }
+
+    /**
+     * {@code GET  /films/facets} : count the films by gender, film type, publication year and views decile, in one go.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the counts in body.
+     */
+    @GetMapping("/films/facets")
+    public ResponseEntity<FilmFacetsDTO> getFilmFacets(FilmCriteria criteria) {
+        log.debug("REST request to get Film facets by criteria: {}", criteria);
+        return ResponseEntity.ok().body(filmQueryService.findFacetsByCriteria(criteria));
+    }
+
+    /**
+     * {@code GET  /films/trending} : get the films viewed the most recently.
+     *
+     * @param window the window the views are counted over: {@code 1h}, {@code 24h} or {@code 7d}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of films in body, the most viewed first,
+     * or with status {@code 400 (Bad Request)} if the window is unknown.
+     */
+    @GetMapping("/films/trending")
+    public ResponseEntity<List<FilmDTO>> getTrendingFilms(@RequestParam(defaultValue = "24h") String window) {
+        log.debug("REST request to get trending Films : {}", window);
+        FilmTrendingService.Window trendingWindow = FilmTrendingService.Window
+            .of(window)
+            .orElseThrow(() -> new BadRequestAlertException("Invalid window", ENTITY_NAME, "windowinvalid"));
+        return ResponseEntity.ok().body(filmTrendingService.findTrending(trendingWindow));
     }
 
     /**
@@ -185,6 +310,201 @@ public class FilmResource {
         return ResponseUtil.wrapOrNotFound(filmDTO);
     }
 
+    /**
+     * {@code GET  /films/:id/cover} : get the cover of the "id" film.
+     *
+     * @param id the id of the film whose cover to retrieve.
+     * @param version the cover hash, as found in the cover URL of the filmDTO, allowing the response to be cached forever.
+     * @param width the width in pixels the cover is displayed at, served from the smallest rendition at least as wide.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} or {@code 206 (Partial Content)} and the cover bytes in body,
+     * or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/films/{id}/cover")
+    public ResponseEntity<Resource> getFilmCover(
+        @PathVariable Long id,
+        @RequestParam(value = "v", required = false) String version,
+        @RequestParam(value = "w", required = false) Integer width
+    ) {
+        log.debug("REST request to get Film cover : {}, width : {}", id, width);
+        return CoverResponseUtil.wrapOrNotFound(filmService.findCover(id, width), version);
+    }
+
+    /**
+     * {@code DELETE  /films/:id/cover} : remove the cover of the "id" film.
+     *
+     * @param id the id of the film whose cover to remove.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}, or with status {@code 404 (Not Found)}.
+     */
+    @DeleteMapping("/films/{id}/cover")
+    public ResponseEntity<Void> deleteFilmCover(@PathVariable Long id) {
+        log.debug("REST request to delete Film cover : {}", id);
+        return filmService
+            .deleteCover(id)
+            .map(filmDTO ->
+                ResponseEntity
+                    .noContent()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, id.toString()))
+                    .<Void>build()
+            )
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * {@code GET  /films/:id/playback} : get signed stream URLs of the media of the "id" film, issued to the current user.
+     * <p>
+     * Signed URLs are short-lived and verified without parsing a JWT, so players should use them for range and segment requests.
+     *
+     * @param id the id of the film whose media to stream.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the signed URLs in body, or with status {@code 404 (Not Found)}
+     * if the film has no local media.
+     */
+    @GetMapping("/films/{id}/playback")
+    public ResponseEntity<PlaybackDTO> getFilmPlayback(@PathVariable Long id) {
+        log.debug("REST request to get Film playback : {}", id);
+        return ResponseUtil.wrapOrNotFound(playbackService.findFilmPlayback(id));
+    }
+
+    /**
+     * {@code POST  /films/:id/view} : count a view of the "id" film.
+     * <p>
+     * Views are written behind, so the {@code views} of the film are updated within seconds.
+     *
+     * @param id the id of the film viewed.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)}, or with status {@code 404 (Not Found)}.
+     */
+    @PostMapping("/films/{id}/view")
+    public ResponseEntity<Void> viewFilm(@PathVariable Long id) {
+        log.debug("REST request to view Film : {}", id);
+        String login = SecurityUtils.getCurrentUserLogin().orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        if (!filmViewService.recordView(id, login)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * {@code GET  /films/:id/audience} : get the estimated number of distinct viewers of the "id" film.
+     *
+     * @param id the id of the film.
+     * @param period the days the viewers are counted over, today included: {@code day}, {@code week} or {@code month}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the audience, with status
+     * {@code 400 (Bad Request)} if the period is unknown, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/films/{id}/audience")
+    public ResponseEntity<AudienceDTO> getFilmAudience(@PathVariable Long id, @RequestParam(defaultValue = "day") String period) {
+        log.debug("REST request to get Film audience : {}, {}", id, period);
+        FilmAudienceService.Period audiencePeriod = FilmAudienceService.Period
+            .of(period)
+            .orElseThrow(() -> new BadRequestAlertException("Invalid period", ENTITY_NAME, "periodinvalid"));
+        return ResponseUtil.wrapOrNotFound(filmAudienceService.findAudience(id, audiencePeriod));
+    }
+
+    /**
+     * {@code GET  /films/:id/views/series} : get the views of the "id" film by hour or by day.
+     * <p>
+     * Views are the playbacks started, rolled up from the {@code START} playback events every few seconds, so the last hour
+     * or day may still grow; the views counted by {@code POST /films/:id/view} are not.
+     *
+     * @param id the id of the film.
+     * @param from the start of the series, rounded down to the step, a day of hours or a month of days before its end by
+     * default.
+     * @param to the end of the series, exclusive, now by default.
+     * @param step the step of the series: {@code hour} or {@code day}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the views of each hour or day in body, with
+     * status {@code 400 (Bad Request)} if the step is unknown or the series empty or too long, or with status
+     * {@code 404 (Not Found)}.
+     */
+    @GetMapping("/films/{id}/views/series")
+    public ResponseEntity<List<FilmViewsDTO>> getFilmViewsSeries(
+        @PathVariable Long id,
+        @RequestParam(required = false) Instant from,
+        @RequestParam(required = false) Instant to,
+        @RequestParam(defaultValue = "hour") String step
+    ) {
+        log.debug("REST request to get Film views series : {}, {}, {}, {}", id, from, to, step);
+        FilmViewRollupService.Step seriesStep = FilmViewRollupService.Step
+            .of(step)
+            .orElseThrow(() -> new BadRequestAlertException("Invalid step", ENTITY_NAME, "stepinvalid"));
+        try {
+            return ResponseUtil.wrapOrNotFound(filmViewRollupService.findSeries(id, from, to, seriesStep));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "seriesinvalid");
+        }
+    }
+
+    /**
+     * {@code GET  /films/:id/stream} : stream the media of the "id" film.
+     * <p>
+     * Supports single and multiple byte ranges, so players can seek and resume.
+     *
+     * @param id the id of the film whose media to stream.
+     * @param request the request, with its {@code Range} and conditional headers.
+     * @param response the response the media is written to, with status {@code 200 (OK)}, {@code 206 (Partial Content)},
+     * {@code 416 (Range Not Satisfiable)} or {@code 429 (Too Many Requests)} if the user reached the maximum number of streams.
+     * @throws IOException if the media cannot be read or the response cannot be written.
+     * @throws ResponseStatusException with status {@code 404 (Not Found)} if the film has no local media.
+     */
+    @GetMapping("/films/{id}/stream")
+    public void streamFilm(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to stream Film : {}, range : {}", id, request.getHeader(HttpHeaders.RANGE));
+        MediaDTO media = filmService.findMedia(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        MediaResponseUtil.stream(media, mediaReadAheadService, mediaBandwidthService, request, response);
+    }
+
+    /**
+     * {@code GET  /films/:id/hls/master.m3u8} : get the HLS master playlist of the "id" film.
+     *
+     * @param id the id of the film whose media to stream.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the playlist in body, or with status {@code 404 (Not Found)}
+     * if the film has no local MPEG-TS media.
+     */
+    @GetMapping("/films/{id}/hls/master.m3u8")
+    public ResponseEntity<String> getFilmHlsMasterPlaylist(@PathVariable Long id) {
+        log.debug("REST request to get Film HLS master playlist : {}", id);
+        return HlsResponseUtil.wrapMasterPlaylistOrNotFound(filmService.findHlsMasterPlaylist(id));
+    }
+
+    /**
+     * {@code GET  /films/:id/hls/:version/media.m3u8} : get the HLS media playlist of the "id" film.
+     *
+     * @param id the id of the film whose media to stream.
+     * @param version the version of the media, as found in the master playlist.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the playlist in body, or with status {@code 404 (Not Found)}
+     * if the media is not at this version anymore.
+     */
+    @GetMapping("/films/{id}/hls/{version}/media.m3u8")
+    public ResponseEntity<String> getFilmHlsMediaPlaylist(@PathVariable Long id, @PathVariable String version) {
+        log.debug("REST request to get Film HLS media playlist : {}, version : {}", id, version);
+        return HlsResponseUtil.wrapMediaPlaylistOrNotFound(filmService.findHlsMediaPlaylist(id, version));
+    }
+
+    /**
+     * {@code GET  /films/:id/hls/:version/:segment.ts} : get an HLS segment of the "id" film.
+     *
+     * @param id the id of the film whose media to stream.
+     * @param version the version of the media, as found in the master playlist.
+     * @param segment the index of the segment, as found in the media playlist.
+     * @param request the request, with its conditional headers.
+     * @param response the response the segment is written to, with status {@code 200 (OK)}, or {@code 429 (Too Many Requests)}
+     * if the user reached the maximum number of streams.
+     * @throws IOException if the media cannot be read or the response cannot be written.
+     * @throws ResponseStatusException with status {@code 404 (Not Found)} if the media has no such segment at this version.
+     */
+    @GetMapping("/films/{id}/hls/{version}/{segment:[0-9]+}.ts")
+    public void getFilmHlsSegment(
+        @PathVariable Long id,
+        @PathVariable String version,
+        @PathVariable int segment,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to get Film HLS segment : {}, version : {}, segment : {}", id, version, segment);
+        HlsSegmentDTO hlsSegment = filmService
+            .findHlsSegment(id, version, segment)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        HlsResponseUtil.streamSegment(hlsSegment, mediaReadAheadService, mediaBandwidthService, request, response);
+    }
+
     /**
      * {@code DELETE  /films/:id} : delete the "id" film.
      *
@@ -0,0 +1,118 @@
+package com.anthonylldev.streaming.web.rest;
+
+import com.anthonylldev.streaming.security.SecurityUtils;
+import com.anthonylldev.streaming.service.FilmReviewService;
+import com.anthonylldev.streaming.service.dto.FilmReviewDTO;
+import com.anthonylldev.streaming.service.dto.RatingsDTO;
+import java.util.List;
+import java.util.Optional;
+import javax.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller managing the reviews of {@link com.anthonylldev.streaming.domain.Film}s.
+ */
+@RestController
+@RequestMapping("/api")
+public class FilmReviewResource {
+
+    private final Logger log = LoggerFactory.getLogger(FilmReviewResource.class);
+
+    private final FilmReviewService filmReviewService;
+
+    public FilmReviewResource(FilmReviewService filmReviewService) {
+        this.filmReviewService = filmReviewService;
+    }
+
+    /**
+     * {@code PUT  /films/:filmId/review} : Save the review of the "filmId" film by the current user, replacing their
+     * previous one.
+     *
+     * @param filmId        the id of the film.
+     * @param filmReviewDTO the rating, and the review.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the review saved, or with status
+     * {@code 404 (Not Found)} if there is no such film.
+     */
+    @PutMapping("/films/{filmId}/review")
+    public ResponseEntity<FilmReviewDTO> updateFilmReview(@PathVariable Long filmId, @Valid @RequestBody FilmReviewDTO filmReviewDTO) {
+        log.debug("REST request to update FilmReview : {}, {}", filmId, filmReviewDTO);
+        return ResponseUtil.wrapOrNotFound(filmReviewService.save(currentUserLogin(), filmId, filmReviewDTO));
+    }
+
+    /**
+     * {@code GET  /films/:filmId/review} : get the review of the "filmId" film by the current user.
+     *
+     * @param filmId the id of the film.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the review, or with status
+     * {@code 404 (Not Found)} if the user did not review the film.
+     */
+    @GetMapping("/films/{filmId}/review")
+    public ResponseEntity<FilmReviewDTO> getFilmReview(@PathVariable Long filmId) {
+        log.debug("REST request to get FilmReview : {}", filmId);
+        return ResponseUtil.wrapOrNotFound(filmReviewService.findOne(currentUserLogin(), filmId));
+    }
+
+    /**
+     * {@code DELETE  /films/:filmId/review} : delete the review of the "filmId" film by the current user.
+     *
+     * @param filmId the id of the film.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}, or with status {@code 404 (Not Found)} if
+     * the user did not review the film.
+     */
+    @DeleteMapping("/films/{filmId}/review")
+    public ResponseEntity<Void> deleteFilmReview(@PathVariable Long filmId) {
+        log.debug("REST request to delete FilmReview : {}", filmId);
+        if (!filmReviewService.delete(currentUserLogin(), filmId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * {@code GET  /films/:filmId/reviews} : get the reviews of the "filmId" film, the most recent first.
+     *
+     * @param filmId   the id of the film.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of reviews in body, or with status
+     * {@code 404 (Not Found)} if there is no such film.
+     */
+    @GetMapping("/films/{filmId}/reviews")
+    public ResponseEntity<List<FilmReviewDTO>> getAllFilmReviews(
+        @PathVariable Long filmId,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a page of FilmReviews : {}", filmId);
+        Optional<Page<FilmReviewDTO>> page = filmReviewService.findAll(filmId, pageable);
+        return ResponseUtil.wrapOrNotFound(
+            page.map(Page::getContent),
+            page.map(p -> PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), p)).orElse(null)
+        );
+    }
+
+    /**
+     * {@code GET  /films/:filmId/ratings} : get the distribution of the ratings of the "filmId" film.
+     *
+     * @param filmId the id of the film.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the ratings, or with status
+     * {@code 404 (Not Found)} if there is no such film.
+     */
+    @GetMapping("/films/{filmId}/ratings")
+    public ResponseEntity<RatingsDTO> getFilmRatings(@PathVariable Long filmId) {
+        log.debug("REST request to get the ratings of Film : {}", filmId);
+        return ResponseUtil.wrapOrNotFound(filmReviewService.findRatings(filmId));
+    }
+
+    private static String currentUserLogin() {
+        return SecurityUtils.getCurrentUserLogin().orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+    }
+}
@@ -2,10 +2,15 @@ package com.anthonylldev.streaming.web.rest;
 
 import com.anthonylldev.streaming.repository.PersonRepository;
 import com.anthonylldev.streaming.service.PersonQueryService;
+import com.anthonylldev.streaming.service.PersonSearchService;
 import com.anthonylldev.streaming.service.PersonService;
 import com.anthonylldev.streaming.service.criteria.PersonCriteria;
 import com.anthonylldev.streaming.service.dto.PersonDTO;
+import com.anthonylldev.streaming.service.util.CursorSlice;
 import com.anthonylldev.streaming.web.rest.errors.BadRequestAlertException;
+import com.anthonylldev.streaming.web.rest.util.CountUtil;
+import com.anthonylldev.streaming.web.rest.util.CoverResponseUtil;
+import com.anthonylldev.streaming.web.rest.util.CursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -16,6 +21,7 @@ import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
@@ -46,10 +52,18 @@ public class PersonResource {
 
     private final PersonQueryService personQueryService;
 
-    public PersonResource(PersonService personService, PersonRepository personRepository, PersonQueryService personQueryService) {
+    private final PersonSearchService personSearchService;
+
+    public PersonResource(
+        PersonService personService,
+        PersonRepository personRepository,
+        PersonQueryService personQueryService,
+        PersonSearchService personSearchService
+    ) {
         this.personService = personService;
         this.personRepository = personRepository;
         this.personQueryService = personQueryService;
+        this.personSearchService = personSearchService;
     }
 
     /**
@@ -147,15 +161,43 @@ public class PersonResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param cursor the cursor of the slice, returned in the {@code Link} header of the previous one, or empty for the
+     * first one, to seek past the previous slice instead of counting and skipping pages.
+     * @param countMode how to count the people for the {@code X-Total-Count} header, {@code exact} or {@code estimate}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of people in body.
      */
     @GetMapping("/people")
     public ResponseEntity<List<PersonDTO>> getAllPeople(
         PersonCriteria criteria,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String cursor,
+        @RequestHeader(name = CountUtil.HEADER_TOTAL_COUNT_MODE, defaultValue = "exact") String countMode
     ) {
         log.debug("REST request to get People by criteria: {}", criteria);
-        Page<PersonDTO> page = personQueryService.findByCriteria(criteria, pageable);
+        if (cursor != null) {
+            CursorSlice<PersonDTO> slice = personQueryService.findByCriteria(criteria, cursor, pageable);
+            HttpHeaders headers = CursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Page<PersonDTO> page = personQueryService.findByCriteria(criteria, pageable, CountUtil.countMode(countMode, ENTITY_NAME));
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /_search/people?q=:query} : search the people by name, despite typos.
+     *
+     * @param q the name searched, or one of its words.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of people in body, the closest first.
+     */
+    @GetMapping("/_search/people")
+    public ResponseEntity<List<PersonDTO>> searchPeople(
+        @RequestParam String q,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of People for query {}", q);
+        Page<PersonDTO> page = personSearchService.search(q, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
@@ -164,12 +206,16 @@ public class PersonResource {
      * {@code GET  /people/count} : count all the people.
      *
      * @param criteria the criteria which the requested entities should match.
+     * @param countMode how to count the people, {@code exact} or {@code estimate}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
      */
     @GetMapping("/people/count")
-    public ResponseEntity<Long> countPeople(PersonCriteria criteria) {
+    public ResponseEntity<Long> countPeople(
+        PersonCriteria criteria,
+        @RequestHeader(name = CountUtil.HEADER_TOTAL_COUNT_MODE, defaultValue = "exact") String countMode
+    ) {
         log.debug("REST request to count People by criteria: {}", criteria);
-        return ResponseEntity.ok().body(personQueryService.countByCriteria(criteria));
+        return ResponseEntity.ok().body(personQueryService.countByCriteria(criteria, CountUtil.countMode(countMode, ENTITY_NAME)));
     }
 
     /**
@@ -185,6 +231,45 @@ public class PersonResource {
         return ResponseUtil.wrapOrNotFound(personDTO);
     }
 
+    /**
+     * {@code GET  /people/:id/cover} : get the cover of the "id" person.
+     *
+     * @param id the id of the person whose cover to retrieve.
+     * @param version the cover hash, as found in the cover URL of the personDTO, allowing the response to be cached forever.
+     * @param width the width in pixels the cover is displayed at, served from the smallest rendition at least as wide.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} or {@code 206 (Partial Content)} and the cover bytes in body,
+     * or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/people/{id}/cover")
+    public ResponseEntity<Resource> getPersonCover(
+        @PathVariable Long id,
+        @RequestParam(value = "v", required = false) String version,
+        @RequestParam(value = "w", required = false) Integer width
+    ) {
+        log.debug("REST request to get Person cover : {}, width : {}", id, width);
+        return CoverResponseUtil.wrapOrNotFound(personService.findCover(id, width), version);
+    }
+
+    /**
+     * {@code DELETE  /people/:id/cover} : remove the cover of the "id" person.
+     *
+     * @param id the id of the person whose cover to remove.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}, or with status {@code 404 (Not Found)}.
+     */
+    @DeleteMapping("/people/{id}/cover")
+    public ResponseEntity<Void> deletePersonCover(@PathVariable Long id) {
+        log.debug("REST request to delete Person cover : {}", id);
+        return personService
+            .deleteCover(id)
+            .map(personDTO ->
+                ResponseEntity
+                    .noContent()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, id.toString()))
+                    .<Void>build()
+            )
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     /**
      * {@code DELETE  /people/:id} : delete the "id" person.
      *
@@ -0,0 +1,98 @@
+package com.anthonylldev.streaming.web.rest;
+
+import com.anthonylldev.streaming.security.SecurityUtils;
+import com.anthonylldev.streaming.service.PlaybackEventService;
+import com.anthonylldev.streaming.service.dto.PlaybackEventDTO;
+import com.anthonylldev.streaming.web.rest.errors.BadRequestAlertException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller receiving the playback events reported by players.
+ */
+@RestController
+@RequestMapping("/api")
+public class PlaybackEventResource {
+
+    private final Logger log = LoggerFactory.getLogger(PlaybackEventResource.class);
+
+    private static final String ENTITY_NAME = "playbackEvent";
+
+    private final PlaybackEventService playbackEventService;
+
+    private final ObjectReader playbackEventReader;
+
+    private final Validator validator;
+
+    public PlaybackEventResource(PlaybackEventService playbackEventService, ObjectMapper objectMapper, Validator validator) {
+        this.playbackEventService = playbackEventService;
+        this.playbackEventReader = objectMapper.readerFor(PlaybackEventDTO.class);
+        this.validator = validator;
+    }
+
+    /**
+     * {@code POST  /playback-events} : Report a playback event.
+     *
+     * @param playbackEventDTO the playback event.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)}, with status {@code 400 (Bad Request)} if the
+     * event is neither of a film nor of an episode, or with status {@code 503 (Service Unavailable)} if the event must be
+     * reported again later.
+     */
+    @PostMapping(value = "/playback-events", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Void> createPlaybackEvent(@Valid @RequestBody PlaybackEventDTO playbackEventDTO) {
+        log.debug("REST request to save PlaybackEvent : {}", playbackEventDTO);
+        return record(List.of(playbackEventDTO));
+    }
+
+    /**
+     * {@code POST  /playback-events} : Report a batch of playback events, as newline-delimited JSON.
+     *
+     * @param body the playback events, one per line.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)}, with status {@code 400 (Bad Request)} if an
+     * event is invalid, or with status {@code 503 (Service Unavailable)} if the events must be reported again later.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/playback-events", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Void> createPlaybackEvents(InputStream body) throws IOException {
+        List<PlaybackEventDTO> playbackEvents;
+        try {
+            playbackEvents = playbackEventReader.<PlaybackEventDTO>readValues(body).readAll();
+        } catch (JsonProcessingException e) {
+            throw new BadRequestAlertException("Invalid playback events: " + e.getOriginalMessage(), ENTITY_NAME, "invalid");
+        }
+        log.debug("REST request to save {} PlaybackEvents", playbackEvents.size());
+        for (PlaybackEventDTO playbackEventDTO : playbackEvents) {
+            if (!validator.validate(playbackEventDTO).isEmpty()) {
+                throw new BadRequestAlertException("Invalid playback event " + playbackEventDTO, ENTITY_NAME, "invalid");
+            }
+        }
+        return record(playbackEvents);
+    }
+
+    private ResponseEntity<Void> record(List<PlaybackEventDTO> playbackEvents) {
+        for (PlaybackEventDTO playbackEventDTO : playbackEvents) {
+            if ((playbackEventDTO.getFilmId() == null) == (playbackEventDTO.getEpisodeId() == null)) {
+                throw new BadRequestAlertException("A playback event must be of either a film or an episode", ENTITY_NAME, "mediainvalid");
+            }
+        }
+        String login = SecurityUtils.getCurrentUserLogin().orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        if (!playbackEventService.record(login, playbackEvents)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
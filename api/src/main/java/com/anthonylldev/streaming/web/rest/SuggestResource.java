@@ -0,0 +1,64 @@
+package com.anthonylldev.streaming.web.rest;
+
+import com.anthonylldev.streaming.service.SuggestService;
+import com.anthonylldev.streaming.service.dto.SuggestionDTO;
+import com.anthonylldev.streaming.web.rest.errors.BadRequestAlertException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller completing the prefixes typed in search boxes.
+ */
+@RestController
+@RequestMapping("/api")
+public class SuggestResource {
+
+    private final Logger log = LoggerFactory.getLogger(SuggestResource.class);
+
+    private static final String ENTITY_NAME = "suggestion";
+
+    private final SuggestService suggestService;
+
+    public SuggestResource(SuggestService suggestService) {
+        this.suggestService = suggestService;
+    }
+
+    /**
+     * {@code GET  /_suggest?prefix=:prefix} : complete a prefix with the titles of the most popular films and the names
+     * of the most popular people.
+     *
+     * @param prefix the prefix typed.
+     * @param types  the types of the suggestions, like {@code film,person}, all by default.
+     * @param limit  the maximum number of suggestions.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of suggestions in body, the most
+     * popular first, or with status {@code 400 (Bad Request)} if a type is unknown.
+     */
+    @GetMapping("/_suggest")
+    public ResponseEntity<List<SuggestionDTO>> getSuggestions(
+        @RequestParam String prefix,
+        @RequestParam(required = false) List<String> types,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        log.debug("REST request to get Suggestions : {}, {}, {}", prefix, types, limit);
+        Set<SuggestionDTO.Type> suggestionTypes = EnumSet.allOf(SuggestionDTO.Type.class);
+        if (types != null) {
+            suggestionTypes.clear();
+            for (String type : types) {
+                suggestionTypes.add(
+                    SuggestionDTO.Type
+                        .of(type)
+                        .orElseThrow(() -> new BadRequestAlertException("Unknown suggestion type " + type, ENTITY_NAME, "typeinvalid"))
+                );
+            }
+        }
+        return ResponseEntity.ok(suggestService.suggest(prefix, suggestionTypes, limit));
+    }
+}
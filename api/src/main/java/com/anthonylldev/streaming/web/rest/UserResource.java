@@ -7,9 +7,11 @@ import com.anthonylldev.streaming.security.AuthoritiesConstants;
 import com.anthonylldev.streaming.service.MailService;
 import com.anthonylldev.streaming.service.UserService;
 import com.anthonylldev.streaming.service.dto.AdminUserDTO;
+import com.anthonylldev.streaming.service.util.CursorSlice;
 import com.anthonylldev.streaming.web.rest.errors.BadRequestAlertException;
 import com.anthonylldev.streaming.web.rest.errors.EmailAlreadyUsedException;
 import com.anthonylldev.streaming.web.rest.errors.LoginAlreadyUsedException;
+import com.anthonylldev.streaming.web.rest.util.CursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
@@ -159,16 +161,27 @@ public class UserResource {
      * {@code GET /admin/users} : get all users with all the details - calling this are only allowed for the administrators.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the slice, returned in the {@code Link} header of the previous one, or empty for the
+     * first one, to seek past the previous slice instead of counting and skipping pages.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
-    public ResponseEntity<List<AdminUserDTO>> getAllUsers(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<AdminUserDTO>> getAllUsers(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(required = false) String cursor
+    ) {
         log.debug("REST request to get all User for an admin");
         if (!onlyContainsAllowedProperties(pageable)) {
             return ResponseEntity.badRequest().build();
         }
 
+        if (cursor != null) {
+            CursorSlice<AdminUserDTO> slice = userService.getAllManagedUsers(cursor, pageable);
+            HttpHeaders headers = CursorUtil.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+        }
+
         final Page<AdminUserDTO> page = userService.getAllManagedUsers(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -0,0 +1,78 @@
+package com.anthonylldev.streaming.web.rest;
+
+import com.anthonylldev.streaming.security.SecurityUtils;
+import com.anthonylldev.streaming.service.WatchProgressService;
+import com.anthonylldev.streaming.service.dto.WatchProgressDTO;
+import java.util.List;
+import javax.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller managing the resume positions of the current user.
+ */
+@RestController
+@RequestMapping("/api")
+public class WatchProgressResource {
+
+    private final Logger log = LoggerFactory.getLogger(WatchProgressResource.class);
+
+    private final WatchProgressService watchProgressService;
+
+    public WatchProgressResource(WatchProgressService watchProgressService) {
+        this.watchProgressService = watchProgressService;
+    }
+
+    /**
+     * {@code PUT  /playback/:filmId/position} : Save the resume position of the current user in the "filmId" film.
+     * <p>
+     * Positions are written behind, so players may report them every few seconds.
+     *
+     * @param filmId           the id of the film.
+     * @param watchProgressDTO the position, and the episode for series.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the position saved, or with status
+     * {@code 404 (Not Found)} if there is no such film or episode of the film.
+     */
+    @PutMapping("/playback/{filmId}/position")
+    public ResponseEntity<WatchProgressDTO> updateWatchProgress(
+        @PathVariable Long filmId,
+        @Valid @RequestBody WatchProgressDTO watchProgressDTO
+    ) {
+        log.debug("REST request to update WatchProgress : {}, {}", filmId, watchProgressDTO);
+        return ResponseUtil.wrapOrNotFound(watchProgressService.save(currentUserLogin(), filmId, watchProgressDTO));
+    }
+
+    /**
+     * {@code GET  /playback/:filmId/position} : get the resume position of the current user in the "filmId" film.
+     *
+     * @param filmId the id of the film.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the position, or with status
+     * {@code 404 (Not Found)} if the user never played the film.
+     */
+    @GetMapping("/playback/{filmId}/position")
+    public ResponseEntity<WatchProgressDTO> getWatchProgress(@PathVariable Long filmId) {
+        log.debug("REST request to get WatchProgress : {}", filmId);
+        return ResponseUtil.wrapOrNotFound(watchProgressService.findOne(currentUserLogin(), filmId));
+    }
+
+    /**
+     * {@code GET  /playback/continue-watching} : get the continue watching list of the current user.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the positions of the user in body, most recent
+     * first.
+     */
+    @GetMapping("/playback/continue-watching")
+    public ResponseEntity<List<WatchProgressDTO>> getContinueWatching() {
+        log.debug("REST request to get the continue watching list");
+        return ResponseEntity.ok().body(watchProgressService.findContinueWatching(currentUserLogin()));
+    }
+
+    private static String currentUserLogin() {
+        return SecurityUtils.getCurrentUserLogin().orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+    }
+}
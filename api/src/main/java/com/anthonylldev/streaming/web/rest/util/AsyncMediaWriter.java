@@ -0,0 +1,227 @@
+package com.anthonylldev.streaming.web.rest.util;
+
+import com.anthonylldev.streaming.service.MediaBandwidthService;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.servlet.handlers.ServletRequestContext;
+import io.undertow.servlet.spec.AsyncContextImpl;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xnio.ChannelListener;
+import org.xnio.ChannelListeners;
+import org.xnio.IoUtils;
+import org.xnio.channels.StreamSinkChannel;
+
+/**
+ * Writes a media response body to Undertow's response channel without blocking: whenever the client socket is full,
+ * the writer returns and is called back by the XNIO I/O thread once the socket is writable again. A slow client holds
+ * an open file and a connection, but no worker thread.
+ * <p>
+ * File regions are transferred with {@link StreamSinkChannel#transferFrom(FileChannel, long, long)}, which uses
+ * {@code sendfile}. The servlet {@link javax.servlet.WriteListener} API is not used, as Undertow's servlet output stream
+ * only transfers files in blocking mode.
+ * <p>
+ * Bytes are written as they are granted by the lease of the stream. When the bandwidth budget is exhausted, writes are
+ * suspended and resumed by a timer of the I/O thread, once enough bytes may be written again.
+ */
+final class AsyncMediaWriter implements ChannelListener<StreamSinkChannel> {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncMediaWriter.class);
+
+    private final AsyncContextImpl asyncContext;
+
+    private final FileChannel file;
+
+    private final Iterator<MediaSegment> segments;
+
+    private final MediaBandwidthService.StreamLease lease;
+
+    private final AtomicBoolean throttled = new AtomicBoolean();
+
+    private ByteBuffer bytes;
+
+    private long position;
+
+    private long remaining;
+
+    private AsyncMediaWriter(
+        AsyncContextImpl asyncContext,
+        FileChannel file,
+        List<MediaSegment> segments,
+        MediaBandwidthService.StreamLease lease
+    ) {
+        this.asyncContext = asyncContext;
+        this.file = file;
+        this.segments = segments.iterator();
+        this.lease = lease;
+    }
+
+    /**
+     * Whether the current request can be written asynchronously, that is when it is served by Undertow.
+     *
+     * @return {@code true} if {@link #start} can be used.
+     */
+    static boolean isSupported() {
+        ServletRequestContext context = ServletRequestContext.current();
+        return context != null && context.getOriginalRequest().isAsyncSupported();
+    }
+
+    /**
+     * Put the current request in asynchronous mode, and write the body once the response headers are final.
+     *
+     * @param path       the media file.
+     * @param segments   the segments of the body.
+     * @param lease      the lease of the stream, granting the bytes to write.
+     * @param onComplete called once the exchange is complete, whether the body was fully written or not.
+     * @throws IOException if the media file cannot be opened.
+     */
+    static void start(Path path, List<MediaSegment> segments, MediaBandwidthService.StreamLease lease, Runnable onComplete)
+        throws IOException {
+        ServletRequestContext context = ServletRequestContext.requireCurrent();
+        HttpServerExchange exchange = context.getExchange();
+        FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+        AsyncContextImpl asyncContext = (AsyncContextImpl) context.getOriginalRequest().startAsync();
+        // Stalled clients are disconnected by the socket write timeout instead
+        asyncContext.setTimeout(0);
+        AsyncMediaWriter writer = new AsyncMediaWriter(asyncContext, file, segments, lease);
+        // The connection may be closed, for instance on write timeout, without the writer being called again
+        exchange.addExchangeCompleteListener((completedExchange, nextListener) -> {
+            IoUtils.safeClose(file);
+            writer.stopThrottling();
+            onComplete.run();
+            nextListener.proceed();
+        });
+        // Async tasks run after the filter chain has returned, once filters have added their headers
+        asyncContext.addAsyncTask(() -> {
+            StreamSinkChannel channel = exchange.getResponseChannel();
+            channel.getWriteSetter().set(writer);
+            writer.handleEvent(channel);
+        });
+    }
+
+    @Override
+    public void handleEvent(StreamSinkChannel channel) {
+        try {
+            while (nextSegment()) {
+                long wanted = bytes != null ? bytes.remaining() : remaining;
+                long granted = lease.acquire(wanted);
+                if (granted == 0) {
+                    throttle(channel, wanted);
+                    return;
+                }
+                long written = 0;
+                try {
+                    written = write(channel, granted);
+                } finally {
+                    lease.release(granted - written);
+                }
+                if (written == 0) {
+                    if (bytes == null && position >= file.size()) {
+                        throw new EOFException("Media file truncated while streaming");
+                    }
+                    channel.resumeWrites();
+                    return;
+                }
+                if (bytes == null) {
+                    position += written;
+                    remaining -= written;
+                }
+            }
+            channel.suspendWrites();
+            channel.shutdownWrites();
+            if (!channel.flush()) {
+                channel
+                    .getWriteSetter()
+                    .set(ChannelListeners.flushingChannelListener(flushed -> complete(), (failed, e) -> fail(failed, e)));
+                channel.resumeWrites();
+                return;
+            }
+            complete();
+        } catch (IOException e) {
+            fail(channel, e);
+        }
+    }
+
+    private long write(StreamSinkChannel channel, long count) throws IOException {
+        if (bytes == null) {
+            // While the response headers are pending, Undertow reads the file from its current position
+            file.position(position);
+            return channel.transferFrom(file, position, count);
+        }
+        int limit = bytes.limit();
+        bytes.limit(bytes.position() + (int) count);
+        try {
+            return channel.write(bytes);
+        } finally {
+            bytes.limit(limit);
+        }
+    }
+
+    /**
+     * Suspend writes until the lease grants enough bytes again.
+     */
+    private void throttle(StreamSinkChannel channel, long wanted) {
+        channel.suspendWrites();
+        if (throttled.compareAndSet(false, true)) {
+            lease.throttled();
+        }
+        long delay = Math.max(1, lease.nanosUntilAvailable(wanted));
+        channel
+            .getIoThread()
+            .executeAfter(
+                () -> {
+                    // Unless the exchange completed in the meantime
+                    if (stopThrottling()) {
+                        handleEvent(channel);
+                    }
+                },
+                delay,
+                TimeUnit.NANOSECONDS
+            );
+    }
+
+    private boolean stopThrottling() {
+        if (throttled.compareAndSet(true, false)) {
+            lease.resumed();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean nextSegment() {
+        while (bytes != null ? !bytes.hasRemaining() : remaining == 0) {
+            if (!segments.hasNext()) {
+                return false;
+            }
+            MediaSegment segment = segments.next();
+            if (segment.isRegion()) {
+                bytes = null;
+                position = segment.getPosition();
+                remaining = segment.getCount();
+            } else {
+                bytes = segment.getBuffer();
+            }
+        }
+        return true;
+    }
+
+    private void complete() {
+        IoUtils.safeClose(file);
+        asyncContext.complete();
+    }
+
+    private void fail(StreamSinkChannel channel, IOException e) {
+        log.debug("Media stream aborted: {}", e.getMessage());
+        IoUtils.safeClose(channel);
+        complete();
+    }
+}
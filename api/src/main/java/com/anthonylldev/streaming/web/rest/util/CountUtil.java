@@ -0,0 +1,29 @@
+package com.anthonylldev.streaming.web.rest.util;
+
+import com.anthonylldev.streaming.service.CountQueryService;
+import com.anthonylldev.streaming.web.rest.errors.BadRequestAlertException;
+
+/**
+ * Utility class for handling how the entities are counted.
+ */
+public final class CountUtil {
+
+    /**
+     * The request header telling how to count the entities, {@code exact} or {@code estimate}, {@code exact} by default.
+     */
+    public static final String HEADER_TOTAL_COUNT_MODE = "X-Total-Count-Mode";
+
+    private CountUtil() {}
+
+    /**
+     * @param value      the value of the {@value #HEADER_TOTAL_COUNT_MODE} header.
+     * @param entityName the name of the entities counted.
+     * @return the mode.
+     * @throws BadRequestAlertException if the mode is unknown.
+     */
+    public static CountQueryService.Mode countMode(String value, String entityName) {
+        return CountQueryService.Mode
+            .of(value)
+            .orElseThrow(() -> new BadRequestAlertException("Unknown count mode " + value, entityName, "countmodeinvalid"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.anthonylldev.streaming.web.rest.util;
+
+import com.anthonylldev.streaming.service.dto.CoverDTO;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Utility class for serving binary covers.
+ * <p>
+ * The body is returned as a {@link Resource}, so Spring MVC takes care of {@code Content-Length},
+ * {@code Range} requests ({@code 206 Partial Content}) and {@code If-None-Match} revalidation against the ETag.
+ */
+public final class CoverResponseUtil {
+
+    /**
+     * Cover URLs carry the content hash as version, so a versioned URL never changes content.
+     */
+    private static final String IMMUTABLE_CACHE_CONTROL =
+        CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().getHeaderValue() + ", immutable";
+
+    private CoverResponseUtil() {}
+
+    /**
+     * Wrap the cover, if present, into a {@link ResponseEntity} with status {@link org.springframework.http.HttpStatus#OK},
+     * or return a {@link ResponseEntity} with {@link org.springframework.http.HttpStatus#NOT_FOUND}.
+     *
+     * @param maybeCover the cover to serve.
+     * @param version    the {@code v} request parameter, the cover hash when requested through the DTO cover URL.
+     * @return the response.
+     */
+    public static ResponseEntity<Resource> wrapOrNotFound(Optional<CoverDTO> maybeCover, String version) {
+        return maybeCover
+            .map(cover -> {
+                ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(eTag(cover));
+                if (cover.getHash().equals(version)) {
+                    builder.header(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+                } else {
+                    builder.cacheControl(CacheControl.noCache().cachePublic());
+                }
+                if (cover.getContentType() != null) {
+                    builder.contentType(MediaType.parseMediaType(cover.getContentType()));
+                }
+                return builder.body(cover.getContent());
+            })
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static String eTag(CoverDTO cover) {
+        return cover.getWidth() == null ? cover.getHash() : cover.getHash() + "-" + cover.getWidth() + "w";
+    }
+}
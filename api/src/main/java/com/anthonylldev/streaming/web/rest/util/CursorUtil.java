@@ -0,0 +1,35 @@
+package com.anthonylldev.streaming.web.rest.util;
+
+import com.anthonylldev.streaming.service.util.CursorSlice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset pagination.
+ * <p>
+ * Unlike offset pagination, there is no {@code X-Total-Count} header, counting the entities being what keyset
+ * pagination avoids, and only the next slice is linked.
+ */
+public final class CursorUtil {
+
+    private static final String HEADER_LINK_FORMAT = "<%s>; rel=\"next\"";
+
+    private CursorUtil() {}
+
+    /**
+     * Generate the pagination headers of a slice: a {@code Link} header to the next slice, if any.
+     *
+     * @param uriBuilder the builder of the URI of the slice.
+     * @param slice      the slice.
+     * @param <T>        the type of the content.
+     * @return the headers.
+     */
+    public static <T> HttpHeaders generateCursorHttpHeaders(UriComponentsBuilder uriBuilder, CursorSlice<T> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            String next = uriBuilder.replaceQueryParam("cursor", slice.getNext()).toUriString().replace(",", "%2C").replace(";", "%3B");
+            headers.add(HttpHeaders.LINK, String.format(HEADER_LINK_FORMAT, next));
+        }
+        return headers;
+    }
+}
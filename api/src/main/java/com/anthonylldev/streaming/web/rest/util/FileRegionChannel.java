@@ -0,0 +1,152 @@
+package com.anthonylldev.streaming.web.rest.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A read-only view of a region of a {@link FileChannel}, starting at the region position and ending at the region end,
+ * so APIs transferring a channel up to its size transfer a region only.
+ * <p>
+ * Transfers are delegated to the underlying channel, which keeps them zero-copy. Closing the view does not close the
+ * underlying channel.
+ */
+final class FileRegionChannel extends FileChannel {
+
+    private final FileChannel delegate;
+
+    private final long end;
+
+    private long position;
+
+    FileRegionChannel(FileChannel delegate, long position, long count) {
+        this.delegate = delegate;
+        this.position = position;
+        this.end = position + count;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int read = read(dst, position);
+        if (read > 0) {
+            position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        long total = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int read = read(dsts[i]);
+            if (read < 0) {
+                return total == 0 ? -1 : total;
+            }
+            total += read;
+            if (dsts[i].hasRemaining()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        if (position >= end) {
+            return -1;
+        }
+        long remaining = end - position;
+        if (dst.remaining() <= remaining) {
+            return delegate.read(dst, position);
+        }
+        ByteBuffer bounded = dst.duplicate();
+        bounded.limit(dst.position() + (int) remaining);
+        int read = delegate.read(bounded, position);
+        if (read > 0) {
+            dst.position(dst.position() + read);
+        }
+        return read;
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        if (position >= end) {
+            return 0;
+        }
+        return delegate.transferTo(position, Math.min(count, end - position), target);
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public FileChannel position(long newPosition) {
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() {
+        return end;
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+        if (mode != MapMode.READ_ONLY) {
+            throw new NonWritableChannelException();
+        }
+        return delegate.map(mode, position, size);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+        return delegate.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+        return delegate.tryLock(position, size, shared);
+    }
+
+    @Override
+    public void force(boolean metaData) {
+        // Read-only, nothing to force
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public FileChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    protected void implCloseChannel() {
+        // The underlying channel is owned, and closed, by the caller
+    }
+}
@@ -0,0 +1,115 @@
+package com.anthonylldev.streaming.web.rest.util;
+
+import com.anthonylldev.streaming.service.MediaBandwidthService;
+import com.anthonylldev.streaming.service.MediaReadAheadService;
+import com.anthonylldev.streaming.service.dto.HlsSegmentDTO;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Utility class for serving HLS playlists and segments.
+ * <p>
+ * Media playlists and segments are addressed by the version of the media file, so they are served with long-lived
+ * immutable cache headers, letting browsers and CDNs absorb most of the traffic. The master playlist, which points to
+ * the current version, is revalidated on every request.
+ */
+public final class HlsResponseUtil {
+
+    public static final MediaType PLAYLIST_MEDIA_TYPE = MediaType.parseMediaType("application/vnd.apple.mpegurl");
+
+    public static final String SEGMENT_CONTENT_TYPE = "video/mp2t";
+
+    private static final String IMMUTABLE_CACHE_CONTROL =
+        CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().getHeaderValue() + ", immutable";
+
+    private HlsResponseUtil() {}
+
+    /**
+     * Wrap a master playlist, if present, into a {@link ResponseEntity} with status
+     * {@link org.springframework.http.HttpStatus#OK}, or return a {@link ResponseEntity} with
+     * {@link org.springframework.http.HttpStatus#NOT_FOUND}.
+     *
+     * @param maybePlaylist the playlist to serve.
+     * @return the response.
+     */
+    public static ResponseEntity<String> wrapMasterPlaylistOrNotFound(Optional<String> maybePlaylist) {
+        return maybePlaylist
+            .map(playlist -> ResponseEntity.ok().contentType(PLAYLIST_MEDIA_TYPE).cacheControl(CacheControl.noCache()).body(playlist))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Wrap a media playlist, if present, into a {@link ResponseEntity} with status
+     * {@link org.springframework.http.HttpStatus#OK}, or return a {@link ResponseEntity} with
+     * {@link org.springframework.http.HttpStatus#NOT_FOUND}.
+     *
+     * @param maybePlaylist the playlist to serve.
+     * @return the response.
+     */
+    public static ResponseEntity<String> wrapMediaPlaylistOrNotFound(Optional<String> maybePlaylist) {
+        return maybePlaylist
+            .map(playlist ->
+                ResponseEntity
+                    .ok()
+                    .contentType(PLAYLIST_MEDIA_TYPE)
+                    .header(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL)
+                    .body(playlist)
+            )
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Write a segment to the response, without copying the media bytes through the Java heap.
+     *
+     * @param segment   the segment to serve.
+     * @param readAhead the read-ahead cache of media files, the next segments are read ahead into.
+     * @param bandwidth the bandwidth budgets of media streams.
+     * @param request   the request, with its conditional headers.
+     * @param response  the response.
+     * @throws IOException if the media cannot be read or the response cannot be written.
+     */
+    public static void streamSegment(
+        HlsSegmentDTO segment,
+        MediaReadAheadService readAhead,
+        MediaBandwidthService bandwidth,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        String eTag = "\"" + segment.getVersion() + "-" + segment.getIndex() + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+        if (new ServletWebRequest(request, response).checkNotModified(eTag)) {
+            return;
+        }
+        // HEAD requests write no body, and do not count as streams
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+        Optional<MediaBandwidthService.StreamLease> lease = head
+            ? Optional.empty()
+            : MediaResponseUtil.acquireLease(segment.getContent(), bandwidth, request, response);
+        if (!head && lease.isEmpty()) {
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(SEGMENT_CONTENT_TYPE);
+        response.setContentLengthLong(segment.getTables().length + segment.getLength());
+        if (head) {
+            return;
+        }
+        List<MediaSegment> segments = new ArrayList<>(2);
+        if (segment.getTables().length > 0) {
+            segments.add(MediaSegment.bytes(segment.getTables()));
+        }
+        segments.add(MediaSegment.region(segment.getPosition(), segment.getLength()));
+        MediaResponseUtil.write(segment.getContent(), segment.getVersion(), segments, readAhead, lease.get(), request, response);
+    }
+}
@@ -0,0 +1,280 @@
+package com.anthonylldev.streaming.web.rest.util;
+
+import com.anthonylldev.streaming.service.MediaBandwidthService;
+import com.anthonylldev.streaming.service.MediaReadAheadService;
+import com.anthonylldev.streaming.service.MediaService;
+import com.anthonylldev.streaming.service.dto.MediaDTO;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Utility class for streaming media files, such as the videos of films and episodes.
+ * <p>
+ * Supports {@code If-None-Match} and {@code If-Modified-Since} revalidation, and single, multiple and conditional
+ * ({@code If-Range}) byte ranges as defined by RFC 7233, answered with {@code 206 Partial Content}, or with
+ * {@code 416 Range Not Satisfiable} when a range is invalid.
+ * <p>
+ * On Undertow, the body is written asynchronously by {@link AsyncMediaWriter}, so that slow clients do not hold a worker
+ * thread for the whole download. Elsewhere, such as in MockMvc tests, it is written with {@link ZeroCopyTransferUtil}.
+ * The parts of the body read ahead by {@link MediaReadAheadService} are written from memory instead of the file.
+ * <p>
+ * Asynchronous bodies are written at the pace granted by the lease of their stream from {@link MediaBandwidthService};
+ * blocking ones are not shaped, so as not to hold a worker thread while throttled. Requests of users already holding
+ * the maximum number of concurrent streams are rejected with {@code 429 (Too Many Requests)}.
+ */
+public final class MediaResponseUtil {
+
+    private static final String CRLF = "\r\n";
+
+    private MediaResponseUtil() {}
+
+    /**
+     * Write a media file, or the requested ranges of it, to the response.
+     *
+     * @param media     the media to stream.
+     * @param readAhead the read-ahead cache of media files.
+     * @param bandwidth the bandwidth budgets of media streams.
+     * @param request   the request, with its conditional and {@code Range} headers.
+     * @param response  the response.
+     * @throws IOException if the media cannot be read or the response cannot be written.
+     */
+    public static void stream(
+        MediaDTO media,
+        MediaReadAheadService readAhead,
+        MediaBandwidthService bandwidth,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        long length = media.getContentLength();
+        long lastModified = media.getLastModified().toEpochMilli();
+        String version = MediaService.version(media);
+        String eTag = "\"" + version + "\"";
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            return;
+        }
+
+        List<ResourceRegion> regions;
+        try {
+            List<HttpRange> ranges = isRangeApplicable(request, eTag, lastModified)
+                ? HttpRange.parseRanges(request.getHeader(HttpHeaders.RANGE))
+                : List.of();
+            regions = HttpRange.toResourceRegions(ranges, media.getContent());
+        } catch (IllegalArgumentException e) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        // HEAD requests write no body, and do not count as streams
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+        Optional<MediaBandwidthService.StreamLease> lease = head
+            ? Optional.empty()
+            : acquireLease(media.getContent(), bandwidth, request, response);
+        if (!head && lease.isEmpty()) {
+            return;
+        }
+
+        List<MediaSegment> segments = new ArrayList<>();
+        if (regions.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(media.getContentType());
+            segments.add(MediaSegment.region(0, length));
+        } else if (regions.size() == 1) {
+            ResourceRegion region = regions.get(0);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(media.getContentType());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(region, length));
+            segments.add(MediaSegment.region(region.getPosition(), region.getCount()));
+        } else {
+            String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType("multipart/byteranges; boundary=" + boundary);
+            for (ResourceRegion region : regions) {
+                segments.add(MediaSegment.bytes(partHeaders(boundary, media.getContentType(), region, length)));
+                segments.add(MediaSegment.region(region.getPosition(), region.getCount()));
+            }
+            segments.add(MediaSegment.bytes((CRLF + "--" + boundary + "--").getBytes(StandardCharsets.US_ASCII)));
+        }
+        response.setContentLengthLong(segments.stream().mapToLong(MediaSegment::getCount).sum());
+
+        if (head) {
+            return;
+        }
+        write(media.getContent(), version, segments, readAhead, lease.get(), request, response);
+    }
+
+    /**
+     * Acquire the lease of the stream a request belongs to, or reject the request with {@code 429 (Too Many Requests)} if
+     * its user already holds the maximum number of concurrent streams.
+     *
+     * @param content   the media.
+     * @param bandwidth the bandwidth budgets of media streams.
+     * @param request   the request.
+     * @param response  the response.
+     * @return the lease, or empty if the request was rejected.
+     * @throws IOException if the response cannot be written.
+     */
+    static Optional<MediaBandwidthService.StreamLease> acquireLease(
+        Resource content,
+        MediaBandwidthService bandwidth,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        // A user streaming a media from several clients holds as many streams
+        Optional<MediaBandwidthService.StreamLease> lease = bandwidth.acquire(
+            user(request),
+            request.getRemoteAddr() + "|" + content.getDescription()
+        );
+        if (lease.isEmpty()) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(bandwidth.getLeaseDuration()));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+        }
+        return lease;
+    }
+
+    /**
+     * Write the segments of a response body, asynchronously when supported.
+     *
+     * @param content   the media, the regions of the segments refer to.
+     * @param version   the version of the media file.
+     * @param segments  the segments of the body.
+     * @param readAhead the read-ahead cache of media files.
+     * @param lease     the lease of the stream, granting the bytes to write asynchronously.
+     * @param request   the request.
+     * @param response  the response, with headers already set.
+     * @throws IOException if the media cannot be read or the response cannot be written.
+     */
+    static void write(
+        Resource content,
+        String version,
+        List<MediaSegment> segments,
+        MediaReadAheadService readAhead,
+        MediaBandwidthService.StreamLease lease,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        List<MediaReadAheadService.CachedRegion> cachedRegions = new ArrayList<>();
+        Runnable release = () -> cachedRegions.forEach(MediaReadAheadService.CachedRegion::close);
+        try {
+            if (content.isFile()) {
+                segments = readAhead(content.getFile().toPath(), version, segments, readAhead, request, cachedRegions);
+            }
+            if (content.isFile() && AsyncMediaWriter.isSupported()) {
+                AsyncMediaWriter.start(content.getFile().toPath(), segments, lease, release);
+                return;
+            }
+            // Blocking writes are not shaped: waiting for the lease to grant bytes would hold the servlet thread
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel channel = Channels.newChannel(out);
+            for (MediaSegment segment : segments) {
+                lease.renew();
+                if (segment.isRegion()) {
+                    ZeroCopyTransferUtil.transfer(content, segment.getPosition(), segment.getCount(), out);
+                } else {
+                    channel.write(segment.getBuffer());
+                }
+            }
+            out.flush();
+            release.run();
+        } catch (IOException | RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+
+    /**
+     * Replace the parts of the regions held in memory by the read-ahead cache with their cached bytes.
+     */
+    private static List<MediaSegment> readAhead(
+        Path path,
+        String version,
+        List<MediaSegment> segments,
+        MediaReadAheadService readAhead,
+        HttpServletRequest request,
+        List<MediaReadAheadService.CachedRegion> cachedRegions
+    ) {
+        String session = user(request);
+        List<MediaSegment> expanded = new ArrayList<>(segments.size());
+        for (MediaSegment segment : segments) {
+            if (!segment.isRegion()) {
+                expanded.add(segment);
+                continue;
+            }
+            MediaReadAheadService.CachedRegion cachedRegion = readAhead.read(
+                session,
+                path,
+                version,
+                segment.getPosition(),
+                segment.getCount()
+            );
+            cachedRegions.add(cachedRegion);
+            long position = segment.getPosition();
+            for (MediaReadAheadService.CachedBlock block : cachedRegion.getBlocks()) {
+                if (block.getPosition() > position) {
+                    expanded.add(MediaSegment.region(position, block.getPosition() - position));
+                }
+                expanded.add(MediaSegment.buffer(block.getContent()));
+                position = block.getPosition() + block.getLength();
+            }
+            long end = segment.getPosition() + segment.getCount();
+            if (end > position) {
+                expanded.add(MediaSegment.region(position, end - position));
+            }
+        }
+        return expanded;
+    }
+
+    private static String user(HttpServletRequest request) {
+        return request.getRemoteUser() != null ? request.getRemoteUser() : request.getRemoteAddr();
+    }
+
+    private static boolean isRangeApplicable(HttpServletRequest request, String eTag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Only strong entity tags match
+            return ifRange.equals(eTag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String contentRange(ResourceRegion region, long length) {
+        return "bytes " + region.getPosition() + "-" + (region.getPosition() + region.getCount() - 1) + "/" + length;
+    }
+
+    private static byte[] partHeaders(String boundary, String contentType, ResourceRegion region, long length) {
+        StringBuilder partHeaders = new StringBuilder();
+        partHeaders.append(CRLF).append("--").append(boundary).append(CRLF);
+        partHeaders.append(HttpHeaders.CONTENT_TYPE).append(": ").append(contentType).append(CRLF);
+        partHeaders.append(HttpHeaders.CONTENT_RANGE).append(": ").append(contentRange(region, length)).append(CRLF).append(CRLF);
+        return partHeaders.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,53 @@
+package com.anthonylldev.streaming.web.rest.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A segment of a media response body: either bytes in memory, such as the part headers of a {@code multipart/byteranges}
+ * body or a block of the media file read ahead, or a region of the media file.
+ */
+final class MediaSegment {
+
+    private final ByteBuffer buffer;
+
+    private final long position;
+
+    private final long count;
+
+    private MediaSegment(ByteBuffer buffer, long position, long count) {
+        this.buffer = buffer;
+        this.position = position;
+        this.count = count;
+    }
+
+    static MediaSegment bytes(byte[] bytes) {
+        return buffer(ByteBuffer.wrap(bytes));
+    }
+
+    static MediaSegment buffer(ByteBuffer buffer) {
+        return new MediaSegment(buffer, 0, buffer.remaining());
+    }
+
+    static MediaSegment region(long position, long count) {
+        return new MediaSegment(null, position, count);
+    }
+
+    boolean isRegion() {
+        return buffer == null;
+    }
+
+    /**
+     * @return a view of the bytes, which can be consumed independently of other views.
+     */
+    ByteBuffer getBuffer() {
+        return buffer.duplicate();
+    }
+
+    long getPosition() {
+        return position;
+    }
+
+    long getCount() {
+        return count;
+    }
+}
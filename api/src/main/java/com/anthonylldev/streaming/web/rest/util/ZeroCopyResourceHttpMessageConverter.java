@@ -0,0 +1,26 @@
+package com.anthonylldev.streaming.web.rest.util;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+
+/**
+ * {@link ResourceHttpMessageConverter} writing file resources with {@link ZeroCopyTransferUtil}.
+ */
+public class ZeroCopyResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+    @Override
+    protected void writeContent(Resource resource, HttpOutputMessage outputMessage) throws IOException {
+        if (!resource.isFile()) {
+            super.writeContent(resource, outputMessage);
+            return;
+        }
+        try {
+            ZeroCopyTransferUtil.transfer(resource, 0, resource.contentLength(), outputMessage.getBody());
+        } catch (FileNotFoundException ex) {
+            // Ignored, like the default converter: the resource is gone, nothing more can be written
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.anthonylldev.streaming.web.rest.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * {@link ResourceRegionHttpMessageConverter} writing the regions of file resources with {@link ZeroCopyTransferUtil},
+ * for {@code 206 Partial Content} responses to single and multiple byte ranges.
+ */
+public class ZeroCopyResourceRegionHttpMessageConverter extends ResourceRegionHttpMessageConverter {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (object instanceof ResourceRegion) {
+            writeResourceRegion((ResourceRegion) object, outputMessage);
+            return;
+        }
+        Collection<ResourceRegion> regions = (Collection<ResourceRegion>) object;
+        if (regions.size() == 1) {
+            writeResourceRegion(regions.iterator().next(), outputMessage);
+        } else {
+            writeResourceRegions(regions, outputMessage);
+        }
+    }
+
+    @Override
+    protected void writeResourceRegion(ResourceRegion region, HttpOutputMessage outputMessage) throws IOException {
+        long start = region.getPosition();
+        long resourceLength = region.getResource().contentLength();
+        long end = Math.min(start + region.getCount() - 1, resourceLength - 1);
+        long rangeLength = end - start + 1;
+        HttpHeaders responseHeaders = outputMessage.getHeaders();
+        responseHeaders.add(HttpHeaders.CONTENT_RANGE, "bytes " + start + '-' + end + '/' + resourceLength);
+        responseHeaders.setContentLength(rangeLength);
+        ZeroCopyTransferUtil.transfer(region.getResource(), start, rangeLength, outputMessage.getBody());
+    }
+
+    private void writeResourceRegions(Collection<ResourceRegion> regions, HttpOutputMessage outputMessage) throws IOException {
+        HttpHeaders responseHeaders = outputMessage.getHeaders();
+        MediaType contentType = responseHeaders.getContentType();
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        responseHeaders.setContentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary));
+        OutputStream out = outputMessage.getBody();
+        for (ResourceRegion region : regions) {
+            long start = region.getPosition();
+            long resourceLength = region.getResource().contentLength();
+            long end = Math.min(start + region.getCount() - 1, resourceLength - 1);
+            StringBuilder partHeaders = new StringBuilder();
+            partHeaders.append("\r\n--").append(boundary).append("\r\n");
+            if (contentType != null) {
+                partHeaders.append(HttpHeaders.CONTENT_TYPE).append(": ").append(contentType).append("\r\n");
+            }
+            partHeaders.append(HttpHeaders.CONTENT_RANGE).append(": bytes ").append(start).append('-').append(end);
+            partHeaders.append('/').append(resourceLength).append("\r\n\r\n");
+            out.write(partHeaders.toString().getBytes(StandardCharsets.US_ASCII));
+            ZeroCopyTransferUtil.transfer(region.getResource(), start, end - start + 1, out);
+        }
+        out.write(("\r\n--" + boundary + "--").getBytes(StandardCharsets.US_ASCII));
+    }
+}
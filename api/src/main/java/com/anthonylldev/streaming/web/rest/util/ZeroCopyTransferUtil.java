@@ -0,0 +1,79 @@
+package com.anthonylldev.streaming.web.rest.util;
+
+import io.undertow.io.BufferWritableOutputStream;
+import io.undertow.servlet.handlers.ServletRequestContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import javax.servlet.ServletOutputStream;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Utility class for writing {@link Resource}s to the response without copying file bytes through the Java heap.
+ * <p>
+ * On Undertow, file resources are handed to the response channel with {@link BufferWritableOutputStream#transferFrom},
+ * which uses {@code sendfile} when the connection allows it. Elsewhere, such as in MockMvc tests, the bytes are copied.
+ * <p>
+ * The zero-copy path writes to Undertow's own response stream: filters wrapping the response to post-process the
+ * body do not see the transferred bytes.
+ */
+public final class ZeroCopyTransferUtil {
+
+    private ZeroCopyTransferUtil() {}
+
+    /**
+     * Write a region of a resource.
+     *
+     * @param resource the resource.
+     * @param position the position of the first byte to write.
+     * @param count    the number of bytes to write.
+     * @param out      the response body stream, with headers already set.
+     * @throws IOException if the resource cannot be read or the response cannot be written.
+     */
+    public static void transfer(Resource resource, long position, long count, OutputStream out) throws IOException {
+        if (count <= 0) {
+            return;
+        }
+        if (!resource.isFile()) {
+            try (InputStream in = resource.getInputStream()) {
+                StreamUtils.copyRange(in, out, position, position + count - 1);
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+            BufferWritableOutputStream target = bufferWritableOutputStream(out);
+            if (target != null) {
+                // Commit the headers, and any bytes already written, through the wrappers of the response
+                out.flush();
+                target.transferFrom(new FileRegionChannel(channel, position, count));
+            } else {
+                WritableByteChannel sink = Channels.newChannel(out);
+                long transferred = 0;
+                while (transferred < count) {
+                    long written = channel.transferTo(position + transferred, count - transferred, sink);
+                    if (written <= 0) {
+                        break;
+                    }
+                    transferred += written;
+                }
+            }
+        }
+    }
+
+    private static BufferWritableOutputStream bufferWritableOutputStream(OutputStream out) {
+        if (out instanceof BufferWritableOutputStream) {
+            return (BufferWritableOutputStream) out;
+        }
+        ServletRequestContext context = ServletRequestContext.current();
+        if (context == null) {
+            return null;
+        }
+        ServletOutputStream original = context.getOriginalResponse().getOutputStream();
+        return original instanceof BufferWritableOutputStream ? (BufferWritableOutputStream) original : null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.anthonylldev.streaming.security.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import javax.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tech.jhipster.config.JHipsterProperties;
+
+class StreamUrlFilterTest {
+
+    private StreamUrlSigner streamUrlSigner;
+
+    private StreamUrlFilter streamUrlFilter;
+
+    @BeforeEach
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
+
+        streamUrlSigner = new StreamUrlSigner(jHipsterProperties);
+        streamUrlFilter = new StreamUrlFilter(streamUrlSigner);
+    }
+
+    @Test
+    void testValidSignedUrlIsPassedOnAsMediaRequest() throws Exception {
+        String token = streamUrlSigner.sign("films", 42, "test-user", Instant.now().plusSeconds(60));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/signed/" + token + "/films/42/hls/5f3e-1a/7.ts");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+        streamUrlFilter.doFilter(request, response, filterChain);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        HttpServletRequest passed = (HttpServletRequest) filterChain.getRequest();
+        assertThat(passed.getRequestURI()).isEqualTo("/api/films/42/hls/5f3e-1a/7.ts");
+        assertThat(passed.getServletPath()).isEqualTo("/api/films/42/hls/5f3e-1a/7.ts");
+        assertThat(passed.getRequestURL()).hasToString("http://localhost/api/films/42/hls/5f3e-1a/7.ts");
+        assertThat(passed.getRemoteUser()).isEqualTo("test-user");
+        assertThat(StreamUrlFilter.isVerified(passed)).isTrue();
+    }
+
+    @Test
+    void testSignedUrlOfAnotherMediaIsForbidden() throws Exception {
+        String token = streamUrlSigner.sign("films", 42, "test-user", Instant.now().plusSeconds(60));
+
+        assertThat(filter("GET", "/api/signed/" + token + "/films/43/stream")).isEqualTo(HttpStatus.FORBIDDEN.value());
+        assertThat(filter("GET", "/api/signed/" + token + "/episodes/42/stream")).isEqualTo(HttpStatus.FORBIDDEN.value());
+    }
+
+    @Test
+    void testExpiredOrTamperedSignedUrlIsForbidden() throws Exception {
+        String expired = streamUrlSigner.sign("films", 42, "test-user", Instant.now().minusSeconds(1));
+        String token = streamUrlSigner.sign("films", 42, "test-user", Instant.now().plusSeconds(60));
+        String otherUser = streamUrlSigner.sign("films", 42, "admin", Instant.now().plusSeconds(60));
+        String tampered = otherUser.substring(0, otherUser.indexOf('.')) + token.substring(token.indexOf('.'));
+
+        assertThat(filter("GET", "/api/signed/" + expired + "/films/42/stream")).isEqualTo(HttpStatus.FORBIDDEN.value());
+        assertThat(filter("GET", "/api/signed/" + tampered + "/films/42/stream")).isEqualTo(HttpStatus.FORBIDDEN.value());
+        assertThat(filter("GET", "/api/signed/invalid/films/42/stream")).isEqualTo(HttpStatus.FORBIDDEN.value());
+    }
+
+    @Test
+    void testOnlyMediaEndpointsAreReachable() throws Exception {
+        String token = streamUrlSigner.sign("films", 42, "test-user", Instant.now().plusSeconds(60));
+
+        assertThat(filter("GET", "/api/signed/" + token + "/films/42")).isEqualTo(HttpStatus.NOT_FOUND.value());
+        assertThat(filter("GET", "/api/signed/" + token + "/films/42/playback")).isEqualTo(HttpStatus.NOT_FOUND.value());
+        assertThat(filter("GET", "/api/signed/" + token + "/films/42/hls/../../../users")).isEqualTo(HttpStatus.NOT_FOUND.value());
+        assertThat(filter("DELETE", "/api/signed/" + token + "/films/42/stream")).isEqualTo(HttpStatus.METHOD_NOT_ALLOWED.value());
+    }
+
+    private int filter(String method, String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+        streamUrlFilter.doFilter(request, response, filterChain);
+        assertThat(filterChain.getRequest() != null).isEqualTo(response.getStatus() == HttpStatus.OK.value());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,119 @@
+package com.anthonylldev.streaming.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.domain.Film;
+import com.anthonylldev.streaming.service.criteria.FilmCriteria;
+import com.anthonylldev.streaming.service.criteria.TextFilter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class CountQueryServiceTest {
+
+    private final AtomicLong currentTimeMillis = new AtomicLong();
+
+    private final AtomicLong counted = new AtomicLong();
+
+    private EntityManager entityManager;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private CountQueryService countQueryService;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCount().setTimeToLive(1000);
+        entityManager = mock(EntityManager.class, RETURNS_DEEP_STUBS);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        countQueryService = new CountQueryService(applicationProperties, entityManager, jdbcTemplate, currentTimeMillis::get);
+    }
+
+    @Test
+    void testCountsAreCachedByCriteria() {
+        assertThat(count(titled("Nosferatu"), CountQueryService.Mode.EXACT)).isEqualTo(1);
+        assertThat(count(titled("Nosferatu"), CountQueryService.Mode.EXACT)).isEqualTo(1);
+        assertThat(count(titled("Metropolis"), CountQueryService.Mode.EXACT)).isEqualTo(2);
+        assertThat(counted).hasValue(2);
+
+        currentTimeMillis.addAndGet(1000);
+        assertThat(count(titled("Nosferatu"), CountQueryService.Mode.EXACT)).isEqualTo(3);
+    }
+
+    @Test
+    void testCountsAreCountedAgainOnceTheCatalogChanges() {
+        assertThat(count(titled("Nosferatu"), CountQueryService.Mode.EXACT)).isEqualTo(1);
+
+        countQueryService.catalogChanged();
+        assertThat(count(titled("Nosferatu"), CountQueryService.Mode.EXACT)).isEqualTo(2);
+        assertThat(count(titled("Nosferatu"), CountQueryService.Mode.EXACT)).isEqualTo(2);
+    }
+
+    @Test
+    void testUnfilteredCountsAreEstimated() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("film"))).thenReturn(500000L);
+
+        assertThat(count(new FilmCriteria(), CountQueryService.Mode.ESTIMATE)).isEqualTo(500000);
+        assertThat(count(titled("Nosferatu"), CountQueryService.Mode.ESTIMATE)).isEqualTo(1);
+        assertThat(count(new FilmCriteria(), CountQueryService.Mode.EXACT)).isEqualTo(2);
+
+        // Never analyzed, the table is counted
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("film"))).thenReturn(-1L);
+        assertThat(count(new FilmCriteria(), CountQueryService.Mode.ESTIMATE)).isEqualTo(2);
+    }
+
+    @Test
+    void testPagesAreCachedAsIds() {
+        Film film = new Film().id(1L);
+        @SuppressWarnings("unchecked")
+        TypedQuery<Film> query = mock(TypedQuery.class);
+        when(entityManager.createQuery(ArgumentMatchers.<CriteriaQuery<Film>>any())).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(film));
+        when(entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(film)).thenReturn(1L);
+        when(entityManager.find(Film.class, 1L)).thenReturn(film);
+
+        assertThat(findAll(titled("Nosferatu"))).containsExactly(film);
+        assertThat(findAll(titled("Nosferatu"))).containsExactly(film);
+        verify(query).getResultList();
+        verify(entityManager).find(Film.class, 1L);
+
+        countQueryService.catalogChanged();
+        assertThat(findAll(titled("Nosferatu"))).containsExactly(film);
+        verify(query, times(2)).getResultList();
+
+        // Deleted by another node, the film is queried again
+        when(entityManager.find(Film.class, 1L)).thenReturn(null);
+        assertThat(findAll(titled("Nosferatu"))).containsExactly(film);
+        verify(query, times(3)).getResultList();
+    }
+
+    private List<Film> findAll(FilmCriteria criteria) {
+        Specification<Film> specification = (root, query, builder) -> null;
+        return countQueryService.findAll(Film.class, criteria, specification, PageRequest.of(0, 20), counted::incrementAndGet).getContent();
+    }
+
+    private long count(FilmCriteria criteria, CountQueryService.Mode mode) {
+        return countQueryService.count(Film.class, criteria, criteria.getTitle() == null, counted::incrementAndGet, mode);
+    }
+
+    private static FilmCriteria titled(String title) {
+        FilmCriteria criteria = new FilmCriteria();
+        criteria.setTitle(new TextFilter());
+        criteria.getTitle().setEquals(title);
+        return criteria;
+    }
+}
@@ -0,0 +1,165 @@
+package com.anthonylldev.streaming.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.service.dto.CoverDTO;
+import com.anthonylldev.streaming.service.impl.FileSystemBlobStore;
+import com.anthonylldev.streaming.service.util.ContentHashUtil;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+class CoverRenditionServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private ApplicationProperties applicationProperties;
+
+    private BlobStore blobStore;
+
+    private CoverRenditionService coverRenditionService;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getCover().getRendition().setCacheDirectory(directory.resolve("renditions").toString());
+        blobStore = new FileSystemBlobStore(directory.resolve("blobs"));
+        coverRenditionService = new CoverRenditionService(applicationProperties, blobStore);
+    }
+
+    @Test
+    void testRequestedWidthIsRoundedUpToRendition() throws IOException {
+        String hash = blobStore.save(image(1000, 1500));
+
+        CoverDTO cover = coverRenditionService.findCover(hash, "image/jpeg", 300).orElseThrow();
+
+        assertThat(cover.getWidth()).isEqualTo(320);
+        assertThat(cover.getContentType()).isEqualTo("image/jpeg");
+        BufferedImage rendition = ImageIO.read(cover.getContent().getInputStream());
+        assertThat(rendition.getWidth()).isEqualTo(320);
+        assertThat(rendition.getHeight()).isEqualTo(480);
+    }
+
+    @Test
+    void testRenditionIsServedFromCacheWithoutOriginal() throws IOException {
+        byte[] original = image(1000, 1500);
+        String hash = blobStore.save(original);
+        coverRenditionService.createRenditions(hash, original);
+        blobStore.delete(hash);
+
+        Optional<CoverDTO> cover = coverRenditionService.findCover(hash, "image/jpeg", 160);
+
+        assertThat(cover).hasValueSatisfying(c -> assertThat(c.getWidth()).isEqualTo(160));
+        assertThat(directory.resolve("renditions").resolve(hash + "-160.jpg")).exists();
+        assertThat(directory.resolve("renditions").resolve(hash + "-320.jpg")).exists();
+        assertThat(directory.resolve("renditions").resolve(hash + "-640.jpg")).exists();
+    }
+
+    @Test
+    void testRenditionIsServedFromDiskAfterRestart() throws IOException {
+        byte[] original = image(1000, 1500);
+        String hash = blobStore.save(original);
+        coverRenditionService.createRenditions(hash, original);
+        blobStore.delete(hash);
+
+        CoverRenditionService restarted = new CoverRenditionService(applicationProperties, blobStore);
+        Optional<CoverDTO> cover = restarted.findCover(hash, "image/jpeg", 640);
+
+        assertThat(cover).hasValueSatisfying(c -> assertThat(c.getWidth()).isEqualTo(640));
+    }
+
+    @Test
+    void testOriginalIsServedFromBlobStoreWithoutWidthOrAboveLargestRendition() throws IOException {
+        String hash = blobStore.save(image(1000, 1500));
+
+        assertThat(coverRenditionService.findCover(hash, "image/jpeg", null))
+            .hasValueSatisfying(c -> {
+                assertThat(c.getWidth()).isNull();
+                assertThat(c.getContent()).isInstanceOf(FileSystemResource.class);
+            });
+        assertThat(coverRenditionService.findCover(hash, "image/jpeg", 2000)).hasValueSatisfying(c -> assertThat(c.getWidth()).isNull());
+    }
+
+    @Test
+    void testOriginalIsServedWhenNarrowerOrUndecodable() throws IOException {
+        String small = blobStore.save(image(100, 150));
+        String invalid = blobStore.save(new byte[] { 1, 2, 3 });
+
+        assertThat(coverRenditionService.findCover(small, "image/jpeg", 160)).hasValueSatisfying(c -> assertThat(c.getWidth()).isNull());
+        assertThat(coverRenditionService.findCover(invalid, "image/jpeg", 160))
+            .hasValueSatisfying(c -> {
+                assertThat(c.getWidth()).isNull();
+                assertThat(c.getContentType()).isEqualTo("image/jpeg");
+            });
+    }
+
+    @Test
+    void testLeastRecentlyReadRenditionsAreSweptFromDiskBeyondBudget() throws IOException {
+        byte[] first = image(1000, 1500);
+        String firstHash = blobStore.save(first);
+        coverRenditionService.createRenditions(firstHash, first);
+        byte[] second = image(1200, 1800);
+        String secondHash = blobStore.save(second);
+        coverRenditionService.createRenditions(secondHash, second);
+        Path renditions = directory.resolve("renditions");
+        for (int width : new int[] { 160, 320, 640 }) {
+            Files.setLastModifiedTime(renditions.resolve(firstHash + "-" + width + ".jpg"), FileTime.fromMillis(0));
+        }
+        // Read from disk, after a restart, the rendition is marked as recently read
+        new CoverRenditionService(applicationProperties, blobStore).findCover(firstHash, "image/jpeg", 160);
+
+        long budget = diskSize(
+            renditions,
+            firstHash + "-160.jpg",
+            secondHash + "-160.jpg",
+            secondHash + "-320.jpg",
+            secondHash + "-640.jpg"
+        );
+        applicationProperties.getCover().getRendition().setDiskCacheSize(budget);
+        new CoverRenditionService(applicationProperties, blobStore).sweepDiskCache();
+
+        assertThat(renditions.resolve(firstHash + "-160.jpg")).exists();
+        assertThat(renditions.resolve(firstHash + "-320.jpg")).doesNotExist();
+        assertThat(renditions.resolve(firstHash + "-640.jpg")).doesNotExist();
+        assertThat(renditions.resolve(secondHash + "-160.jpg")).exists();
+        assertThat(renditions.resolve(secondHash + "-320.jpg")).exists();
+        assertThat(renditions.resolve(secondHash + "-640.jpg")).exists();
+    }
+
+    @Test
+    void testMissingOriginalIsEmpty() {
+        String hash = ContentHashUtil.sha256Hex(new byte[] { 1 });
+
+        assertThat(coverRenditionService.findCover(hash, "image/jpeg", null)).isEmpty();
+        assertThat(coverRenditionService.findCover(hash, "image/jpeg", 160)).isEmpty();
+    }
+
+    /**
+     * @return the bytes the files count for in the disk cache budget, at least a block each.
+     */
+    private static long diskSize(Path directory, String... names) throws IOException {
+        long size = 0;
+        for (String name : names) {
+            size += Math.max(4096, Files.size(directory.resolve(name)));
+        }
+        return size;
+    }
+
+    private static byte[] image(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
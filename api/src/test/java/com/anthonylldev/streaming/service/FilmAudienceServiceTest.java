@@ -0,0 +1,72 @@
+package com.anthonylldev.streaming.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.domain.Film;
+import com.anthonylldev.streaming.repository.FilmRepository;
+import com.anthonylldev.streaming.service.FilmAudienceService.Period;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class FilmAudienceServiceTest {
+
+    private static final Long FILM_ID = 1L;
+
+    private TransactionTemplate transactionTemplate;
+
+    private FilmAudienceService filmAudienceService;
+
+    @BeforeEach
+    public void setup() {
+        FilmRepository filmRepository = mock(FilmRepository.class);
+        when(filmRepository.findById(FILM_ID)).thenReturn(Optional.of(new Film()));
+        transactionTemplate = mock(TransactionTemplate.class);
+        filmAudienceService = new FilmAudienceService(
+            new ApplicationProperties(),
+            filmRepository,
+            mock(NamedParameterJdbcTemplate.class),
+            transactionTemplate
+        );
+        filmAudienceService.trackViewer(FILM_ID, "first-user");
+        filmAudienceService.trackViewer(FILM_ID, "second-user");
+    }
+
+    @Test
+    void testViewersAreCountedWhileWritten() {
+        long[] viewers = new long[1];
+        doAnswer(invocation -> {
+                viewers[0] = viewers();
+                return null;
+            })
+            .when(transactionTemplate)
+            .executeWithoutResult(any());
+
+        filmAudienceService.flush();
+
+        assertThat(viewers[0]).isEqualTo(2);
+    }
+
+    @Test
+    void testViewersAreCountedAfterFailedWrite() {
+        doThrow(new DataAccessResourceFailureException("Unavailable")).when(transactionTemplate).executeWithoutResult(any());
+
+        filmAudienceService.flush();
+        filmAudienceService.trackViewer(FILM_ID, "third-user");
+
+        assertThat(viewers()).isEqualTo(3);
+    }
+
+    private long viewers() {
+        return filmAudienceService.findAudience(FILM_ID, Period.DAY).orElseThrow().getViewers();
+    }
+}
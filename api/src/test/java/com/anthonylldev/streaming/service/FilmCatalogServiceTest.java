@@ -0,0 +1,131 @@
+package com.anthonylldev.streaming.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.domain.Film;
+import com.anthonylldev.streaming.domain.enumeration.FilmType;
+import com.anthonylldev.streaming.domain.enumeration.Gender;
+import com.anthonylldev.streaming.service.criteria.FilmCriteria;
+import com.anthonylldev.streaming.service.criteria.TextFilter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import tech.jhipster.service.filter.IntegerFilter;
+
+class FilmCatalogServiceTest {
+
+    private final List<Runnable> rebuilds = new ArrayList<>();
+
+    private FilmCatalogService filmCatalogService;
+
+    @BeforeEach
+    public void setup() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Film>>any(), any(), any()))
+            .thenReturn(
+                List.of(
+                    film(1L, "Nosferatu", 300, Gender.HORROR, 1922),
+                    film(2L, "Metropolis", null, Gender.SCIFI, 1927),
+                    film(3L, "The General", 100, Gender.COMEDY, 1926),
+                    film(4L, "Sunrise", 200, null, 1927)
+                )
+            );
+        filmCatalogService = new FilmCatalogService(new ApplicationProperties(), jdbcTemplate, rebuilds::add);
+        filmCatalogService.rebuild();
+    }
+
+    @Test
+    void testFilmsAreSortedWithNullsLastAscendingAndFirstDescending() {
+        assertThat(ids(new FilmCriteria(), PageRequest.of(0, 20, Sort.by("views")))).containsExactly(3L, 4L, 1L, 2L);
+        assertThat(ids(new FilmCriteria(), PageRequest.of(0, 20, Sort.by(Sort.Order.desc("views"))))).containsExactly(2L, 1L, 4L, 3L);
+        assertThat(ids(new FilmCriteria(), PageRequest.of(0, 20, Sort.by("gender")))).containsExactly(3L, 1L, 2L, 4L);
+        assertThat(ids(new FilmCriteria(), PageRequest.of(0, 20, Sort.by(Sort.Order.desc("publicationDate"), Sort.Order.asc("id")))))
+            .containsExactly(2L, 4L, 3L, 1L);
+    }
+
+    @Test
+    void testFilmsArePaged() {
+        Page<Long> page = filmCatalogService.findIds(new FilmCriteria(), PageRequest.of(1, 3, Sort.by("views"))).orElseThrow();
+
+        assertThat(page.getContent()).containsExactly(2L);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(ids(new FilmCriteria(), PageRequest.of(2, 3, Sort.by("views")))).isEmpty();
+    }
+
+    @Test
+    void testFilmsAreFilteredAsByTheDatabase() {
+        FilmCriteria criteria = new FilmCriteria();
+        criteria.setViews(new IntegerFilter());
+        criteria.getViews().setNotEquals(300);
+        assertThat(ids(criteria, PageRequest.of(0, 20))).containsExactly(3L, 4L);
+
+        criteria.getViews().setGreaterThanOrEqual(150);
+        assertThat(ids(criteria, PageRequest.of(0, 20))).containsExactly(4L);
+
+        criteria.getViews().setEquals(300);
+        assertThat(ids(criteria, PageRequest.of(0, 20))).containsExactly(1L);
+
+        criteria = new FilmCriteria();
+        criteria.setTitle(new TextFilter());
+        criteria.getTitle().setContains("ne");
+        criteria.gender().setSpecified(true);
+        assertThat(ids(criteria, PageRequest.of(0, 20))).containsExactly(3L);
+    }
+
+    @Test
+    void testOtherCriteriaAndSortsAreLeftToTheDatabase() {
+        FilmCriteria criteria = new FilmCriteria();
+        criteria.setTitle(new TextFilter());
+        criteria.getTitle().setSearch("nosferatu");
+        assertThat(filmCatalogService.findIds(criteria, PageRequest.of(0, 20))).isEmpty();
+
+        criteria.getTitle().setSearch(null);
+        criteria.getTitle().setContains("%");
+        assertThat(filmCatalogService.findIds(criteria, PageRequest.of(0, 20))).isEmpty();
+
+        criteria = new FilmCriteria();
+        criteria.personId().setEquals(1L);
+        assertThat(filmCatalogService.findIds(criteria, PageRequest.of(0, 20))).isEmpty();
+
+        assertThat(filmCatalogService.findIds(new FilmCriteria(), PageRequest.of(0, 20, Sort.by("title")))).isEmpty();
+    }
+
+    @Test
+    void testFilmsWrittenAreListedByTheDatabaseUntilRebuilt() {
+        filmCatalogService.catalogChanged();
+        assertThat(filmCatalogService.findIds(new FilmCriteria(), PageRequest.of(0, 20))).isEmpty();
+
+        rebuilds.forEach(Runnable::run);
+        assertThat(ids(new FilmCriteria(), PageRequest.of(0, 20))).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    private List<Long> ids(FilmCriteria criteria, PageRequest page) {
+        Optional<Page<Long>> ids = filmCatalogService.findIds(criteria, page);
+        assertThat(ids).isPresent();
+        return ids.get().getContent();
+    }
+
+    private static Film film(Long id, String title, Integer views, Gender gender, int year) {
+        return new Film()
+            .id(id)
+            .title(title)
+            .views(views)
+            .gender(gender)
+            .filmType(FilmType.MOVIE)
+            .publicationDate(LocalDateTime.of(year, 1, 1, 0, 0));
+    }
+}
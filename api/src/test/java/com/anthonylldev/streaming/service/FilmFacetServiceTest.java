@@ -0,0 +1,64 @@
+package com.anthonylldev.streaming.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.domain.Film;
+import com.anthonylldev.streaming.domain.enumeration.FilmType;
+import com.anthonylldev.streaming.domain.enumeration.Gender;
+import com.anthonylldev.streaming.service.dto.FilmFacetsDTO;
+import java.time.LocalDateTime;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class FilmFacetServiceTest {
+
+    private FilmFacetService filmFacetService;
+
+    @BeforeEach
+    public void setup() {
+        filmFacetService = new FilmFacetService(new ApplicationProperties(), mock(JdbcTemplate.class), mock(EntityManager.class));
+        filmFacetService.index(film(1L, Gender.DRAMA, FilmType.MOVIE, 1922));
+        filmFacetService.index(film(2L, Gender.DRAMA, FilmType.SERIE, 1927));
+        filmFacetService.index(film(3L, Gender.HORROR, FilmType.MOVIE, 1922));
+    }
+
+    @Test
+    void testFilmsAreCountedByFacet() {
+        FilmFacetsDTO facets = filmFacetService.findFacets(null, null);
+
+        assertThat(facets.getTotal()).isEqualTo(3);
+        assertThat(facets.getGender()).containsEntry(Gender.DRAMA, 2L).containsEntry(Gender.HORROR, 1L).containsEntry(Gender.COMEDY, 0L);
+        assertThat(facets.getFilmType()).containsEntry(FilmType.MOVIE, 2L).containsEntry(FilmType.SERIE, 1L);
+        assertThat(facets.getPublicationYear()).containsExactly(entry(1922, 2L), entry(1927, 1L));
+    }
+
+    @Test
+    void testFilmsAreCountedByFacetForGendersAndFilmTypes() {
+        FilmFacetsDTO facets = filmFacetService.findFacets(List.of(Gender.DRAMA), List.of(FilmType.MOVIE, FilmType.DOCUMENTARY));
+
+        assertThat(facets.getTotal()).isEqualTo(1);
+        assertThat(facets.getGender()).containsEntry(Gender.DRAMA, 1L).containsEntry(Gender.HORROR, 0L);
+        assertThat(facets.getPublicationYear()).containsExactly(entry(1922, 1L));
+    }
+
+    @Test
+    void testWrittenFilmsAreCountedByTheirNewFacets() {
+        filmFacetService.index(film(1L, Gender.COMEDY, FilmType.MOVIE, 1922));
+        filmFacetService.remove(2L);
+
+        FilmFacetsDTO facets = filmFacetService.findFacets(null, null);
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(facets.getGender()).containsEntry(Gender.COMEDY, 1L).containsEntry(Gender.DRAMA, 0L);
+        assertThat(facets.getPublicationYear()).containsExactly(entry(1922, 2L));
+    }
+
+    private static Film film(Long id, Gender gender, FilmType filmType, int year) {
+        return new Film().id(id).gender(gender).filmType(filmType).publicationDate(LocalDateTime.of(year, 1, 1, 0, 0));
+    }
+}
@@ -0,0 +1,96 @@
+package com.anthonylldev.streaming.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.domain.Film;
+import com.anthonylldev.streaming.repository.FilmRepository;
+import com.anthonylldev.streaming.service.dto.FilmDTO;
+import com.anthonylldev.streaming.service.event.FilmChangedEvent;
+import com.anthonylldev.streaming.service.mapper.FilmMapper;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+class FilmSearchServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private FilmSearchService filmSearchService;
+
+    @BeforeEach
+    public void setup() {
+        FilmRepository filmRepository = mock(FilmRepository.class);
+        when(filmRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(new Film().id(invocation.getArgument(0))));
+        FilmMapper filmMapper = mock(FilmMapper.class);
+        when(filmMapper.toDto(any(Film.class)))
+            .thenAnswer(invocation -> {
+                FilmDTO filmDTO = new FilmDTO();
+                filmDTO.setId(invocation.<Film>getArgument(0).getId());
+                return filmDTO;
+            });
+        jdbcTemplate = mock(JdbcTemplate.class);
+        filmSearchService = new FilmSearchService(new ApplicationProperties(), filmRepository, filmMapper, jdbcTemplate, Runnable::run);
+    }
+
+    @Test
+    void testFilmsAreSearchedOnceRebuilt() {
+        whenFilmsRead(() -> {}, film(1L, "Metropolis"), film(2L, "Nosferatu"));
+        filmSearchService.rebuild();
+
+        assertThat(search("metropolis")).containsExactly(1L);
+        assertThat(search("nosferatu")).containsExactly(2L);
+    }
+
+    @Test
+    void testFilmsWrittenWhileRebuildingAreNotOverwritten() {
+        whenFilmsRead(
+            () -> {
+                filmSearchService.filmChanged(FilmChangedEvent.saved(film(1L, "Sunrise")));
+                filmSearchService.filmChanged(FilmChangedEvent.deleted(2L));
+                filmSearchService.filmChanged(FilmChangedEvent.saved(film(3L, "Faust")));
+            },
+            film(1L, "Metropolis"),
+            film(2L, "Nosferatu")
+        );
+        filmSearchService.rebuild();
+
+        assertThat(search("metropolis")).isEmpty();
+        assertThat(search("sunrise")).containsExactly(1L);
+        assertThat(search("nosferatu")).isEmpty();
+        assertThat(search("faust")).containsExactly(3L);
+    }
+
+    /**
+     * Read some films from the database, once the writes committed meanwhile have run.
+     */
+    private void whenFilmsRead(Runnable concurrentWrites, Film... films) {
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Film>>any(), any(), any()))
+            .thenAnswer(invocation -> {
+                concurrentWrites.run();
+                return List.of(films);
+            });
+    }
+
+    private List<Long> search(String query) {
+        Page<FilmDTO> page = filmSearchService.search(query, PageRequest.of(0, 20));
+        assertThat(page.getTotalElements()).isEqualTo(page.getContent().size());
+        return page.getContent().stream().map(FilmDTO::getId).collect(Collectors.toList());
+    }
+
+    private static Film film(Long id, String title) {
+        return new Film().id(id).title(title);
+    }
+}
@@ -0,0 +1,82 @@
+package com.anthonylldev.streaming.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FilmTrendingServiceTest {
+
+    private final AtomicLong currentTimeMillis = new AtomicLong(TimeUnit.DAYS.toMillis(20000));
+
+    private FilmTrendingService filmTrendingService;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getTrending().setSize(3);
+        applicationProperties.getTrending().setCandidates(5);
+        filmTrendingService = new FilmTrendingService(applicationProperties, null, null, currentTimeMillis::get);
+    }
+
+    @Test
+    void testFilmsAreRankedByViews() {
+        view(1L, 5);
+        view(2L, 20);
+        view(3L, 10);
+        view(4L, 1);
+
+        assertThat(filmTrendingService.findTrendingIds(FilmTrendingService.Window.ONE_HOUR)).containsExactly(2L, 3L, 1L);
+        assertThat(filmTrendingService.findTrendingIds(FilmTrendingService.Window.ONE_WEEK)).containsExactly(2L, 3L, 1L);
+    }
+
+    @Test
+    void testHeavyHittersAreTrackedAmongManyFilms() {
+        for (long id = 100; id < 1100; id++) {
+            view(id, 1);
+        }
+        view(7L, 50);
+        view(8L, 40);
+        for (long id = 2000; id < 3000; id++) {
+            view(id, 2);
+        }
+        view(9L, 30);
+
+        assertThat(filmTrendingService.findTrendingIds(FilmTrendingService.Window.ONE_DAY)).containsExactly(7L, 8L, 9L);
+    }
+
+    @Test
+    void testViewsLeaveTheWindow() {
+        view(1L, 10);
+        advance(TimeUnit.MINUTES, 30);
+        view(2L, 5);
+
+        assertThat(filmTrendingService.findTrendingIds(FilmTrendingService.Window.ONE_HOUR)).containsExactly(1L, 2L);
+
+        advance(TimeUnit.MINUTES, 45);
+        assertThat(filmTrendingService.findTrendingIds(FilmTrendingService.Window.ONE_HOUR)).containsExactly(2L);
+        assertThat(filmTrendingService.findTrendingIds(FilmTrendingService.Window.ONE_DAY)).containsExactly(1L, 2L);
+
+        advance(TimeUnit.DAYS, 2);
+        assertThat(filmTrendingService.findTrendingIds(FilmTrendingService.Window.ONE_HOUR)).isEmpty();
+        assertThat(filmTrendingService.findTrendingIds(FilmTrendingService.Window.ONE_DAY)).isEmpty();
+        assertThat(filmTrendingService.findTrendingIds(FilmTrendingService.Window.ONE_WEEK)).containsExactly(1L, 2L);
+
+        advance(TimeUnit.DAYS, 30);
+        view(3L, 1);
+        assertThat(filmTrendingService.findTrendingIds(FilmTrendingService.Window.ONE_WEEK)).containsExactly(3L);
+    }
+
+    private void view(Long id, int views) {
+        for (int i = 0; i < views; i++) {
+            filmTrendingService.trackView(id);
+        }
+    }
+
+    private void advance(TimeUnit unit, long duration) {
+        currentTimeMillis.addAndGet(unit.toMillis(duration));
+    }
+}
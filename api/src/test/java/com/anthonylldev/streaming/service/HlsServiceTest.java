@@ -0,0 +1,218 @@
+package com.anthonylldev.streaming.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.service.dto.HlsSegmentDTO;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HlsServiceTest {
+
+    private static final int PACKET_SIZE = 188;
+
+    private static final int PMT_PID = 0x1000;
+
+    private static final int VIDEO_PID = 0x100;
+
+    private static final int AUDIO_PID = 0x101;
+
+    /**
+     * 25 frames per second, in 90 kHz ticks.
+     */
+    private static final long FRAME_TICKS = 3600;
+
+    @TempDir
+    Path directory;
+
+    private HlsService hlsService;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getMedia().setDirectory(directory.toString());
+        applicationProperties.getMedia().getHls().setTargetDuration(6);
+        hlsService = new HlsService(applicationProperties, new MediaService(applicationProperties));
+    }
+
+    @Test
+    void testMediaPlaylistListsSegmentsCutAtKeyFrames() throws IOException {
+        // 20 seconds of video with a key frame every 2 seconds
+        Files.write(directory.resolve("film.ts"), transportStream(500, 50));
+
+        String version = version("film.ts");
+        String master = hlsService.findMasterPlaylist("film.ts").orElseThrow();
+        String media = hlsService.findMediaPlaylist("film.ts", version).orElseThrow();
+
+        assertThat(master).startsWith("#EXTM3U\n").contains("#EXT-X-STREAM-INF:BANDWIDTH=");
+        assertThat(media)
+            .startsWith("#EXTM3U\n")
+            .contains("#EXT-X-TARGETDURATION:6\n")
+            .contains("#EXT-X-PLAYLIST-TYPE:VOD\n")
+            .contains("#EXTINF:6.000,\n0.ts\n#EXTINF:6.000,\n1.ts\n#EXTINF:6.000,\n2.ts\n#EXTINF:2.000,\n3.ts\n")
+            .endsWith("#EXT-X-ENDLIST\n");
+    }
+
+    @Test
+    void testSegmentsStartAtKeyFramesWithTables() throws IOException {
+        byte[] stream = transportStream(500, 50);
+        Files.write(directory.resolve("film.ts"), stream);
+        String version = version("film.ts");
+
+        long total = 0;
+        for (int index = 0; index < 4; index++) {
+            HlsSegmentDTO segment = hlsService.findSegment("film.ts", version, index).orElseThrow();
+            assertThat(segment.getPosition()).isEqualTo(total);
+            total += segment.getLength();
+            if (index == 0) {
+                assertThat(segment.getTables()).isEmpty();
+            } else {
+                assertThat(segment.getTables()).isEqualTo(Arrays.copyOfRange(stream, 0, 2 * PACKET_SIZE));
+                // The segment starts with the key frame packet, flagged as random access point
+                assertThat(stream[(int) segment.getPosition() + 5] & 0x40).isNotZero();
+            }
+        }
+        assertThat(total).isEqualTo(stream.length);
+        assertThat(hlsService.findSegment("film.ts", version, 4)).isEmpty();
+    }
+
+    @Test
+    void testPlaylistsAreServedFromMemoryOnceIndexed() throws IOException {
+        Path path = directory.resolve("film.ts");
+        Files.write(path, transportStream(500, 50));
+        String version = version("film.ts");
+
+        Files.delete(path);
+
+        assertThat(hlsService.findMasterPlaylist("film.ts")).isPresent();
+        assertThat(hlsService.findMediaPlaylist("film.ts", version)).isPresent();
+        // Segments are read from the file, a missing or replaced file evicts the index
+        assertThat(hlsService.findSegment("film.ts", version, 0)).isEmpty();
+        assertThat(hlsService.findMasterPlaylist("film.ts")).isEmpty();
+    }
+
+    @Test
+    void testUnknownVersionAndOtherMediaAreEmpty() throws IOException {
+        Files.write(directory.resolve("film.ts"), transportStream(100, 50));
+        Files.write(directory.resolve("film.mp4"), transportStream(100, 50));
+        Files.write(directory.resolve("invalid.ts"), new byte[] { 1, 2, 3 });
+
+        assertThat(hlsService.findMediaPlaylist("film.ts", "0-0")).isEmpty();
+        assertThat(hlsService.findSegment("film.ts", "0-0", 0)).isEmpty();
+        assertThat(hlsService.findMasterPlaylist("film.mp4")).isEmpty();
+        assertThat(hlsService.findMasterPlaylist("invalid.ts")).isEmpty();
+        assertThat(hlsService.findMasterPlaylist("missing.ts")).isEmpty();
+        assertThat(hlsService.findMasterPlaylist("../film.ts")).isEmpty();
+    }
+
+    private String version(String url) {
+        String master = hlsService.findMasterPlaylist(url).orElseThrow();
+        return master.lines().filter(line -> line.endsWith("/media.m3u8")).findFirst().orElseThrow().split("/")[0];
+    }
+
+    /**
+     * A transport stream with a PAT, a PMT, and one video packet per frame followed by an audio packet.
+     */
+    private static byte[] transportStream(int frames, int keyFrameInterval) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(packet(0, true, false, programAssociationTable()));
+        out.writeBytes(packet(PMT_PID, true, false, programMapTable()));
+        for (int frame = 0; frame < frames; frame++) {
+            long pts = 126_000 + frame * FRAME_TICKS;
+            out.writeBytes(packet(VIDEO_PID, true, frame % keyFrameInterval == 0, pesHeader(pts)));
+            out.writeBytes(packet(AUDIO_PID, false, false, new byte[0]));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] programAssociationTable() {
+        return new byte[] {
+            0,
+            0x00,
+            (byte) 0xb0,
+            13,
+            0,
+            1,
+            (byte) 0xc1,
+            0,
+            0,
+            0,
+            1,
+            (byte) (0xe0 | PMT_PID >> 8),
+            (byte) PMT_PID,
+            0,
+            0,
+            0,
+            0,
+        };
+    }
+
+    private static byte[] programMapTable() {
+        return new byte[] {
+            0,
+            0x02,
+            (byte) 0xb0,
+            18,
+            0,
+            1,
+            (byte) 0xc1,
+            0,
+            0,
+            (byte) (0xe0 | VIDEO_PID >> 8),
+            (byte) VIDEO_PID,
+            (byte) 0xf0,
+            0,
+            0x1b,
+            (byte) (0xe0 | VIDEO_PID >> 8),
+            (byte) VIDEO_PID,
+            (byte) 0xf0,
+            0,
+            0,
+            0,
+            0,
+            0,
+        };
+    }
+
+    private static byte[] pesHeader(long pts) {
+        return new byte[] {
+            0,
+            0,
+            1,
+            (byte) 0xe0,
+            0,
+            0,
+            (byte) 0x80,
+            (byte) 0x80,
+            5,
+            (byte) (0x21 | ((pts >> 29) & 0x0e)),
+            (byte) (pts >> 22),
+            (byte) (((pts >> 14) & 0xfe) | 1),
+            (byte) (pts >> 7),
+            (byte) (((pts << 1) & 0xfe) | 1),
+        };
+    }
+
+    /**
+     * A packet with an adaptation field carrying the random access indicator and stuffing the packet up to its payload.
+     */
+    private static byte[] packet(int pid, boolean unitStart, boolean randomAccess, byte[] payload) {
+        byte[] packet = new byte[PACKET_SIZE];
+        Arrays.fill(packet, (byte) 0xff);
+        packet[0] = 0x47;
+        packet[1] = (byte) ((unitStart ? 0x40 : 0) | pid >> 8);
+        packet[2] = (byte) pid;
+        packet[3] = 0x30;
+        int adaptationFieldLength = PACKET_SIZE - 5 - payload.length;
+        packet[4] = (byte) adaptationFieldLength;
+        packet[5] = (byte) (randomAccess ? 0x40 : 0);
+        System.arraycopy(payload, 0, packet, PACKET_SIZE - payload.length, payload.length);
+        return packet;
+    }
+}
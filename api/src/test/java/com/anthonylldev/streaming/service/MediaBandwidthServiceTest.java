@@ -0,0 +1,104 @@
+package com.anthonylldev.streaming.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.management.MediaStreamMetersService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MediaBandwidthServiceTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private MeterRegistry meterRegistry;
+
+    private MediaBandwidthService bandwidthService;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Media.Bandwidth properties = applicationProperties.getMedia().getBandwidth();
+        properties.setUserBytesPerSecond(1000);
+        properties.setUserBurst(2000);
+        properties.setGlobalBytesPerSecond(3000);
+        properties.setGlobalBurst(3000);
+        properties.setMaximumStreams(2);
+        properties.setLeaseDuration(30);
+        meterRegistry = new SimpleMeterRegistry();
+        bandwidthService = new MediaBandwidthService(applicationProperties, new MediaStreamMetersService(meterRegistry), nanoTime::get);
+    }
+
+    @Test
+    void testConcurrentStreamsAreCapped() {
+        assertThat(bandwidthService.acquire("user", "film")).isPresent();
+        assertThat(bandwidthService.acquire("user", "episode")).isPresent();
+        // Requests of a stream holding a lease renew it
+        assertThat(bandwidthService.acquire("user", "film")).isPresent();
+
+        assertThat(bandwidthService.acquire("user", "other")).isEmpty();
+        assertThat(bandwidthService.acquire("admin", "other")).isPresent();
+
+        assertThat(meterRegistry.get(MediaStreamMetersService.ACTIVE_STREAMS_METER_NAME).gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get(MediaStreamMetersService.REJECTED_STREAMS_METER_NAME).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testAbandonedStreamsFreeTheirSlot() {
+        MediaBandwidthService.StreamLease film = bandwidthService.acquire("user", "film").orElseThrow();
+        bandwidthService.acquire("user", "episode").orElseThrow();
+
+        // The film keeps being written, the episode is abandoned
+        advance(20);
+        film.acquire(1);
+        advance(20);
+        assertThat(bandwidthService.acquire("user", "other")).isPresent();
+        assertThat(bandwidthService.acquire("user", "episode")).isEmpty();
+
+        advance(60);
+        bandwidthService.removeExpiredLeases();
+        assertThat(meterRegistry.get(MediaStreamMetersService.ACTIVE_STREAMS_METER_NAME).gauge().value()).isZero();
+        assertThat(bandwidthService.acquire("user", "episode")).isPresent();
+    }
+
+    @Test
+    void testStreamsAreShapedByUserAndGlobalBudgets() {
+        MediaBandwidthService.StreamLease film = bandwidthService.acquire("user", "film").orElseThrow();
+        MediaBandwidthService.StreamLease episode = bandwidthService.acquire("user", "episode").orElseThrow();
+        MediaBandwidthService.StreamLease other = bandwidthService.acquire("admin", "film").orElseThrow();
+
+        // The burst of the user is shared by its streams
+        assertThat(film.acquire(1500)).isEqualTo(1500);
+        assertThat(episode.acquire(1500)).isEqualTo(500);
+        assertThat(film.acquire(1)).isZero();
+        assertThat(film.nanosUntilAvailable(500)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+
+        // The global budget is shared by all users
+        assertThat(other.acquire(2000)).isEqualTo(1000);
+
+        // Bytes not written are given back
+        other.release(400);
+        assertThat(other.acquire(2000)).isEqualTo(400);
+
+        advance(1);
+        assertThat(film.acquire(5000)).isEqualTo(1000);
+    }
+
+    @Test
+    void testThrottledStreamsAreCounted() {
+        MediaBandwidthService.StreamLease film = bandwidthService.acquire("user", "film").orElseThrow();
+
+        film.throttled();
+        assertThat(meterRegistry.get(MediaStreamMetersService.THROTTLED_STREAMS_METER_NAME).gauge().value()).isEqualTo(1);
+        film.resumed();
+        assertThat(meterRegistry.get(MediaStreamMetersService.THROTTLED_STREAMS_METER_NAME).gauge().value()).isZero();
+    }
+
+    private void advance(long seconds) {
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
@@ -0,0 +1,133 @@
+package com.anthonylldev.streaming.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.management.MediaReadAheadMetersService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MediaReadAheadServiceTest {
+
+    private static final int BLOCK_SIZE = 16;
+
+    @TempDir
+    Path directory;
+
+    private MeterRegistry meterRegistry;
+
+    private MediaReadAheadService readAheadService;
+
+    private Path path;
+
+    private byte[] content;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Media.ReadAhead properties = applicationProperties.getMedia().getReadAhead();
+        properties.setBlockSize(BLOCK_SIZE);
+        properties.setPoolSize(4 * BLOCK_SIZE);
+        properties.setSegments(2);
+        properties.setMaximumReadAhead(1024);
+        meterRegistry = new SimpleMeterRegistry();
+        // Read ahead synchronously
+        readAheadService =
+            new MediaReadAheadService(applicationProperties, Runnable::run, new MediaReadAheadMetersService(meterRegistry));
+
+        content = new byte[10 * BLOCK_SIZE];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        path = directory.resolve("film.ts");
+        Files.write(path, content);
+    }
+
+    @Test
+    void testSequentialReadsAreReadAhead() {
+        try (MediaReadAheadService.CachedRegion region = readAheadService.read("user", path, "v1", 0, BLOCK_SIZE)) {
+            assertThat(region.getBlocks()).isEmpty();
+        }
+        // Second sequential read: the next 2 regions are read ahead, after this one
+        try (MediaReadAheadService.CachedRegion region = readAheadService.read("user", path, "v1", BLOCK_SIZE, BLOCK_SIZE)) {
+            assertThat(region.getBlocks()).isEmpty();
+        }
+        try (
+            MediaReadAheadService.CachedRegion region = readAheadService.read("user", path, "v1", 2 * BLOCK_SIZE + 4, 2 * BLOCK_SIZE - 4)
+        ) {
+            assertThat(region.getBlocks()).hasSize(2);
+            MediaReadAheadService.CachedBlock first = region.getBlocks().get(0);
+            assertThat(first.getPosition()).isEqualTo(2 * BLOCK_SIZE + 4);
+            assertThat(bytes(first.getContent())).isEqualTo(Arrays.copyOfRange(content, 2 * BLOCK_SIZE + 4, 3 * BLOCK_SIZE));
+            MediaReadAheadService.CachedBlock second = region.getBlocks().get(1);
+            assertThat(second.getPosition()).isEqualTo(3 * BLOCK_SIZE);
+            assertThat(bytes(second.getContent())).isEqualTo(Arrays.copyOfRange(content, 3 * BLOCK_SIZE, 4 * BLOCK_SIZE));
+            // The content is shared, not consumed
+            assertThat(bytes(second.getContent())).hasSize(BLOCK_SIZE);
+        }
+
+        assertThat(meterRegistry.get(MediaReadAheadMetersService.REQUESTS_METER_NAME).tag("result", "hit").counter().count())
+            .isEqualTo(2);
+        assertThat(meterRegistry.get(MediaReadAheadMetersService.REQUESTS_METER_NAME).tag("result", "miss").counter().count())
+            .isEqualTo(2);
+        assertThat(meterRegistry.get(MediaReadAheadMetersService.BYTES_SAVED_METER_NAME).counter().count())
+            .isEqualTo(2 * BLOCK_SIZE - 4);
+        assertThat(meterRegistry.get(MediaReadAheadMetersService.HIT_RATIO_METER_NAME).gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void testRandomReadsAreNotReadAhead() {
+        readAheadService.read("user", path, "v1", 0, BLOCK_SIZE).close();
+        readAheadService.read("user", path, "v1", 6 * BLOCK_SIZE, BLOCK_SIZE).close();
+
+        assertThat(readAheadService.read("other", path, "v1", 7 * BLOCK_SIZE, BLOCK_SIZE).getBlocks()).isEmpty();
+        assertThat(meterRegistry.get(MediaReadAheadMetersService.BYTES_PREFETCHED_METER_NAME).counter().count()).isZero();
+        assertThat(meterRegistry.get(MediaReadAheadMetersService.POOL_USED_METER_NAME).gauge().value()).isZero();
+    }
+
+    @Test
+    void testBlocksAreSharedAcrossSessionsAndVersioned() {
+        readAheadService.read("user", path, "v1", 0, BLOCK_SIZE).close();
+        readAheadService.read("user", path, "v1", BLOCK_SIZE, BLOCK_SIZE).close();
+
+        assertThat(readAheadService.read("other", path, "v1", 2 * BLOCK_SIZE, BLOCK_SIZE).getBlocks()).hasSize(1);
+        assertThat(readAheadService.read("other", path, "v2", 2 * BLOCK_SIZE, BLOCK_SIZE).getBlocks()).isEmpty();
+    }
+
+    @Test
+    void testPoolIsBoundedAndHeldBlocksAreNotEvicted() {
+        readAheadService.read("user", path, "v1", 0, BLOCK_SIZE).close();
+        readAheadService.read("user", path, "v1", BLOCK_SIZE, 2 * BLOCK_SIZE).close();
+        // Blocks 3 to 6 fill the pool
+        assertThat(meterRegistry.get(MediaReadAheadMetersService.POOL_USED_METER_NAME).gauge().value()).isEqualTo(4 * BLOCK_SIZE);
+
+        MediaReadAheadService.CachedRegion held = readAheadService.read("user", path, "v1", 3 * BLOCK_SIZE, 4 * BLOCK_SIZE);
+        assertThat(held.getBlocks()).hasSize(4);
+        // All the blocks are held: nothing can be read ahead
+        assertThat(readAheadService.read("user", path, "v1", 7 * BLOCK_SIZE, BLOCK_SIZE).getBlocks()).isEmpty();
+        assertThat(meterRegistry.get(MediaReadAheadMetersService.BYTES_PREFETCHED_METER_NAME).counter().count()).isEqualTo(4 * BLOCK_SIZE);
+
+        held.close();
+        held.close();
+        // Released blocks are evicted, least recently used first
+        readAheadService.read("user", path, "v1", 8 * BLOCK_SIZE, BLOCK_SIZE).close();
+        assertThat(meterRegistry.get(MediaReadAheadMetersService.BYTES_PREFETCHED_METER_NAME).counter().count()).isEqualTo(5 * BLOCK_SIZE);
+        assertThat(meterRegistry.get(MediaReadAheadMetersService.POOL_USED_METER_NAME).gauge().value()).isEqualTo(4 * BLOCK_SIZE);
+        assertThat(readAheadService.read("other", path, "v1", 3 * BLOCK_SIZE, BLOCK_SIZE).getBlocks()).isEmpty();
+        assertThat(readAheadService.read("other", path, "v1", 9 * BLOCK_SIZE, BLOCK_SIZE).getBlocks()).hasSize(1);
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,96 @@
+package com.anthonylldev.streaming.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.domain.Person;
+import com.anthonylldev.streaming.repository.PersonRepository;
+import com.anthonylldev.streaming.service.dto.PersonDTO;
+import com.anthonylldev.streaming.service.event.PersonChangedEvent;
+import com.anthonylldev.streaming.service.mapper.PersonMapper;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+class PersonSearchServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private PersonSearchService personSearchService;
+
+    @BeforeEach
+    public void setup() {
+        PersonRepository personRepository = mock(PersonRepository.class);
+        when(personRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(new Person().id(invocation.getArgument(0))));
+        PersonMapper personMapper = mock(PersonMapper.class);
+        when(personMapper.toDto(any(Person.class)))
+            .thenAnswer(invocation -> {
+                PersonDTO personDTO = new PersonDTO();
+                personDTO.setId(invocation.<Person>getArgument(0).getId());
+                return personDTO;
+            });
+        jdbcTemplate = mock(JdbcTemplate.class);
+        personSearchService = new PersonSearchService(new ApplicationProperties(), personRepository, personMapper, jdbcTemplate);
+    }
+
+    @Test
+    void testPeopleAreSearchedOnceRebuilt() {
+        whenPeopleRead(() -> {}, person(1L, "Fritz Lang"), person(2L, "Carl Dreyer"));
+        personSearchService.rebuild();
+
+        assertThat(search("lang")).containsExactly(1L);
+        assertThat(search("dreyer")).containsExactly(2L);
+    }
+
+    @Test
+    void testPeopleWrittenWhileRebuildingAreNotOverwritten() {
+        whenPeopleRead(
+            () -> {
+                personSearchService.personChanged(PersonChangedEvent.saved(person(1L, "Werner Herzog")));
+                personSearchService.personChanged(PersonChangedEvent.deleted(2L));
+                personSearchService.personChanged(PersonChangedEvent.saved(person(3L, "Klaus Kinski")));
+            },
+            person(1L, "Fritz Lang"),
+            person(2L, "Carl Dreyer")
+        );
+        personSearchService.rebuild();
+
+        assertThat(search("lang")).isEmpty();
+        assertThat(search("herzog")).containsExactly(1L);
+        assertThat(search("dreyer")).isEmpty();
+        assertThat(search("kinski")).containsExactly(3L);
+    }
+
+    /**
+     * Read some people from the database, once the writes committed meanwhile have run.
+     */
+    private void whenPeopleRead(Runnable concurrentWrites, Person... people) {
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Person>>any(), any(), any()))
+            .thenAnswer(invocation -> {
+                concurrentWrites.run();
+                return List.of(people);
+            });
+    }
+
+    private List<Long> search(String query) {
+        Page<PersonDTO> page = personSearchService.search(query, PageRequest.of(0, 20));
+        assertThat(page.getTotalElements()).isEqualTo(page.getContent().size());
+        return page.getContent().stream().map(PersonDTO::getId).collect(Collectors.toList());
+    }
+
+    private static Person person(Long id, String name) {
+        return new Person().id(id).name(name);
+    }
+}
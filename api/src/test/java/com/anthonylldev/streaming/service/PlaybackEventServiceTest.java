@@ -0,0 +1,146 @@
+package com.anthonylldev.streaming.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.anthonylldev.streaming.config.ApplicationProperties;
+import com.anthonylldev.streaming.domain.enumeration.PlaybackEventType;
+import com.anthonylldev.streaming.management.PlaybackEventMetersService;
+import com.anthonylldev.streaming.service.dto.PlaybackEventDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class PlaybackEventServiceTest {
+
+    private final List<Integer> batches = new ArrayList<>();
+
+    private ApplicationProperties applicationProperties;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getPlaybackEvents().setBufferSize(10);
+        applicationProperties.getPlaybackEvents().setBatchSize(4);
+        applicationProperties.getPlaybackEvents().setRetryBackoff(1);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+            .thenAnswer(invocation -> {
+                int batchSize = invocation.<BatchPreparedStatementSetter>getArgument(1).getBatchSize();
+                batches.add(batchSize);
+                return new int[batchSize];
+            });
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testEventsAreWrittenInBatches() {
+        PlaybackEventService playbackEventService = playbackEventService();
+
+        assertThat(playbackEventService.record("user", events(6))).isTrue();
+        assertThat(playbackEventService.record("admin", events(3))).isTrue();
+        playbackEventService.flush();
+
+        assertThat(batches).containsExactly(4, 4, 1);
+        assertThat(count("written")).isEqualTo(9);
+        assertThat(meterRegistry.get(PlaybackEventMetersService.BUFFERED_EVENTS_METER_NAME).gauge().value()).isZero();
+    }
+
+    @Test
+    void testEventsAreRejectedWhileTheBufferIsFull() {
+        PlaybackEventService playbackEventService = playbackEventService();
+
+        assertThat(playbackEventService.record("user", events(8))).isTrue();
+        // Batches are buffered wholly or not at all
+        assertThat(playbackEventService.record("user", events(3))).isFalse();
+        assertThat(playbackEventService.record("user", events(2))).isTrue();
+        assertThat(playbackEventService.record("user", events(1))).isFalse();
+
+        playbackEventService.flush();
+        assertThat(playbackEventService.record("user", events(1))).isTrue();
+
+        assertThat(count("accepted")).isEqualTo(11);
+        assertThat(count("rejected")).isEqualTo(4);
+    }
+
+    @Test
+    void testEventsAreDroppedWhileTheBufferIsFull() {
+        applicationProperties.getPlaybackEvents().setOverflow(ApplicationProperties.PlaybackEvents.Overflow.DROP);
+        PlaybackEventService playbackEventService = playbackEventService();
+
+        assertThat(playbackEventService.record("user", events(10))).isTrue();
+        assertThat(playbackEventService.record("user", events(1))).isTrue();
+        playbackEventService.flush();
+
+        assertThat(count("written")).isEqualTo(10);
+        assertThat(count("dropped")).isEqualTo(1);
+    }
+
+    @Test
+    void testFailedBatchesAreRetried() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+            .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+            .thenReturn(new int[5]);
+        PlaybackEventService playbackEventService = playbackEventService();
+
+        playbackEventService.record("user", events(3));
+        playbackEventService.flush();
+
+        assertThat(count("written")).isEqualTo(3);
+        assertThat(count("failed")).isZero();
+    }
+
+    @Test
+    void testFailedBatchesAreCounted() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+            .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        PlaybackEventService playbackEventService = playbackEventService();
+
+        playbackEventService.record("user", events(5));
+        playbackEventService.flush();
+
+        assertThat(count("failed")).isEqualTo(5);
+        // Both batches, retried 3 times each
+        verify(jdbcTemplate, times(8)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        assertThat(playbackEventService.record("user", events(10))).isTrue();
+    }
+
+    private PlaybackEventService playbackEventService() {
+        return new PlaybackEventService(
+            applicationProperties,
+            jdbcTemplate,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            new PlaybackEventMetersService(meterRegistry)
+        );
+    }
+
+    private double count(String result) {
+        return meterRegistry.get(PlaybackEventMetersService.EVENTS_METER_NAME).tag("result", result).counter().count();
+    }
+
+    private static List<PlaybackEventDTO> events(int count) {
+        PlaybackEventDTO event = new PlaybackEventDTO();
+        event.setType(PlaybackEventType.HEARTBEAT);
+        event.setFilmId(1L);
+        event.setPosition(42);
+        return Collections.nCopies(count, event);
+    }
+}
@@ -0,0 +1,69 @@
+package com.anthonylldev.streaming.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class CompletionTrieTest {
+
+    private static List<String> complete(CompletionTrie<String> trie, String prefix, int limit) {
+        return trie.complete(prefix, limit).stream().map(CompletionTrie.Completion::getValue).collect(Collectors.toList());
+    }
+
+    @Test
+    void testPrefixesAreCompletedByWeight() {
+        CompletionTrie<String> trie = CompletionTrie
+            .<String>builder()
+            .add("Nosferatu", 30, List.of("nosferatu"))
+            .add("Nosferatu in Venice", 10, List.of("nosferatu in venice", "in venice", "venice"))
+            .add("Night on Earth", 20, List.of("night on earth", "on earth", "earth"))
+            .add("North by Northwest", 40, List.of("north by northwest", "by northwest", "northwest"))
+            .build(10);
+
+        assertThat(trie.size()).isEqualTo(4);
+        assertThat(complete(trie, "n", 10)).containsExactly("North by Northwest", "Nosferatu", "Night on Earth", "Nosferatu in Venice");
+        assertThat(complete(trie, "nos", 10)).containsExactly("Nosferatu", "Nosferatu in Venice");
+        assertThat(complete(trie, "nosferatu", 10)).containsExactly("Nosferatu", "Nosferatu in Venice");
+        assertThat(complete(trie, "nosferatu ", 10)).containsExactly("Nosferatu in Venice");
+        assertThat(complete(trie, "ven", 10)).containsExactly("Nosferatu in Venice");
+        assertThat(complete(trie, "n", 2)).containsExactly("North by Northwest", "Nosferatu");
+        assertThat(complete(trie, "nosferatus", 10)).isEmpty();
+        assertThat(complete(trie, "z", 10)).isEmpty();
+    }
+
+    @Test
+    void testValuesAreCompletedOnce() {
+        CompletionTrie<String> trie = CompletionTrie
+            .<String>builder()
+            .add(
+                "The Night of the Hunter",
+                1,
+                List.of("the night of the hunter", "night of the hunter", "of the hunter", "the hunter", "hunter")
+            )
+            .add("The Thing", 2, List.of("the thing", "thing"))
+            .build(10);
+
+        assertThat(complete(trie, "th", 10)).containsExactly("The Thing", "The Night of the Hunter");
+        assertThat(trie.complete("hunt", 10).get(0).getWeight()).isEqualTo(1);
+    }
+
+    @Test
+    void testCompletionsAreCappedWhenBuilt() {
+        CompletionTrie.Builder<String> builder = CompletionTrie.builder();
+        for (int i = 0; i < 20; i++) {
+            builder.add("Film " + i, i, List.of("film " + i));
+        }
+        CompletionTrie<String> trie = builder.build(3);
+
+        assertThat(complete(trie, "film", 10)).containsExactly("Film 19", "Film 18", "Film 17");
+        assertThat(complete(trie, "film 1", 10)).containsExactly("Film 19", "Film 18", "Film 17");
+        assertThat(complete(trie, "film 2", 10)).containsExactly("Film 2");
+    }
+
+    @Test
+    void testEmptyTrieCompletesNothing() {
+        assertThat(CompletionTrie.<String>builder().build(10).complete("a", 10)).isEmpty();
+    }
+}
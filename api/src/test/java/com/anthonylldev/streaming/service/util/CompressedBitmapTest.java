@@ -0,0 +1,64 @@
+package com.anthonylldev.streaming.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class CompressedBitmapTest {
+
+    @Test
+    void testValuesAreAddedAndRemoved() {
+        CompressedBitmap bitmap = CompressedBitmap.of(3, 1, 70000, -1);
+
+        assertThat(bitmap.add(2)).isTrue();
+        assertThat(bitmap.add(2)).isFalse();
+        assertThat(bitmap.remove(70000)).isTrue();
+        assertThat(bitmap.remove(70000)).isFalse();
+        assertThat(bitmap.contains(1)).isTrue();
+        assertThat(bitmap.contains(-1)).isTrue();
+        assertThat(bitmap.contains(70000)).isFalse();
+        assertThat(bitmap.cardinality()).isEqualTo(4);
+    }
+
+    @Test
+    void testDenseContainersAreIntersected() {
+        CompressedBitmap even = new CompressedBitmap();
+        CompressedBitmap thirds = new CompressedBitmap();
+        for (long value = 0; value < 200000; value++) {
+            if (value % 2 == 0) {
+                even.add(value);
+            }
+            if (value % 3 == 0) {
+                thirds.add(value);
+            }
+        }
+
+        assertThat(even.cardinality()).isEqualTo(100000);
+        assertThat(even.andCardinality(thirds)).isEqualTo(33334);
+        assertThat(even.and(thirds).cardinality()).isEqualTo(33334);
+        assertThat(even.and(thirds).contains(6)).isTrue();
+        assertThat(even.or(thirds).cardinality()).isEqualTo(100000 + 66667 - 33334);
+    }
+
+    @Test
+    void testSparseAndDenseContainersAreIntersected() {
+        CompressedBitmap dense = new CompressedBitmap();
+        for (long value = 0; value < 10000; value++) {
+            dense.add(value);
+        }
+        CompressedBitmap sparse = CompressedBitmap.of(5, 9999, 10000, 20000);
+
+        assertThat(dense.andCardinality(sparse)).isEqualTo(2);
+        assertThat(sparse.and(dense).cardinality()).isEqualTo(2);
+        assertThat(sparse.or(dense).cardinality()).isEqualTo(10002);
+
+        // Back to an array once sparse again
+        for (long value = 100; value < 10000; value++) {
+            dense.remove(value);
+        }
+        assertThat(dense.cardinality()).isEqualTo(100);
+        assertThat(dense.andCardinality(sparse)).isEqualTo(1);
+        assertThat(dense.add(5000)).isTrue();
+        assertThat(dense.contains(5000)).isTrue();
+    }
+}
@@ -0,0 +1,53 @@
+package com.anthonylldev.streaming.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class FuzzyIndexTest {
+
+    @Test
+    void testDistanceIsBounded() {
+        assertThat(FuzzyIndex.distance("herzog", "herzog", 2)).isZero();
+        assertThat(FuzzyIndex.distance("herzog", "herzg", 2)).isEqualTo(1);
+        assertThat(FuzzyIndex.distance("herzog", "herzgo", 2)).isEqualTo(2);
+        assertThat(FuzzyIndex.distance("herzog", "hertzgo", 2)).isEqualTo(3);
+        assertThat(FuzzyIndex.distance("herzog", "kinski", 2)).isEqualTo(3);
+    }
+
+    @Test
+    void testKeysWithinTheMaximumDistanceAreFound() {
+        FuzzyIndex index = new FuzzyIndex();
+        index.put(1L, List.of("werner herzog", "werner", "herzog"));
+        index.put(2L, List.of("klaus kinski", "klaus", "kinski"));
+        index.put(3L, List.of("wener"));
+
+        assertThat(index.search("herzgo")).containsExactly(1L);
+        assertThat(index.search("wener herzog")).containsExactly(1L);
+        // The closest first
+        assertThat(index.search("werner")).containsExactly(1L, 3L);
+        assertThat(index.search("kinsky")).containsExactly(2L);
+        // A single edit under 6 characters, none under 3
+        assertThat(index.search("klas")).containsExactly(2L);
+        assertThat(index.search("kl")).isEmpty();
+        assertThat(index.search("nosferatu")).isEmpty();
+    }
+
+    @Test
+    void testDocumentsAreReplacedAndRemoved() {
+        FuzzyIndex index = new FuzzyIndex();
+        index.put(1L, List.of("murnau"));
+        index.put(2L, List.of("murnau"));
+        index.put(1L, List.of("lang"));
+
+        assertThat(index.search("murnau")).containsExactly(2L);
+        assertThat(index.search("lang")).containsExactly(1L);
+
+        index.remove(2L);
+        assertThat(index.search("murnau")).isEmpty();
+        index.remove(1L);
+        assertThat(index.size()).isZero();
+        assertThat(index.search("lang")).isEmpty();
+    }
+}
@@ -0,0 +1,61 @@
+package com.anthonylldev.streaming.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    @Test
+    void testDistinctItemsAreEstimated() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int i = 0; i < 100000; i++) {
+            sketch.add("user-" + (i % 20000));
+        }
+
+        assertThat(sketch.add("user-42")).isFalse();
+        assertThat((double) sketch.estimate()).isCloseTo(20000, within(20000 * 0.05));
+    }
+
+    @Test
+    void testSmallCardinalitiesAreExact() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        assertThat(sketch.estimate()).isZero();
+        for (int i = 0; i < 10; i++) {
+            sketch.add("user-" + i);
+        }
+
+        assertThat(sketch.estimate()).isEqualTo(10);
+    }
+
+    @Test
+    void testSketchesAreMerged() {
+        HyperLogLog monday = new HyperLogLog(12);
+        HyperLogLog tuesday = new HyperLogLog(12);
+        for (int i = 0; i < 6000; i++) {
+            monday.add("user-" + i);
+            tuesday.add("user-" + (i + 4000));
+        }
+
+        monday.merge(tuesday);
+        assertThat((double) monday.estimate()).isCloseTo(10000, within(10000 * 0.05));
+    }
+
+    @Test
+    void testSketchesAreSerializedCompactly() {
+        HyperLogLog sparse = new HyperLogLog(12);
+        for (int i = 0; i < 100; i++) {
+            sparse.add("user-" + i);
+        }
+        HyperLogLog dense = new HyperLogLog(12);
+        for (int i = 0; i < 100000; i++) {
+            dense.add("user-" + i);
+        }
+
+        assertThat(sparse.toByteArray()).hasSizeLessThan(400);
+        assertThat(HyperLogLog.fromByteArray(sparse.toByteArray()).estimate()).isEqualTo(sparse.estimate());
+        assertThat(dense.toByteArray()).hasSize(2 + 4096);
+        assertThat(HyperLogLog.fromByteArray(dense.toByteArray()).estimate()).isEqualTo(dense.estimate());
+    }
+}
@@ -0,0 +1,56 @@
+package com.anthonylldev.streaming.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class InvertedIndexTest {
+
+    @Test
+    void testDocumentsAreRankedByRelevance() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, TextAnalyzer.tokenize("The night of the hunter"));
+        index.put(2L, TextAnalyzer.tokenize("Night on Earth"));
+        index.put(3L, TextAnalyzer.tokenize("Night and the city, night"));
+        index.put(4L, TextAnalyzer.tokenize("The hunter"));
+
+        // More frequent terms and shorter documents weigh more
+        assertThat(index.search(TextAnalyzer.tokenize("night"))).containsExactly(3L, 2L, 1L);
+        // Rare terms weigh more than common ones
+        assertThat(index.search(TextAnalyzer.tokenize("night hunter"))).startsWith(1L, 4L);
+        assertThat(index.search(TextAnalyzer.tokenize("day"))).isEmpty();
+    }
+
+    @Test
+    void testTermsAreNormalized() {
+        assertThat(TextAnalyzer.tokenize("Le Fabuleux Destin d'Amélie Poulain")).containsExactly(
+            "le",
+            "fabuleux",
+            "destin",
+            "d",
+            "amelie",
+            "poulain"
+        );
+
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, TextAnalyzer.tokenize("Amélie"));
+        assertThat(index.search(TextAnalyzer.tokenize("AMELIE"))).containsExactly(1L);
+    }
+
+    @Test
+    void testDocumentsAreReplacedAndRemoved() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, TextAnalyzer.tokenize("Metropolis"));
+        index.put(2L, TextAnalyzer.tokenize("Nosferatu"));
+        index.put(1L, TextAnalyzer.tokenize("Sunrise"));
+
+        assertThat(index.search(List.of("metropolis"))).isEmpty();
+        assertThat(index.search(List.of("sunrise"))).containsExactly(1L);
+
+        index.remove(2L);
+        assertThat(index.search(List.of("nosferatu"))).isEmpty();
+        index.remove(1L);
+        assertThat(index.size()).isZero();
+    }
+}
@@ -7,6 +7,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.anthonylldev.streaming.IntegrationTest;
+import com.anthonylldev.streaming.config.ApplicationProperties;
 import com.anthonylldev.streaming.domain.Episode;
 import com.anthonylldev.streaming.domain.Film;
 import com.anthonylldev.streaming.repository.EpisodeRepository;
@@ -14,7 +15,12 @@ import com.anthonylldev.streaming.service.EpisodeService;
 import com.anthonylldev.streaming.service.criteria.EpisodeCriteria;
 import com.anthonylldev.streaming.service.dto.EpisodeDTO;
 import com.anthonylldev.streaming.service.mapper.EpisodeMapper;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -29,6 +35,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -53,6 +60,9 @@ class EpisodeResourceIT {
     private static final Integer UPDATED_ORDER = 2;
     private static final Integer SMALLER_ORDER = 1 - 1;
 
+    private static final String DEFAULT_URL = "AAAAAAAAAA";
+    private static final String UPDATED_URL = "BBBBBBBBBB";
+
     private static final String ENTITY_API_URL = "/api/episodes";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
 
@@ -62,6 +72,9 @@ class EpisodeResourceIT {
     @Autowired
     private EpisodeRepository episodeRepository;
 
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     @Mock
     private EpisodeRepository episodeRepositoryMock;
 
@@ -86,7 +99,7 @@ class EpisodeResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static Episode createEntity(EntityManager em) {
-        Episode episode = new Episode().title(DEFAULT_TITLE).synopsis(DEFAULT_SYNOPSIS).order(DEFAULT_ORDER);
+        Episode episode = new Episode().title(DEFAULT_TITLE).synopsis(DEFAULT_SYNOPSIS).order(DEFAULT_ORDER).url(DEFAULT_URL);
         return episode;
     }
 
@@ -97,7 +110,7 @@ class EpisodeResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static Episode createUpdatedEntity(EntityManager em) {
-        Episode episode = new Episode().title(UPDATED_TITLE).synopsis(UPDATED_SYNOPSIS).order(UPDATED_ORDER);
+        Episode episode = new Episode().title(UPDATED_TITLE).synopsis(UPDATED_SYNOPSIS).order(UPDATED_ORDER).url(UPDATED_URL);
         return episode;
     }
 
@@ -123,6 +136,7 @@ class EpisodeResourceIT {
         assertThat(testEpisode.getTitle()).isEqualTo(DEFAULT_TITLE);
         assertThat(testEpisode.getSynopsis()).isEqualTo(DEFAULT_SYNOPSIS);
         assertThat(testEpisode.getOrder()).isEqualTo(DEFAULT_ORDER);
+        assertThat(testEpisode.getUrl()).isEqualTo(DEFAULT_URL);
     }
 
     @Test
@@ -176,7 +190,8 @@ class EpisodeResourceIT {
             .andExpect(jsonPath("$.[*].id").value(hasItem(episode.getId().intValue())))
             .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
             .andExpect(jsonPath("$.[*].synopsis").value(hasItem(DEFAULT_SYNOPSIS)))
-            .andExpect(jsonPath("$.[*].order").value(hasItem(DEFAULT_ORDER)));
+            .andExpect(jsonPath("$.[*].order").value(hasItem(DEFAULT_ORDER)))
+            .andExpect(jsonPath("$.[*].url").value(hasItem(DEFAULT_URL)));
     }
 
     @SuppressWarnings({ "unchecked" })
@@ -210,7 +225,8 @@ class EpisodeResourceIT {
             .andExpect(jsonPath("$.id").value(episode.getId().intValue()))
             .andExpect(jsonPath("$.title").value(DEFAULT_TITLE))
             .andExpect(jsonPath("$.synopsis").value(DEFAULT_SYNOPSIS))
-            .andExpect(jsonPath("$.order").value(DEFAULT_ORDER));
+            .andExpect(jsonPath("$.order").value(DEFAULT_ORDER))
+            .andExpect(jsonPath("$.url").value(DEFAULT_URL));
     }
 
     @Test
@@ -486,7 +502,8 @@ class EpisodeResourceIT {
             .andExpect(jsonPath("$.[*].id").value(hasItem(episode.getId().intValue())))
             .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
             .andExpect(jsonPath("$.[*].synopsis").value(hasItem(DEFAULT_SYNOPSIS)))
-            .andExpect(jsonPath("$.[*].order").value(hasItem(DEFAULT_ORDER)));
+            .andExpect(jsonPath("$.[*].order").value(hasItem(DEFAULT_ORDER)))
+            .andExpect(jsonPath("$.[*].url").value(hasItem(DEFAULT_URL)));
 
         // Check, that the count call also returns 1
         restEpisodeMockMvc
@@ -515,6 +532,34 @@ class EpisodeResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void streamEpisodeRange() throws Exception {
+        // Initialize the database
+        episodeRepository.saveAndFlush(episode.url("episodes/episode.mp4"));
+        byte[] media = "ABCDEFGHIJKLMNOP".getBytes(StandardCharsets.US_ASCII);
+        Path path = Paths.get(applicationProperties.getMedia().getDirectory()).resolve("episodes/episode.mp4");
+        Files.createDirectories(path.getParent());
+        Files.write(path, media);
+
+        // Stream the media of the episode from its 8th byte
+        restEpisodeMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/stream", episode.getId()).header(HttpHeaders.RANGE, "bytes=8-"))
+            .andExpect(status().isPartialContent())
+            .andExpect(content().contentType("video/mp4"))
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 8-15/16"))
+            .andExpect(content().bytes(Arrays.copyOfRange(media, 8, 16)));
+    }
+
+    @Test
+    @Transactional
+    void streamNonExistingEpisodeMedia() throws Exception {
+        // Initialize the database
+        episodeRepository.saveAndFlush(episode.url("episodes/missing.mp4"));
+
+        restEpisodeMockMvc.perform(get(ENTITY_API_URL_ID + "/stream", episode.getId())).andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void getNonExistingEpisode() throws Exception {
@@ -534,7 +579,7 @@ class EpisodeResourceIT {
         Episode updatedEpisode = episodeRepository.findById(episode.getId()).get();
         // Disconnect from session so that the updates on updatedEpisode are not directly saved in db
         em.detach(updatedEpisode);
-        updatedEpisode.title(UPDATED_TITLE).synopsis(UPDATED_SYNOPSIS).order(UPDATED_ORDER);
+        updatedEpisode.title(UPDATED_TITLE).synopsis(UPDATED_SYNOPSIS).order(UPDATED_ORDER).url(UPDATED_URL);
         EpisodeDTO episodeDTO = episodeMapper.toDto(updatedEpisode);
 
         restEpisodeMockMvc
@@ -552,6 +597,7 @@ class EpisodeResourceIT {
         assertThat(testEpisode.getTitle()).isEqualTo(UPDATED_TITLE);
         assertThat(testEpisode.getSynopsis()).isEqualTo(UPDATED_SYNOPSIS);
         assertThat(testEpisode.getOrder()).isEqualTo(UPDATED_ORDER);
+        assertThat(testEpisode.getUrl()).isEqualTo(UPDATED_URL);
     }
 
     @Test
@@ -648,6 +694,7 @@ class EpisodeResourceIT {
         assertThat(testEpisode.getTitle()).isEqualTo(UPDATED_TITLE);
         assertThat(testEpisode.getSynopsis()).isEqualTo(DEFAULT_SYNOPSIS);
         assertThat(testEpisode.getOrder()).isEqualTo(UPDATED_ORDER);
+        assertThat(testEpisode.getUrl()).isEqualTo(DEFAULT_URL);
     }
 
     @Test
@@ -662,7 +709,7 @@ class EpisodeResourceIT {
         Episode partialUpdatedEpisode = new Episode();
         partialUpdatedEpisode.setId(episode.getId());
 
-        partialUpdatedEpisode.title(UPDATED_TITLE).synopsis(UPDATED_SYNOPSIS).order(UPDATED_ORDER);
+        partialUpdatedEpisode.title(UPDATED_TITLE).synopsis(UPDATED_SYNOPSIS).order(UPDATED_ORDER).url(UPDATED_URL);
 
         restEpisodeMockMvc
             .perform(
@@ -679,6 +726,7 @@ class EpisodeResourceIT {
         assertThat(testEpisode.getTitle()).isEqualTo(UPDATED_TITLE);
         assertThat(testEpisode.getSynopsis()).isEqualTo(UPDATED_SYNOPSIS);
         assertThat(testEpisode.getOrder()).isEqualTo(UPDATED_ORDER);
+        assertThat(testEpisode.getUrl()).isEqualTo(UPDATED_URL);
     }
 
     @Test
@@ -0,0 +1,136 @@
+package com.anthonylldev.streaming.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.anthonylldev.streaming.IntegrationTest;
+import com.anthonylldev.streaming.repository.FilmRepository;
+import com.anthonylldev.streaming.service.FilmCatalogService;
+import com.anthonylldev.streaming.service.criteria.FilmCriteria;
+import com.anthonylldev.streaming.service.dto.FilmDTO;
+import com.anthonylldev.streaming.service.mapper.FilmMapper;
+import com.jayway.jsonpath.JsonPath;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration tests for the {@link FilmResource} REST controller, listing and counting the films as in production: from
+ * the catalog snapshot, and through the cached counts and pages.
+ * <p>
+ * The snapshot and the caches only see committed writes, so the films are written through the REST controller, outside
+ * of any test transaction, and deleted after each test instead. The films listed and counted are checked against the
+ * database.
+ */
+@IntegrationTest
+@TestPropertySource(properties = { "application.catalog.enabled=true", "application.count.time-to-live=60000" })
+@AutoConfigureMockMvc
+@WithMockUser
+class FilmResourceCatalogIT {
+
+    private static final String ENTITY_API_URL = "/api/films";
+
+    @Autowired
+    private FilmRepository filmRepository;
+
+    @Autowired
+    private FilmMapper filmMapper;
+
+    @Autowired
+    private FilmCatalogService filmCatalogService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc restFilmMockMvc;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    public void initTest() throws Exception {
+        ids.add(createFilm("CCCCCCCCCC", LocalDateTime.of(2020, 1, 1, 10, 0)));
+        ids.add(createFilm("AAAAAAAAAA", LocalDateTime.of(2020, 1, 3, 10, 0)));
+        ids.add(createFilm("BBBBBBBBBB", LocalDateTime.of(2020, 1, 2, 10, 0)));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        filmRepository.deleteAll(filmRepository.findAllById(ids));
+    }
+
+    @Test
+    void getAllFilmsFromTheSnapshot() throws Exception {
+        // Sorted by a column of the snapshot, the films are not read from the database
+        FilmCriteria criteria = new FilmCriteria();
+        criteria.id().setIn(ids);
+        assertThat(filmCatalogService.findIds(criteria, PageRequest.of(0, 2, Sort.by(Sort.Order.desc("publicationDate"))))).isPresent();
+
+        assertFilms("publicationDate,desc", "publication_date DESC, id");
+        assertFilms("publicationDate,asc", "publication_date, id");
+
+        // The films written are listed and counted at once
+        ids.add(createFilm("DDDDDDDDDD", LocalDateTime.of(2020, 2, 1, 10, 0)));
+        assertFilms("publicationDate,desc", "publication_date DESC, id");
+        restFilmMockMvc.perform(delete(ENTITY_API_URL + "/{id}", ids.get(0))).andExpect(status().isNoContent());
+        assertFilms("publicationDate,desc", "publication_date DESC, id");
+    }
+
+    @Test
+    void getAllFilmsFromTheCachedPages() throws Exception {
+        // Sorted by title, collated by the database, the films are read from the database and their pages cached
+        assertFilms("title,asc", "title");
+        assertFilms("title,asc", "title");
+
+        // The films written are listed and counted at once
+        ids.add(createFilm("ABABABABAB", LocalDateTime.of(2020, 2, 1, 10, 0)));
+        assertFilms("title,asc", "title");
+        restFilmMockMvc.perform(delete(ENTITY_API_URL + "/{id}", ids.get(1))).andExpect(status().isNoContent());
+        assertFilms("title,asc", "title");
+    }
+
+    private Long createFilm(String title, LocalDateTime publicationDate) throws Exception {
+        FilmDTO filmDTO = filmMapper.toDto(FilmResourceIT.createEntity(null).title(title).publicationDate(publicationDate));
+        filmDTO.setCover(TestUtil.createByteArray(1, "0"));
+        MvcResult result = restFilmMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(filmDTO)))
+            .andExpect(status().isCreated())
+            .andReturn();
+        return ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.id")).longValue();
+    }
+
+    /**
+     * Check the first page of the films, their total and their count against the database.
+     */
+    private void assertFilms(String sort, String orderBy) throws Exception {
+        String in = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        List<Long> expected = jdbcTemplate.queryForList("SELECT id FROM film WHERE id IN (" + in + ") ORDER BY " + orderBy, Long.class);
+
+        MvcResult result = restFilmMockMvc
+            .perform(get(ENTITY_API_URL + "?id.in=" + in + "&sort=" + sort + "&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", String.valueOf(expected.size())))
+            .andReturn();
+        List<Number> listed = JsonPath.read(result.getResponse().getContentAsString(), "$.[*].id");
+        assertThat(listed.stream().map(Number::longValue)).containsExactlyElementsOf(expected.subList(0, 2));
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL + "/count?id.in=" + in))
+            .andExpect(status().isOk())
+            .andExpect(content().string(String.valueOf(expected.size())));
+    }
+}
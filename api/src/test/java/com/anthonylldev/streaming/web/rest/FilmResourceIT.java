@@ -1,23 +1,45 @@
 package com.anthonylldev.streaming.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.anthonylldev.streaming.IntegrationTest;
+import com.anthonylldev.streaming.config.ApplicationProperties;
 import com.anthonylldev.streaming.domain.Episode;
 import com.anthonylldev.streaming.domain.Film;
 import com.anthonylldev.streaming.domain.Person;
 import com.anthonylldev.streaming.domain.enumeration.FilmType;
 import com.anthonylldev.streaming.domain.enumeration.Gender;
+import com.anthonylldev.streaming.domain.enumeration.PlaybackEventType;
 import com.anthonylldev.streaming.repository.FilmRepository;
+import com.anthonylldev.streaming.service.BlobStore;
+import com.anthonylldev.streaming.service.FilmAudienceService;
+import com.anthonylldev.streaming.service.FilmFacetService;
+import com.anthonylldev.streaming.service.FilmSearchService;
 import com.anthonylldev.streaming.service.FilmService;
+import com.anthonylldev.streaming.service.FilmViewRollupService;
+import com.anthonylldev.streaming.service.FilmViewService;
 import com.anthonylldev.streaming.service.criteria.FilmCriteria;
 import com.anthonylldev.streaming.service.dto.FilmDTO;
 import com.anthonylldev.streaming.service.mapper.FilmMapper;
+import com.anthonylldev.streaming.service.util.ContentHashUtil;
+import com.jayway.jsonpath.JsonPath;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -32,11 +54,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.Base64Utils;
 
 /**
  * Integration tests for the {@link FilmResource} REST controller.
@@ -61,6 +84,8 @@ class FilmResourceIT {
     private static final byte[] UPDATED_COVER = TestUtil.createByteArray(1, "1");
     private static final String DEFAULT_COVER_CONTENT_TYPE = "image/jpg";
     private static final String UPDATED_COVER_CONTENT_TYPE = "image/png";
+    private static final String DEFAULT_COVER_HASH = ContentHashUtil.sha256Hex(DEFAULT_COVER);
+    private static final String UPDATED_COVER_HASH = ContentHashUtil.sha256Hex(UPDATED_COVER);
 
     private static final Long DEFAULT_REVIEWS = 1L;
     private static final Long UPDATED_REVIEWS = 2L;
@@ -79,6 +104,8 @@ class FilmResourceIT {
     private static final String DEFAULT_URL = "AAAAAAAAAA";
     private static final String UPDATED_URL = "BBBBBBBBBB";
 
+    private static final byte[] DEFAULT_MEDIA = "ABCDEFGHIJKLMNOP".getBytes(StandardCharsets.US_ASCII);
+
     private static final String ENTITY_API_URL = "/api/films";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
 
@@ -88,12 +115,36 @@ class FilmResourceIT {
     @Autowired
     private FilmRepository filmRepository;
 
+    @Autowired
+    private FilmFacetService filmFacetService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     @Mock
     private FilmRepository filmRepositoryMock;
 
     @Autowired
     private FilmMapper filmMapper;
 
+    @Autowired
+    private FilmViewService filmViewService;
+
+    @Autowired
+    private FilmAudienceService filmAudienceService;
+
+    @Autowired
+    private FilmViewRollupService filmViewRollupService;
+
+    @Autowired
+    private FilmSearchService filmSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Mock
     private FilmService filmServiceMock;
 
@@ -116,8 +167,8 @@ class FilmResourceIT {
             .title(DEFAULT_TITLE)
             .synopsis(DEFAULT_SYNOPSIS)
             .views(DEFAULT_VIEWS)
-            .cover(DEFAULT_COVER)
             .coverContentType(DEFAULT_COVER_CONTENT_TYPE)
+            .coverHash(DEFAULT_COVER_HASH)
             .reviews(DEFAULT_REVIEWS)
             .gender(DEFAULT_GENDER)
             .filmType(DEFAULT_FILM_TYPE)
@@ -137,7 +188,6 @@ class FilmResourceIT {
             .title(UPDATED_TITLE)
             .synopsis(UPDATED_SYNOPSIS)
             .views(UPDATED_VIEWS)
-            .cover(UPDATED_COVER)
             .coverContentType(UPDATED_COVER_CONTENT_TYPE)
             .reviews(UPDATED_REVIEWS)
             .gender(UPDATED_GENDER)
@@ -152,12 +202,19 @@ class FilmResourceIT {
         film = createEntity(em);
     }
 
+    private void writeMedia(String url, byte[] content) throws IOException {
+        Path path = Paths.get(applicationProperties.getMedia().getDirectory()).resolve(url);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content);
+    }
+
     @Test
     @Transactional
     void createFilm() throws Exception {
         int databaseSizeBeforeCreate = filmRepository.findAll().size();
         // Create the Film
         FilmDTO filmDTO = filmMapper.toDto(film);
+        filmDTO.setCover(DEFAULT_COVER);
         restFilmMockMvc
             .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(filmDTO)))
             .andExpect(status().isCreated());
@@ -169,7 +226,8 @@ class FilmResourceIT {
         assertThat(testFilm.getTitle()).isEqualTo(DEFAULT_TITLE);
         assertThat(testFilm.getSynopsis()).isEqualTo(DEFAULT_SYNOPSIS);
         assertThat(testFilm.getViews()).isEqualTo(DEFAULT_VIEWS);
-        assertThat(testFilm.getCover()).isEqualTo(DEFAULT_COVER);
+        assertThat(testFilm.getCoverHash()).isEqualTo(DEFAULT_COVER_HASH);
+        assertThat(blobStore.find(testFilm.getCoverHash()).orElseThrow().getInputStream()).hasBinaryContent(DEFAULT_COVER);
         assertThat(testFilm.getCoverContentType()).isEqualTo(DEFAULT_COVER_CONTENT_TYPE);
         assertThat(testFilm.getReviews()).isEqualTo(DEFAULT_REVIEWS);
         assertThat(testFilm.getGender()).isEqualTo(DEFAULT_GENDER);
@@ -249,7 +307,8 @@ class FilmResourceIT {
             .andExpect(jsonPath("$.[*].synopsis").value(hasItem(DEFAULT_SYNOPSIS)))
             .andExpect(jsonPath("$.[*].views").value(hasItem(DEFAULT_VIEWS)))
             .andExpect(jsonPath("$.[*].coverContentType").value(hasItem(DEFAULT_COVER_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].cover").value(hasItem(Base64Utils.encodeToString(DEFAULT_COVER))))
+            .andExpect(jsonPath("$.[*].coverHash").value(hasItem(DEFAULT_COVER_HASH)))
+            .andExpect(jsonPath("$.[*].cover").doesNotExist())
             .andExpect(jsonPath("$.[*].reviews").value(hasItem(DEFAULT_REVIEWS.intValue())))
             .andExpect(jsonPath("$.[*].gender").value(hasItem(DEFAULT_GENDER.toString())))
             .andExpect(jsonPath("$.[*].filmType").value(hasItem(DEFAULT_FILM_TYPE.toString())))
@@ -290,7 +349,8 @@ class FilmResourceIT {
             .andExpect(jsonPath("$.synopsis").value(DEFAULT_SYNOPSIS))
             .andExpect(jsonPath("$.views").value(DEFAULT_VIEWS))
             .andExpect(jsonPath("$.coverContentType").value(DEFAULT_COVER_CONTENT_TYPE))
-            .andExpect(jsonPath("$.cover").value(Base64Utils.encodeToString(DEFAULT_COVER)))
+            .andExpect(jsonPath("$.coverHash").value(DEFAULT_COVER_HASH))
+            .andExpect(jsonPath("$.cover").doesNotExist())
             .andExpect(jsonPath("$.reviews").value(DEFAULT_REVIEWS.intValue()))
             .andExpect(jsonPath("$.gender").value(DEFAULT_GENDER.toString()))
             .andExpect(jsonPath("$.filmType").value(DEFAULT_FILM_TYPE.toString()))
@@ -381,6 +441,146 @@ class FilmResourceIT {
         defaultFilmShouldBeFound("title.doesNotContain=" + UPDATED_TITLE);
     }
 
+    @Test
+    @Transactional
+    void getAllFilmsByTitleSearchSomething() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+
+        // Get all the filmList where title contains the words of DEFAULT_TITLE
+        defaultFilmShouldBeFound("title.search=" + DEFAULT_TITLE);
+
+        // Get all the filmList where title contains the words of UPDATED_TITLE
+        defaultFilmShouldNotBeFound("title.search=" + UPDATED_TITLE);
+    }
+
+    @Test
+    @Transactional
+    void getAllFilmsByTitleFuzzySomething() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+
+        // Get all the filmList where title is similar to DEFAULT_TITLE with a typo
+        defaultFilmShouldBeFound("title.fuzzy=" + DEFAULT_TITLE.substring(1) + "B");
+
+        // Get all the filmList where title is similar to UPDATED_TITLE
+        defaultFilmShouldNotBeFound("title.fuzzy=" + UPDATED_TITLE);
+    }
+
+    @Test
+    @Transactional
+    void getAllFilmsSortedByRelevance() throws Exception {
+        // Initialize the database
+        Film sequel = filmRepository.saveAndFlush(createEntity(em).title("Nosferatu in Venice"));
+        filmRepository.saveAndFlush(film.title("Nosferatu"));
+
+        // Get all the filmList where title is similar to a misspelled title, the most similar first
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL + "?title.fuzzy=nosferatou&sort=relevance,desc&sort=id,asc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(film.getId().intValue(), sequel.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllFilmsByCursor() throws Exception {
+        // Initialize the database
+        Film first = filmRepository.saveAndFlush(createEntity(em).title("CCCCCCCCCC"));
+        Film second = filmRepository.saveAndFlush(film.title("BBBBBBBBBB"));
+        Film third = filmRepository.saveAndFlush(createEntity(em).title("AAAAAAAAAA"));
+        String query = "?id.in=" + first.getId() + "," + second.getId() + "," + third.getId() + "&sort=title,desc&size=2&cursor=";
+
+        // Get the first slice, with no total count but a link to the next one
+        String next = restFilmMockMvc
+            .perform(get(ENTITY_API_URL + query))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(contains(first.getId().intValue(), second.getId().intValue())))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.LINK);
+        assertThat(next).endsWith(">; rel=\"next\"");
+        String cursor = next.substring(next.indexOf("cursor=") + "cursor=".length(), next.indexOf('>'));
+
+        // Get the next slice, the last one
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL + query + cursor))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue())));
+
+        // A cursor of another sort, or garbage, is rejected
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=title,desc&sort=views,asc&cursor=" + cursor))
+            .andExpect(status().isBadRequest());
+        restFilmMockMvc.perform(get(ENTITY_API_URL + "?cursor=garbage")).andExpect(status().isBadRequest());
+        restFilmMockMvc.perform(get(ENTITY_API_URL + "?sort=people,asc&cursor=")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllFilmsByCursorOnPublicationDate() throws Exception {
+        // Initialize the database with films published within the same minute
+        LocalDateTime minute = LocalDateTime.of(2020, 1, 1, 10, 0);
+        Film first = filmRepository.saveAndFlush(createEntity(em).publicationDate(minute.plusSeconds(10)));
+        Film second = filmRepository.saveAndFlush(film.publicationDate(minute.plusSeconds(20).plusNanos(500_000_000)));
+        Film third = filmRepository.saveAndFlush(createEntity(em).publicationDate(minute.plusSeconds(30)));
+        String query = "?id.in=" + first.getId() + "," + second.getId() + "," + third.getId() + "&sort=publicationDate,asc&size=1&cursor=";
+
+        // Each slice seeks past the exact publication date of the last film of the previous one
+        String cursor = "";
+        for (Film expected : List.of(first, second, third)) {
+            String next = restFilmMockMvc
+                .perform(get(ENTITY_API_URL + query + cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(expected.getId().intValue())))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.LINK);
+            cursor = next == null ? null : next.substring(next.indexOf("cursor=") + "cursor=".length(), next.indexOf('>'));
+        }
+        assertThat(cursor).isNull();
+    }
+
+    @Test
+    @Transactional
+    void countFilmsByCountMode() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+
+        // Filtered, the films are counted even if an estimate is requested
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL + "/count?id.equals=" + film.getId()).header("X-Total-Count-Mode", "estimate"))
+            .andExpect(status().isOk())
+            .andExpect(content().string("1"));
+        restFilmMockMvc.perform(get(ENTITY_API_URL).header("X-Total-Count-Mode", "guess")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getFilmFacets() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+        filmFacetService.rebuild();
+
+        // Filtered by id, the films are read from the database
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL + "/facets?id.equals=" + film.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.total").value(1))
+            .andExpect(jsonPath("$.gender." + DEFAULT_GENDER).value(1))
+            .andExpect(jsonPath("$.gender." + UPDATED_GENDER).value(0))
+            .andExpect(jsonPath("$.filmType." + DEFAULT_FILM_TYPE).value(1))
+            .andExpect(jsonPath("$.views[*].count").value(hasItem(1)));
+
+        // Filtered by gender, the films are read from the index
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL + "/facets?gender.equals=" + UPDATED_GENDER))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.gender." + DEFAULT_GENDER).value(0));
+    }
+
     @Test
     @Transactional
     void getAllFilmsBySynopsisIsEqualToSomething() throws Exception {
@@ -908,6 +1108,30 @@ class FilmResourceIT {
         defaultFilmShouldNotBeFound("episodesId.equals=" + (episodesId + 1));
     }
 
+    @Test
+    @Transactional
+    void getAllFilmsByPeopleAreFoundOnce() throws Exception {
+        Person person = PersonResourceIT.createEntity(em);
+        Person otherPerson = PersonResourceIT.createEntity(em);
+        em.persist(person);
+        em.persist(otherPerson);
+        film.addPerson(person);
+        film.addPerson(otherPerson);
+        filmRepository.saveAndFlush(film);
+        String people = "personId.in=" + person.getId() + "," + otherPerson.getId();
+
+        // Get all the filmList where person is in both people, without distinct
+        defaultFilmShouldBeFound(people);
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL + "?id.equals=" + film.getId() + "&" + people))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)));
+
+        // Get all the filmList where person is specified, or not
+        defaultFilmShouldBeFound("id.equals=" + film.getId() + "&personId.specified=true");
+        defaultFilmShouldNotBeFound("id.equals=" + film.getId() + "&personId.specified=false");
+    }
+
     /**
      * Executes the search, and checks that the default entity is returned.
      */
@@ -921,7 +1145,8 @@ class FilmResourceIT {
             .andExpect(jsonPath("$.[*].synopsis").value(hasItem(DEFAULT_SYNOPSIS)))
             .andExpect(jsonPath("$.[*].views").value(hasItem(DEFAULT_VIEWS)))
             .andExpect(jsonPath("$.[*].coverContentType").value(hasItem(DEFAULT_COVER_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].cover").value(hasItem(Base64Utils.encodeToString(DEFAULT_COVER))))
+            .andExpect(jsonPath("$.[*].coverHash").value(hasItem(DEFAULT_COVER_HASH)))
+            .andExpect(jsonPath("$.[*].cover").doesNotExist())
             .andExpect(jsonPath("$.[*].reviews").value(hasItem(DEFAULT_REVIEWS.intValue())))
             .andExpect(jsonPath("$.[*].gender").value(hasItem(DEFAULT_GENDER.toString())))
             .andExpect(jsonPath("$.[*].filmType").value(hasItem(DEFAULT_FILM_TYPE.toString())))
@@ -955,6 +1180,357 @@ class FilmResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void getFilmCover() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+        blobStore.save(DEFAULT_COVER);
+
+        // Get the cover of the film
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/cover", film.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(DEFAULT_COVER_CONTENT_TYPE))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + DEFAULT_COVER_HASH + "\""))
+            .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, String.valueOf(DEFAULT_COVER.length)))
+            .andExpect(content().bytes(DEFAULT_COVER));
+    }
+
+    @Test
+    @Transactional
+    void getFilmCoverRange() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+        blobStore.save(DEFAULT_COVER);
+
+        // Get the first byte of the cover
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/cover", film.getId()).header(HttpHeaders.RANGE, "bytes=0-0"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-0/" + DEFAULT_COVER.length))
+            .andExpect(content().bytes(new byte[] { DEFAULT_COVER[0] }));
+    }
+
+    @Test
+    @Transactional
+    void getFilmCoverNotModified() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+        blobStore.save(DEFAULT_COVER);
+
+        // Revalidate the cover with its ETag
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/cover", film.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"" + DEFAULT_COVER_HASH + "\""))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingFilmCover() throws Exception {
+        // Get the cover of a film without cover bytes
+        filmRepository.saveAndFlush(film.coverHash(null));
+
+        restFilmMockMvc.perform(get(ENTITY_API_URL_ID + "/cover", film.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void deleteFilmCover() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+
+        // Remove the cover of the film
+        restFilmMockMvc.perform(delete(ENTITY_API_URL_ID + "/cover", film.getId())).andExpect(status().isNoContent());
+
+        // Validate the Film in the database
+        Film testFilm = filmRepository.findById(film.getId()).orElseThrow();
+        assertThat(testFilm.getCoverHash()).isNull();
+        assertThat(testFilm.getCoverContentType()).isNull();
+        restFilmMockMvc.perform(get(ENTITY_API_URL_ID + "/cover", film.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void deleteNonExistingFilmCover() throws Exception {
+        restFilmMockMvc.perform(delete(ENTITY_API_URL_ID + "/cover", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void streamFilm() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+        writeMedia(DEFAULT_URL, DEFAULT_MEDIA);
+
+        // Stream the media of the film
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/stream", film.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, String.valueOf(DEFAULT_MEDIA.length)))
+            .andExpect(content().bytes(DEFAULT_MEDIA));
+    }
+
+    @Test
+    @Transactional
+    void streamFilmRange() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+        writeMedia(DEFAULT_URL, DEFAULT_MEDIA);
+
+        // Stream the last 4 bytes of the media
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/stream", film.getId()).header(HttpHeaders.RANGE, "bytes=-4"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 12-15/16"))
+            .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "4"))
+            .andExpect(content().bytes(Arrays.copyOfRange(DEFAULT_MEDIA, 12, 16)));
+    }
+
+    @Test
+    @Transactional
+    void streamFilmMultipleRanges() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+        writeMedia(DEFAULT_URL, DEFAULT_MEDIA);
+
+        // Stream two ranges of the media
+        String body = restFilmMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/stream", film.getId()).header(HttpHeaders.RANGE, "bytes=0-1,4-5"))
+            .andExpect(status().isPartialContent())
+            .andExpect(content().contentTypeCompatibleWith("multipart/byteranges"))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        assertThat(body)
+            .contains("Content-Range: bytes 0-1/16\r\n\r\nAB")
+            .contains("Content-Range: bytes 4-5/16\r\n\r\nEF")
+            .endsWith("--");
+    }
+
+    @Test
+    @Transactional
+    void streamFilmIfRangeMismatch() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+        writeMedia(DEFAULT_URL, DEFAULT_MEDIA);
+
+        // A range conditional on an outdated ETag gets the whole media
+        restFilmMockMvc
+            .perform(
+                get(ENTITY_API_URL_ID + "/stream", film.getId())
+                    .header(HttpHeaders.RANGE, "bytes=0-1")
+                    .header(HttpHeaders.IF_RANGE, "\"0-0\"")
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().bytes(DEFAULT_MEDIA));
+    }
+
+    @Test
+    @Transactional
+    void streamFilmRangeNotSatisfiable() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+        writeMedia(DEFAULT_URL, DEFAULT_MEDIA);
+
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/stream", film.getId()).header(HttpHeaders.RANGE, "bytes=16-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */16"));
+    }
+
+    @Test
+    @Transactional
+    void streamNonExistingFilmMedia() throws Exception {
+        // Films without url, or with a url outside of the media directory, have no media
+        filmRepository.saveAndFlush(film.url(null));
+        restFilmMockMvc.perform(get(ENTITY_API_URL_ID + "/stream", film.getId())).andExpect(status().isNotFound());
+
+        filmRepository.saveAndFlush(film.url("../" + DEFAULT_URL));
+        restFilmMockMvc.perform(get(ENTITY_API_URL_ID + "/stream", film.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingFilmHlsPlaylist() throws Exception {
+        // Only MPEG-TS media are delivered with HLS
+        filmRepository.saveAndFlush(film);
+        writeMedia(DEFAULT_URL, DEFAULT_MEDIA);
+
+        restFilmMockMvc.perform(get(ENTITY_API_URL_ID + "/hls/master.m3u8", film.getId())).andExpect(status().isNotFound());
+        restFilmMockMvc.perform(get(ENTITY_API_URL_ID + "/hls/0-0/media.m3u8", film.getId())).andExpect(status().isNotFound());
+        restFilmMockMvc.perform(get(ENTITY_API_URL_ID + "/hls/0-0/0.ts", film.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void streamFilmWithSignedUrl() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+        writeMedia(DEFAULT_URL, DEFAULT_MEDIA);
+
+        // Get the signed stream URLs of the film
+        String playback = restFilmMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/playback", film.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.streamUrl").value(startsWith("/api/signed/")))
+            .andExpect(jsonPath("$.hlsUrl").value(endsWith("/films/" + film.getId() + "/hls/master.m3u8")))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        String streamUrl = JsonPath.read(playback, "$.streamUrl");
+
+        // Stream the last 4 bytes of the media through the signed URL
+        restFilmMockMvc
+            .perform(get(streamUrl).header(HttpHeaders.RANGE, "bytes=-4"))
+            .andExpect(status().isPartialContent())
+            .andExpect(content().bytes(Arrays.copyOfRange(DEFAULT_MEDIA, DEFAULT_MEDIA.length - 4, DEFAULT_MEDIA.length)));
+
+        // The signature is bound to the film
+        restFilmMockMvc.perform(get(streamUrl.replace("/films/" + film.getId() + "/", "/films/0/"))).andExpect(status().isForbidden());
+        restFilmMockMvc.perform(get(streamUrl.replace("/stream", "/cover"))).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingFilmPlayback() throws Exception {
+        filmRepository.saveAndFlush(film);
+
+        restFilmMockMvc.perform(get(ENTITY_API_URL_ID + "/playback", film.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void viewFilm() throws Exception {
+        filmRepository.saveAndFlush(film);
+
+        restFilmMockMvc.perform(post(ENTITY_API_URL_ID + "/view", film.getId())).andExpect(status().isAccepted());
+        restFilmMockMvc.perform(post(ENTITY_API_URL_ID + "/view", film.getId())).andExpect(status().isAccepted());
+        filmViewService.flush();
+
+        em.clear();
+        assertThat(filmRepository.findById(film.getId()))
+            .hasValueSatisfying(viewed -> assertThat(viewed.getViews()).isEqualTo(DEFAULT_VIEWS + 2));
+    }
+
+    @Test
+    @Transactional
+    void getTrendingFilms() throws Exception {
+        filmRepository.saveAndFlush(film);
+
+        restFilmMockMvc.perform(post(ENTITY_API_URL_ID + "/view", film.getId())).andExpect(status().isAccepted());
+
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL + "/trending?window=1h"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(film.getId().intValue())));
+        restFilmMockMvc.perform(get(ENTITY_API_URL + "/trending?window=1y")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getFilmAudience() throws Exception {
+        filmRepository.saveAndFlush(film);
+
+        restFilmMockMvc.perform(post(ENTITY_API_URL_ID + "/view", film.getId())).andExpect(status().isAccepted());
+        restFilmMockMvc.perform(post(ENTITY_API_URL_ID + "/view", film.getId())).andExpect(status().isAccepted());
+        restFilmMockMvc
+            .perform(post(ENTITY_API_URL_ID + "/view", film.getId()).with(user("other-user")))
+            .andExpect(status().isAccepted());
+
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/audience?period=week", film.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.filmId").value(film.getId().intValue()))
+            .andExpect(jsonPath("$.viewers").value(2));
+        // Once stored
+        filmAudienceService.flush();
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/audience?period=day", film.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.viewers").value(2));
+        restFilmMockMvc.perform(get(ENTITY_API_URL_ID + "/audience?period=year", film.getId())).andExpect(status().isBadRequest());
+        restFilmMockMvc.perform(get(ENTITY_API_URL_ID + "/audience", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void searchFilms() throws Exception {
+        filmRepository.saveAndFlush(film.title("Le Fabuleux Destin d'Amélie Poulain").synopsis("Amélie changes the lives of others"));
+        Film otherFilm = createEntity(em).title("Delicatessen").synopsis("A comedy by the director of Amélie");
+        filmRepository.saveAndFlush(otherFilm);
+
+        filmSearchService.rebuild();
+        restFilmMockMvc
+            .perform(get("/api/_search/films?q=AMELIE"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(film.getId().intValue(), otherFilm.getId().intValue())));
+        restFilmMockMvc
+            .perform(get("/api/_search/films?q=delicatessen"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(otherFilm.getId().intValue())));
+        restFilmMockMvc.perform(get("/api/_search/films?q=zzzz")).andExpect(status().isOk()).andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    void getFilmViewsSeries() throws Exception {
+        filmRepository.saveAndFlush(film);
+        LocalDateTime hour = LocalDateTime.of(2026, 10, 18, 9, 0);
+        insertPlaybackEvent(PlaybackEventType.START, hour.plusMinutes(10));
+        insertPlaybackEvent(PlaybackEventType.HEARTBEAT, hour.plusMinutes(20));
+        insertPlaybackEvent(PlaybackEventType.START, hour.plusMinutes(50));
+        insertPlaybackEvent(PlaybackEventType.START, hour.plusMinutes(65));
+        // Counted in the views of the film only
+        restFilmMockMvc.perform(post(ENTITY_API_URL_ID + "/view", film.getId())).andExpect(status().isAccepted());
+        filmViewService.flush();
+
+        filmViewRollupService.rollUp();
+        restFilmMockMvc
+            .perform(
+                get(ENTITY_API_URL_ID + "/views/series?from=2026-10-18T08:30:00Z&to=2026-10-18T11:00:00Z&step=hour", film.getId())
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].time").value(contains("2026-10-18T08:00:00Z", "2026-10-18T09:00:00Z", "2026-10-18T10:00:00Z")))
+            .andExpect(jsonPath("$.[*].views").value(contains(0, 2, 1)));
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/views/series?from=2026-10-17T00:00:00Z&to=2026-10-19T00:00:00Z&step=day", film.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].views").value(contains(0, 3)));
+
+        // Aggregated once
+        filmViewRollupService.rollUp();
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/views/series?from=2026-10-18T00:00:00Z&to=2026-10-18T12:00:00Z&step=day", film.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].views").value(contains(3)));
+        restFilmMockMvc.perform(get(ENTITY_API_URL_ID + "/views/series?step=week", film.getId())).andExpect(status().isBadRequest());
+        restFilmMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/views/series?from=2000-01-01T00:00:00Z&step=hour", film.getId()))
+            .andExpect(status().isBadRequest());
+        restFilmMockMvc.perform(get(ENTITY_API_URL_ID + "/views/series", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    private void insertPlaybackEvent(PlaybackEventType type, LocalDateTime createdDate) {
+        jdbcTemplate.update(
+            "INSERT INTO playback_event (user_login, event_type, film_id, created_date) VALUES (?, ?, ?, ?)",
+            "user",
+            type.name(),
+            film.getId(),
+            createdDate
+        );
+    }
+
+    @Test
+    @Transactional
+    void viewNonExistingFilm() throws Exception {
+        restFilmMockMvc.perform(post(ENTITY_API_URL_ID + "/view", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void getNonExistingFilm() throws Exception {
@@ -978,7 +1554,6 @@ class FilmResourceIT {
             .title(UPDATED_TITLE)
             .synopsis(UPDATED_SYNOPSIS)
             .views(UPDATED_VIEWS)
-            .cover(UPDATED_COVER)
             .coverContentType(UPDATED_COVER_CONTENT_TYPE)
             .reviews(UPDATED_REVIEWS)
             .gender(UPDATED_GENDER)
@@ -986,6 +1561,7 @@ class FilmResourceIT {
             .order(UPDATED_ORDER)
             .url(UPDATED_URL);
         FilmDTO filmDTO = filmMapper.toDto(updatedFilm);
+        filmDTO.setCover(UPDATED_COVER);
 
         restFilmMockMvc
             .perform(
@@ -1001,10 +1577,12 @@ class FilmResourceIT {
         Film testFilm = filmList.get(filmList.size() - 1);
         assertThat(testFilm.getTitle()).isEqualTo(UPDATED_TITLE);
         assertThat(testFilm.getSynopsis()).isEqualTo(UPDATED_SYNOPSIS);
-        assertThat(testFilm.getViews()).isEqualTo(UPDATED_VIEWS);
-        assertThat(testFilm.getCover()).isEqualTo(UPDATED_COVER);
+        // Counted, never updated
+        assertThat(testFilm.getViews()).isEqualTo(DEFAULT_VIEWS);
+        assertThat(testFilm.getCoverHash()).isEqualTo(UPDATED_COVER_HASH);
+        assertThat(blobStore.find(testFilm.getCoverHash()).orElseThrow().getInputStream()).hasBinaryContent(UPDATED_COVER);
         assertThat(testFilm.getCoverContentType()).isEqualTo(UPDATED_COVER_CONTENT_TYPE);
-        assertThat(testFilm.getReviews()).isEqualTo(UPDATED_REVIEWS);
+        assertThat(testFilm.getReviews()).isEqualTo(DEFAULT_REVIEWS);
         assertThat(testFilm.getGender()).isEqualTo(UPDATED_GENDER);
         assertThat(testFilm.getFilmType()).isEqualTo(UPDATED_FILM_TYPE);
         assertThat(testFilm.getOrder()).isEqualTo(UPDATED_ORDER);
@@ -1104,10 +1682,11 @@ class FilmResourceIT {
         Film testFilm = filmList.get(filmList.size() - 1);
         assertThat(testFilm.getTitle()).isEqualTo(DEFAULT_TITLE);
         assertThat(testFilm.getSynopsis()).isEqualTo(DEFAULT_SYNOPSIS);
-        assertThat(testFilm.getViews()).isEqualTo(UPDATED_VIEWS);
-        assertThat(testFilm.getCover()).isEqualTo(DEFAULT_COVER);
+        // Counted, never updated
+        assertThat(testFilm.getViews()).isEqualTo(DEFAULT_VIEWS);
+        assertThat(testFilm.getCoverHash()).isEqualTo(DEFAULT_COVER_HASH);
         assertThat(testFilm.getCoverContentType()).isEqualTo(DEFAULT_COVER_CONTENT_TYPE);
-        assertThat(testFilm.getReviews()).isEqualTo(UPDATED_REVIEWS);
+        assertThat(testFilm.getReviews()).isEqualTo(DEFAULT_REVIEWS);
         assertThat(testFilm.getGender()).isEqualTo(UPDATED_GENDER);
         assertThat(testFilm.getFilmType()).isEqualTo(DEFAULT_FILM_TYPE);
         assertThat(testFilm.getOrder()).isEqualTo(UPDATED_ORDER);
@@ -1130,7 +1709,6 @@ class FilmResourceIT {
             .title(UPDATED_TITLE)
             .synopsis(UPDATED_SYNOPSIS)
             .views(UPDATED_VIEWS)
-            .cover(UPDATED_COVER)
             .coverContentType(UPDATED_COVER_CONTENT_TYPE)
             .reviews(UPDATED_REVIEWS)
             .gender(UPDATED_GENDER)
@@ -1138,11 +1716,14 @@ class FilmResourceIT {
             .order(UPDATED_ORDER)
             .url(UPDATED_URL);
 
+        FilmDTO partialUpdatedFilmDTO = filmMapper.toDto(partialUpdatedFilm);
+        partialUpdatedFilmDTO.setCover(UPDATED_COVER);
+
         restFilmMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, partialUpdatedFilm.getId())
                     .contentType("application/merge-patch+json")
-                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedFilm))
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedFilmDTO))
             )
             .andExpect(status().isOk());
 
@@ -1152,10 +1733,12 @@ class FilmResourceIT {
         Film testFilm = filmList.get(filmList.size() - 1);
         assertThat(testFilm.getTitle()).isEqualTo(UPDATED_TITLE);
         assertThat(testFilm.getSynopsis()).isEqualTo(UPDATED_SYNOPSIS);
-        assertThat(testFilm.getViews()).isEqualTo(UPDATED_VIEWS);
-        assertThat(testFilm.getCover()).isEqualTo(UPDATED_COVER);
+        // Counted, never updated
+        assertThat(testFilm.getViews()).isEqualTo(DEFAULT_VIEWS);
+        assertThat(testFilm.getCoverHash()).isEqualTo(UPDATED_COVER_HASH);
+        assertThat(blobStore.find(testFilm.getCoverHash()).orElseThrow().getInputStream()).hasBinaryContent(UPDATED_COVER);
         assertThat(testFilm.getCoverContentType()).isEqualTo(UPDATED_COVER_CONTENT_TYPE);
-        assertThat(testFilm.getReviews()).isEqualTo(UPDATED_REVIEWS);
+        assertThat(testFilm.getReviews()).isEqualTo(DEFAULT_REVIEWS);
         assertThat(testFilm.getGender()).isEqualTo(UPDATED_GENDER);
         assertThat(testFilm.getFilmType()).isEqualTo(UPDATED_FILM_TYPE);
         assertThat(testFilm.getOrder()).isEqualTo(UPDATED_ORDER);
@@ -1244,4 +1827,25 @@ class FilmResourceIT {
         List<Film> filmList = filmRepository.findAll();
         assertThat(filmList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void deleteFilmWithReviews() throws Exception {
+        // Initialize the database
+        filmRepository.saveAndFlush(film);
+        jdbcTemplate.update(
+            "INSERT INTO film_review (film_id, user_login, rating, created_date, last_modified_date) VALUES (?, 'user', 4, now(), now())",
+            film.getId()
+        );
+
+        // Delete the film
+        restFilmMockMvc
+            .perform(delete(ENTITY_API_URL_ID, film.getId()).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNoContent());
+        filmRepository.flush();
+
+        // Validate its reviews are deleted with it
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM film_review WHERE film_id = ?", Integer.class, film.getId()))
+            .isZero();
+    }
 }
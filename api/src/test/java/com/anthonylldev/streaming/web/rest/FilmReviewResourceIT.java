@@ -0,0 +1,192 @@
+package com.anthonylldev.streaming.web.rest;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.anthonylldev.streaming.IntegrationTest;
+import com.anthonylldev.streaming.domain.Film;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link FilmReviewResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(FilmReviewResourceIT.LOGIN)
+class FilmReviewResourceIT {
+
+    static final String LOGIN = "film-review-user";
+
+    private static final String ENTITY_API_URL_ID = "/api/films/{filmId}/review";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restFilmReviewMockMvc;
+
+    private Film film;
+
+    @BeforeEach
+    public void initTest() {
+        film = FilmResourceIT.createEntity(em);
+    }
+
+    @Test
+    @Transactional
+    void updateFilmReview() throws Exception {
+        em.persist(film);
+        em.flush();
+
+        restFilmReviewMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, film.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"rating\":4,\"content\":\"Great\"}")
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.filmId").value(film.getId().intValue()))
+            .andExpect(jsonPath("$.login").value(LOGIN))
+            .andExpect(jsonPath("$.rating").value(4))
+            .andExpect(jsonPath("$.content").value("Great"));
+        restFilmReviewMockMvc
+            .perform(get(ENTITY_API_URL_ID, film.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rating").value(4));
+
+        // The review replaces the previous one
+        restFilmReviewMockMvc
+            .perform(put(ENTITY_API_URL_ID, film.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"rating\":2}"))
+            .andExpect(status().isOk());
+        review(film, "other-user", 5);
+
+        restFilmReviewMockMvc
+            .perform(get("/api/films/{filmId}/ratings", film.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(2))
+            .andExpect(jsonPath("$.histogram").value(contains(0, 1, 0, 0, 1)))
+            .andExpect(jsonPath("$.mean").value(3.5))
+            .andExpect(jsonPath("$.standardDeviation").value(1.5))
+            .andExpect(jsonPath("$.score").value(closeTo(37.0 / 12, 0.0001)));
+
+        em.clear();
+        restFilmReviewMockMvc
+            .perform(get("/api/films/{id}", film.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.reviews").value(film.getReviews().intValue() + 2))
+            .andExpect(jsonPath("$.ratingCount").value(2))
+            .andExpect(jsonPath("$.ratingMean").value(3.5));
+    }
+
+    @Test
+    @Transactional
+    void updateFilmReviewWithInvalidRating() throws Exception {
+        em.persist(film);
+        em.flush();
+
+        restFilmReviewMockMvc
+            .perform(put(ENTITY_API_URL_ID, film.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"rating\":6}"))
+            .andExpect(status().isBadRequest());
+        restFilmReviewMockMvc
+            .perform(put(ENTITY_API_URL_ID, film.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"content\":\"Great\"}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void updateFilmReviewOfNonExistingFilm() throws Exception {
+        restFilmReviewMockMvc
+            .perform(put(ENTITY_API_URL_ID, Long.MAX_VALUE).contentType(MediaType.APPLICATION_JSON).content("{\"rating\":4}"))
+            .andExpect(status().isNotFound());
+        restFilmReviewMockMvc.perform(get("/api/films/{filmId}/reviews", Long.MAX_VALUE)).andExpect(status().isNotFound());
+        restFilmReviewMockMvc.perform(get("/api/films/{filmId}/ratings", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void deleteFilmReview() throws Exception {
+        em.persist(film);
+        em.flush();
+        review(film, LOGIN, 1);
+        review(film, "other-user", 5);
+
+        restFilmReviewMockMvc.perform(delete(ENTITY_API_URL_ID, film.getId())).andExpect(status().isNoContent());
+        restFilmReviewMockMvc.perform(delete(ENTITY_API_URL_ID, film.getId())).andExpect(status().isNotFound());
+        restFilmReviewMockMvc.perform(get(ENTITY_API_URL_ID, film.getId())).andExpect(status().isNotFound());
+
+        restFilmReviewMockMvc
+            .perform(get("/api/films/{filmId}/ratings", film.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(1))
+            .andExpect(jsonPath("$.histogram").value(contains(0, 0, 0, 0, 1)))
+            .andExpect(jsonPath("$.mean").value(5.0));
+    }
+
+    @Test
+    @Transactional
+    void getAllFilmReviews() throws Exception {
+        em.persist(film);
+        em.flush();
+        review(film, "first-user", 3);
+        review(film, "second-user", 4);
+        review(film, "third-user", 5);
+        // Reviewed a minute apart, in order
+        jdbcTemplate.update(
+            "UPDATE film_review SET last_modified_date = last_modified_date - (3 - rating) * interval '1 minute' WHERE film_id = ?",
+            film.getId()
+        );
+
+        restFilmReviewMockMvc
+            .perform(get("/api/films/{filmId}/reviews?page=0&size=2", film.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(jsonPath("$.[*].login").value(contains("third-user", "second-user")));
+    }
+
+    @Test
+    @Transactional
+    void getAllFilmsSortedByRating() throws Exception {
+        em.persist(film);
+        Film otherFilm = FilmResourceIT.createEntity(em);
+        em.persist(otherFilm);
+        Film unratedFilm = FilmResourceIT.createEntity(em);
+        em.persist(unratedFilm);
+        em.flush();
+        review(film, "first-user", 2);
+        review(otherFilm, "first-user", 5);
+        review(otherFilm, "second-user", 4);
+
+        em.clear();
+        String ids = film.getId() + "," + otherFilm.getId() + "," + unratedFilm.getId();
+        restFilmReviewMockMvc
+            .perform(get("/api/films?id.in=" + ids + "&sort=ratingScore,desc"))
+            .andExpect(status().isOk())
+            .andExpect(
+                jsonPath("$.[*].id").value(contains(otherFilm.getId().intValue(), unratedFilm.getId().intValue(), film.getId().intValue()))
+            );
+    }
+
+    private void review(Film film, String login, int rating) throws Exception {
+        restFilmReviewMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, film.getId())
+                    .with(user(login))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"rating\":" + rating + "}")
+            )
+            .andExpect(status().isOk());
+    }
+}
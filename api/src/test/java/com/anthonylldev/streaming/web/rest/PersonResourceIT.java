@@ -1,6 +1,7 @@
 package com.anthonylldev.streaming.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -9,9 +10,12 @@ import com.anthonylldev.streaming.IntegrationTest;
 import com.anthonylldev.streaming.domain.Film;
 import com.anthonylldev.streaming.domain.Person;
 import com.anthonylldev.streaming.repository.PersonRepository;
+import com.anthonylldev.streaming.service.BlobStore;
+import com.anthonylldev.streaming.service.PersonSearchService;
 import com.anthonylldev.streaming.service.criteria.PersonCriteria;
 import com.anthonylldev.streaming.service.dto.PersonDTO;
 import com.anthonylldev.streaming.service.mapper.PersonMapper;
+import com.anthonylldev.streaming.service.util.ContentHashUtil;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -20,11 +24,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.Base64Utils;
 
 /**
  * Integration tests for the {@link PersonResource} REST controller.
@@ -41,6 +45,8 @@ class PersonResourceIT {
     private static final byte[] UPDATED_COVER = TestUtil.createByteArray(1, "1");
     private static final String DEFAULT_COVER_CONTENT_TYPE = "image/jpg";
     private static final String UPDATED_COVER_CONTENT_TYPE = "image/png";
+    private static final String DEFAULT_COVER_HASH = ContentHashUtil.sha256Hex(DEFAULT_COVER);
+    private static final String UPDATED_COVER_HASH = ContentHashUtil.sha256Hex(UPDATED_COVER);
 
     private static final String ENTITY_API_URL = "/api/people";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
@@ -51,9 +57,15 @@ class PersonResourceIT {
     @Autowired
     private PersonRepository personRepository;
 
+    @Autowired
+    private BlobStore blobStore;
+
     @Autowired
     private PersonMapper personMapper;
 
+    @Autowired
+    private PersonSearchService personSearchService;
+
     @Autowired
     private EntityManager em;
 
@@ -69,7 +81,7 @@ class PersonResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static Person createEntity(EntityManager em) {
-        Person person = new Person().name(DEFAULT_NAME).cover(DEFAULT_COVER).coverContentType(DEFAULT_COVER_CONTENT_TYPE);
+        Person person = new Person().name(DEFAULT_NAME).coverContentType(DEFAULT_COVER_CONTENT_TYPE).coverHash(DEFAULT_COVER_HASH);
         return person;
     }
 
@@ -80,7 +92,7 @@ class PersonResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static Person createUpdatedEntity(EntityManager em) {
-        Person person = new Person().name(UPDATED_NAME).cover(UPDATED_COVER).coverContentType(UPDATED_COVER_CONTENT_TYPE);
+        Person person = new Person().name(UPDATED_NAME).coverContentType(UPDATED_COVER_CONTENT_TYPE);
         return person;
     }
 
@@ -95,6 +107,7 @@ class PersonResourceIT {
         int databaseSizeBeforeCreate = personRepository.findAll().size();
         // Create the Person
         PersonDTO personDTO = personMapper.toDto(person);
+        personDTO.setCover(DEFAULT_COVER);
         restPersonMockMvc
             .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(personDTO)))
             .andExpect(status().isCreated());
@@ -104,7 +117,8 @@ class PersonResourceIT {
         assertThat(personList).hasSize(databaseSizeBeforeCreate + 1);
         Person testPerson = personList.get(personList.size() - 1);
         assertThat(testPerson.getName()).isEqualTo(DEFAULT_NAME);
-        assertThat(testPerson.getCover()).isEqualTo(DEFAULT_COVER);
+        assertThat(testPerson.getCoverHash()).isEqualTo(DEFAULT_COVER_HASH);
+        assertThat(blobStore.find(testPerson.getCoverHash()).orElseThrow().getInputStream()).hasBinaryContent(DEFAULT_COVER);
         assertThat(testPerson.getCoverContentType()).isEqualTo(DEFAULT_COVER_CONTENT_TYPE);
     }
 
@@ -159,7 +173,8 @@ class PersonResourceIT {
             .andExpect(jsonPath("$.[*].id").value(hasItem(person.getId().intValue())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
             .andExpect(jsonPath("$.[*].coverContentType").value(hasItem(DEFAULT_COVER_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].cover").value(hasItem(Base64Utils.encodeToString(DEFAULT_COVER))));
+            .andExpect(jsonPath("$.[*].coverHash").value(hasItem(DEFAULT_COVER_HASH)))
+            .andExpect(jsonPath("$.[*].cover").doesNotExist());
     }
 
     @Test
@@ -176,7 +191,8 @@ class PersonResourceIT {
             .andExpect(jsonPath("$.id").value(person.getId().intValue()))
             .andExpect(jsonPath("$.name").value(DEFAULT_NAME))
             .andExpect(jsonPath("$.coverContentType").value(DEFAULT_COVER_CONTENT_TYPE))
-            .andExpect(jsonPath("$.cover").value(Base64Utils.encodeToString(DEFAULT_COVER)));
+            .andExpect(jsonPath("$.coverHash").value(DEFAULT_COVER_HASH))
+            .andExpect(jsonPath("$.cover").doesNotExist());
     }
 
     @Test
@@ -285,6 +301,24 @@ class PersonResourceIT {
         defaultPersonShouldNotBeFound("filmId.equals=" + (filmId + 1));
     }
 
+    @Test
+    @Transactional
+    void searchPeople() throws Exception {
+        personRepository.saveAndFlush(person.name("Werner Herzog"));
+        Person otherPerson = personRepository.saveAndFlush(createEntity(em).name("Werner Hertzog"));
+
+        personSearchService.rebuild();
+        restPersonMockMvc
+            .perform(get("/api/_search/people?q=Herzog"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(person.getId().intValue(), otherPerson.getId().intValue())));
+        restPersonMockMvc
+            .perform(get("/api/_search/people?q=herzgo"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(person.getId().intValue())));
+        restPersonMockMvc.perform(get("/api/_search/people?q=kinski")).andExpect(status().isOk()).andExpect(jsonPath("$").isEmpty());
+    }
+
     /**
      * Executes the search, and checks that the default entity is returned.
      */
@@ -296,7 +330,8 @@ class PersonResourceIT {
             .andExpect(jsonPath("$.[*].id").value(hasItem(person.getId().intValue())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
             .andExpect(jsonPath("$.[*].coverContentType").value(hasItem(DEFAULT_COVER_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].cover").value(hasItem(Base64Utils.encodeToString(DEFAULT_COVER))));
+            .andExpect(jsonPath("$.[*].coverHash").value(hasItem(DEFAULT_COVER_HASH)))
+            .andExpect(jsonPath("$.[*].cover").doesNotExist());
 
         // Check, that the count call also returns 1
         restPersonMockMvc
@@ -325,6 +360,82 @@ class PersonResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void getPersonCover() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+        blobStore.save(DEFAULT_COVER);
+
+        // Get the cover of the person
+        restPersonMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/cover", person.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(DEFAULT_COVER_CONTENT_TYPE))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + DEFAULT_COVER_HASH + "\""))
+            .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, String.valueOf(DEFAULT_COVER.length)))
+            .andExpect(content().bytes(DEFAULT_COVER));
+    }
+
+    @Test
+    @Transactional
+    void getPersonCoverRange() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+        blobStore.save(DEFAULT_COVER);
+
+        // Get the first byte of the cover
+        restPersonMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/cover", person.getId()).header(HttpHeaders.RANGE, "bytes=0-0"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-0/" + DEFAULT_COVER.length))
+            .andExpect(content().bytes(new byte[] { DEFAULT_COVER[0] }));
+    }
+
+    @Test
+    @Transactional
+    void getPersonCoverNotModified() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+        blobStore.save(DEFAULT_COVER);
+
+        // Revalidate the cover with its ETag
+        restPersonMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/cover", person.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"" + DEFAULT_COVER_HASH + "\""))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingPersonCover() throws Exception {
+        // Get the cover of a person without cover bytes
+        personRepository.saveAndFlush(person.coverHash(null));
+
+        restPersonMockMvc.perform(get(ENTITY_API_URL_ID + "/cover", person.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void deletePersonCover() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+
+        // Remove the cover of the person
+        restPersonMockMvc.perform(delete(ENTITY_API_URL_ID + "/cover", person.getId())).andExpect(status().isNoContent());
+
+        // Validate the Person in the database
+        Person testPerson = personRepository.findById(person.getId()).orElseThrow();
+        assertThat(testPerson.getCoverHash()).isNull();
+        assertThat(testPerson.getCoverContentType()).isNull();
+        restPersonMockMvc.perform(get(ENTITY_API_URL_ID + "/cover", person.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void deleteNonExistingPersonCover() throws Exception {
+        restPersonMockMvc.perform(delete(ENTITY_API_URL_ID + "/cover", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void getNonExistingPerson() throws Exception {
@@ -344,8 +455,9 @@ class PersonResourceIT {
         Person updatedPerson = personRepository.findById(person.getId()).get();
         // Disconnect from session so that the updates on updatedPerson are not directly saved in db
         em.detach(updatedPerson);
-        updatedPerson.name(UPDATED_NAME).cover(UPDATED_COVER).coverContentType(UPDATED_COVER_CONTENT_TYPE);
+        updatedPerson.name(UPDATED_NAME).coverContentType(UPDATED_COVER_CONTENT_TYPE);
         PersonDTO personDTO = personMapper.toDto(updatedPerson);
+        personDTO.setCover(UPDATED_COVER);
 
         restPersonMockMvc
             .perform(
@@ -360,7 +472,8 @@ class PersonResourceIT {
         assertThat(personList).hasSize(databaseSizeBeforeUpdate);
         Person testPerson = personList.get(personList.size() - 1);
         assertThat(testPerson.getName()).isEqualTo(UPDATED_NAME);
-        assertThat(testPerson.getCover()).isEqualTo(UPDATED_COVER);
+        assertThat(testPerson.getCoverHash()).isEqualTo(UPDATED_COVER_HASH);
+        assertThat(blobStore.find(testPerson.getCoverHash()).orElseThrow().getInputStream()).hasBinaryContent(UPDATED_COVER);
         assertThat(testPerson.getCoverContentType()).isEqualTo(UPDATED_COVER_CONTENT_TYPE);
     }
 
@@ -454,7 +567,7 @@ class PersonResourceIT {
         assertThat(personList).hasSize(databaseSizeBeforeUpdate);
         Person testPerson = personList.get(personList.size() - 1);
         assertThat(testPerson.getName()).isEqualTo(DEFAULT_NAME);
-        assertThat(testPerson.getCover()).isEqualTo(DEFAULT_COVER);
+        assertThat(testPerson.getCoverHash()).isEqualTo(DEFAULT_COVER_HASH);
         assertThat(testPerson.getCoverContentType()).isEqualTo(DEFAULT_COVER_CONTENT_TYPE);
     }
 
@@ -470,13 +583,16 @@ class PersonResourceIT {
         Person partialUpdatedPerson = new Person();
         partialUpdatedPerson.setId(person.getId());
 
-        partialUpdatedPerson.name(UPDATED_NAME).cover(UPDATED_COVER).coverContentType(UPDATED_COVER_CONTENT_TYPE);
+        partialUpdatedPerson.name(UPDATED_NAME).coverContentType(UPDATED_COVER_CONTENT_TYPE);
+
+        PersonDTO partialUpdatedPersonDTO = personMapper.toDto(partialUpdatedPerson);
+        partialUpdatedPersonDTO.setCover(UPDATED_COVER);
 
         restPersonMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, partialUpdatedPerson.getId())
                     .contentType("application/merge-patch+json")
-                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedPerson))
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedPersonDTO))
             )
             .andExpect(status().isOk());
 
@@ -485,7 +601,8 @@ class PersonResourceIT {
         assertThat(personList).hasSize(databaseSizeBeforeUpdate);
         Person testPerson = personList.get(personList.size() - 1);
         assertThat(testPerson.getName()).isEqualTo(UPDATED_NAME);
-        assertThat(testPerson.getCover()).isEqualTo(UPDATED_COVER);
+        assertThat(testPerson.getCoverHash()).isEqualTo(UPDATED_COVER_HASH);
+        assertThat(blobStore.find(testPerson.getCoverHash()).orElseThrow().getInputStream()).hasBinaryContent(UPDATED_COVER);
         assertThat(testPerson.getCoverContentType()).isEqualTo(UPDATED_COVER_CONTENT_TYPE);
     }
 
@@ -0,0 +1,102 @@
+package com.anthonylldev.streaming.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.anthonylldev.streaming.IntegrationTest;
+import com.anthonylldev.streaming.service.PlaybackEventService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link PlaybackEventResource} REST controller.
+ * <p>
+ * Events are written by the writer thread of {@link PlaybackEventService}, outside of the test transaction, so the
+ * events of the test user are deleted after each test instead.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(PlaybackEventResourceIT.LOGIN)
+class PlaybackEventResourceIT {
+
+    static final String LOGIN = "playback-event-user";
+
+    private static final String ENTITY_API_URL = "/api/playback-events";
+
+    @Autowired
+    private PlaybackEventService playbackEventService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc restPlaybackEventMockMvc;
+
+    @AfterEach
+    public void cleanup() {
+        jdbcTemplate.update("DELETE FROM playback_event WHERE user_login = ?", LOGIN);
+    }
+
+    @Test
+    void createPlaybackEvent() throws Exception {
+        String event = "{\"type\":\"START\",\"filmId\":1,\"position\":0}";
+        restPlaybackEventMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(event))
+            .andExpect(status().isAccepted());
+        playbackEventService.flush();
+
+        assertThat(countEvents("START")).isEqualTo(1);
+    }
+
+    @Test
+    void createPlaybackEvents() throws Exception {
+        String events =
+            "{\"type\":\"HEARTBEAT\",\"episodeId\":2,\"position\":10}\n" +
+            "{\"type\":\"HEARTBEAT\",\"episodeId\":2,\"position\":20}\n" +
+            "{\"type\":\"STOP\",\"episodeId\":2,\"position\":25}\n";
+        restPlaybackEventMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_NDJSON).content(events))
+            .andExpect(status().isAccepted());
+        playbackEventService.flush();
+
+        assertThat(countEvents("HEARTBEAT")).isEqualTo(2);
+        assertThat(countEvents("STOP")).isEqualTo(1);
+    }
+
+    @Test
+    void createInvalidPlaybackEvents() throws Exception {
+        // Of neither a film nor an episode
+        restPlaybackEventMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content("{\"type\":\"START\",\"position\":0}"))
+            .andExpect(status().isBadRequest());
+        // Without type
+        String untyped = "{\"type\":\"START\",\"filmId\":1}\n{\"filmId\":1}\n";
+        restPlaybackEventMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_NDJSON).content(untyped))
+            .andExpect(status().isBadRequest());
+        // Malformed
+        String malformed = "{\"type\":\"START\",\"filmId\":1}\n{\"type\":";
+        restPlaybackEventMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_NDJSON).content(malformed))
+            .andExpect(status().isBadRequest());
+        playbackEventService.flush();
+
+        assertThat(countEvents("START")).isZero();
+    }
+
+    private int countEvents(String type) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM playback_event WHERE user_login = ? AND event_type = ?",
+            Integer.class,
+            LOGIN,
+            type
+        );
+    }
+}
@@ -0,0 +1,78 @@
+package com.anthonylldev.streaming.web.rest;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.anthonylldev.streaming.IntegrationTest;
+import com.anthonylldev.streaming.domain.Film;
+import com.anthonylldev.streaming.domain.Person;
+import com.anthonylldev.streaming.service.SuggestService;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link SuggestResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class SuggestResourceIT {
+
+    private static final String API_URL = "/api/_suggest";
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private SuggestService suggestService;
+
+    @Autowired
+    private MockMvc restSuggestMockMvc;
+
+    @Test
+    @Transactional
+    void getSuggestions() throws Exception {
+        Person person = PersonResourceIT.createEntity(em).name("Werner Herzog");
+        em.persist(person);
+        Film remake = FilmResourceIT.createEntity(em).title("Nosferatu: Phantom der Nacht").views(100);
+        remake.addPerson(person);
+        em.persist(remake);
+        Film original = FilmResourceIT.createEntity(em).title("Nosferatu").views(1000);
+        em.persist(original);
+        Film other = FilmResourceIT.createEntity(em).title("Night on Earth").views(10);
+        em.persist(other);
+        em.flush();
+
+        suggestService.rebuild();
+        restSuggestMockMvc
+            .perform(get(API_URL + "?prefix=NOSF"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(original.getId().intValue(), remake.getId().intValue())))
+            .andExpect(jsonPath("$.[*].type").value(contains("FILM", "FILM")));
+        // By any word of the title, and limited to the most popular
+        restSuggestMockMvc
+            .perform(get(API_URL + "?prefix=n&types=film&limit=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(original.getId().intValue(), remake.getId().intValue())));
+        restSuggestMockMvc
+            .perform(get(API_URL + "?prefix=herz&types=person"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(person.getId().intValue())))
+            .andExpect(jsonPath("$.[*].text").value(contains("Werner Herzog")));
+        restSuggestMockMvc
+            .perform(get(API_URL + "?prefix=herz&types=film"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void getSuggestionsOfUnknownType() throws Exception {
+        restSuggestMockMvc.perform(get(API_URL + "?prefix=a&types=episode")).andExpect(status().isBadRequest());
+    }
+}
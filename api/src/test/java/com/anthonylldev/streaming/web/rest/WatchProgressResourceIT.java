@@ -0,0 +1,168 @@
+package com.anthonylldev.streaming.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.anthonylldev.streaming.IntegrationTest;
+import com.anthonylldev.streaming.domain.Episode;
+import com.anthonylldev.streaming.domain.Film;
+import com.anthonylldev.streaming.service.WatchProgressService;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link WatchProgressResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(WatchProgressResourceIT.LOGIN)
+class WatchProgressResourceIT {
+
+    static final String LOGIN = "watch-progress-user";
+
+    private static final String ENTITY_API_URL_ID = "/api/playback/{filmId}/position";
+
+    @Autowired
+    private WatchProgressService watchProgressService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restWatchProgressMockMvc;
+
+    private Film film;
+
+    @BeforeEach
+    public void initTest() {
+        film = FilmResourceIT.createEntity(em);
+    }
+
+    @Test
+    @Transactional
+    void updateWatchProgress() throws Exception {
+        em.persist(film);
+        em.flush();
+
+        restWatchProgressMockMvc
+            .perform(put(ENTITY_API_URL_ID, film.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"position\":120}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.filmId").value(film.getId().intValue()))
+            .andExpect(jsonPath("$.position").value(120))
+            .andExpect(jsonPath("$.lastModifiedDate").exists());
+        restWatchProgressMockMvc
+            .perform(get(ENTITY_API_URL_ID, film.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.position").value(120));
+
+        watchProgressService.flush();
+        Integer position = jdbcTemplate.queryForObject(
+            "SELECT position FROM watch_progress WHERE user_login = ? AND film_id = ?",
+            Integer.class,
+            LOGIN,
+            film.getId()
+        );
+        assertThat(position).isEqualTo(120);
+    }
+
+    @Test
+    @Transactional
+    void updateWatchProgressOfDeletedFilm() throws Exception {
+        em.persist(film);
+        Film otherFilm = FilmResourceIT.createEntity(em);
+        em.persist(otherFilm);
+        em.flush();
+
+        restWatchProgressMockMvc
+            .perform(put(ENTITY_API_URL_ID, film.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"position\":10}"))
+            .andExpect(status().isOk());
+        restWatchProgressMockMvc
+            .perform(put(ENTITY_API_URL_ID, otherFilm.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"position\":20}"))
+            .andExpect(status().isOk());
+        em.remove(film);
+        em.flush();
+
+        // The position in the deleted film is skipped, and the others are written
+        watchProgressService.flush();
+        assertThat(jdbcTemplate.queryForList("SELECT film_id FROM watch_progress WHERE user_login = ?", Long.class, LOGIN))
+            .containsExactly(otherFilm.getId());
+    }
+
+    @Test
+    @Transactional
+    void updateWatchProgressOfEpisode() throws Exception {
+        em.persist(film);
+        Episode episode = EpisodeResourceIT.createEntity(em).film(film);
+        em.persist(episode);
+        Film otherFilm = FilmResourceIT.createEntity(em);
+        em.persist(otherFilm);
+        em.flush();
+
+        String progress = "{\"position\":60,\"episodeId\":" + episode.getId() + "}";
+        restWatchProgressMockMvc
+            .perform(put(ENTITY_API_URL_ID, film.getId()).contentType(MediaType.APPLICATION_JSON).content(progress))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.episodeId").value(episode.getId().intValue()));
+        // The episode is not of the other film
+        restWatchProgressMockMvc
+            .perform(put(ENTITY_API_URL_ID, otherFilm.getId()).contentType(MediaType.APPLICATION_JSON).content(progress))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void updateWatchProgressOfNonExistingFilm() throws Exception {
+        restWatchProgressMockMvc
+            .perform(put(ENTITY_API_URL_ID, Long.MAX_VALUE).contentType(MediaType.APPLICATION_JSON).content("{\"position\":120}"))
+            .andExpect(status().isNotFound());
+        restWatchProgressMockMvc
+            .perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void getContinueWatching() throws Exception {
+        em.persist(film);
+        Film otherFilm = FilmResourceIT.createEntity(em);
+        em.persist(otherFilm);
+        em.flush();
+
+        restWatchProgressMockMvc
+            .perform(put(ENTITY_API_URL_ID, film.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"position\":10}"))
+            .andExpect(status().isOk());
+        watchProgressService.flush();
+        restWatchProgressMockMvc
+            .perform(put(ENTITY_API_URL_ID, otherFilm.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"position\":20}"))
+            .andExpect(status().isOk());
+        restWatchProgressMockMvc
+            .perform(get("/api/playback/continue-watching"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].filmId").value(otherFilm.getId().intValue()))
+            .andExpect(jsonPath("$.[1].filmId").value(film.getId().intValue()));
+
+        // Positions reported after the list is cached are applied to it
+        restWatchProgressMockMvc
+            .perform(put(ENTITY_API_URL_ID, film.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"position\":30}"))
+            .andExpect(status().isOk());
+        restWatchProgressMockMvc
+            .perform(get("/api/playback/continue-watching"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].filmId").value(film.getId().intValue()))
+            .andExpect(jsonPath("$.[0].position").value(30))
+            .andExpect(jsonPath("$.[*].filmId").value(hasItem(otherFilm.getId().intValue())));
+    }
+}
@@ -0,0 +1,66 @@
+package com.anthonylldev.streaming.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileRegionChannelTest {
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        file = directory.resolve("content.txt");
+        Files.write(file, "0123456789".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testRegionBoundsPositionAndSize() throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            FileRegionChannel region = new FileRegionChannel(channel, 3, 4);
+
+            assertThat(region.position()).isEqualTo(3);
+            assertThat(region.size()).isEqualTo(7);
+        }
+    }
+
+    @Test
+    void testTransferToStopsAtRegionEnd() throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            FileRegionChannel region = new FileRegionChannel(channel, 3, 4);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            long transferred = region.transferTo(3, 100, Channels.newChannel(out));
+
+            assertThat(transferred).isEqualTo(4);
+            assertThat(out.toString(StandardCharsets.US_ASCII)).isEqualTo("3456");
+            assertThat(region.transferTo(7, 100, Channels.newChannel(out))).isZero();
+        }
+    }
+
+    @Test
+    void testReadStopsAtRegionEnd() throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            FileRegionChannel region = new FileRegionChannel(channel, 3, 4);
+            ByteBuffer buffer = ByteBuffer.allocate(10);
+
+            assertThat(region.read(buffer)).isEqualTo(4);
+            assertThat(region.read(buffer)).isEqualTo(-1);
+            buffer.flip();
+            assertThat(StandardCharsets.US_ASCII.decode(buffer).toString()).isEqualTo("3456");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.anthonylldev.streaming.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+class ZeroCopyResourceRegionHttpMessageConverterTest {
+
+    @TempDir
+    Path directory;
+
+    private FileSystemResource resource;
+
+    private ZeroCopyResourceRegionHttpMessageConverter converter;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        Path file = directory.resolve("content.txt");
+        Files.write(file, "0123456789".getBytes(StandardCharsets.US_ASCII));
+        resource = new FileSystemResource(file);
+        converter = new ZeroCopyResourceRegionHttpMessageConverter();
+    }
+
+    @Test
+    void testSingleRegion() throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(new ResourceRegion(resource, 2, 3), MediaType.TEXT_PLAIN, outputMessage);
+
+        assertThat(outputMessage.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-4/10");
+        assertThat(outputMessage.getHeaders().getContentLength()).isEqualTo(3);
+        assertThat(outputMessage.getBodyAsString(StandardCharsets.US_ASCII)).isEqualTo("234");
+    }
+
+    @Test
+    void testRegionIsClampedToResourceLength() throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(new ResourceRegion(resource, 8, 5), MediaType.TEXT_PLAIN, outputMessage);
+
+        assertThat(outputMessage.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 8-9/10");
+        assertThat(outputMessage.getBodyAsString(StandardCharsets.US_ASCII)).isEqualTo("89");
+    }
+
+    @Test
+    void testMultipleRegions() throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        List<ResourceRegion> regions = List.of(new ResourceRegion(resource, 0, 2), new ResourceRegion(resource, 7, 3));
+
+        converter.write(regions, null, MediaType.TEXT_PLAIN, outputMessage);
+
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        assertThat(contentType.isCompatibleWith(MediaType.parseMediaType("multipart/byteranges"))).isTrue();
+        String boundary = contentType.getParameter("boundary");
+        assertThat(outputMessage.getBodyAsString(StandardCharsets.US_ASCII))
+            .isEqualTo(
+                "\r\n--" +
+                boundary +
+                "\r\nContent-Type: text/plain\r\nContent-Range: bytes 0-1/10\r\n\r\n01" +
+                "\r\n--" +
+                boundary +
+                "\r\nContent-Type: text/plain\r\nContent-Range: bytes 7-9/10\r\n\r\n789" +
+                "\r\n--" +
+                boundary +
+                "--"
+            );
+    }
+}
@@ -5,6 +5,7 @@ export interface IEpisode {
   title?: string | null;
   synopsis?: string | null;
   order?: number | null;
+  url?: string | null;
   film?: Pick<IFilm, 'id' | 'title'> | null;
 }
 
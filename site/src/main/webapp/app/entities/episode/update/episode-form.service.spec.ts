@@ -23,6 +23,7 @@ describe('Episode Form Service', () => {
             title: expect.any(Object),
             synopsis: expect.any(Object),
             order: expect.any(Object),
+            url: expect.any(Object),
             film: expect.any(Object),
           })
         );
@@ -37,6 +38,7 @@ describe('Episode Form Service', () => {
             title: expect.any(Object),
             synopsis: expect.any(Object),
             order: expect.any(Object),
+            url: expect.any(Object),
             film: expect.any(Object),
           })
         );
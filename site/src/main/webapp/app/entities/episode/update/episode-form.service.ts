@@ -21,6 +21,7 @@ type EpisodeFormGroupContent = {
   title: FormControl<IEpisode['title']>;
   synopsis: FormControl<IEpisode['synopsis']>;
   order: FormControl<IEpisode['order']>;
+  url: FormControl<IEpisode['url']>;
   film: FormControl<IEpisode['film']>;
 };
 
@@ -46,6 +47,7 @@ export class EpisodeFormService {
       }),
       synopsis: new FormControl(episodeRawValue.synopsis),
       order: new FormControl(episodeRawValue.order),
+      url: new FormControl(episodeRawValue.url),
       film: new FormControl(episodeRawValue.film),
     });
   }
@@ -9,6 +9,8 @@ export interface IFilm {
   views?: number | null;
   cover?: string | null;
   coverContentType?: string | null;
+  coverHash?: string | null;
+  coverUrl?: string | null;
   reviews?: number | null;
   gender?: Gender | null;
   filmType?: FilmType | null;
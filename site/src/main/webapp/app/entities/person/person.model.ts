@@ -5,6 +5,8 @@ export interface IPerson {
   name?: string | null;
   cover?: string | null;
   coverContentType?: string | null;
+  coverHash?: string | null;
+  coverUrl?: string | null;
   films?: Pick<IFilm, 'id'>[] | null;
 }
 